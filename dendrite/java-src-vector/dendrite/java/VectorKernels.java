@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Kernels built on the incubating Vector API. This file lives in its own source path, compiled by the :vector
+// profile with the jdk.incubator.vector module, so that the default build still targets older JDKs.
+public final class VectorKernels implements IKernels {
+
+  private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+  private static final ByteVector BIT_MASKS
+    = ByteVector.fromArray(BYTES, new byte[]{(byte)128, 64, 32, 16, 8, 4, 2, 1}, 0);
+
+  private final IKernels scalar = new Kernels.Scalar();
+
+  // The width-specialized unpacking cases already decode eight values per iteration without branches, and
+  // the Vector API has no efficient variable-width gather, so bit unpacking stays scalar.
+  @Override
+  public void unpackInts(final ByteBuffer bb, final int[] ints, final int offset, final int numOctuplets,
+                         final int width) {
+    scalar.unpackInts(bb, ints, offset, numOctuplets, width);
+  }
+
+  @Override
+  public void unpackLongs(final ByteBuffer bb, final long[] longs, final int offset, final int numOctuplets,
+                          final int width) {
+    scalar.unpackLongs(bb, longs, offset, numOctuplets, width);
+  }
+
+  @Override
+  public void unpackBooleans(final ByteBuffer bb, final boolean[] booleans, final int offset,
+                             final int numBytes) {
+    final int end = offset + 8 * numBytes;
+    for (int i=offset; i<end; i+=8) {
+      ByteVector.broadcast(BYTES, bb.get())
+        .and(BIT_MASKS)
+        .compare(VectorOperators.NE, 0)
+        .intoArray(booleans, i);
+    }
+  }
+
+  // Prefix sums are computed in log2(VLENGTH) shift-and-add steps per vector, and the running total is carried
+  // from one vector to the next.
+  @Override
+  public int decodeDeltas(final int[] deltas, final int offset, final int length, final int start,
+                          final int minDelta) {
+    final int vlen = INTS.length();
+    final int end = offset + length;
+    final int vectorEnd = offset + INTS.loopBound(length);
+    final IntVector zero = IntVector.zero(INTS);
+    int v = start;
+    int i = offset;
+    for (; i<vectorEnd; i+=vlen) {
+      IntVector sums = IntVector.fromArray(INTS, deltas, i).add(minDelta);
+      for (int shift=1; shift<vlen; shift<<=1) {
+        sums = sums.add(zero.slice(vlen - shift, sums));
+      }
+      sums = sums.add(v);
+      sums.intoArray(deltas, i);
+      v = sums.lane(vlen - 1);
+    }
+    for (; i<end; ++i) {
+      v += deltas[i] + minDelta;
+      deltas[i] = v;
+    }
+    return v;
+  }
+
+  @Override
+  public long decodeDeltas(final long[] deltas, final int offset, final int length, final long start,
+                           final long minDelta) {
+    final int vlen = LONGS.length();
+    final int end = offset + length;
+    final int vectorEnd = offset + LONGS.loopBound(length);
+    final LongVector zero = LongVector.zero(LONGS);
+    long v = start;
+    int i = offset;
+    for (; i<vectorEnd; i+=vlen) {
+      LongVector sums = LongVector.fromArray(LONGS, deltas, i).add(minDelta);
+      for (int shift=1; shift<vlen; shift<<=1) {
+        sums = sums.add(zero.slice(vlen - shift, sums));
+      }
+      sums = sums.add(v);
+      sums.intoArray(deltas, i);
+      v = sums.lane(vlen - 1);
+    }
+    for (; i<end; ++i) {
+      v += deltas[i] + minDelta;
+      deltas[i] = v;
+    }
+    return v;
+  }
+}
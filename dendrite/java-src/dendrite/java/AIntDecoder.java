@@ -24,4 +24,11 @@ public abstract class AIntDecoder extends ADecoder implements IIntDecoder {
   public Object decode() {
     return decodeInt();
   }
+
+  @Override
+  public void decodeInts(final int[] ints, final int offset, final int length) {
+    for (int i=offset; i<offset+length; ++i) {
+      ints[i] = decodeInt();
+    }
+  }
 }
@@ -26,6 +26,9 @@ import clojure.lang.PersistentList;
 import clojure.lang.PersistentVector;
 import clojure.lang.RT;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.ListIterator;
 
 public final class Assemble {
@@ -59,6 +62,14 @@ public final class Assemble {
     }
   }
 
+  public static Fn getLazyFn(Types types, Schema schema) {
+    if (schema instanceof Schema.Record) {
+      return getLazyRecordFn(types, (Schema.Record)schema);
+    } else {
+      return getFn(types, schema);
+    }
+  }
+
   private static Fn getMissingValueFn(Schema schema) {
     IFn fn = schema.fn;
     final Object v = (fn != null)? fn.invoke(null) : null;
@@ -176,8 +187,11 @@ public final class Assemble {
       fieldNames[i] = field.name;
       fieldAssemblyFns[i] = getFn(types, field.value);
     }
-    final RecordConstructorFn recordConstructorFn = getRecordConstructorFn(fieldNames, fieldAssemblyFns);
-    if (record.fn == null) {
+    return getRecordFn(record.fn, getRecordConstructorFn(fieldNames, fieldAssemblyFns));
+  }
+
+  private static Fn getRecordFn(final IFn fn, final RecordConstructorFn recordConstructorFn) {
+    if (fn == null) {
       return new Fn() {
         public Object invoke(ListIterator[] iterators) {
           IPersistentCollection rec = recordConstructorFn.invoke(iterators);
@@ -189,7 +203,6 @@ public final class Assemble {
         }
       };
     } else {
-      final IFn fn = record.fn;
       final DelayedNullValue delayedNullValue = DelayedNullValue.withFn(fn);
       return new Fn() {
         public Object invoke(ListIterator[] iterators) {
@@ -204,6 +217,190 @@ public final class Assemble {
     }
   }
 
+  private static Fn getLazyRecordFn(Types types, Schema.Record record) {
+    Schema.Field[] fields = record.fields;
+    final int n = fields.length;
+    final Keyword[] fieldNames = new Keyword[n];
+    final Fn[] fieldAssemblyFns = new Fn[n];
+    final LazyField[] lazyFields = new LazyField[n];
+    for (int i=0; i<n; ++i) {
+      Schema.Field field = fields[i];
+      fieldNames[i] = field.name;
+      fieldAssemblyFns[i] = getFn(types, field.value);
+      lazyFields[i] = LazyField.create(field.value, fieldAssemblyFns[i]);
+    }
+    final PersistentRecord.Factory factory = new PersistentRecord.Factory(fieldNames);
+    RecordConstructorFn recordConstructorFn = new RecordConstructorFn() {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public IPersistentCollection invoke(ListIterator[] iterators) {
+          Object[] vals = new Object[n];
+          for (int i=0; i<n; ++i) {
+            LazyField lazyField = lazyFields[i];
+            if (lazyField == null) {
+              Object v = fieldAssemblyFns[i].invoke(iterators);
+              vals[i] = (v == null)? PersistentRecord.UNDEFINED : v;
+            } else {
+              vals[i] = lazyField.capture(iterators);
+            }
+          }
+          return factory.create(vals);
+        }
+      };
+    return getRecordFn(record.fn, recordConstructorFn);
+  }
+
+  // A LazyField holds on to the values of all the leaf columns below a record field and only assembles them
+  // when the field is first accessed. Fields that have a fn applied to them anywhere in their sub-schema, or
+  // that contain missing fields, are not eligible since assembling them is required to know if they are nil.
+  private static final class LazyField {
+
+    private final Fn assemblyFn;
+    private final int[] columnIndices;
+    private final boolean[] isColumnRepeated;
+    private final int[] definingColumnPositions;
+    private final int[] definingDefinitionLevels;
+    private final int numIterators;
+
+    private LazyField(Fn assemblyFn, List<Schema.Column> columns, List<Schema> definingSchemas) {
+      this.assemblyFn = assemblyFn;
+      int n = columns.size();
+      this.columnIndices = new int[n];
+      this.isColumnRepeated = new boolean[n];
+      int maxColumnIndex = -1;
+      for (int i=0; i<n; ++i) {
+        Schema.Column column = columns.get(i);
+        columnIndices[i] = column.queryColumnIndex;
+        isColumnRepeated[i] = column.repetitionLevel > 0;
+        if (column.queryColumnIndex > maxColumnIndex) {
+          maxColumnIndex = column.queryColumnIndex;
+        }
+      }
+      this.numIterators = maxColumnIndex + 1;
+      int m = definingSchemas.size();
+      this.definingColumnPositions = new int[m];
+      this.definingDefinitionLevels = new int[m];
+      for (int i=0; i<m; ++i) {
+        Schema schema = definingSchemas.get(i);
+        if (schema instanceof Schema.Column) {
+          definingColumnPositions[i] = getPosition(((Schema.Column)schema).queryColumnIndex);
+          definingDefinitionLevels[i] = -1;
+        } else {
+          definingColumnPositions[i] = getPosition(((Schema.Collection)schema).leafColumnIndex);
+          definingDefinitionLevels[i] = schema.definitionLevel;
+        }
+      }
+    }
+
+    private int getPosition(int columnIndex) {
+      for (int i=0; i<columnIndices.length; ++i) {
+        if (columnIndices[i] == columnIndex) {
+          return i;
+        }
+      }
+      throw new IllegalStateException(String.format("Column %d is not in this field", columnIndex));
+    }
+
+    static LazyField create(Schema schema, Fn assemblyFn) {
+      List<Schema.Column> columns = new ArrayList<Schema.Column>();
+      List<Schema> definingSchemas = new ArrayList<Schema>();
+      if (!collectColumns(schema, false, columns, definingSchemas) || columns.isEmpty()) {
+        return null;
+      }
+      return new LazyField(assemblyFn, columns, definingSchemas);
+    }
+
+    private static boolean collectColumns(Schema schema, boolean isInCollection, List<Schema.Column> columns,
+                                          List<Schema> definingSchemas) {
+      if (schema.fn != null || schema.presence < 0) {
+        return false;
+      }
+      if (schema instanceof Schema.Column) {
+        columns.add((Schema.Column)schema);
+        if (!isInCollection) {
+          definingSchemas.add(schema);
+        }
+        return true;
+      } else if (schema instanceof Schema.Record) {
+        for (Schema.Field field : ((Schema.Record)schema).fields) {
+          if (!collectColumns(field.value, isInCollection, columns, definingSchemas)) {
+            return false;
+          }
+        }
+        return true;
+      } else /* if (schema instanceof Schema.Collection) */ {
+        Schema.Collection coll = (Schema.Collection)schema;
+        if (coll.leafColumnIndex == Schema.NO_LEAF) {
+          return false;
+        }
+        if (!isInCollection) {
+          definingSchemas.add(coll);
+        }
+        return collectColumns(coll.repeatedSchema, true, columns, definingSchemas);
+      }
+    }
+
+    Object capture(ListIterator<Object>[] iterators) {
+      final Object[] values = new Object[columnIndices.length];
+      for (int i=0; i<columnIndices.length; ++i) {
+        ListIterator<Object> iterator = iterators[columnIndices[i]];
+        values[i] = isColumnRepeated[i]? nextRecordValues(iterator) : iterator.next();
+      }
+      if (!isDefined(values)) {
+        return PersistentRecord.UNDEFINED;
+      }
+      return new PersistentRecord.LazyValue() {
+        Object compute() {
+          return assemblyFn.invoke(getIterators(values));
+        }
+      };
+    }
+
+    private boolean isDefined(Object[] values) {
+      for (int i=0; i<definingColumnPositions.length; ++i) {
+        Object v = values[definingColumnPositions[i]];
+        if (definingDefinitionLevels[i] < 0) {
+          if (v != null) {
+            return true;
+          }
+        } else if (((LeveledValue)((List<?>)v).get(0)).definitionLevel >= definingDefinitionLevels[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ListIterator<Object>[] getIterators(Object[] values) {
+      ListIterator<Object>[] iterators = (ListIterator<Object>[])new ListIterator<?>[numIterators];
+      for (int i=0; i<columnIndices.length; ++i) {
+        if (isColumnRepeated[i]) {
+          iterators[columnIndices[i]] = ((List<Object>)values[i]).listIterator();
+        } else {
+          iterators[columnIndices[i]] = Collections.singletonList(values[i]).listIterator();
+        }
+      }
+      return iterators;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> nextRecordValues(ListIterator<Object> iterator) {
+    if (iterator instanceof Bundle.RepeatedValuesIterator) {
+      return ((Bundle.RepeatedValuesIterator)iterator).nextRecordValues();
+    }
+    List<Object> values = new ArrayList<Object>();
+    values.add(iterator.next());
+    while (iterator.hasNext()) {
+      LeveledValue lv = (LeveledValue)iterator.next();
+      if (lv.repetitionLevel == 0) {
+        iterator.previous();
+        break;
+      }
+      values.add(lv);
+    }
+    return values;
+  }
+
   @SuppressWarnings("unchecked")
   private static int getNextRepetitionLevel(ListIterator[] iterators, int colIdx) {
     ListIterator<LeveledValue> i = iterators[colIdx];
@@ -0,0 +1,1666 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+// Unrolled unpackers for octuplets of bit-packed values, one per bit width. Eight values packed at width w
+// occupy exactly w bytes, so each unpacker loads its input as little-endian 64-bit words and extracts every
+// value with constant shifts and masks. This file is generated by scripts/gen_bit_packing.clj; edit the
+// generator, not the cases.
+final class BitPacking {
+
+  static void unpackInts(final ByteBuffer bb, final int[] values, final int offset, final int numOctuplets,
+                         final int width) {
+    final int end = offset + 8 * numOctuplets;
+    switch (width) {
+    case 1: for (int i=offset; i<end; i+=8) { unpackInts1(bb, values, i); } break;
+    case 2: for (int i=offset; i<end; i+=8) { unpackInts2(bb, values, i); } break;
+    case 3: for (int i=offset; i<end; i+=8) { unpackInts3(bb, values, i); } break;
+    case 4: for (int i=offset; i<end; i+=8) { unpackInts4(bb, values, i); } break;
+    case 5: for (int i=offset; i<end; i+=8) { unpackInts5(bb, values, i); } break;
+    case 6: for (int i=offset; i<end; i+=8) { unpackInts6(bb, values, i); } break;
+    case 7: for (int i=offset; i<end; i+=8) { unpackInts7(bb, values, i); } break;
+    case 8: for (int i=offset; i<end; i+=8) { unpackInts8(bb, values, i); } break;
+    case 9: for (int i=offset; i<end; i+=8) { unpackInts9(bb, values, i); } break;
+    case 10: for (int i=offset; i<end; i+=8) { unpackInts10(bb, values, i); } break;
+    case 11: for (int i=offset; i<end; i+=8) { unpackInts11(bb, values, i); } break;
+    case 12: for (int i=offset; i<end; i+=8) { unpackInts12(bb, values, i); } break;
+    case 13: for (int i=offset; i<end; i+=8) { unpackInts13(bb, values, i); } break;
+    case 14: for (int i=offset; i<end; i+=8) { unpackInts14(bb, values, i); } break;
+    case 15: for (int i=offset; i<end; i+=8) { unpackInts15(bb, values, i); } break;
+    case 16: for (int i=offset; i<end; i+=8) { unpackInts16(bb, values, i); } break;
+    case 17: for (int i=offset; i<end; i+=8) { unpackInts17(bb, values, i); } break;
+    case 18: for (int i=offset; i<end; i+=8) { unpackInts18(bb, values, i); } break;
+    case 19: for (int i=offset; i<end; i+=8) { unpackInts19(bb, values, i); } break;
+    case 20: for (int i=offset; i<end; i+=8) { unpackInts20(bb, values, i); } break;
+    case 21: for (int i=offset; i<end; i+=8) { unpackInts21(bb, values, i); } break;
+    case 22: for (int i=offset; i<end; i+=8) { unpackInts22(bb, values, i); } break;
+    case 23: for (int i=offset; i<end; i+=8) { unpackInts23(bb, values, i); } break;
+    case 24: for (int i=offset; i<end; i+=8) { unpackInts24(bb, values, i); } break;
+    case 25: for (int i=offset; i<end; i+=8) { unpackInts25(bb, values, i); } break;
+    case 26: for (int i=offset; i<end; i+=8) { unpackInts26(bb, values, i); } break;
+    case 27: for (int i=offset; i<end; i+=8) { unpackInts27(bb, values, i); } break;
+    case 28: for (int i=offset; i<end; i+=8) { unpackInts28(bb, values, i); } break;
+    case 29: for (int i=offset; i<end; i+=8) { unpackInts29(bb, values, i); } break;
+    case 30: for (int i=offset; i<end; i+=8) { unpackInts30(bb, values, i); } break;
+    case 31: for (int i=offset; i<end; i+=8) { unpackInts31(bb, values, i); } break;
+    case 32: for (int i=offset; i<end; i+=8) { unpackInts32(bb, values, i); } break;
+    default: throw new IllegalArgumentException(String.format("Invalid bit width %d", width));
+    }
+  }
+
+  private static void unpackInts1(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL);
+    values[i] = (int)(w0 & 0x1L);
+    values[i+1] = (int)((w0 >>> 1) & 0x1L);
+    values[i+2] = (int)((w0 >>> 2) & 0x1L);
+    values[i+3] = (int)((w0 >>> 3) & 0x1L);
+    values[i+4] = (int)((w0 >>> 4) & 0x1L);
+    values[i+5] = (int)((w0 >>> 5) & 0x1L);
+    values[i+6] = (int)((w0 >>> 6) & 0x1L);
+    values[i+7] = (int)((w0 >>> 7) & 0x1L);
+  }
+
+  private static void unpackInts2(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = (int)(w0 & 0x3L);
+    values[i+1] = (int)((w0 >>> 2) & 0x3L);
+    values[i+2] = (int)((w0 >>> 4) & 0x3L);
+    values[i+3] = (int)((w0 >>> 6) & 0x3L);
+    values[i+4] = (int)((w0 >>> 8) & 0x3L);
+    values[i+5] = (int)((w0 >>> 10) & 0x3L);
+    values[i+6] = (int)((w0 >>> 12) & 0x3L);
+    values[i+7] = (int)((w0 >>> 14) & 0x3L);
+  }
+
+  private static void unpackInts3(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = (int)(w0 & 0x7L);
+    values[i+1] = (int)((w0 >>> 3) & 0x7L);
+    values[i+2] = (int)((w0 >>> 6) & 0x7L);
+    values[i+3] = (int)((w0 >>> 9) & 0x7L);
+    values[i+4] = (int)((w0 >>> 12) & 0x7L);
+    values[i+5] = (int)((w0 >>> 15) & 0x7L);
+    values[i+6] = (int)((w0 >>> 18) & 0x7L);
+    values[i+7] = (int)((w0 >>> 21) & 0x7L);
+  }
+
+  private static void unpackInts4(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = (int)(w0 & 0xfL);
+    values[i+1] = (int)((w0 >>> 4) & 0xfL);
+    values[i+2] = (int)((w0 >>> 8) & 0xfL);
+    values[i+3] = (int)((w0 >>> 12) & 0xfL);
+    values[i+4] = (int)((w0 >>> 16) & 0xfL);
+    values[i+5] = (int)((w0 >>> 20) & 0xfL);
+    values[i+6] = (int)((w0 >>> 24) & 0xfL);
+    values[i+7] = (int)((w0 >>> 28) & 0xfL);
+  }
+
+  private static void unpackInts5(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = (int)(w0 & 0x1fL);
+    values[i+1] = (int)((w0 >>> 5) & 0x1fL);
+    values[i+2] = (int)((w0 >>> 10) & 0x1fL);
+    values[i+3] = (int)((w0 >>> 15) & 0x1fL);
+    values[i+4] = (int)((w0 >>> 20) & 0x1fL);
+    values[i+5] = (int)((w0 >>> 25) & 0x1fL);
+    values[i+6] = (int)((w0 >>> 30) & 0x1fL);
+    values[i+7] = (int)((w0 >>> 35) & 0x1fL);
+  }
+
+  private static void unpackInts6(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = (int)(w0 & 0x3fL);
+    values[i+1] = (int)((w0 >>> 6) & 0x3fL);
+    values[i+2] = (int)((w0 >>> 12) & 0x3fL);
+    values[i+3] = (int)((w0 >>> 18) & 0x3fL);
+    values[i+4] = (int)((w0 >>> 24) & 0x3fL);
+    values[i+5] = (int)((w0 >>> 30) & 0x3fL);
+    values[i+6] = (int)((w0 >>> 36) & 0x3fL);
+    values[i+7] = (int)((w0 >>> 42) & 0x3fL);
+  }
+
+  private static void unpackInts7(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = (int)(w0 & 0x7fL);
+    values[i+1] = (int)((w0 >>> 7) & 0x7fL);
+    values[i+2] = (int)((w0 >>> 14) & 0x7fL);
+    values[i+3] = (int)((w0 >>> 21) & 0x7fL);
+    values[i+4] = (int)((w0 >>> 28) & 0x7fL);
+    values[i+5] = (int)((w0 >>> 35) & 0x7fL);
+    values[i+6] = (int)((w0 >>> 42) & 0x7fL);
+    values[i+7] = (int)((w0 >>> 49) & 0x7fL);
+  }
+
+  private static void unpackInts8(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    values[i] = (int)(w0 & 0xffL);
+    values[i+1] = (int)((w0 >>> 8) & 0xffL);
+    values[i+2] = (int)((w0 >>> 16) & 0xffL);
+    values[i+3] = (int)((w0 >>> 24) & 0xffL);
+    values[i+4] = (int)((w0 >>> 32) & 0xffL);
+    values[i+5] = (int)((w0 >>> 40) & 0xffL);
+    values[i+6] = (int)((w0 >>> 48) & 0xffL);
+    values[i+7] = (int)((w0 >>> 56) & 0xffL);
+  }
+
+  private static void unpackInts9(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL);
+    values[i] = (int)(w0 & 0x1ffL);
+    values[i+1] = (int)((w0 >>> 9) & 0x1ffL);
+    values[i+2] = (int)((w0 >>> 18) & 0x1ffL);
+    values[i+3] = (int)((w0 >>> 27) & 0x1ffL);
+    values[i+4] = (int)((w0 >>> 36) & 0x1ffL);
+    values[i+5] = (int)((w0 >>> 45) & 0x1ffL);
+    values[i+6] = (int)((w0 >>> 54) & 0x1ffL);
+    values[i+7] = (int)(((w0 >>> 63) | (w1 << 1)) & 0x1ffL);
+  }
+
+  private static void unpackInts10(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = (int)(w0 & 0x3ffL);
+    values[i+1] = (int)((w0 >>> 10) & 0x3ffL);
+    values[i+2] = (int)((w0 >>> 20) & 0x3ffL);
+    values[i+3] = (int)((w0 >>> 30) & 0x3ffL);
+    values[i+4] = (int)((w0 >>> 40) & 0x3ffL);
+    values[i+5] = (int)((w0 >>> 50) & 0x3ffL);
+    values[i+6] = (int)(((w0 >>> 60) | (w1 << 4)) & 0x3ffL);
+    values[i+7] = (int)((w1 >>> 6) & 0x3ffL);
+  }
+
+  private static void unpackInts11(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = (int)(w0 & 0x7ffL);
+    values[i+1] = (int)((w0 >>> 11) & 0x7ffL);
+    values[i+2] = (int)((w0 >>> 22) & 0x7ffL);
+    values[i+3] = (int)((w0 >>> 33) & 0x7ffL);
+    values[i+4] = (int)((w0 >>> 44) & 0x7ffL);
+    values[i+5] = (int)(((w0 >>> 55) | (w1 << 9)) & 0x7ffL);
+    values[i+6] = (int)((w1 >>> 2) & 0x7ffL);
+    values[i+7] = (int)((w1 >>> 13) & 0x7ffL);
+  }
+
+  private static void unpackInts12(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = (int)(w0 & 0xfffL);
+    values[i+1] = (int)((w0 >>> 12) & 0xfffL);
+    values[i+2] = (int)((w0 >>> 24) & 0xfffL);
+    values[i+3] = (int)((w0 >>> 36) & 0xfffL);
+    values[i+4] = (int)((w0 >>> 48) & 0xfffL);
+    values[i+5] = (int)(((w0 >>> 60) | (w1 << 4)) & 0xfffL);
+    values[i+6] = (int)((w1 >>> 8) & 0xfffL);
+    values[i+7] = (int)((w1 >>> 20) & 0xfffL);
+  }
+
+  private static void unpackInts13(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = (int)(w0 & 0x1fffL);
+    values[i+1] = (int)((w0 >>> 13) & 0x1fffL);
+    values[i+2] = (int)((w0 >>> 26) & 0x1fffL);
+    values[i+3] = (int)((w0 >>> 39) & 0x1fffL);
+    values[i+4] = (int)(((w0 >>> 52) | (w1 << 12)) & 0x1fffL);
+    values[i+5] = (int)((w1 >>> 1) & 0x1fffL);
+    values[i+6] = (int)((w1 >>> 14) & 0x1fffL);
+    values[i+7] = (int)((w1 >>> 27) & 0x1fffL);
+  }
+
+  private static void unpackInts14(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = (int)(w0 & 0x3fffL);
+    values[i+1] = (int)((w0 >>> 14) & 0x3fffL);
+    values[i+2] = (int)((w0 >>> 28) & 0x3fffL);
+    values[i+3] = (int)((w0 >>> 42) & 0x3fffL);
+    values[i+4] = (int)(((w0 >>> 56) | (w1 << 8)) & 0x3fffL);
+    values[i+5] = (int)((w1 >>> 6) & 0x3fffL);
+    values[i+6] = (int)((w1 >>> 20) & 0x3fffL);
+    values[i+7] = (int)((w1 >>> 34) & 0x3fffL);
+  }
+
+  private static void unpackInts15(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = (int)(w0 & 0x7fffL);
+    values[i+1] = (int)((w0 >>> 15) & 0x7fffL);
+    values[i+2] = (int)((w0 >>> 30) & 0x7fffL);
+    values[i+3] = (int)((w0 >>> 45) & 0x7fffL);
+    values[i+4] = (int)(((w0 >>> 60) | (w1 << 4)) & 0x7fffL);
+    values[i+5] = (int)((w1 >>> 11) & 0x7fffL);
+    values[i+6] = (int)((w1 >>> 26) & 0x7fffL);
+    values[i+7] = (int)((w1 >>> 41) & 0x7fffL);
+  }
+
+  private static void unpackInts16(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    values[i] = (int)(w0 & 0xffffL);
+    values[i+1] = (int)((w0 >>> 16) & 0xffffL);
+    values[i+2] = (int)((w0 >>> 32) & 0xffffL);
+    values[i+3] = (int)((w0 >>> 48) & 0xffffL);
+    values[i+4] = (int)(w1 & 0xffffL);
+    values[i+5] = (int)((w1 >>> 16) & 0xffffL);
+    values[i+6] = (int)((w1 >>> 32) & 0xffffL);
+    values[i+7] = (int)((w1 >>> 48) & 0xffffL);
+  }
+
+  private static void unpackInts17(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL);
+    values[i] = (int)(w0 & 0x1ffffL);
+    values[i+1] = (int)((w0 >>> 17) & 0x1ffffL);
+    values[i+2] = (int)((w0 >>> 34) & 0x1ffffL);
+    values[i+3] = (int)(((w0 >>> 51) | (w1 << 13)) & 0x1ffffL);
+    values[i+4] = (int)((w1 >>> 4) & 0x1ffffL);
+    values[i+5] = (int)((w1 >>> 21) & 0x1ffffL);
+    values[i+6] = (int)((w1 >>> 38) & 0x1ffffL);
+    values[i+7] = (int)(((w1 >>> 55) | (w2 << 9)) & 0x1ffffL);
+  }
+
+  private static void unpackInts18(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = (int)(w0 & 0x3ffffL);
+    values[i+1] = (int)((w0 >>> 18) & 0x3ffffL);
+    values[i+2] = (int)((w0 >>> 36) & 0x3ffffL);
+    values[i+3] = (int)(((w0 >>> 54) | (w1 << 10)) & 0x3ffffL);
+    values[i+4] = (int)((w1 >>> 8) & 0x3ffffL);
+    values[i+5] = (int)((w1 >>> 26) & 0x3ffffL);
+    values[i+6] = (int)((w1 >>> 44) & 0x3ffffL);
+    values[i+7] = (int)(((w1 >>> 62) | (w2 << 2)) & 0x3ffffL);
+  }
+
+  private static void unpackInts19(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = (int)(w0 & 0x7ffffL);
+    values[i+1] = (int)((w0 >>> 19) & 0x7ffffL);
+    values[i+2] = (int)((w0 >>> 38) & 0x7ffffL);
+    values[i+3] = (int)(((w0 >>> 57) | (w1 << 7)) & 0x7ffffL);
+    values[i+4] = (int)((w1 >>> 12) & 0x7ffffL);
+    values[i+5] = (int)((w1 >>> 31) & 0x7ffffL);
+    values[i+6] = (int)(((w1 >>> 50) | (w2 << 14)) & 0x7ffffL);
+    values[i+7] = (int)((w2 >>> 5) & 0x7ffffL);
+  }
+
+  private static void unpackInts20(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = (int)(w0 & 0xfffffL);
+    values[i+1] = (int)((w0 >>> 20) & 0xfffffL);
+    values[i+2] = (int)((w0 >>> 40) & 0xfffffL);
+    values[i+3] = (int)(((w0 >>> 60) | (w1 << 4)) & 0xfffffL);
+    values[i+4] = (int)((w1 >>> 16) & 0xfffffL);
+    values[i+5] = (int)((w1 >>> 36) & 0xfffffL);
+    values[i+6] = (int)(((w1 >>> 56) | (w2 << 8)) & 0xfffffL);
+    values[i+7] = (int)((w2 >>> 12) & 0xfffffL);
+  }
+
+  private static void unpackInts21(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = (int)(w0 & 0x1fffffL);
+    values[i+1] = (int)((w0 >>> 21) & 0x1fffffL);
+    values[i+2] = (int)((w0 >>> 42) & 0x1fffffL);
+    values[i+3] = (int)(((w0 >>> 63) | (w1 << 1)) & 0x1fffffL);
+    values[i+4] = (int)((w1 >>> 20) & 0x1fffffL);
+    values[i+5] = (int)((w1 >>> 41) & 0x1fffffL);
+    values[i+6] = (int)(((w1 >>> 62) | (w2 << 2)) & 0x1fffffL);
+    values[i+7] = (int)((w2 >>> 19) & 0x1fffffL);
+  }
+
+  private static void unpackInts22(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = (int)(w0 & 0x3fffffL);
+    values[i+1] = (int)((w0 >>> 22) & 0x3fffffL);
+    values[i+2] = (int)(((w0 >>> 44) | (w1 << 20)) & 0x3fffffL);
+    values[i+3] = (int)((w1 >>> 2) & 0x3fffffL);
+    values[i+4] = (int)((w1 >>> 24) & 0x3fffffL);
+    values[i+5] = (int)(((w1 >>> 46) | (w2 << 18)) & 0x3fffffL);
+    values[i+6] = (int)((w2 >>> 4) & 0x3fffffL);
+    values[i+7] = (int)((w2 >>> 26) & 0x3fffffL);
+  }
+
+  private static void unpackInts23(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = (int)(w0 & 0x7fffffL);
+    values[i+1] = (int)((w0 >>> 23) & 0x7fffffL);
+    values[i+2] = (int)(((w0 >>> 46) | (w1 << 18)) & 0x7fffffL);
+    values[i+3] = (int)((w1 >>> 5) & 0x7fffffL);
+    values[i+4] = (int)((w1 >>> 28) & 0x7fffffL);
+    values[i+5] = (int)(((w1 >>> 51) | (w2 << 13)) & 0x7fffffL);
+    values[i+6] = (int)((w2 >>> 10) & 0x7fffffL);
+    values[i+7] = (int)((w2 >>> 33) & 0x7fffffL);
+  }
+
+  private static void unpackInts24(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    values[i] = (int)(w0 & 0xffffffL);
+    values[i+1] = (int)((w0 >>> 24) & 0xffffffL);
+    values[i+2] = (int)(((w0 >>> 48) | (w1 << 16)) & 0xffffffL);
+    values[i+3] = (int)((w1 >>> 8) & 0xffffffL);
+    values[i+4] = (int)((w1 >>> 32) & 0xffffffL);
+    values[i+5] = (int)(((w1 >>> 56) | (w2 << 8)) & 0xffffffL);
+    values[i+6] = (int)((w2 >>> 16) & 0xffffffL);
+    values[i+7] = (int)((w2 >>> 40) & 0xffffffL);
+  }
+
+  private static void unpackInts25(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL);
+    values[i] = (int)(w0 & 0x1ffffffL);
+    values[i+1] = (int)((w0 >>> 25) & 0x1ffffffL);
+    values[i+2] = (int)(((w0 >>> 50) | (w1 << 14)) & 0x1ffffffL);
+    values[i+3] = (int)((w1 >>> 11) & 0x1ffffffL);
+    values[i+4] = (int)((w1 >>> 36) & 0x1ffffffL);
+    values[i+5] = (int)(((w1 >>> 61) | (w2 << 3)) & 0x1ffffffL);
+    values[i+6] = (int)((w2 >>> 22) & 0x1ffffffL);
+    values[i+7] = (int)(((w2 >>> 47) | (w3 << 17)) & 0x1ffffffL);
+  }
+
+  private static void unpackInts26(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = (int)(w0 & 0x3ffffffL);
+    values[i+1] = (int)((w0 >>> 26) & 0x3ffffffL);
+    values[i+2] = (int)(((w0 >>> 52) | (w1 << 12)) & 0x3ffffffL);
+    values[i+3] = (int)((w1 >>> 14) & 0x3ffffffL);
+    values[i+4] = (int)(((w1 >>> 40) | (w2 << 24)) & 0x3ffffffL);
+    values[i+5] = (int)((w2 >>> 2) & 0x3ffffffL);
+    values[i+6] = (int)((w2 >>> 28) & 0x3ffffffL);
+    values[i+7] = (int)(((w2 >>> 54) | (w3 << 10)) & 0x3ffffffL);
+  }
+
+  private static void unpackInts27(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = (int)(w0 & 0x7ffffffL);
+    values[i+1] = (int)((w0 >>> 27) & 0x7ffffffL);
+    values[i+2] = (int)(((w0 >>> 54) | (w1 << 10)) & 0x7ffffffL);
+    values[i+3] = (int)((w1 >>> 17) & 0x7ffffffL);
+    values[i+4] = (int)(((w1 >>> 44) | (w2 << 20)) & 0x7ffffffL);
+    values[i+5] = (int)((w2 >>> 7) & 0x7ffffffL);
+    values[i+6] = (int)((w2 >>> 34) & 0x7ffffffL);
+    values[i+7] = (int)(((w2 >>> 61) | (w3 << 3)) & 0x7ffffffL);
+  }
+
+  private static void unpackInts28(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = (int)(w0 & 0xfffffffL);
+    values[i+1] = (int)((w0 >>> 28) & 0xfffffffL);
+    values[i+2] = (int)(((w0 >>> 56) | (w1 << 8)) & 0xfffffffL);
+    values[i+3] = (int)((w1 >>> 20) & 0xfffffffL);
+    values[i+4] = (int)(((w1 >>> 48) | (w2 << 16)) & 0xfffffffL);
+    values[i+5] = (int)((w2 >>> 12) & 0xfffffffL);
+    values[i+6] = (int)(((w2 >>> 40) | (w3 << 24)) & 0xfffffffL);
+    values[i+7] = (int)((w3 >>> 4) & 0xfffffffL);
+  }
+
+  private static void unpackInts29(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = (int)(w0 & 0x1fffffffL);
+    values[i+1] = (int)((w0 >>> 29) & 0x1fffffffL);
+    values[i+2] = (int)(((w0 >>> 58) | (w1 << 6)) & 0x1fffffffL);
+    values[i+3] = (int)((w1 >>> 23) & 0x1fffffffL);
+    values[i+4] = (int)(((w1 >>> 52) | (w2 << 12)) & 0x1fffffffL);
+    values[i+5] = (int)((w2 >>> 17) & 0x1fffffffL);
+    values[i+6] = (int)(((w2 >>> 46) | (w3 << 18)) & 0x1fffffffL);
+    values[i+7] = (int)((w3 >>> 11) & 0x1fffffffL);
+  }
+
+  private static void unpackInts30(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = (int)(w0 & 0x3fffffffL);
+    values[i+1] = (int)((w0 >>> 30) & 0x3fffffffL);
+    values[i+2] = (int)(((w0 >>> 60) | (w1 << 4)) & 0x3fffffffL);
+    values[i+3] = (int)((w1 >>> 26) & 0x3fffffffL);
+    values[i+4] = (int)(((w1 >>> 56) | (w2 << 8)) & 0x3fffffffL);
+    values[i+5] = (int)((w2 >>> 22) & 0x3fffffffL);
+    values[i+6] = (int)(((w2 >>> 52) | (w3 << 12)) & 0x3fffffffL);
+    values[i+7] = (int)((w3 >>> 18) & 0x3fffffffL);
+  }
+
+  private static void unpackInts31(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = (int)(w0 & 0x7fffffffL);
+    values[i+1] = (int)((w0 >>> 31) & 0x7fffffffL);
+    values[i+2] = (int)(((w0 >>> 62) | (w1 << 2)) & 0x7fffffffL);
+    values[i+3] = (int)((w1 >>> 29) & 0x7fffffffL);
+    values[i+4] = (int)(((w1 >>> 60) | (w2 << 4)) & 0x7fffffffL);
+    values[i+5] = (int)((w2 >>> 27) & 0x7fffffffL);
+    values[i+6] = (int)(((w2 >>> 58) | (w3 << 6)) & 0x7fffffffL);
+    values[i+7] = (int)((w3 >>> 25) & 0x7fffffffL);
+  }
+
+  private static void unpackInts32(final ByteBuffer bb, final int[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    values[i] = (int)w0;
+    values[i+1] = (int)(w0 >>> 32);
+    values[i+2] = (int)w1;
+    values[i+3] = (int)(w1 >>> 32);
+    values[i+4] = (int)w2;
+    values[i+5] = (int)(w2 >>> 32);
+    values[i+6] = (int)w3;
+    values[i+7] = (int)(w3 >>> 32);
+  }
+
+  static void unpackLongs(final ByteBuffer bb, final long[] values, final int offset, final int numOctuplets,
+                          final int width) {
+    final int end = offset + 8 * numOctuplets;
+    switch (width) {
+    case 1: for (int i=offset; i<end; i+=8) { unpackLongs1(bb, values, i); } break;
+    case 2: for (int i=offset; i<end; i+=8) { unpackLongs2(bb, values, i); } break;
+    case 3: for (int i=offset; i<end; i+=8) { unpackLongs3(bb, values, i); } break;
+    case 4: for (int i=offset; i<end; i+=8) { unpackLongs4(bb, values, i); } break;
+    case 5: for (int i=offset; i<end; i+=8) { unpackLongs5(bb, values, i); } break;
+    case 6: for (int i=offset; i<end; i+=8) { unpackLongs6(bb, values, i); } break;
+    case 7: for (int i=offset; i<end; i+=8) { unpackLongs7(bb, values, i); } break;
+    case 8: for (int i=offset; i<end; i+=8) { unpackLongs8(bb, values, i); } break;
+    case 9: for (int i=offset; i<end; i+=8) { unpackLongs9(bb, values, i); } break;
+    case 10: for (int i=offset; i<end; i+=8) { unpackLongs10(bb, values, i); } break;
+    case 11: for (int i=offset; i<end; i+=8) { unpackLongs11(bb, values, i); } break;
+    case 12: for (int i=offset; i<end; i+=8) { unpackLongs12(bb, values, i); } break;
+    case 13: for (int i=offset; i<end; i+=8) { unpackLongs13(bb, values, i); } break;
+    case 14: for (int i=offset; i<end; i+=8) { unpackLongs14(bb, values, i); } break;
+    case 15: for (int i=offset; i<end; i+=8) { unpackLongs15(bb, values, i); } break;
+    case 16: for (int i=offset; i<end; i+=8) { unpackLongs16(bb, values, i); } break;
+    case 17: for (int i=offset; i<end; i+=8) { unpackLongs17(bb, values, i); } break;
+    case 18: for (int i=offset; i<end; i+=8) { unpackLongs18(bb, values, i); } break;
+    case 19: for (int i=offset; i<end; i+=8) { unpackLongs19(bb, values, i); } break;
+    case 20: for (int i=offset; i<end; i+=8) { unpackLongs20(bb, values, i); } break;
+    case 21: for (int i=offset; i<end; i+=8) { unpackLongs21(bb, values, i); } break;
+    case 22: for (int i=offset; i<end; i+=8) { unpackLongs22(bb, values, i); } break;
+    case 23: for (int i=offset; i<end; i+=8) { unpackLongs23(bb, values, i); } break;
+    case 24: for (int i=offset; i<end; i+=8) { unpackLongs24(bb, values, i); } break;
+    case 25: for (int i=offset; i<end; i+=8) { unpackLongs25(bb, values, i); } break;
+    case 26: for (int i=offset; i<end; i+=8) { unpackLongs26(bb, values, i); } break;
+    case 27: for (int i=offset; i<end; i+=8) { unpackLongs27(bb, values, i); } break;
+    case 28: for (int i=offset; i<end; i+=8) { unpackLongs28(bb, values, i); } break;
+    case 29: for (int i=offset; i<end; i+=8) { unpackLongs29(bb, values, i); } break;
+    case 30: for (int i=offset; i<end; i+=8) { unpackLongs30(bb, values, i); } break;
+    case 31: for (int i=offset; i<end; i+=8) { unpackLongs31(bb, values, i); } break;
+    case 32: for (int i=offset; i<end; i+=8) { unpackLongs32(bb, values, i); } break;
+    case 33: for (int i=offset; i<end; i+=8) { unpackLongs33(bb, values, i); } break;
+    case 34: for (int i=offset; i<end; i+=8) { unpackLongs34(bb, values, i); } break;
+    case 35: for (int i=offset; i<end; i+=8) { unpackLongs35(bb, values, i); } break;
+    case 36: for (int i=offset; i<end; i+=8) { unpackLongs36(bb, values, i); } break;
+    case 37: for (int i=offset; i<end; i+=8) { unpackLongs37(bb, values, i); } break;
+    case 38: for (int i=offset; i<end; i+=8) { unpackLongs38(bb, values, i); } break;
+    case 39: for (int i=offset; i<end; i+=8) { unpackLongs39(bb, values, i); } break;
+    case 40: for (int i=offset; i<end; i+=8) { unpackLongs40(bb, values, i); } break;
+    case 41: for (int i=offset; i<end; i+=8) { unpackLongs41(bb, values, i); } break;
+    case 42: for (int i=offset; i<end; i+=8) { unpackLongs42(bb, values, i); } break;
+    case 43: for (int i=offset; i<end; i+=8) { unpackLongs43(bb, values, i); } break;
+    case 44: for (int i=offset; i<end; i+=8) { unpackLongs44(bb, values, i); } break;
+    case 45: for (int i=offset; i<end; i+=8) { unpackLongs45(bb, values, i); } break;
+    case 46: for (int i=offset; i<end; i+=8) { unpackLongs46(bb, values, i); } break;
+    case 47: for (int i=offset; i<end; i+=8) { unpackLongs47(bb, values, i); } break;
+    case 48: for (int i=offset; i<end; i+=8) { unpackLongs48(bb, values, i); } break;
+    case 49: for (int i=offset; i<end; i+=8) { unpackLongs49(bb, values, i); } break;
+    case 50: for (int i=offset; i<end; i+=8) { unpackLongs50(bb, values, i); } break;
+    case 51: for (int i=offset; i<end; i+=8) { unpackLongs51(bb, values, i); } break;
+    case 52: for (int i=offset; i<end; i+=8) { unpackLongs52(bb, values, i); } break;
+    case 53: for (int i=offset; i<end; i+=8) { unpackLongs53(bb, values, i); } break;
+    case 54: for (int i=offset; i<end; i+=8) { unpackLongs54(bb, values, i); } break;
+    case 55: for (int i=offset; i<end; i+=8) { unpackLongs55(bb, values, i); } break;
+    case 56: for (int i=offset; i<end; i+=8) { unpackLongs56(bb, values, i); } break;
+    case 57: for (int i=offset; i<end; i+=8) { unpackLongs57(bb, values, i); } break;
+    case 58: for (int i=offset; i<end; i+=8) { unpackLongs58(bb, values, i); } break;
+    case 59: for (int i=offset; i<end; i+=8) { unpackLongs59(bb, values, i); } break;
+    case 60: for (int i=offset; i<end; i+=8) { unpackLongs60(bb, values, i); } break;
+    case 61: for (int i=offset; i<end; i+=8) { unpackLongs61(bb, values, i); } break;
+    case 62: for (int i=offset; i<end; i+=8) { unpackLongs62(bb, values, i); } break;
+    case 63: for (int i=offset; i<end; i+=8) { unpackLongs63(bb, values, i); } break;
+    case 64: for (int i=offset; i<end; i+=8) { unpackLongs64(bb, values, i); } break;
+    default: throw new IllegalArgumentException(String.format("Invalid bit width %d", width));
+    }
+  }
+
+  private static void unpackLongs1(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1L;
+    values[i+1] = (w0 >>> 1) & 0x1L;
+    values[i+2] = (w0 >>> 2) & 0x1L;
+    values[i+3] = (w0 >>> 3) & 0x1L;
+    values[i+4] = (w0 >>> 4) & 0x1L;
+    values[i+5] = (w0 >>> 5) & 0x1L;
+    values[i+6] = (w0 >>> 6) & 0x1L;
+    values[i+7] = (w0 >>> 7) & 0x1L;
+  }
+
+  private static void unpackLongs2(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3L;
+    values[i+1] = (w0 >>> 2) & 0x3L;
+    values[i+2] = (w0 >>> 4) & 0x3L;
+    values[i+3] = (w0 >>> 6) & 0x3L;
+    values[i+4] = (w0 >>> 8) & 0x3L;
+    values[i+5] = (w0 >>> 10) & 0x3L;
+    values[i+6] = (w0 >>> 12) & 0x3L;
+    values[i+7] = (w0 >>> 14) & 0x3L;
+  }
+
+  private static void unpackLongs3(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7L;
+    values[i+1] = (w0 >>> 3) & 0x7L;
+    values[i+2] = (w0 >>> 6) & 0x7L;
+    values[i+3] = (w0 >>> 9) & 0x7L;
+    values[i+4] = (w0 >>> 12) & 0x7L;
+    values[i+5] = (w0 >>> 15) & 0x7L;
+    values[i+6] = (w0 >>> 18) & 0x7L;
+    values[i+7] = (w0 >>> 21) & 0x7L;
+  }
+
+  private static void unpackLongs4(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfL;
+    values[i+1] = (w0 >>> 4) & 0xfL;
+    values[i+2] = (w0 >>> 8) & 0xfL;
+    values[i+3] = (w0 >>> 12) & 0xfL;
+    values[i+4] = (w0 >>> 16) & 0xfL;
+    values[i+5] = (w0 >>> 20) & 0xfL;
+    values[i+6] = (w0 >>> 24) & 0xfL;
+    values[i+7] = (w0 >>> 28) & 0xfL;
+  }
+
+  private static void unpackLongs5(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fL;
+    values[i+1] = (w0 >>> 5) & 0x1fL;
+    values[i+2] = (w0 >>> 10) & 0x1fL;
+    values[i+3] = (w0 >>> 15) & 0x1fL;
+    values[i+4] = (w0 >>> 20) & 0x1fL;
+    values[i+5] = (w0 >>> 25) & 0x1fL;
+    values[i+6] = (w0 >>> 30) & 0x1fL;
+    values[i+7] = (w0 >>> 35) & 0x1fL;
+  }
+
+  private static void unpackLongs6(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fL;
+    values[i+1] = (w0 >>> 6) & 0x3fL;
+    values[i+2] = (w0 >>> 12) & 0x3fL;
+    values[i+3] = (w0 >>> 18) & 0x3fL;
+    values[i+4] = (w0 >>> 24) & 0x3fL;
+    values[i+5] = (w0 >>> 30) & 0x3fL;
+    values[i+6] = (w0 >>> 36) & 0x3fL;
+    values[i+7] = (w0 >>> 42) & 0x3fL;
+  }
+
+  private static void unpackLongs7(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fL;
+    values[i+1] = (w0 >>> 7) & 0x7fL;
+    values[i+2] = (w0 >>> 14) & 0x7fL;
+    values[i+3] = (w0 >>> 21) & 0x7fL;
+    values[i+4] = (w0 >>> 28) & 0x7fL;
+    values[i+5] = (w0 >>> 35) & 0x7fL;
+    values[i+6] = (w0 >>> 42) & 0x7fL;
+    values[i+7] = (w0 >>> 49) & 0x7fL;
+  }
+
+  private static void unpackLongs8(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffL;
+    values[i+1] = (w0 >>> 8) & 0xffL;
+    values[i+2] = (w0 >>> 16) & 0xffL;
+    values[i+3] = (w0 >>> 24) & 0xffL;
+    values[i+4] = (w0 >>> 32) & 0xffL;
+    values[i+5] = (w0 >>> 40) & 0xffL;
+    values[i+6] = (w0 >>> 48) & 0xffL;
+    values[i+7] = (w0 >>> 56) & 0xffL;
+  }
+
+  private static void unpackLongs9(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffL;
+    values[i+1] = (w0 >>> 9) & 0x1ffL;
+    values[i+2] = (w0 >>> 18) & 0x1ffL;
+    values[i+3] = (w0 >>> 27) & 0x1ffL;
+    values[i+4] = (w0 >>> 36) & 0x1ffL;
+    values[i+5] = (w0 >>> 45) & 0x1ffL;
+    values[i+6] = (w0 >>> 54) & 0x1ffL;
+    values[i+7] = ((w0 >>> 63) | (w1 << 1)) & 0x1ffL;
+  }
+
+  private static void unpackLongs10(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffL;
+    values[i+1] = (w0 >>> 10) & 0x3ffL;
+    values[i+2] = (w0 >>> 20) & 0x3ffL;
+    values[i+3] = (w0 >>> 30) & 0x3ffL;
+    values[i+4] = (w0 >>> 40) & 0x3ffL;
+    values[i+5] = (w0 >>> 50) & 0x3ffL;
+    values[i+6] = ((w0 >>> 60) | (w1 << 4)) & 0x3ffL;
+    values[i+7] = (w1 >>> 6) & 0x3ffL;
+  }
+
+  private static void unpackLongs11(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffL;
+    values[i+1] = (w0 >>> 11) & 0x7ffL;
+    values[i+2] = (w0 >>> 22) & 0x7ffL;
+    values[i+3] = (w0 >>> 33) & 0x7ffL;
+    values[i+4] = (w0 >>> 44) & 0x7ffL;
+    values[i+5] = ((w0 >>> 55) | (w1 << 9)) & 0x7ffL;
+    values[i+6] = (w1 >>> 2) & 0x7ffL;
+    values[i+7] = (w1 >>> 13) & 0x7ffL;
+  }
+
+  private static void unpackLongs12(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffL;
+    values[i+1] = (w0 >>> 12) & 0xfffL;
+    values[i+2] = (w0 >>> 24) & 0xfffL;
+    values[i+3] = (w0 >>> 36) & 0xfffL;
+    values[i+4] = (w0 >>> 48) & 0xfffL;
+    values[i+5] = ((w0 >>> 60) | (w1 << 4)) & 0xfffL;
+    values[i+6] = (w1 >>> 8) & 0xfffL;
+    values[i+7] = (w1 >>> 20) & 0xfffL;
+  }
+
+  private static void unpackLongs13(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffL;
+    values[i+1] = (w0 >>> 13) & 0x1fffL;
+    values[i+2] = (w0 >>> 26) & 0x1fffL;
+    values[i+3] = (w0 >>> 39) & 0x1fffL;
+    values[i+4] = ((w0 >>> 52) | (w1 << 12)) & 0x1fffL;
+    values[i+5] = (w1 >>> 1) & 0x1fffL;
+    values[i+6] = (w1 >>> 14) & 0x1fffL;
+    values[i+7] = (w1 >>> 27) & 0x1fffL;
+  }
+
+  private static void unpackLongs14(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffL;
+    values[i+1] = (w0 >>> 14) & 0x3fffL;
+    values[i+2] = (w0 >>> 28) & 0x3fffL;
+    values[i+3] = (w0 >>> 42) & 0x3fffL;
+    values[i+4] = ((w0 >>> 56) | (w1 << 8)) & 0x3fffL;
+    values[i+5] = (w1 >>> 6) & 0x3fffL;
+    values[i+6] = (w1 >>> 20) & 0x3fffL;
+    values[i+7] = (w1 >>> 34) & 0x3fffL;
+  }
+
+  private static void unpackLongs15(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffL;
+    values[i+1] = (w0 >>> 15) & 0x7fffL;
+    values[i+2] = (w0 >>> 30) & 0x7fffL;
+    values[i+3] = (w0 >>> 45) & 0x7fffL;
+    values[i+4] = ((w0 >>> 60) | (w1 << 4)) & 0x7fffL;
+    values[i+5] = (w1 >>> 11) & 0x7fffL;
+    values[i+6] = (w1 >>> 26) & 0x7fffL;
+    values[i+7] = (w1 >>> 41) & 0x7fffL;
+  }
+
+  private static void unpackLongs16(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffL;
+    values[i+1] = (w0 >>> 16) & 0xffffL;
+    values[i+2] = (w0 >>> 32) & 0xffffL;
+    values[i+3] = (w0 >>> 48) & 0xffffL;
+    values[i+4] = w1 & 0xffffL;
+    values[i+5] = (w1 >>> 16) & 0xffffL;
+    values[i+6] = (w1 >>> 32) & 0xffffL;
+    values[i+7] = (w1 >>> 48) & 0xffffL;
+  }
+
+  private static void unpackLongs17(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffL;
+    values[i+1] = (w0 >>> 17) & 0x1ffffL;
+    values[i+2] = (w0 >>> 34) & 0x1ffffL;
+    values[i+3] = ((w0 >>> 51) | (w1 << 13)) & 0x1ffffL;
+    values[i+4] = (w1 >>> 4) & 0x1ffffL;
+    values[i+5] = (w1 >>> 21) & 0x1ffffL;
+    values[i+6] = (w1 >>> 38) & 0x1ffffL;
+    values[i+7] = ((w1 >>> 55) | (w2 << 9)) & 0x1ffffL;
+  }
+
+  private static void unpackLongs18(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffL;
+    values[i+1] = (w0 >>> 18) & 0x3ffffL;
+    values[i+2] = (w0 >>> 36) & 0x3ffffL;
+    values[i+3] = ((w0 >>> 54) | (w1 << 10)) & 0x3ffffL;
+    values[i+4] = (w1 >>> 8) & 0x3ffffL;
+    values[i+5] = (w1 >>> 26) & 0x3ffffL;
+    values[i+6] = (w1 >>> 44) & 0x3ffffL;
+    values[i+7] = ((w1 >>> 62) | (w2 << 2)) & 0x3ffffL;
+  }
+
+  private static void unpackLongs19(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffL;
+    values[i+1] = (w0 >>> 19) & 0x7ffffL;
+    values[i+2] = (w0 >>> 38) & 0x7ffffL;
+    values[i+3] = ((w0 >>> 57) | (w1 << 7)) & 0x7ffffL;
+    values[i+4] = (w1 >>> 12) & 0x7ffffL;
+    values[i+5] = (w1 >>> 31) & 0x7ffffL;
+    values[i+6] = ((w1 >>> 50) | (w2 << 14)) & 0x7ffffL;
+    values[i+7] = (w2 >>> 5) & 0x7ffffL;
+  }
+
+  private static void unpackLongs20(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffL;
+    values[i+1] = (w0 >>> 20) & 0xfffffL;
+    values[i+2] = (w0 >>> 40) & 0xfffffL;
+    values[i+3] = ((w0 >>> 60) | (w1 << 4)) & 0xfffffL;
+    values[i+4] = (w1 >>> 16) & 0xfffffL;
+    values[i+5] = (w1 >>> 36) & 0xfffffL;
+    values[i+6] = ((w1 >>> 56) | (w2 << 8)) & 0xfffffL;
+    values[i+7] = (w2 >>> 12) & 0xfffffL;
+  }
+
+  private static void unpackLongs21(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffL;
+    values[i+1] = (w0 >>> 21) & 0x1fffffL;
+    values[i+2] = (w0 >>> 42) & 0x1fffffL;
+    values[i+3] = ((w0 >>> 63) | (w1 << 1)) & 0x1fffffL;
+    values[i+4] = (w1 >>> 20) & 0x1fffffL;
+    values[i+5] = (w1 >>> 41) & 0x1fffffL;
+    values[i+6] = ((w1 >>> 62) | (w2 << 2)) & 0x1fffffL;
+    values[i+7] = (w2 >>> 19) & 0x1fffffL;
+  }
+
+  private static void unpackLongs22(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffL;
+    values[i+1] = (w0 >>> 22) & 0x3fffffL;
+    values[i+2] = ((w0 >>> 44) | (w1 << 20)) & 0x3fffffL;
+    values[i+3] = (w1 >>> 2) & 0x3fffffL;
+    values[i+4] = (w1 >>> 24) & 0x3fffffL;
+    values[i+5] = ((w1 >>> 46) | (w2 << 18)) & 0x3fffffL;
+    values[i+6] = (w2 >>> 4) & 0x3fffffL;
+    values[i+7] = (w2 >>> 26) & 0x3fffffL;
+  }
+
+  private static void unpackLongs23(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffL;
+    values[i+1] = (w0 >>> 23) & 0x7fffffL;
+    values[i+2] = ((w0 >>> 46) | (w1 << 18)) & 0x7fffffL;
+    values[i+3] = (w1 >>> 5) & 0x7fffffL;
+    values[i+4] = (w1 >>> 28) & 0x7fffffL;
+    values[i+5] = ((w1 >>> 51) | (w2 << 13)) & 0x7fffffL;
+    values[i+6] = (w2 >>> 10) & 0x7fffffL;
+    values[i+7] = (w2 >>> 33) & 0x7fffffL;
+  }
+
+  private static void unpackLongs24(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffffL;
+    values[i+1] = (w0 >>> 24) & 0xffffffL;
+    values[i+2] = ((w0 >>> 48) | (w1 << 16)) & 0xffffffL;
+    values[i+3] = (w1 >>> 8) & 0xffffffL;
+    values[i+4] = (w1 >>> 32) & 0xffffffL;
+    values[i+5] = ((w1 >>> 56) | (w2 << 8)) & 0xffffffL;
+    values[i+6] = (w2 >>> 16) & 0xffffffL;
+    values[i+7] = (w2 >>> 40) & 0xffffffL;
+  }
+
+  private static void unpackLongs25(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffffL;
+    values[i+1] = (w0 >>> 25) & 0x1ffffffL;
+    values[i+2] = ((w0 >>> 50) | (w1 << 14)) & 0x1ffffffL;
+    values[i+3] = (w1 >>> 11) & 0x1ffffffL;
+    values[i+4] = (w1 >>> 36) & 0x1ffffffL;
+    values[i+5] = ((w1 >>> 61) | (w2 << 3)) & 0x1ffffffL;
+    values[i+6] = (w2 >>> 22) & 0x1ffffffL;
+    values[i+7] = ((w2 >>> 47) | (w3 << 17)) & 0x1ffffffL;
+  }
+
+  private static void unpackLongs26(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffffL;
+    values[i+1] = (w0 >>> 26) & 0x3ffffffL;
+    values[i+2] = ((w0 >>> 52) | (w1 << 12)) & 0x3ffffffL;
+    values[i+3] = (w1 >>> 14) & 0x3ffffffL;
+    values[i+4] = ((w1 >>> 40) | (w2 << 24)) & 0x3ffffffL;
+    values[i+5] = (w2 >>> 2) & 0x3ffffffL;
+    values[i+6] = (w2 >>> 28) & 0x3ffffffL;
+    values[i+7] = ((w2 >>> 54) | (w3 << 10)) & 0x3ffffffL;
+  }
+
+  private static void unpackLongs27(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffffL;
+    values[i+1] = (w0 >>> 27) & 0x7ffffffL;
+    values[i+2] = ((w0 >>> 54) | (w1 << 10)) & 0x7ffffffL;
+    values[i+3] = (w1 >>> 17) & 0x7ffffffL;
+    values[i+4] = ((w1 >>> 44) | (w2 << 20)) & 0x7ffffffL;
+    values[i+5] = (w2 >>> 7) & 0x7ffffffL;
+    values[i+6] = (w2 >>> 34) & 0x7ffffffL;
+    values[i+7] = ((w2 >>> 61) | (w3 << 3)) & 0x7ffffffL;
+  }
+
+  private static void unpackLongs28(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffffL;
+    values[i+1] = (w0 >>> 28) & 0xfffffffL;
+    values[i+2] = ((w0 >>> 56) | (w1 << 8)) & 0xfffffffL;
+    values[i+3] = (w1 >>> 20) & 0xfffffffL;
+    values[i+4] = ((w1 >>> 48) | (w2 << 16)) & 0xfffffffL;
+    values[i+5] = (w2 >>> 12) & 0xfffffffL;
+    values[i+6] = ((w2 >>> 40) | (w3 << 24)) & 0xfffffffL;
+    values[i+7] = (w3 >>> 4) & 0xfffffffL;
+  }
+
+  private static void unpackLongs29(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffffL;
+    values[i+1] = (w0 >>> 29) & 0x1fffffffL;
+    values[i+2] = ((w0 >>> 58) | (w1 << 6)) & 0x1fffffffL;
+    values[i+3] = (w1 >>> 23) & 0x1fffffffL;
+    values[i+4] = ((w1 >>> 52) | (w2 << 12)) & 0x1fffffffL;
+    values[i+5] = (w2 >>> 17) & 0x1fffffffL;
+    values[i+6] = ((w2 >>> 46) | (w3 << 18)) & 0x1fffffffL;
+    values[i+7] = (w3 >>> 11) & 0x1fffffffL;
+  }
+
+  private static void unpackLongs30(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffffL;
+    values[i+1] = (w0 >>> 30) & 0x3fffffffL;
+    values[i+2] = ((w0 >>> 60) | (w1 << 4)) & 0x3fffffffL;
+    values[i+3] = (w1 >>> 26) & 0x3fffffffL;
+    values[i+4] = ((w1 >>> 56) | (w2 << 8)) & 0x3fffffffL;
+    values[i+5] = (w2 >>> 22) & 0x3fffffffL;
+    values[i+6] = ((w2 >>> 52) | (w3 << 12)) & 0x3fffffffL;
+    values[i+7] = (w3 >>> 18) & 0x3fffffffL;
+  }
+
+  private static void unpackLongs31(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffffL;
+    values[i+1] = (w0 >>> 31) & 0x7fffffffL;
+    values[i+2] = ((w0 >>> 62) | (w1 << 2)) & 0x7fffffffL;
+    values[i+3] = (w1 >>> 29) & 0x7fffffffL;
+    values[i+4] = ((w1 >>> 60) | (w2 << 4)) & 0x7fffffffL;
+    values[i+5] = (w2 >>> 27) & 0x7fffffffL;
+    values[i+6] = ((w2 >>> 58) | (w3 << 6)) & 0x7fffffffL;
+    values[i+7] = (w3 >>> 25) & 0x7fffffffL;
+  }
+
+  private static void unpackLongs32(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffffffL;
+    values[i+1] = (w0 >>> 32) & 0xffffffffL;
+    values[i+2] = w1 & 0xffffffffL;
+    values[i+3] = (w1 >>> 32) & 0xffffffffL;
+    values[i+4] = w2 & 0xffffffffL;
+    values[i+5] = (w2 >>> 32) & 0xffffffffL;
+    values[i+6] = w3 & 0xffffffffL;
+    values[i+7] = (w3 >>> 32) & 0xffffffffL;
+  }
+
+  private static void unpackLongs33(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffffffL;
+    values[i+1] = ((w0 >>> 33) | (w1 << 31)) & 0x1ffffffffL;
+    values[i+2] = (w1 >>> 2) & 0x1ffffffffL;
+    values[i+3] = ((w1 >>> 35) | (w2 << 29)) & 0x1ffffffffL;
+    values[i+4] = (w2 >>> 4) & 0x1ffffffffL;
+    values[i+5] = ((w2 >>> 37) | (w3 << 27)) & 0x1ffffffffL;
+    values[i+6] = (w3 >>> 6) & 0x1ffffffffL;
+    values[i+7] = ((w3 >>> 39) | (w4 << 25)) & 0x1ffffffffL;
+  }
+
+  private static void unpackLongs34(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffffffL;
+    values[i+1] = ((w0 >>> 34) | (w1 << 30)) & 0x3ffffffffL;
+    values[i+2] = (w1 >>> 4) & 0x3ffffffffL;
+    values[i+3] = ((w1 >>> 38) | (w2 << 26)) & 0x3ffffffffL;
+    values[i+4] = (w2 >>> 8) & 0x3ffffffffL;
+    values[i+5] = ((w2 >>> 42) | (w3 << 22)) & 0x3ffffffffL;
+    values[i+6] = (w3 >>> 12) & 0x3ffffffffL;
+    values[i+7] = ((w3 >>> 46) | (w4 << 18)) & 0x3ffffffffL;
+  }
+
+  private static void unpackLongs35(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffffffL;
+    values[i+1] = ((w0 >>> 35) | (w1 << 29)) & 0x7ffffffffL;
+    values[i+2] = (w1 >>> 6) & 0x7ffffffffL;
+    values[i+3] = ((w1 >>> 41) | (w2 << 23)) & 0x7ffffffffL;
+    values[i+4] = (w2 >>> 12) & 0x7ffffffffL;
+    values[i+5] = ((w2 >>> 47) | (w3 << 17)) & 0x7ffffffffL;
+    values[i+6] = (w3 >>> 18) & 0x7ffffffffL;
+    values[i+7] = ((w3 >>> 53) | (w4 << 11)) & 0x7ffffffffL;
+  }
+
+  private static void unpackLongs36(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffffffL;
+    values[i+1] = ((w0 >>> 36) | (w1 << 28)) & 0xfffffffffL;
+    values[i+2] = (w1 >>> 8) & 0xfffffffffL;
+    values[i+3] = ((w1 >>> 44) | (w2 << 20)) & 0xfffffffffL;
+    values[i+4] = (w2 >>> 16) & 0xfffffffffL;
+    values[i+5] = ((w2 >>> 52) | (w3 << 12)) & 0xfffffffffL;
+    values[i+6] = (w3 >>> 24) & 0xfffffffffL;
+    values[i+7] = ((w3 >>> 60) | (w4 << 4)) & 0xfffffffffL;
+  }
+
+  private static void unpackLongs37(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffffffL;
+    values[i+1] = ((w0 >>> 37) | (w1 << 27)) & 0x1fffffffffL;
+    values[i+2] = (w1 >>> 10) & 0x1fffffffffL;
+    values[i+3] = ((w1 >>> 47) | (w2 << 17)) & 0x1fffffffffL;
+    values[i+4] = (w2 >>> 20) & 0x1fffffffffL;
+    values[i+5] = ((w2 >>> 57) | (w3 << 7)) & 0x1fffffffffL;
+    values[i+6] = ((w3 >>> 30) | (w4 << 34)) & 0x1fffffffffL;
+    values[i+7] = (w4 >>> 3) & 0x1fffffffffL;
+  }
+
+  private static void unpackLongs38(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffffffL;
+    values[i+1] = ((w0 >>> 38) | (w1 << 26)) & 0x3fffffffffL;
+    values[i+2] = (w1 >>> 12) & 0x3fffffffffL;
+    values[i+3] = ((w1 >>> 50) | (w2 << 14)) & 0x3fffffffffL;
+    values[i+4] = (w2 >>> 24) & 0x3fffffffffL;
+    values[i+5] = ((w2 >>> 62) | (w3 << 2)) & 0x3fffffffffL;
+    values[i+6] = ((w3 >>> 36) | (w4 << 28)) & 0x3fffffffffL;
+    values[i+7] = (w4 >>> 10) & 0x3fffffffffL;
+  }
+
+  private static void unpackLongs39(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffffffL;
+    values[i+1] = ((w0 >>> 39) | (w1 << 25)) & 0x7fffffffffL;
+    values[i+2] = (w1 >>> 14) & 0x7fffffffffL;
+    values[i+3] = ((w1 >>> 53) | (w2 << 11)) & 0x7fffffffffL;
+    values[i+4] = ((w2 >>> 28) | (w3 << 36)) & 0x7fffffffffL;
+    values[i+5] = (w3 >>> 3) & 0x7fffffffffL;
+    values[i+6] = ((w3 >>> 42) | (w4 << 22)) & 0x7fffffffffL;
+    values[i+7] = (w4 >>> 17) & 0x7fffffffffL;
+  }
+
+  private static void unpackLongs40(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffffffffL;
+    values[i+1] = ((w0 >>> 40) | (w1 << 24)) & 0xffffffffffL;
+    values[i+2] = (w1 >>> 16) & 0xffffffffffL;
+    values[i+3] = ((w1 >>> 56) | (w2 << 8)) & 0xffffffffffL;
+    values[i+4] = ((w2 >>> 32) | (w3 << 32)) & 0xffffffffffL;
+    values[i+5] = (w3 >>> 8) & 0xffffffffffL;
+    values[i+6] = ((w3 >>> 48) | (w4 << 16)) & 0xffffffffffL;
+    values[i+7] = (w4 >>> 24) & 0xffffffffffL;
+  }
+
+  private static void unpackLongs41(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffffffffL;
+    values[i+1] = ((w0 >>> 41) | (w1 << 23)) & 0x1ffffffffffL;
+    values[i+2] = (w1 >>> 18) & 0x1ffffffffffL;
+    values[i+3] = ((w1 >>> 59) | (w2 << 5)) & 0x1ffffffffffL;
+    values[i+4] = ((w2 >>> 36) | (w3 << 28)) & 0x1ffffffffffL;
+    values[i+5] = (w3 >>> 13) & 0x1ffffffffffL;
+    values[i+6] = ((w3 >>> 54) | (w4 << 10)) & 0x1ffffffffffL;
+    values[i+7] = ((w4 >>> 31) | (w5 << 33)) & 0x1ffffffffffL;
+  }
+
+  private static void unpackLongs42(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffffffffL;
+    values[i+1] = ((w0 >>> 42) | (w1 << 22)) & 0x3ffffffffffL;
+    values[i+2] = (w1 >>> 20) & 0x3ffffffffffL;
+    values[i+3] = ((w1 >>> 62) | (w2 << 2)) & 0x3ffffffffffL;
+    values[i+4] = ((w2 >>> 40) | (w3 << 24)) & 0x3ffffffffffL;
+    values[i+5] = (w3 >>> 18) & 0x3ffffffffffL;
+    values[i+6] = ((w3 >>> 60) | (w4 << 4)) & 0x3ffffffffffL;
+    values[i+7] = ((w4 >>> 38) | (w5 << 26)) & 0x3ffffffffffL;
+  }
+
+  private static void unpackLongs43(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffffffffL;
+    values[i+1] = ((w0 >>> 43) | (w1 << 21)) & 0x7ffffffffffL;
+    values[i+2] = ((w1 >>> 22) | (w2 << 42)) & 0x7ffffffffffL;
+    values[i+3] = (w2 >>> 1) & 0x7ffffffffffL;
+    values[i+4] = ((w2 >>> 44) | (w3 << 20)) & 0x7ffffffffffL;
+    values[i+5] = ((w3 >>> 23) | (w4 << 41)) & 0x7ffffffffffL;
+    values[i+6] = (w4 >>> 2) & 0x7ffffffffffL;
+    values[i+7] = ((w4 >>> 45) | (w5 << 19)) & 0x7ffffffffffL;
+  }
+
+  private static void unpackLongs44(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffffffffL;
+    values[i+1] = ((w0 >>> 44) | (w1 << 20)) & 0xfffffffffffL;
+    values[i+2] = ((w1 >>> 24) | (w2 << 40)) & 0xfffffffffffL;
+    values[i+3] = (w2 >>> 4) & 0xfffffffffffL;
+    values[i+4] = ((w2 >>> 48) | (w3 << 16)) & 0xfffffffffffL;
+    values[i+5] = ((w3 >>> 28) | (w4 << 36)) & 0xfffffffffffL;
+    values[i+6] = (w4 >>> 8) & 0xfffffffffffL;
+    values[i+7] = ((w4 >>> 52) | (w5 << 12)) & 0xfffffffffffL;
+  }
+
+  private static void unpackLongs45(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffffffffL;
+    values[i+1] = ((w0 >>> 45) | (w1 << 19)) & 0x1fffffffffffL;
+    values[i+2] = ((w1 >>> 26) | (w2 << 38)) & 0x1fffffffffffL;
+    values[i+3] = (w2 >>> 7) & 0x1fffffffffffL;
+    values[i+4] = ((w2 >>> 52) | (w3 << 12)) & 0x1fffffffffffL;
+    values[i+5] = ((w3 >>> 33) | (w4 << 31)) & 0x1fffffffffffL;
+    values[i+6] = (w4 >>> 14) & 0x1fffffffffffL;
+    values[i+7] = ((w4 >>> 59) | (w5 << 5)) & 0x1fffffffffffL;
+  }
+
+  private static void unpackLongs46(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffffffffL;
+    values[i+1] = ((w0 >>> 46) | (w1 << 18)) & 0x3fffffffffffL;
+    values[i+2] = ((w1 >>> 28) | (w2 << 36)) & 0x3fffffffffffL;
+    values[i+3] = (w2 >>> 10) & 0x3fffffffffffL;
+    values[i+4] = ((w2 >>> 56) | (w3 << 8)) & 0x3fffffffffffL;
+    values[i+5] = ((w3 >>> 38) | (w4 << 26)) & 0x3fffffffffffL;
+    values[i+6] = ((w4 >>> 20) | (w5 << 44)) & 0x3fffffffffffL;
+    values[i+7] = (w5 >>> 2) & 0x3fffffffffffL;
+  }
+
+  private static void unpackLongs47(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffffffffL;
+    values[i+1] = ((w0 >>> 47) | (w1 << 17)) & 0x7fffffffffffL;
+    values[i+2] = ((w1 >>> 30) | (w2 << 34)) & 0x7fffffffffffL;
+    values[i+3] = (w2 >>> 13) & 0x7fffffffffffL;
+    values[i+4] = ((w2 >>> 60) | (w3 << 4)) & 0x7fffffffffffL;
+    values[i+5] = ((w3 >>> 43) | (w4 << 21)) & 0x7fffffffffffL;
+    values[i+6] = ((w4 >>> 26) | (w5 << 38)) & 0x7fffffffffffL;
+    values[i+7] = (w5 >>> 9) & 0x7fffffffffffL;
+  }
+
+  private static void unpackLongs48(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffffffffffL;
+    values[i+1] = ((w0 >>> 48) | (w1 << 16)) & 0xffffffffffffL;
+    values[i+2] = ((w1 >>> 32) | (w2 << 32)) & 0xffffffffffffL;
+    values[i+3] = (w2 >>> 16) & 0xffffffffffffL;
+    values[i+4] = w3 & 0xffffffffffffL;
+    values[i+5] = ((w3 >>> 48) | (w4 << 16)) & 0xffffffffffffL;
+    values[i+6] = ((w4 >>> 32) | (w5 << 32)) & 0xffffffffffffL;
+    values[i+7] = (w5 >>> 16) & 0xffffffffffffL;
+  }
+
+  private static void unpackLongs49(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffffffffffL;
+    values[i+1] = ((w0 >>> 49) | (w1 << 15)) & 0x1ffffffffffffL;
+    values[i+2] = ((w1 >>> 34) | (w2 << 30)) & 0x1ffffffffffffL;
+    values[i+3] = ((w2 >>> 19) | (w3 << 45)) & 0x1ffffffffffffL;
+    values[i+4] = (w3 >>> 4) & 0x1ffffffffffffL;
+    values[i+5] = ((w3 >>> 53) | (w4 << 11)) & 0x1ffffffffffffL;
+    values[i+6] = ((w4 >>> 38) | (w5 << 26)) & 0x1ffffffffffffL;
+    values[i+7] = ((w5 >>> 23) | (w6 << 41)) & 0x1ffffffffffffL;
+  }
+
+  private static void unpackLongs50(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffffffffffL;
+    values[i+1] = ((w0 >>> 50) | (w1 << 14)) & 0x3ffffffffffffL;
+    values[i+2] = ((w1 >>> 36) | (w2 << 28)) & 0x3ffffffffffffL;
+    values[i+3] = ((w2 >>> 22) | (w3 << 42)) & 0x3ffffffffffffL;
+    values[i+4] = (w3 >>> 8) & 0x3ffffffffffffL;
+    values[i+5] = ((w3 >>> 58) | (w4 << 6)) & 0x3ffffffffffffL;
+    values[i+6] = ((w4 >>> 44) | (w5 << 20)) & 0x3ffffffffffffL;
+    values[i+7] = ((w5 >>> 30) | (w6 << 34)) & 0x3ffffffffffffL;
+  }
+
+  private static void unpackLongs51(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffffffffffL;
+    values[i+1] = ((w0 >>> 51) | (w1 << 13)) & 0x7ffffffffffffL;
+    values[i+2] = ((w1 >>> 38) | (w2 << 26)) & 0x7ffffffffffffL;
+    values[i+3] = ((w2 >>> 25) | (w3 << 39)) & 0x7ffffffffffffL;
+    values[i+4] = (w3 >>> 12) & 0x7ffffffffffffL;
+    values[i+5] = ((w3 >>> 63) | (w4 << 1)) & 0x7ffffffffffffL;
+    values[i+6] = ((w4 >>> 50) | (w5 << 14)) & 0x7ffffffffffffL;
+    values[i+7] = ((w5 >>> 37) | (w6 << 27)) & 0x7ffffffffffffL;
+  }
+
+  private static void unpackLongs52(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffffffffffL;
+    values[i+1] = ((w0 >>> 52) | (w1 << 12)) & 0xfffffffffffffL;
+    values[i+2] = ((w1 >>> 40) | (w2 << 24)) & 0xfffffffffffffL;
+    values[i+3] = ((w2 >>> 28) | (w3 << 36)) & 0xfffffffffffffL;
+    values[i+4] = ((w3 >>> 16) | (w4 << 48)) & 0xfffffffffffffL;
+    values[i+5] = (w4 >>> 4) & 0xfffffffffffffL;
+    values[i+6] = ((w4 >>> 56) | (w5 << 8)) & 0xfffffffffffffL;
+    values[i+7] = ((w5 >>> 44) | (w6 << 20)) & 0xfffffffffffffL;
+  }
+
+  private static void unpackLongs53(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffffffffffL;
+    values[i+1] = ((w0 >>> 53) | (w1 << 11)) & 0x1fffffffffffffL;
+    values[i+2] = ((w1 >>> 42) | (w2 << 22)) & 0x1fffffffffffffL;
+    values[i+3] = ((w2 >>> 31) | (w3 << 33)) & 0x1fffffffffffffL;
+    values[i+4] = ((w3 >>> 20) | (w4 << 44)) & 0x1fffffffffffffL;
+    values[i+5] = (w4 >>> 9) & 0x1fffffffffffffL;
+    values[i+6] = ((w4 >>> 62) | (w5 << 2)) & 0x1fffffffffffffL;
+    values[i+7] = ((w5 >>> 51) | (w6 << 13)) & 0x1fffffffffffffL;
+  }
+
+  private static void unpackLongs54(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffffffffffL;
+    values[i+1] = ((w0 >>> 54) | (w1 << 10)) & 0x3fffffffffffffL;
+    values[i+2] = ((w1 >>> 44) | (w2 << 20)) & 0x3fffffffffffffL;
+    values[i+3] = ((w2 >>> 34) | (w3 << 30)) & 0x3fffffffffffffL;
+    values[i+4] = ((w3 >>> 24) | (w4 << 40)) & 0x3fffffffffffffL;
+    values[i+5] = ((w4 >>> 14) | (w5 << 50)) & 0x3fffffffffffffL;
+    values[i+6] = (w5 >>> 4) & 0x3fffffffffffffL;
+    values[i+7] = ((w5 >>> 58) | (w6 << 6)) & 0x3fffffffffffffL;
+  }
+
+  private static void unpackLongs55(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffffffffffL;
+    values[i+1] = ((w0 >>> 55) | (w1 << 9)) & 0x7fffffffffffffL;
+    values[i+2] = ((w1 >>> 46) | (w2 << 18)) & 0x7fffffffffffffL;
+    values[i+3] = ((w2 >>> 37) | (w3 << 27)) & 0x7fffffffffffffL;
+    values[i+4] = ((w3 >>> 28) | (w4 << 36)) & 0x7fffffffffffffL;
+    values[i+5] = ((w4 >>> 19) | (w5 << 45)) & 0x7fffffffffffffL;
+    values[i+6] = ((w5 >>> 10) | (w6 << 54)) & 0x7fffffffffffffL;
+    values[i+7] = (w6 >>> 1) & 0x7fffffffffffffL;
+  }
+
+  private static void unpackLongs56(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    values[i] = w0 & 0xffffffffffffffL;
+    values[i+1] = ((w0 >>> 56) | (w1 << 8)) & 0xffffffffffffffL;
+    values[i+2] = ((w1 >>> 48) | (w2 << 16)) & 0xffffffffffffffL;
+    values[i+3] = ((w2 >>> 40) | (w3 << 24)) & 0xffffffffffffffL;
+    values[i+4] = ((w3 >>> 32) | (w4 << 32)) & 0xffffffffffffffL;
+    values[i+5] = ((w4 >>> 24) | (w5 << 40)) & 0xffffffffffffffL;
+    values[i+6] = ((w5 >>> 16) | (w6 << 48)) & 0xffffffffffffffL;
+    values[i+7] = (w6 >>> 8) & 0xffffffffffffffL;
+  }
+
+  private static void unpackLongs57(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)bb.get() & 0xffL);
+    values[i] = w0 & 0x1ffffffffffffffL;
+    values[i+1] = ((w0 >>> 57) | (w1 << 7)) & 0x1ffffffffffffffL;
+    values[i+2] = ((w1 >>> 50) | (w2 << 14)) & 0x1ffffffffffffffL;
+    values[i+3] = ((w2 >>> 43) | (w3 << 21)) & 0x1ffffffffffffffL;
+    values[i+4] = ((w3 >>> 36) | (w4 << 28)) & 0x1ffffffffffffffL;
+    values[i+5] = ((w4 >>> 29) | (w5 << 35)) & 0x1ffffffffffffffL;
+    values[i+6] = ((w5 >>> 22) | (w6 << 42)) & 0x1ffffffffffffffL;
+    values[i+7] = ((w6 >>> 15) | (w7 << 49)) & 0x1ffffffffffffffL;
+  }
+
+  private static void unpackLongs58(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8);
+    values[i] = w0 & 0x3ffffffffffffffL;
+    values[i+1] = ((w0 >>> 58) | (w1 << 6)) & 0x3ffffffffffffffL;
+    values[i+2] = ((w1 >>> 52) | (w2 << 12)) & 0x3ffffffffffffffL;
+    values[i+3] = ((w2 >>> 46) | (w3 << 18)) & 0x3ffffffffffffffL;
+    values[i+4] = ((w3 >>> 40) | (w4 << 24)) & 0x3ffffffffffffffL;
+    values[i+5] = ((w4 >>> 34) | (w5 << 30)) & 0x3ffffffffffffffL;
+    values[i+6] = ((w5 >>> 28) | (w6 << 36)) & 0x3ffffffffffffffL;
+    values[i+7] = ((w6 >>> 22) | (w7 << 42)) & 0x3ffffffffffffffL;
+  }
+
+  private static void unpackLongs59(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)bb.get() & 0xffL)
+      | (((long)bb.get() & 0xffL) << 8)
+      | (((long)bb.get() & 0xffL) << 16);
+    values[i] = w0 & 0x7ffffffffffffffL;
+    values[i+1] = ((w0 >>> 59) | (w1 << 5)) & 0x7ffffffffffffffL;
+    values[i+2] = ((w1 >>> 54) | (w2 << 10)) & 0x7ffffffffffffffL;
+    values[i+3] = ((w2 >>> 49) | (w3 << 15)) & 0x7ffffffffffffffL;
+    values[i+4] = ((w3 >>> 44) | (w4 << 20)) & 0x7ffffffffffffffL;
+    values[i+5] = ((w4 >>> 39) | (w5 << 25)) & 0x7ffffffffffffffL;
+    values[i+6] = ((w5 >>> 34) | (w6 << 30)) & 0x7ffffffffffffffL;
+    values[i+7] = ((w6 >>> 29) | (w7 << 35)) & 0x7ffffffffffffffL;
+  }
+
+  private static void unpackLongs60(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL);
+    values[i] = w0 & 0xfffffffffffffffL;
+    values[i+1] = ((w0 >>> 60) | (w1 << 4)) & 0xfffffffffffffffL;
+    values[i+2] = ((w1 >>> 56) | (w2 << 8)) & 0xfffffffffffffffL;
+    values[i+3] = ((w2 >>> 52) | (w3 << 12)) & 0xfffffffffffffffL;
+    values[i+4] = ((w3 >>> 48) | (w4 << 16)) & 0xfffffffffffffffL;
+    values[i+5] = ((w4 >>> 44) | (w5 << 20)) & 0xfffffffffffffffL;
+    values[i+6] = ((w5 >>> 40) | (w6 << 24)) & 0xfffffffffffffffL;
+    values[i+7] = ((w6 >>> 36) | (w7 << 28)) & 0xfffffffffffffffL;
+  }
+
+  private static void unpackLongs61(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32);
+    values[i] = w0 & 0x1fffffffffffffffL;
+    values[i+1] = ((w0 >>> 61) | (w1 << 3)) & 0x1fffffffffffffffL;
+    values[i+2] = ((w1 >>> 58) | (w2 << 6)) & 0x1fffffffffffffffL;
+    values[i+3] = ((w2 >>> 55) | (w3 << 9)) & 0x1fffffffffffffffL;
+    values[i+4] = ((w3 >>> 52) | (w4 << 12)) & 0x1fffffffffffffffL;
+    values[i+5] = ((w4 >>> 49) | (w5 << 15)) & 0x1fffffffffffffffL;
+    values[i+6] = ((w5 >>> 46) | (w6 << 18)) & 0x1fffffffffffffffL;
+    values[i+7] = ((w6 >>> 43) | (w7 << 21)) & 0x1fffffffffffffffL;
+  }
+
+  private static void unpackLongs62(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40);
+    values[i] = w0 & 0x3fffffffffffffffL;
+    values[i+1] = ((w0 >>> 62) | (w1 << 2)) & 0x3fffffffffffffffL;
+    values[i+2] = ((w1 >>> 60) | (w2 << 4)) & 0x3fffffffffffffffL;
+    values[i+3] = ((w2 >>> 58) | (w3 << 6)) & 0x3fffffffffffffffL;
+    values[i+4] = ((w3 >>> 56) | (w4 << 8)) & 0x3fffffffffffffffL;
+    values[i+5] = ((w4 >>> 54) | (w5 << 10)) & 0x3fffffffffffffffL;
+    values[i+6] = ((w5 >>> 52) | (w6 << 12)) & 0x3fffffffffffffffL;
+    values[i+7] = ((w6 >>> 50) | (w7 << 14)) & 0x3fffffffffffffffL;
+  }
+
+  private static void unpackLongs63(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = ((long)Bytes.readFixedInt(bb) & 0xffffffffL)
+      | (((long)bb.get() & 0xffL) << 32)
+      | (((long)bb.get() & 0xffL) << 40)
+      | (((long)bb.get() & 0xffL) << 48);
+    values[i] = w0 & 0x7fffffffffffffffL;
+    values[i+1] = ((w0 >>> 63) | (w1 << 1)) & 0x7fffffffffffffffL;
+    values[i+2] = ((w1 >>> 62) | (w2 << 2)) & 0x7fffffffffffffffL;
+    values[i+3] = ((w2 >>> 61) | (w3 << 3)) & 0x7fffffffffffffffL;
+    values[i+4] = ((w3 >>> 60) | (w4 << 4)) & 0x7fffffffffffffffL;
+    values[i+5] = ((w4 >>> 59) | (w5 << 5)) & 0x7fffffffffffffffL;
+    values[i+6] = ((w5 >>> 58) | (w6 << 6)) & 0x7fffffffffffffffL;
+    values[i+7] = ((w6 >>> 57) | (w7 << 7)) & 0x7fffffffffffffffL;
+  }
+
+  private static void unpackLongs64(final ByteBuffer bb, final long[] values, final int i) {
+    final long w0 = Bytes.readFixedLong(bb);
+    final long w1 = Bytes.readFixedLong(bb);
+    final long w2 = Bytes.readFixedLong(bb);
+    final long w3 = Bytes.readFixedLong(bb);
+    final long w4 = Bytes.readFixedLong(bb);
+    final long w5 = Bytes.readFixedLong(bb);
+    final long w6 = Bytes.readFixedLong(bb);
+    final long w7 = Bytes.readFixedLong(bb);
+    values[i] = w0;
+    values[i+1] = w1;
+    values[i+2] = w2;
+    values[i+3] = w3;
+    values[i+4] = w4;
+    values[i+5] = w5;
+    values[i+6] = w6;
+    values[i+7] = w7;
+  }
+}
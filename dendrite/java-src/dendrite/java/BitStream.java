@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+// Most-significant-bit first bit streams used by the xor encodings.
+final class BitStream {
+
+  static final class Writer {
+
+    private final MemoryOutputStream mos;
+    private long bits = 0;
+    private int numBits = 0;
+
+    Writer(MemoryOutputStream mos) {
+      this.mos = mos;
+    }
+
+    void write(final long value, final int width) {
+      if (width > 32) {
+        writeUpTo32Bits(value >>> 32, width - 32);
+        writeUpTo32Bits(value, 32);
+      } else {
+        writeUpTo32Bits(value, width);
+      }
+    }
+
+    private void writeUpTo32Bits(final long value, final int width) {
+      bits = (bits << width) | (value & ((1L << width) - 1));
+      numBits += width;
+      while (numBits >= 8) {
+        numBits -= 8;
+        mos.write((int)(bits >>> numBits));
+      }
+    }
+
+    int getNumPendingBytes() {
+      return numBits > 0? 1 : 0;
+    }
+
+    void flush() {
+      if (numBits > 0) {
+        mos.write((int)(bits << (8 - numBits)));
+      }
+      reset();
+    }
+
+    void reset() {
+      bits = 0;
+      numBits = 0;
+    }
+  }
+
+  static final class Reader {
+
+    private final ByteBuffer bb;
+    private long bits = 0;
+    private int numBits = 0;
+
+    Reader(ByteBuffer bb) {
+      this.bb = bb;
+    }
+
+    long read(final int width) {
+      if (width > 32) {
+        long hi = readUpTo32Bits(width - 32);
+        return (hi << 32) | readUpTo32Bits(32);
+      }
+      return readUpTo32Bits(width);
+    }
+
+    boolean readBit() {
+      return readUpTo32Bits(1) == 1;
+    }
+
+    private long readUpTo32Bits(final int width) {
+      while (numBits < width) {
+        bits = (bits << 8) | ((long)bb.get() & 0xffL);
+        numBits += 8;
+      }
+      numBits -= width;
+      return (bits >>> numBits) & ((1L << width) - 1);
+    }
+  }
+}
@@ -18,33 +18,45 @@ public final class BooleanPacked {
 
   public static final class Decoder extends ADecoder {
 
-    private final boolean[] octuplet = new boolean[8];
+    private static final int MAX_BATCH_NUM_BYTES = 16;
+
+    private final boolean[] booleans = new boolean[8 * MAX_BATCH_NUM_BYTES];
     private int position = 0;
+    private int length = 0;
+    private int numRemainingBytes;
 
     public Decoder(ByteBuffer byteBuffer) {
       super(byteBuffer);
+      numRemainingBytes = (numValues + 7) / 8;
     }
 
     @Override
     public Object decode() {
-      if ((position % 8) == 0) {
-        Bytes.readPackedBooleans(bb, octuplet);
+      if (position == length) {
+        int numBytes = Math.min(numRemainingBytes, MAX_BATCH_NUM_BYTES);
+        Kernels.get().unpackBooleans(bb, booleans, 0, numBytes);
+        numRemainingBytes -= numBytes;
+        length = 8 * numBytes;
         position = 0;
       }
-      boolean b = octuplet[position];
+      boolean b = booleans[position];
       position += 1;
       return b;
     }
   }
 
-  public static class Encoder extends AEncoder {
+  public static class Encoder extends AEncoder implements IBooleanEncoder {
 
     private boolean[] octuplet = new boolean[8];
     private int position = 0;
 
     @Override
     public void encode(Object o) {
-      final boolean b = (boolean) o;
+      encodeBoolean((boolean)o);
+    }
+
+    @Override
+    public void encodeBoolean(final boolean b) {
       numValues += 1;
       octuplet[position] = b;
       position += 1;
@@ -179,16 +179,18 @@ public final class Bundle implements Iterable<List> {
     }
   }
 
-  private static final class RepeatedValuesIterator implements ListIterator<Object> {
+  static final class RepeatedValuesIterator implements ListIterator<Object> {
 
     private final Iterator<List<Object>> listIterator;
+    private List<Object> currentValues;
     private Iterator<Object> currentIterator;
     private Object previousValue;
     private boolean isPreviousCalled;
 
     RepeatedValuesIterator(List<List<Object>> repeatedValues) {
       this.listIterator = repeatedValues.iterator();
-      currentIterator = listIterator.next().iterator();
+      currentValues = listIterator.next();
+      currentIterator = currentValues.iterator();
       this.previousValue = null;
       this.isPreviousCalled = false;
     }
@@ -212,10 +214,30 @@ public final class Bundle implements Iterable<List> {
       }
     }
 
+    List<Object> nextRecordValues() {
+      if (isPreviousCalled) {
+        isPreviousCalled = false;
+        List<Object> values = currentValues;
+        step();
+        return values;
+      } else if (currentIterator == null) {
+        throw new NoSuchElementException();
+      } else if (currentIterator.hasNext()) {
+        List<Object> values = currentValues;
+        step();
+        return values;
+      } else {
+        step();
+        return nextRecordValues();
+      }
+    }
+
     private void step() {
       if (listIterator.hasNext()) {
-        currentIterator = listIterator.next().iterator();
+        currentValues = listIterator.next();
+        currentIterator = currentValues.iterator();
       } else {
+        currentValues = null;
         currentIterator = null;
       }
     }
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+public final class ByteArrayDecimal {
+
+  // Operates on the byte-array representation of decimals produced by Types.toByteArray(BigDecimal), i.e., a
+  // fixed-width scale followed by the big-endian two's-complement bytes of the unscaled value. If all values
+  // share the same scale and have unscaled values that fit in a long, they are stored as frame-of-reference
+  // encoded longs. Otherwise, the encoder falls back to the delta-length encoding of the raw byte arrays.
+
+  static final int SCALED = 0;
+  static final int FALLBACK = 1;
+
+  static boolean isCompact(final byte[] bs) {
+    int n = bs.length - 4;
+    return n > 0 && n <= 8 && getNumUnscaledBytes(getUnscaledLong(bs)) == n;
+  }
+
+  static int getScale(final byte[] bs) {
+    return (bs[0] & 0xff) | ((bs[1] & 0xff) << 8) | ((bs[2] & 0xff) << 16) | ((bs[3] & 0xff) << 24);
+  }
+
+  static long getUnscaledLong(final byte[] bs) {
+    long v = bs[4];
+    for (int i=5; i<bs.length; ++i) {
+      v = (v << 8) | (bs[i] & 0xff);
+    }
+    return v;
+  }
+
+  private static int getNumUnscaledBytes(final long unscaled) {
+    return (64 - Long.numberOfLeadingZeros(unscaled ^ (unscaled >> 63))) / 8 + 1;
+  }
+
+  static byte[] toByteArray(final int scale, final long unscaled) {
+    int n = getNumUnscaledBytes(unscaled);
+    byte[] bs = new byte[4 + n];
+    bs[0] = (byte)scale;
+    bs[1] = (byte)(scale >> 8);
+    bs[2] = (byte)(scale >> 16);
+    bs[3] = (byte)(scale >> 24);
+    long v = unscaled;
+    for (int i=bs.length-1; i>=4; --i) {
+      bs[i] = (byte)v;
+      v >>= 8;
+    }
+    return bs;
+  }
+
+  public static final class Decoder extends ADecoder {
+
+    private final int scale;
+    private final LongFrameOfReference.Decoder longDecoder;
+    private final ByteArrayDeltaLength.Decoder byteArrayDecoder;
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+      if (bb.get() == SCALED) {
+        scale = Bytes.readSInt(bb);
+        longDecoder = new LongFrameOfReference.Decoder(bb);
+        byteArrayDecoder = null;
+      } else {
+        scale = 0;
+        longDecoder = null;
+        byteArrayDecoder = new ByteArrayDeltaLength.Decoder(bb);
+      }
+    }
+
+    @Override
+    public Object decode() {
+      if (longDecoder != null) {
+        return toByteArray(scale, longDecoder.decodeLong());
+      }
+      return byteArrayDecoder.decode();
+    }
+
+    public BigDecimal decodeBigDecimal() {
+      if (longDecoder != null) {
+        return BigDecimal.valueOf(longDecoder.decodeLong(), scale);
+      }
+      return Types.toBigDecimal((byte[])byteArrayDecoder.decode());
+    }
+
+  }
+
+  public static final class Encoder extends AEncoder {
+
+    private final LongFrameOfReference.Encoder longEncoder = new LongFrameOfReference.Encoder();
+    private final ByteArrayDeltaLength.Encoder byteArrayEncoder = new ByteArrayDeltaLength.Encoder();
+    private int scale;
+    private boolean isScaled = true;
+    private boolean isFinished = false;
+
+    @Override
+    public void encode(final Object o) {
+      final byte[] bs = (byte[])o;
+      if (isScaled) {
+        if (isCompact(bs) && (numValues == 0 || getScale(bs) == scale)) {
+          scale = getScale(bs);
+          longEncoder.encode(getUnscaledLong(bs));
+        } else {
+          fallback();
+          byteArrayEncoder.encode(bs);
+        }
+      } else {
+        byteArrayEncoder.encode(bs);
+      }
+      numValues += 1;
+    }
+
+    private void fallback() {
+      // Replay the scaled longs encoded so far as byte arrays.
+      MemoryOutputStream scaledLongs = new MemoryOutputStream();
+      longEncoder.writeTo(scaledLongs);
+      LongFrameOfReference.Decoder decoder = new LongFrameOfReference.Decoder(scaledLongs.toByteBuffer());
+      for (int j=0; j<numValues; ++j) {
+        byteArrayEncoder.encode(toByteArray(scale, decoder.decodeLong()));
+      }
+      longEncoder.reset();
+      isScaled = false;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      longEncoder.reset();
+      byteArrayEncoder.reset();
+      isScaled = true;
+      isFinished = false;
+    }
+
+    @Override
+    public void finish() {
+      if (!isFinished) {
+        if (isScaled) {
+          mos.write(SCALED);
+          Bytes.writeSInt(mos, scale);
+          mos.write(longEncoder);
+        } else {
+          mos.write(FALLBACK);
+          mos.write(byteArrayEncoder);
+        }
+        isFinished = true;
+      }
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      if (isFinished) {
+        return super.getEstimatedLength();
+      }
+      return super.getEstimatedLength() + 5
+        + (isScaled? longEncoder.getEstimatedLength() : byteArrayEncoder.getEstimatedLength());
+    }
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+
+  // Used for bigdec columns, whose values are then built straight from the unscaled longs instead of going
+  // through a byte array per value.
+  public static final IDecoderFactory bigDecimalDecoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        final Decoder decoder = new Decoder(bb);
+        return new IDecoder() {
+          @Override
+          public Object decode() {
+            return decoder.decodeBigDecimal();
+          }
+
+          @Override
+          public int getNumEncodedValues() {
+            return decoder.getNumEncodedValues();
+          }
+        };
+      }
+    };
+
+}
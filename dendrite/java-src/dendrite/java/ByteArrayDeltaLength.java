@@ -35,6 +35,11 @@ public final class ByteArrayDeltaLength {
       return byteArray;
     }
 
+    public ByteBuffer decodeByteBuffer() {
+      int length = lengthsDecoder.decodeInt();
+      return Bytes.readByteBuffer(bb, length);
+    }
+
     public void decodeInto(MemoryOutputStream mos) {
       int length = lengthsDecoder.decodeInt();
       mos.ensureRemainingCapacity(length);
@@ -114,4 +119,15 @@ public final class ByteArrayDeltaLength {
         return new Decoder(bb);
       }
     };
+
+  public static final IDecoderFactory sliceDecoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        final Decoder decoder = new Decoder(bb);
+        return new IDecoder() {
+          public Object decode() { return decoder.decodeByteBuffer(); }
+          public int getNumEncodedValues() { return decoder.getNumEncodedValues(); }
+        };
+      }
+    };
 }
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public final class ByteArrayFsst {
+
+  // Each page holds a table of up to 255 symbols of 1 to 8 bytes, learnt from a sample of the page's values.
+  // Every value is compressed on its own by greedily replacing its longest matching prefix with the
+  // corresponding one-byte code. Bytes that don't start any symbol are written after an escape code. Since
+  // values are compressed independently, any one of them can be decompressed without touching the rest of the
+  // page.
+
+  static final int ESCAPE = 255;
+  static final int MAX_NUM_SYMBOLS = 255;
+  static final int MAX_SYMBOL_LENGTH = 8;
+  static final int SAMPLE_LENGTH = 1 << 14;
+  static final int NUM_ROUNDS = 5;
+
+  static final class SymbolTable {
+
+    final byte[][] symbols;
+    private final int[][] codesByFirstByte;
+
+    SymbolTable(final byte[][] symbols) {
+      this.symbols = symbols;
+      this.codesByFirstByte = getCodesByFirstByte(symbols);
+    }
+
+    private static int[][] getCodesByFirstByte(final byte[][] symbols) {
+      int[] numCodes = new int[256];
+      for (byte[] symbol : symbols) {
+        numCodes[symbol[0] & 0xff] += 1;
+      }
+      int[][] codesByFirstByte = new int[256][];
+      for (int b=0; b<256; ++b) {
+        codesByFirstByte[b] = new int[numCodes[b]];
+        numCodes[b] = 0;
+      }
+      for (int code=0; code<symbols.length; ++code) {
+        int b = symbols[code][0] & 0xff;
+        int[] codes = codesByFirstByte[b];
+        // Insertion sort so that longer symbols are tried first.
+        int j = numCodes[b];
+        while (j > 0 && symbols[codes[j-1]].length < symbols[code].length) {
+          codes[j] = codes[j-1];
+          j -= 1;
+        }
+        codes[j] = code;
+        numCodes[b] += 1;
+      }
+      return codesByFirstByte;
+    }
+
+    int findCode(final byte[] bs, final int position, final int end) {
+      for (int code : codesByFirstByte[bs[position] & 0xff]) {
+        byte[] symbol = symbols[code];
+        if (symbol.length <= end - position && matches(symbol, bs, position)) {
+          return code;
+        }
+      }
+      return -1;
+    }
+
+    private static boolean matches(final byte[] symbol, final byte[] bs, final int position) {
+      for (int i=1; i<symbol.length; ++i) {
+        if (symbol[i] != bs[position + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void compress(final byte[] bs, final int offset, final int length, final MemoryOutputStream mos) {
+      int p = offset;
+      int end = offset + length;
+      while (p < end) {
+        int code = findCode(bs, p, end);
+        if (code < 0) {
+          mos.write(ESCAPE);
+          mos.write(bs[p]);
+          p += 1;
+        } else {
+          mos.write(code);
+          p += symbols[code].length;
+        }
+      }
+    }
+
+    void decompress(final byte[] bs, final int length, final MemoryOutputStream mos) {
+      int p = 0;
+      while (p < length) {
+        int code = bs[p] & 0xff;
+        if (code == ESCAPE) {
+          mos.write(bs[p+1]);
+          p += 2;
+        } else {
+          byte[] symbol = symbols[code];
+          mos.write(symbol, 0, symbol.length);
+          p += 1;
+        }
+      }
+    }
+
+    void writeTo(final MemoryOutputStream mos) {
+      Bytes.writeUInt(mos, symbols.length);
+      for (byte[] symbol : symbols) {
+        mos.write(symbol.length);
+        mos.write(symbol, 0, symbol.length);
+      }
+    }
+
+    static SymbolTable read(final ByteBuffer bb) {
+      byte[][] symbols = new byte[Bytes.readUInt(bb)][];
+      for (int code=0; code<symbols.length; ++code) {
+        symbols[code] = new byte[(int)bb.get() & 0xff];
+        bb.get(symbols[code]);
+      }
+      return new SymbolTable(symbols);
+    }
+
+    static SymbolTable build(final byte[] bs, final int[] lengths, final int numValues, final Gains gains) {
+      SymbolTable symbolTable = new SymbolTable(new byte[0][]);
+      for (int round=0; round<NUM_ROUNDS; ++round) {
+        gains.clear();
+        symbolTable = symbolTable.refine(bs, lengths, numValues, gains);
+      }
+      return symbolTable;
+    }
+
+    // Compresses the sample with the current table, then keeps the symbols and pairs of consecutive symbols
+    // that cover the most bytes.
+    private SymbolTable refine(final byte[] bs, final int[] lengths, final int numValues, final Gains gains) {
+      int offset = 0;
+      for (int j=0; j<numValues && offset<SAMPLE_LENGTH; ++j) {
+        int end = Math.min(offset + lengths[j], SAMPLE_LENGTH);
+        int p = offset;
+        int previousLength = 0;
+        while (p < end) {
+          int code = findCode(bs, p, end);
+          int len = (code < 0)? 1 : symbols[code].length;
+          gains.add(pack(bs, p, len), len);
+          if (previousLength > 0 && previousLength + len <= MAX_SYMBOL_LENGTH) {
+            gains.add(pack(bs, p - previousLength, previousLength + len), previousLength + len);
+          }
+          previousLength = len;
+          p += len;
+        }
+        offset += lengths[j];
+      }
+      List<long[]> candidates = gains.getCandidates();
+      Collections.sort(candidates, new Comparator<long[]>() {
+          public int compare(long[] a, long[] b) {
+            if (a[0] != b[0]) {
+              return a[0] > b[0]? -1 : 1;
+            } else if (a[1] != b[1]) {
+              return a[1] > b[1]? -1 : 1;
+            }
+            return Long.compare(a[2], b[2]);
+          }
+        });
+      byte[][] newSymbols = new byte[Math.min(candidates.size(), MAX_NUM_SYMBOLS)][];
+      for (int code=0; code<newSymbols.length; ++code) {
+        long[] candidate = candidates.get(code);
+        newSymbols[code] = unpack(candidate[2], (int)candidate[1]);
+      }
+      return new SymbolTable(newSymbols);
+    }
+
+    private static long pack(final byte[] bs, final int position, final int length) {
+      long v = 0;
+      for (int i=length-1; i>=0; --i) {
+        v = (v << 8) | (bs[position + i] & 0xff);
+      }
+      return v;
+    }
+
+    private static byte[] unpack(final long v, final int length) {
+      byte[] symbol = new byte[length];
+      for (int i=0; i<length; ++i) {
+        symbol[i] = (byte)(v >>> (8 * i));
+      }
+      return symbol;
+    }
+
+  }
+
+  // Counts the bytes covered by each candidate symbol in an open-addressing table keyed on the symbol's packed
+  // bytes and length, so that refining a symbol table doesn't box. The table is reused across rounds and pages.
+  static final class Gains {
+
+    private long[] symbols;
+    private int[] lengths; // 0 marks an empty slot
+    private int[] gains;
+    private int size;
+
+    Gains() {
+      allocate(1024);
+    }
+
+    private void allocate(final int capacity) {
+      symbols = new long[capacity];
+      lengths = new int[capacity];
+      gains = new int[capacity];
+      size = 0;
+    }
+
+    void clear() {
+      Arrays.fill(lengths, 0);
+      size = 0;
+    }
+
+    private static int hash(final long symbol, final int length) {
+      long h = (symbol ^ length) * 0x9e3779b97f4a7c15L;
+      return (int)(h ^ (h >>> 32));
+    }
+
+    void add(final long symbol, final int length) {
+      add(symbol, length, length);
+    }
+
+    private void add(final long symbol, final int length, final int gain) {
+      int mask = lengths.length - 1;
+      int i = hash(symbol, length) & mask;
+      while (lengths[i] != 0) {
+        if (symbols[i] == symbol && lengths[i] == length) {
+          gains[i] += gain;
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+      symbols[i] = symbol;
+      lengths[i] = length;
+      gains[i] = gain;
+      size += 1;
+      if (2 * size > lengths.length) {
+        grow();
+      }
+    }
+
+    private void grow() {
+      long[] oldSymbols = symbols;
+      int[] oldLengths = lengths;
+      int[] oldGains = gains;
+      allocate(2 * oldLengths.length);
+      for (int i=0; i<oldLengths.length; ++i) {
+        if (oldLengths[i] != 0) {
+          add(oldSymbols[i], oldLengths[i], oldGains[i]);
+        }
+      }
+    }
+
+    // Returns {gain, length, symbol} triples.
+    List<long[]> getCandidates() {
+      List<long[]> candidates = new ArrayList<long[]>(size);
+      for (int i=0; i<lengths.length; ++i) {
+        if (lengths[i] != 0) {
+          candidates.add(new long[] {gains[i], lengths[i], symbols[i]});
+        }
+      }
+      return candidates;
+    }
+
+  }
+
+  public static final class Decoder extends ADecoder {
+
+    private final SymbolTable symbolTable;
+    private final ByteArrayDeltaLength.Decoder compressedValuesDecoder;
+    private final MemoryOutputStream compressedValue = new MemoryOutputStream(128);
+    private final MemoryOutputStream buffer = new MemoryOutputStream(128);
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+      symbolTable = SymbolTable.read(bb);
+      compressedValuesDecoder = new ByteArrayDeltaLength.Decoder(bb);
+    }
+
+    private void decodeCompressedValue() {
+      compressedValue.reset();
+      compressedValuesDecoder.decodeInto(compressedValue);
+    }
+
+    @Override
+    public Object decode() {
+      decodeCompressedValue();
+      buffer.reset();
+      symbolTable.decompress(compressedValue.buffer, compressedValue.getLength(), buffer);
+      return Arrays.copyOf(buffer.buffer, buffer.getLength());
+    }
+
+  }
+
+  public static final class Encoder extends AEncoder {
+
+    private final MemoryOutputStream rawValues = new MemoryOutputStream();
+    private int[] lengths = new int[128];
+    private final MemoryOutputStream compressedValue = new MemoryOutputStream(128);
+    private final ByteArrayDeltaLength.Encoder compressedValuesEncoder = new ByteArrayDeltaLength.Encoder();
+    private final Gains gains = new Gains();
+    private boolean isFinished = false;
+
+    @Override
+    public void encode(final Object o) {
+      final byte[] bs = (byte[]) o;
+      if (numValues == lengths.length) {
+        lengths = Arrays.copyOf(lengths, 2 * lengths.length);
+      }
+      lengths[numValues] = bs.length;
+      rawValues.write(bs, 0, bs.length);
+      numValues += 1;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      rawValues.reset();
+      compressedValuesEncoder.reset();
+      isFinished = false;
+    }
+
+    @Override
+    public void finish() {
+      if (!isFinished) {
+        SymbolTable symbolTable = SymbolTable.build(rawValues.buffer, lengths, numValues, gains);
+        symbolTable.writeTo(mos);
+        int offset = 0;
+        for (int j=0; j<numValues; ++j) {
+          compressedValue.reset();
+          symbolTable.compress(rawValues.buffer, offset, lengths[j], compressedValue);
+          compressedValuesEncoder.encode(compressedValue.buffer, 0, compressedValue.getLength());
+          offset += lengths[j];
+        }
+        mos.write(compressedValuesEncoder);
+        isFinished = true;
+      }
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      if (isFinished) {
+        return super.getEstimatedLength();
+      }
+      return Bytes.getNumUIntBytes(numValues) + numValues + rawValues.getLength();
+    }
+
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+
+}
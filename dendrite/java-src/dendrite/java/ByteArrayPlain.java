@@ -30,6 +30,11 @@ public final class ByteArrayPlain {
       return byteArray;
     }
 
+    public ByteBuffer decodeByteBuffer() {
+      int length = Bytes.readFixedInt(bb);
+      return Bytes.readByteBuffer(bb, length);
+    }
+
   }
 
   public static final class Encoder extends AEncoder {
@@ -51,4 +56,15 @@ public final class ByteArrayPlain {
       }
     };
 
+  public static final IDecoderFactory sliceDecoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        final Decoder decoder = new Decoder(bb);
+        return new IDecoder() {
+          public Object decode() { return decoder.decodeByteBuffer(); }
+          public int getNumEncodedValues() { return decoder.getNumEncodedValues(); }
+        };
+      }
+    };
+
 }
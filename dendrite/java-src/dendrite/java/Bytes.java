@@ -14,22 +14,77 @@ package dendrite.java;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public final class Bytes {
 
   public static void writeFixedInt(final MemoryOutputStream os, final int i) {
-    os.write(i);
-    os.write(i >>  8);
-    os.write(i >> 16);
-    os.write(i >> 24);
+    os.ensureRemainingCapacity(4);
+    final byte[] buffer = os.buffer;
+    final int p = os.position;
+    buffer[p] = (byte) i;
+    buffer[p + 1] = (byte)(i >>  8);
+    buffer[p + 2] = (byte)(i >> 16);
+    buffer[p + 3] = (byte)(i >> 24);
+    os.position = p + 4;
   }
 
   public static int readFixedInt(final ByteBuffer bb) {
-    final int i1 =  (int) bb.get() & 0xff;
-    final int i2 = ((int) bb.get() & 0xff) <<  8;
-    final int i3 = ((int) bb.get() & 0xff) << 16;
-    final int i4 = ((int) bb.get() & 0xff) << 24;
-    return i4 | i3 | i2 | i1;
+    if (bb.order() == ByteOrder.LITTLE_ENDIAN) {
+      return bb.getInt();
+    }
+    return Integer.reverseBytes(bb.getInt());
+  }
+
+  private static ByteBuffer littleEndianView(final MemoryOutputStream os, final int numBytes) {
+    os.ensureRemainingCapacity(numBytes);
+    ByteBuffer byteBuffer = ByteBuffer.wrap(os.buffer, os.position, numBytes).order(ByteOrder.LITTLE_ENDIAN);
+    os.position += numBytes;
+    return byteBuffer;
+  }
+
+  private static ByteBuffer littleEndianView(final ByteBuffer bb, final int numBytes) {
+    ByteBuffer byteBuffer = bb.slice().order(ByteOrder.LITTLE_ENDIAN);
+    bb.position(bb.position() + numBytes);
+    return byteBuffer;
+  }
+
+  public static void writeFixedInts(final MemoryOutputStream os, final int[] ints, final int offset,
+                                    final int length) {
+    littleEndianView(os, 4 * length).asIntBuffer().put(ints, offset, length);
+  }
+
+  public static void readFixedInts(final ByteBuffer bb, final int[] ints, final int offset, final int length) {
+    littleEndianView(bb, 4 * length).asIntBuffer().get(ints, offset, length);
+  }
+
+  public static void writeFixedLongs(final MemoryOutputStream os, final long[] longs, final int offset,
+                                     final int length) {
+    littleEndianView(os, 8 * length).asLongBuffer().put(longs, offset, length);
+  }
+
+  public static void readFixedLongs(final ByteBuffer bb, final long[] longs, final int offset,
+                                    final int length) {
+    littleEndianView(bb, 8 * length).asLongBuffer().get(longs, offset, length);
+  }
+
+  public static void writeFloats(final MemoryOutputStream os, final float[] floats, final int offset,
+                                 final int length) {
+    littleEndianView(os, 4 * length).asFloatBuffer().put(floats, offset, length);
+  }
+
+  public static void readFloats(final ByteBuffer bb, final float[] floats, final int offset, final int length) {
+    littleEndianView(bb, 4 * length).asFloatBuffer().get(floats, offset, length);
+  }
+
+  public static void writeDoubles(final MemoryOutputStream os, final double[] doubles, final int offset,
+                                  final int length) {
+    littleEndianView(os, 8 * length).asDoubleBuffer().put(doubles, offset, length);
+  }
+
+  public static void readDoubles(final ByteBuffer bb, final double[] doubles, final int offset,
+                                 final int length) {
+    littleEndianView(bb, 8 * length).asDoubleBuffer().get(doubles, offset, length);
   }
 
   public static int getNumUIntBytes(final int i) {
@@ -94,26 +149,25 @@ public final class Bytes {
   }
 
   public static void writeFixedLong(final MemoryOutputStream os, final long l) {
-    os.write((int) l);
-    os.write((int)(l >>  8));
-    os.write((int)(l >> 16));
-    os.write((int)(l >> 24));
-    os.write((int)(l >> 32));
-    os.write((int)(l >> 40));
-    os.write((int)(l >> 48));
-    os.write((int)(l >> 56));
+    os.ensureRemainingCapacity(8);
+    final byte[] buffer = os.buffer;
+    final int p = os.position;
+    buffer[p] = (byte) l;
+    buffer[p + 1] = (byte)(l >>  8);
+    buffer[p + 2] = (byte)(l >> 16);
+    buffer[p + 3] = (byte)(l >> 24);
+    buffer[p + 4] = (byte)(l >> 32);
+    buffer[p + 5] = (byte)(l >> 40);
+    buffer[p + 6] = (byte)(l >> 48);
+    buffer[p + 7] = (byte)(l >> 56);
+    os.position = p + 8;
   }
 
   public static long readFixedLong(final ByteBuffer bb) {
-    final long l1 =  (long) bb.get() & 0xff;
-    final long l2 = ((long) bb.get() & 0xff) << 8;
-    final long l3 = ((long) bb.get() & 0xff) << 16;
-    final long l4 = ((long) bb.get() & 0xff) << 24;
-    final long l5 = ((long) bb.get() & 0xff) << 32;
-    final long l6 = ((long) bb.get() & 0xff) << 40;
-    final long l7 = ((long) bb.get() & 0xff) << 48;
-    final long l8 = ((long) bb.get() & 0xff) << 56;
-    return l8 | l7 | l6 | l5 | l4 | l3 | l2 | l1;
+    if (bb.order() == ByteOrder.LITTLE_ENDIAN) {
+      return bb.getLong();
+    }
+    return Long.reverseBytes(bb.getLong());
   }
 
   public static int getNumULongBytes(final long i) {
@@ -361,13 +415,21 @@ public final class Bytes {
   public static void readPackedInts32(final ByteBuffer bb, final int[] ints, final int width,
                                       final int offset, final int length) {
     if (width > 0) {
-      if (width < 25) {
-        readPackedInts32Under24bits(bb, ints, width, offset, length);
-      } else {
-        readPackedInts32Over24bits(bb, ints, width, offset, length);
+      final int numOctuplets = length >>> 3;
+      if (numOctuplets > 0) {
+        Kernels.get().unpackInts(bb, ints, offset, numOctuplets, width);
+      }
+      final int tailOffset = offset + (numOctuplets << 3);
+      final int tailLength = length & 7;
+      if (tailLength > 0) {
+        if (width < 25) {
+          readPackedInts32Under24bits(bb, ints, width, tailOffset, tailLength);
+        } else {
+          readPackedInts32Over24bits(bb, ints, width, tailOffset, tailLength);
+        }
       }
     } else {
-      for (int i=0; i<length; ++i) {
+      for (int i=offset; i<offset+length; ++i) {
         ints[i] = 0;
       }
     }
@@ -467,13 +529,21 @@ public final class Bytes {
   public static void readPackedInts64(final ByteBuffer bb, final long[] longs, final int width,
                                       final int offset, final int length) {
     if (width > 0) {
-      if (width < 57) {
-        readPackedInts64Under56bits(bb, longs, width, offset, length);
-      } else {
-        readPackedInts64Over56bits(bb, longs, width, offset, length);
+      final int numOctuplets = length >>> 3;
+      if (numOctuplets > 0) {
+        Kernels.get().unpackLongs(bb, longs, offset, numOctuplets, width);
+      }
+      final int tailOffset = offset + (numOctuplets << 3);
+      final int tailLength = length & 7;
+      if (tailLength > 0) {
+        if (width < 57) {
+          readPackedInts64Under56bits(bb, longs, width, tailOffset, tailLength);
+        } else {
+          readPackedInts64Over56bits(bb, longs, width, tailOffset, tailLength);
+        }
       }
     } else {
-      for (int i=0; i<length; ++i) {
+      for (int i=offset; i<offset+length; ++i) {
         longs[i] = 0;
       }
     }
@@ -588,6 +658,10 @@ public final class Bytes {
     if (length < 0) {
       return null;
     }
+    return readByteBuffer(bb, length);
+  }
+
+  public static ByteBuffer readByteBuffer(final ByteBuffer bb, final int length) {
     ByteBuffer byteBuffer = bb.slice();
     byteBuffer.limit(length);
     bb.position(bb.position() + length);
@@ -38,9 +38,22 @@ public final class ColumnChunks {
                                                 Metadata.ColumnChunk columnChunkMetadata,
                                                 Schema.Column column,
                                                 int partitionLength) {
+    return createReader(types, bb, columnChunkMetadata, column, partitionLength, null);
+  }
+
+  public static IColumnChunkReader createReader(Types types, ByteBuffer bb,
+                                                Metadata.ColumnChunk columnChunkMetadata,
+                                                Schema.Column column,
+                                                int partitionLength,
+                                                Object[] sharedDictionary) {
+    if (columnChunkMetadata.hasOwnEncoding()) {
+      column = column.withEncoding(columnChunkMetadata.encoding)
+                     .withCompression(columnChunkMetadata.compression);
+    }
     switch (column.encoding) {
     case Types.DICTIONARY:
-      return new DictionaryColumnChunk.Reader(types, bb, columnChunkMetadata, column, partitionLength);
+      return new DictionaryColumnChunk.Reader(types, bb, columnChunkMetadata, column, partitionLength,
+                                              sharedDictionary);
     case Types.FREQUENCY:
       return new FrequencyColumnChunk.Reader(types, bb, columnChunkMetadata, column, partitionLength);
     default:
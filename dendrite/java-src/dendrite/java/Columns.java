@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import clojure.lang.IFn;
+import clojure.lang.IPersistentVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Builds bundles directly from column-oriented input, bypassing record striping. Each non-repeated column is
+// given as an array or a list holding one value per record (nil for missing values), and each repeated column
+// as a Columns.Repeated holding its repetition levels, its definition levels, and its non-nil values.
+// Primitive arrays are passed through as-is to columns of the same primitive type, while the values of all
+// other arrays and lists are coerced like those of striped records.
+public final class Columns {
+
+  public static final class Repeated {
+
+    public final int[] repetitionLevels;
+    public final int[] definitionLevels;
+    public final Object values;
+
+    public Repeated(int[] repetitionLevels, int[] definitionLevels, Object values) {
+      this.repetitionLevels = repetitionLevels;
+      this.definitionLevels = definitionLevels;
+      this.values = values;
+    }
+  }
+
+  public static Bundle toBundle(Types types, Schema.Column[] columns, IPersistentVector[] paths,
+                                Object[] columnValues) {
+    if (columnValues.length != columns.length) {
+      throw new IllegalArgumentException(String.format("Expected values for %d columns but got %d.",
+                                                       columns.length, columnValues.length));
+    }
+    @SuppressWarnings("rawtypes")
+    List[] bundleColumnValues = new List[columns.length];
+    int numRecords = -1;
+    for (int i=0; i<columns.length; ++i) {
+      Schema.Column column = columns[i];
+      List<Object> values;
+      if (column.repetitionLevel == 0) {
+        values = getValues(types, column, paths[i], columnValues[i], column.definitionLevel > 0);
+      } else {
+        values = getRepeatedValues(types, column, paths[i], columnValues[i]);
+      }
+      if (numRecords < 0) {
+        numRecords = values.size();
+      } else if (values.size() != numRecords) {
+        throw new IllegalArgumentException(String.format("Column at path '%s' has %d records but expected %d.",
+                                                         paths[i], values.size(), numRecords));
+      }
+      bundleColumnValues[i] = values;
+    }
+    return new Bundle(Math.max(numRecords, 0), bundleColumnValues);
+  }
+
+  private static List<Object> getRepeatedValues(Types types, Schema.Column column, IPersistentVector path,
+                                                Object o) {
+    if (!(o instanceof Repeated)) {
+      throw new IllegalArgumentException(String.format("Repeated column at path '%s' expects repetition " +
+                                                       "and definition levels but got '%s'.", path, o));
+    }
+    Repeated repeated = (Repeated)o;
+    int n = repeated.repetitionLevels.length;
+    if (repeated.definitionLevels.length != n) {
+      throw new IllegalArgumentException(String.format("Repeated column at path '%s' has %d repetition " +
+                                                       "levels but %d definition levels.",
+                                                       path, n, repeated.definitionLevels.length));
+    }
+    List<Object> values = getValues(types, column, path, repeated.values, false);
+    int numDefinedValues = countDefinedValues(column, repeated.definitionLevels);
+    if (numDefinedValues != values.size()) {
+      throw new IllegalArgumentException(String.format("Repeated column at path '%s' has %d values but its " +
+                                                       "definition levels call for %d.",
+                                                       path, values.size(), numDefinedValues));
+    }
+    List<Object> records = new ArrayList<Object>();
+    List<Object> recordValues = null;
+    int k = 0;
+    for (int j=0; j<n; ++j) {
+      int repetitionLevel = repeated.repetitionLevels[j];
+      int definitionLevel = repeated.definitionLevels[j];
+      if (repetitionLevel < 0 || repetitionLevel > column.repetitionLevel
+          || definitionLevel < 0 || definitionLevel > column.definitionLevel
+          || (repetitionLevel > 0 && recordValues == null)) {
+        throw new IllegalArgumentException(String.format("Invalid levels (%d, %d) at index %d of the " +
+                                                         "repeated column at path '%s'.",
+                                                         repetitionLevel, definitionLevel, j, path));
+      }
+      if (repetitionLevel == 0) {
+        recordValues = new ArrayList<Object>();
+        records.add(recordValues);
+      }
+      Object v = null;
+      if (definitionLevel == column.definitionLevel) {
+        v = values.get(k);
+        k += 1;
+      }
+      recordValues.add(new LeveledValue(repetitionLevel, definitionLevel, v));
+    }
+    return records;
+  }
+
+  private static int countDefinedValues(Schema.Column column, int[] definitionLevels) {
+    int n = 0;
+    for (int definitionLevel : definitionLevels) {
+      if (definitionLevel == column.definitionLevel) {
+        n += 1;
+      }
+    }
+    return n;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> getValues(Types types, Schema.Column column, IPersistentVector path, Object o,
+                                        boolean isNilAllowed) {
+    PrimitiveColumn primitiveColumn = PrimitiveColumn.wrap(o);
+    if (primitiveColumn != null) {
+      if (column.type != primitiveColumn.getType()) {
+        throw new IllegalArgumentException(String.format("Column at path '%s' of type %s cannot be written " +
+                                                         "from a %s array.",
+                                                         path, types.getTypeSymbol(column.type),
+                                                         types.getTypeSymbol(primitiveColumn.getType())));
+      }
+      return primitiveColumn;
+    }
+    List<Object> values;
+    if (o instanceof Object[]) {
+      values = Arrays.asList((Object[])o);
+    } else if (o instanceof List) {
+      values = (List<Object>)o;
+    } else {
+      throw new IllegalArgumentException(String.format("Column at path '%s' expects an array or a list of " +
+                                                       "values but got '%s'.", path, o));
+    }
+    IFn coercionFn = types.getCoercionFn(column.type);
+    IFn toBaseTypeFn = Types.USE_IN_COLUMN_LOGICAL_TYPES? null : types.getToBaseTypeFn(column.type);
+    List<Object> coercedValues = PrimitiveColumn.create(column.type, values.size());
+    if (coercedValues == null) {
+      coercedValues = new ArrayList<Object>(values.size());
+    }
+    for (Object v : values) {
+      if (v == null) {
+        if (!isNilAllowed) {
+          throw new IllegalArgumentException(String.format("Required value at path '%s' is missing", path));
+        }
+        coercedValues.add(null);
+      } else {
+        Object cv;
+        try {
+          cv = coercionFn.invoke(v);
+        } catch (Exception e) {
+          throw new IllegalArgumentException(String.format("Could not coerce value at path '%s'", path), e);
+        }
+        coercedValues.add((toBaseTypeFn == null)? cv : toBaseTypeFn.invoke(cv));
+      }
+    }
+    return coercedValues;
+  }
+}
@@ -13,10 +13,31 @@
 package dendrite.java;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 final class Constants {
 
-  static final String magicString = "den1";
-  static final byte[] magicBytes = magicString.getBytes(StandardCharsets.UTF_8);
+  // The magic bytes at both ends of a file identify the version of its footer format, so that readers built
+  // before a format change fail loudly instead of misreading the footer.
+  static final String magicString = getMagicString(Metadata.CURRENT_VERSION);
+  static final byte[] magicBytes = getMagicBytes(Metadata.CURRENT_VERSION);
+
+  static String getMagicString(int version) {
+    return "den" + version;
+  }
+
+  static byte[] getMagicBytes(int version) {
+    return getMagicString(version).getBytes(StandardCharsets.UTF_8);
+  }
+
+  // Returns the footer format version identified by the magic bytes, or -1 if they are not valid.
+  static int getVersion(byte[] magic) {
+    for (int version = Metadata.VERSION_1; version <= Metadata.CURRENT_VERSION; ++version) {
+      if (Arrays.equals(getMagicBytes(version), magic)) {
+        return version;
+      }
+    }
+    return -1;
+  }
 
 }
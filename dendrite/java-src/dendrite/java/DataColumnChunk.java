@@ -12,7 +12,10 @@
 
 package dendrite.java;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -87,11 +90,16 @@ public final class DataColumnChunk {
     int numPages;
     final int targetDataPageLength;
     final Schema.Column column;
-    final MemoryOutputStream mos;
+    final MemoryOutputStream mos; // holds the page being flushed
+    SegmentedBuffer pages;
     final DataPage.Writer pageWriter;
+    private SpillFile spillFile = null;
+    private final List<long[]> spilledExtents = new ArrayList<long[]>(); // {offset, length} in the spill file
+    private int spilledLength = 0;
 
     Writer(DataPage.Writer pageWriter, Schema.Column column, int targetDataPageLength) {
       this.mos = new MemoryOutputStream();
+      this.pages = new SegmentedBuffer();
       this.pageWriter = pageWriter;
       this.column = column;
       this.targetDataPageLength = targetDataPageLength;
@@ -124,10 +132,47 @@ public final class DataColumnChunk {
       return column;
     }
 
+    // Once set, every finished page is appended to the spill file instead of being kept in memory.
+    @Override
+    public void spillTo(SpillFile aSpillFile) {
+      spillFile = aSpillFile;
+      if (spillFile != null) {
+        for (ByteBuffer bb : pages.toByteBuffers()) {
+          addSpilledExtent(spillFile.append(bb), bb.remaining());
+        }
+        pages.reset();
+      }
+    }
+
+    // Moves the finished pages, and all those written from now on, to slabs borrowed from pool.
+    @Override
+    public void bufferPagesIn(SegmentedBuffer.Pool pool) {
+      SegmentedBuffer newPages = new SegmentedBuffer(pool);
+      for (ByteBuffer bb : pages.toByteBuffers()) {
+        newPages.write(bb);
+      }
+      pages.reset();
+      pages = newPages;
+    }
+
     @Override
     public ByteBuffer toByteBuffer() {
       finish();
-      return mos.toByteBuffer();
+      if (spilledLength > 0) {
+        MemoryOutputStream chunkMos = new MemoryOutputStream(getLength());
+        writeTo(chunkMos);
+        return chunkMos.toByteBuffer();
+      }
+      return pages.toByteBuffer();
+    }
+
+    @Override
+    public ByteBuffer[] toByteBuffers() {
+      finish();
+      if (spilledLength > 0) {
+        return new ByteBuffer[]{toByteBuffer()};
+      }
+      return pages.toByteBuffers();
     }
 
     @Override
@@ -149,35 +194,60 @@ public final class DataColumnChunk {
     @Override
     public void reset() {
       numPages = 0;
-      mos.reset();
+      spilledExtents.clear();
+      spilledLength = 0;
+      pages.reset();
       pageWriter.reset();
     }
 
     @Override
     public int getLength() {
       finish();
-      return mos.getLength();
+      return spilledLength + pages.getLength();
     }
 
     @Override
     public int getEstimatedLength() {
-      return mos.getLength() + pageWriter.getEstimatedLength();
+      return spilledLength + pages.getLength() + pageWriter.getEstimatedLength();
     }
 
     @Override
     public void writeTo(MemoryOutputStream memoryOutputStream) {
       finish();
-      memoryOutputStream.write(mos);
+      for (long[] extent : spilledExtents) {
+        spillFile.readInto(extent[0], (int)extent[1], memoryOutputStream);
+      }
+      memoryOutputStream.write(pages);
+    }
+
+    @Override
+    public void writeTo(FileChannel fileChannel) throws IOException {
+      finish();
+      for (long[] extent : spilledExtents) {
+        spillFile.transferTo(extent[0], extent[1], fileChannel);
+      }
+      Utils.writeFully(fileChannel, pages.toByteBuffers());
     }
 
     void flushDataPageWriter() {
       if (pageWriter.getNumValues() > 0) {
+        mos.reset();
         Pages.writeTo(mos, pageWriter);
+        if (spillFile != null) {
+          addSpilledExtent(spillFile.append(mos.toByteBuffer()), mos.getLength());
+        } else {
+          pages.write(mos);
+        }
         numPages += 1;
         nextNumValuesForPageLengthCheck = pageWriter.getNumValues() / 2;
         pageWriter.reset();
       }
     }
+
+    private void addSpilledExtent(long offset, int length) {
+      spilledExtents.add(new long[]{offset, length});
+      spilledLength += length;
+    }
   }
 
   private static final class NonRepeatedWriter extends Writer {
@@ -187,6 +257,10 @@ public final class DataColumnChunk {
 
     @Override
     public void write(Iterable<Object> values) {
+      if (values instanceof PrimitiveColumn) {
+        write((PrimitiveColumn)values);
+        return;
+      }
       Iterator<Object> vi = values.iterator();
       while (vi.hasNext()) {
         if (pageWriter.getNumValues() >= targetDataPageLength) {
@@ -212,6 +286,32 @@ public final class DataColumnChunk {
         }
       }
     }
+
+    // Same as above, but hands ranges of values to the page writer instead of boxing them one at a time.
+    private void write(PrimitiveColumn values) {
+      int n = values.size();
+      int i = 0;
+      while (i < n) {
+        if (pageWriter.getNumValues() >= targetDataPageLength) {
+          flushDataPageWriter();
+        }
+        int numValuesBeforeNextCheck = nextNumValuesForPageLengthCheck - pageWriter.getNumValues();
+        int end = i + Math.min(Math.max(numValuesBeforeNextCheck, 0), n - i);
+        pageWriter.write(values, i, end);
+        numValuesBeforeNextCheck -= end - i;
+        i = end;
+        if (i < n && numValuesBeforeNextCheck == 0) {
+          if (pageWriter.getEstimatedLength() > targetDataPageLength) {
+            flushDataPageWriter();
+          } else {
+            nextNumValuesForPageLengthCheck
+              = Thresholds.getNextCheckThreshold(pageWriter.getNumValues(),
+                                                 pageWriter.getEstimatedLength(),
+                                                 targetDataPageLength);
+          }
+        }
+      }
+    }
   }
 
   private static final class RepeatedWriter extends Writer {
@@ -109,16 +109,16 @@ public final class DataPage {
 
   public abstract static class Writer implements IPageWriter {
 
-    final IEncoder repetitionLevelEncoder;
-    final IEncoder definitionLevelEncoder;
+    final IIntEncoder repetitionLevelEncoder;
+    final IIntEncoder definitionLevelEncoder;
     final IEncoder dataEncoder;
     final ICompressor compressor;
     double compressionRatio = 0;
     boolean isFinished = false;
     int numValues = 0;
 
-    private Writer(IEncoder repetitionLevelEncoder, IEncoder definitionLevelEncoder, IEncoder dataEncoder,
-                   ICompressor compressor) {
+    private Writer(IIntEncoder repetitionLevelEncoder, IIntEncoder definitionLevelEncoder,
+                   IEncoder dataEncoder, ICompressor compressor) {
       this.repetitionLevelEncoder = repetitionLevelEncoder;
       this.definitionLevelEncoder = definitionLevelEncoder;
       this.dataEncoder = dataEncoder;
@@ -141,6 +141,13 @@ public final class DataPage {
       }
     }
 
+    // Writes the values in [start, end) of a primitive column.
+    void write(PrimitiveColumn values, int start, int end) {
+      for (int i=start; i<end; ++i) {
+        write(values.get(i));
+      }
+    }
+
     @Override
     public int getNumValues() {
       return numValues;
@@ -254,10 +261,16 @@ public final class DataPage {
       dataEncoder.encode(value);
       numValues += 1;
     }
+
+    @Override
+    void write(PrimitiveColumn values, int start, int end) {
+      values.encodeTo(dataEncoder, start, end);
+      numValues += end - start;
+    }
   }
 
   private static final class NonRepeatedValuesWriter extends Writer {
-    NonRepeatedValuesWriter(IEncoder definitionLevelEncoder, IEncoder dataEncoder,
+    NonRepeatedValuesWriter(IIntEncoder definitionLevelEncoder, IEncoder dataEncoder,
                             ICompressor compressor) {
       super(null, definitionLevelEncoder, dataEncoder, compressor);
     }
@@ -265,17 +278,26 @@ public final class DataPage {
     @Override
     public void write(Object value) {
       if (value == null) {
-        definitionLevelEncoder.encode(0);
+        definitionLevelEncoder.encodeInt(0);
       } else {
-        definitionLevelEncoder.encode(1);
+        definitionLevelEncoder.encodeInt(1);
         dataEncoder.encode(value);
       }
       numValues += 1;
     }
+
+    @Override
+    void write(PrimitiveColumn values, int start, int end) {
+      for (int i=start; i<end; ++i) {
+        definitionLevelEncoder.encodeInt(values.isMissing(i)? 0 : 1);
+      }
+      values.encodeTo(dataEncoder, start, end);
+      numValues += end - start;
+    }
   }
 
   private static final class RepeatedValuesWriter extends Writer {
-    RepeatedValuesWriter(IEncoder repetitionLevelEncoder, IEncoder definitionLevelEncoder,
+    RepeatedValuesWriter(IIntEncoder repetitionLevelEncoder, IIntEncoder definitionLevelEncoder,
                          IEncoder dataEncoder, ICompressor compressor) {
       super(repetitionLevelEncoder, definitionLevelEncoder, dataEncoder, compressor);
     }
@@ -287,8 +309,8 @@ public final class DataPage {
         if (lv.value != null) {
           dataEncoder.encode(lv.value);
         }
-        repetitionLevelEncoder.encode(lv.repetitionLevel);
-        definitionLevelEncoder.encode(lv.definitionLevel);
+        repetitionLevelEncoder.encodeInt(lv.repetitionLevel);
+        definitionLevelEncoder.encodeInt(lv.definitionLevel);
         numValues += 1;
       }
     }
@@ -338,7 +360,12 @@ public final class DataPage {
     @Override
     public Iterator<Object> iterator() {
       if (maxDefinitionLevel == 0) {
-        return new RequiredValueIterator(getDataDecoder());
+        IDecoder decoder = getDataDecoder();
+        PrimitiveColumn values = decodePlainValues(decoder);
+        if (values != null) {
+          return values.iterator();
+        }
+        return new RequiredValueIterator(decoder);
       } else if (maxRepetitionLevel == 0) {
         return new NonRepeatedValueIterator(getDefinitionLevelsDecoder(), getDataDecoder(),
                                             decoderFactory.getDelayedNullValue());
@@ -371,6 +398,30 @@ public final class DataPage {
     }
   }
 
+  // Required plain ints, longs, floats, and doubles are copied out of the page in bulk, and are only boxed as
+  // they are iterated over. Returns null for all other decoders.
+  private static PrimitiveColumn decodePlainValues(IDecoder decoder) {
+    int n = decoder.getNumEncodedValues();
+    if (decoder instanceof IntPlain.Decoder) {
+      int[] ints = new int[n];
+      ((IntPlain.Decoder)decoder).decodeInts(ints, 0, n);
+      return PrimitiveColumn.wrap(ints);
+    } else if (decoder instanceof LongPlain.Decoder) {
+      long[] longs = new long[n];
+      ((LongPlain.Decoder)decoder).decodeLongs(longs, 0, n);
+      return PrimitiveColumn.wrap(longs);
+    } else if (decoder instanceof FloatPlain.Decoder) {
+      float[] floats = new float[n];
+      ((FloatPlain.Decoder)decoder).decodeFloats(floats, 0, n);
+      return PrimitiveColumn.wrap(floats);
+    } else if (decoder instanceof DoublePlain.Decoder) {
+      double[] doubles = new double[n];
+      ((DoublePlain.Decoder)decoder).decodeDoubles(doubles, 0, n);
+      return PrimitiveColumn.wrap(doubles);
+    }
+    return null;
+  }
+
   private static final class RequiredValueIterator extends AReadOnlyIterator<Object> {
 
     private final IDecoder decoder;
@@ -398,7 +449,7 @@ public final class DataPage {
   private static final class NonRepeatedValueIterator extends AReadOnlyIterator<Object> {
 
     private final IDecoder decoder;
-    private final IIntDecoder definitionLevelsDecoder;
+    private final LevelsBuffer definitionLevels;
     private final DelayedNullValue delayedNullValue;
     private final int n;
     private int i;
@@ -408,7 +459,7 @@ public final class DataPage {
       this.n = definitionLevelsDecoder.getNumEncodedValues();
       this.i = 0;
       this.decoder = decoder;
-      this.definitionLevelsDecoder = definitionLevelsDecoder;
+      this.definitionLevels = new LevelsBuffer(definitionLevelsDecoder);
       this.delayedNullValue = delayedNullValue;
     }
 
@@ -420,7 +471,7 @@ public final class DataPage {
     @Override
     public Object next() {
       i += 1;
-      if (definitionLevelsDecoder.decodeInt() == 0) {
+      if (definitionLevels.next() == 0) {
         return delayedNullValue.get();
       } else {
         return decoder.decode();
@@ -430,8 +481,8 @@ public final class DataPage {
 
   private static final class RepeatedValueIterator extends AReadOnlyIterator<Object> {
 
-    private final IIntDecoder repetitionLevelsDecoder;
-    private final IIntDecoder definitionLevelsDecoder;
+    private final LevelsBuffer repetitionLevels;
+    private final LevelsBuffer definitionLevels;
     private final int maxDefinitionLevel;
     private final int enclosingEmptyDefinitionLevel;
     private final IDecoder decoder;
@@ -446,13 +497,13 @@ public final class DataPage {
       this.n = repetitionLevelsDecoder.getNumEncodedValues();
       this.i = 0;
       this.decoder = decoder;
-      this.repetitionLevelsDecoder = repetitionLevelsDecoder;
-      this.definitionLevelsDecoder = definitionLevelsDecoder;
+      this.repetitionLevels = new LevelsBuffer(repetitionLevelsDecoder);
+      this.definitionLevels = new LevelsBuffer(definitionLevelsDecoder);
       this.delayedNullValue = delayedNullValue;
       this.maxDefinitionLevel = maxDefinitionLevel;
       this.enclosingEmptyDefinitionLevel = enclosingEmptyDefinitionLevel;
       if (n > 0) {
-        this.nextRepetitionLevel = repetitionLevelsDecoder.decodeInt();
+        this.nextRepetitionLevel = repetitionLevels.next();
       }
     }
 
@@ -465,7 +516,7 @@ public final class DataPage {
     public Object next() {
       List<LeveledValue> nextRepeatedValues = new ArrayList<LeveledValue>();
       while (i < n) {
-        int definitionLevel = definitionLevelsDecoder.decodeInt();
+        int definitionLevel = definitionLevels.next();
         if (definitionLevel < maxDefinitionLevel) {
           Object v;
           if (definitionLevel == enclosingEmptyDefinitionLevel + 1) {
@@ -480,7 +531,7 @@ public final class DataPage {
         }
         i += 1;
         if (i < n) {
-          nextRepetitionLevel = repetitionLevelsDecoder.decodeInt();
+          nextRepetitionLevel = repetitionLevels.next();
           if (nextRepetitionLevel == 0) {
             break;
           }
@@ -490,4 +541,35 @@ public final class DataPage {
     }
   }
 
+  private static final class LevelsBuffer {
+
+    private static final int MAX_BATCH_LENGTH = 256;
+
+    private final IIntDecoder decoder;
+    private final int[] levels;
+    private int numRemainingLevels;
+    private int position;
+    private int length;
+
+    LevelsBuffer(IIntDecoder decoder) {
+      this.decoder = decoder;
+      this.numRemainingLevels = decoder.getNumEncodedValues();
+      this.levels = new int[Math.min(numRemainingLevels, MAX_BATCH_LENGTH)];
+      this.position = 0;
+      this.length = 0;
+    }
+
+    int next() {
+      if (position == length) {
+        length = Math.min(numRemainingLevels, levels.length);
+        decoder.decodeInts(levels, 0, length);
+        numRemainingLevels -= length;
+        position = 0;
+      }
+      int level = levels[position];
+      position += 1;
+      return level;
+    }
+  }
+
 }
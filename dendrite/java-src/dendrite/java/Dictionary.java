@@ -14,9 +14,6 @@ package dendrite.java;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 
 public final class Dictionary {
 
@@ -45,30 +42,44 @@ public final class Dictionary {
 
   }
 
-  private static final class DictionaryIndex {
-    private final int idx;
-    private int cnt;
+  public static final class Encoder implements IIntEncoder, ILongEncoder, IFloatEncoder, IDoubleEncoder {
 
-    DictionaryIndex(int idx) {
-      this.idx = idx;
-      this.cnt = 1;
+    private final DictionaryTable table;
+    private final IIntEncoder indicesEncoder;
+    private long estimatedDictionaryLength = 0;
+
+    Encoder(DictionaryTable table, IIntEncoder indicesEncoder) {
+      this.indicesEncoder = indicesEncoder;
+      this.table = table;
     }
-  }
 
-  public static class Encoder implements IEncoder {
+    @Override
+    public void encode(Object o) {
+      indicesEncoder.encodeInt(getIndex(o));
+    }
 
-    private final HashMap<Object, DictionaryIndex> dictionaryIndex;
-    private final IEncoder indicesEncoder;
+    @Override
+    public void encodeInt(int i) {
+      int numDictionaryValues = table.size();
+      indicesEncoder.encodeInt(checkIndex(numDictionaryValues, table.add(i)));
+    }
 
-    Encoder(IEncoder indicesEncoder) {
-      this.indicesEncoder = indicesEncoder;
-      this.dictionaryIndex = new HashMap<Object, DictionaryIndex>();
+    @Override
+    public void encodeLong(long l) {
+      int numDictionaryValues = table.size();
+      indicesEncoder.encodeInt(checkIndex(numDictionaryValues, table.add(l)));
     }
 
     @Override
-    public void encode(Object o) {
-      int idx = getIndex(o);
-      indicesEncoder.encode(idx);
+    public void encodeFloat(float f) {
+      int numDictionaryValues = table.size();
+      indicesEncoder.encodeInt(checkIndex(numDictionaryValues, table.add(f)));
+    }
+
+    @Override
+    public void encodeDouble(double d) {
+      int numDictionaryValues = table.size();
+      indicesEncoder.encodeInt(checkIndex(numDictionaryValues, table.add(d)));
     }
 
     @Override
@@ -102,39 +113,53 @@ public final class Dictionary {
     }
 
     public void resetDictionary() {
-      dictionaryIndex.clear();
+      table.clear();
+      estimatedDictionaryLength = 0;
+    }
+
+    // Adds the values of a dictionary shared with a previous column chunk, in order, so that they keep the same
+    // indices.
+    public void seedDictionary(Object[] dictionary) {
+      for (Object o : dictionary) {
+        getIndex(o);
+      }
+    }
+
+    public void truncateDictionary(int numDictionaryValues) {
+      for (int i=numDictionaryValues; i<table.size(); ++i) {
+        estimatedDictionaryLength -= table.getEstimatedLength(i);
+      }
+      table.truncate(numDictionaryValues);
+    }
+
+    // Rough length of the plain-encoded dictionary, cheap enough to be checked after every write.
+    public long getEstimatedDictionaryLength() {
+      return estimatedDictionaryLength;
     }
 
     public int getNumDictionaryValues() {
-      return dictionaryIndex.size();
+      return table.size();
     }
 
     public Object[] getDictionary() {
-      Object[] dict = new Object[dictionaryIndex.size()];
-      for (Map.Entry<Object,DictionaryIndex> e : dictionaryIndex.entrySet()) {
-        dict[e.getValue().idx] = unwrap(e.getKey());
+      Object[] dict = new Object[table.size()];
+      for (int i=0; i<dict.length; ++i) {
+        dict[i] = table.get(i);
       }
       return dict;
     }
 
-    private static final Comparator<DictionaryIndex> mostFrequentFirst = new Comparator<DictionaryIndex>() {
-      public int compare(DictionaryIndex dia, DictionaryIndex dib) {
-            if (dia.cnt > dib.cnt) {
-              return -1; // sort by descending cnt
-            } else if (dia.cnt < dib.cnt) {
-              return 1;
-            } else {
-              return 0;
-            }
-          }
-    };
-
     public int[] getIndicesByFrequency() {
-      DictionaryIndex[] indices = dictionaryIndex.values().toArray(new DictionaryIndex[]{});
-      Arrays.sort(indices, mostFrequentFirst);
-      int[] indicesByFrequency = new int[indices.length];
-      for (int i=0; i<indices.length; ++i) {
-        indicesByFrequency[indices[i].idx] = i;
+      // Sort by descending count, breaking ties by index, without boxing.
+      int n = table.size();
+      long[] countsAndIndices = new long[n];
+      for (int i=0; i<n; ++i) {
+        countsAndIndices[i] = ((long)(Integer.MAX_VALUE - table.getCount(i)) << 32) | i;
+      }
+      Arrays.sort(countsAndIndices);
+      int[] indicesByFrequency = new int[n];
+      for (int i=0; i<n; ++i) {
+        indicesByFrequency[(int)countsAndIndices[i]] = i;
       }
       return indicesByFrequency;
     }
@@ -142,62 +167,33 @@ public final class Dictionary {
     public Object[] getDictionaryByFrequency() {
       Object[] dictionary = getDictionary();
       int[] indicesByFrequency = getIndicesByFrequency();
-      Object[] dictByFrequency = new Object[dictionaryIndex.size()];
+      Object[] dictByFrequency = new Object[dictionary.length];
       for (int i=0; i<dictionary.length; ++i) {
         dictByFrequency[indicesByFrequency[i]] = dictionary[i];
       }
       return dictByFrequency;
     }
 
-    Object wrap(Object o) {
-      return o;
-    }
-
-    Object unwrap(Object o) {
-      return o;
+    int getIndex(Object o) {
+      int numDictionaryValues = table.size();
+      return checkIndex(numDictionaryValues, table.add(o));
     }
 
-    int getIndex(Object o) {
-      Object key = wrap(o);
-      DictionaryIndex di = dictionaryIndex.get(key);
-      if (di == null) {
-        int idx = dictionaryIndex.size();
+    // Accounts for the value just added at idx if it is new to the dictionary.
+    private int checkIndex(int numDictionaryValues, int idx) {
+      if (idx == numDictionaryValues) {
         if (idx > MAX_DISTINCT_VALUES) {
           throw new IllegalStateException(String.format("Dictionary size exceed allowed maximum (%d)",
                                                         MAX_DISTINCT_VALUES));
         }
-        dictionaryIndex.put(key, new DictionaryIndex(idx));
-        return idx;
-      } else {
-        di.cnt += 1;
-        return di.idx;
+        estimatedDictionaryLength += table.getEstimatedLength(idx);
       }
+      return idx;
     }
 
     public static Encoder create(int type, int indicesEncoding) {
-      IEncoder indicesEncoder = Types.getPrimitiveEncoder(Types.INT, indicesEncoding);
-      if (type == Types.BYTE_ARRAY) {
-        return new ByteArrayEncoder(indicesEncoder);
-      } else {
-        return new Encoder(indicesEncoder);
-      }
-    }
-  }
-
-  private static final class ByteArrayEncoder extends Encoder {
-
-    ByteArrayEncoder(IEncoder indicesEncoder) {
-      super(indicesEncoder);
-    }
-
-    @Override
-    Object wrap(Object o) {
-      return new HashableByteArray((byte[])o);
-    }
-
-    @Override
-    Object unwrap(Object o) {
-      return ((HashableByteArray)o).array;
+      IIntEncoder indicesEncoder = (IIntEncoder)Types.getPrimitiveEncoder(Types.INT, indicesEncoding);
+      return new Encoder(DictionaryTable.create(type), indicesEncoder);
     }
   }
 
@@ -12,7 +12,9 @@
 
 package dendrite.java;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Iterator;
 import java.util.List;
 
@@ -25,9 +27,16 @@ public final class DictionaryColumnChunk {
     private final Types types;
     private final Schema.Column column;
     private final int partitionLength;
+    private final Object[] sharedDictionary;
 
     public Reader(Types types, ByteBuffer bb, Metadata.ColumnChunk columnChunkMetadata,
                   Schema.Column column, int partitionLength) {
+      this(types, bb, columnChunkMetadata, column, partitionLength, null);
+    }
+
+    public Reader(Types types, ByteBuffer bb, Metadata.ColumnChunk columnChunkMetadata,
+                  Schema.Column column, int partitionLength, Object[] sharedDictionary) {
+      this.sharedDictionary = sharedDictionary;
       this.types = types;
       this.bb = bb;
       this.columnChunkMetadata = columnChunkMetadata;
@@ -44,6 +53,8 @@ public final class DictionaryColumnChunk {
          column.repetitionLevel,
          column.definitionLevel,
          column.enclosingEmptyDefinitionLevel,
+         columnChunkMetadata.numFallbackDataPages,
+         sharedDictionary,
          types.getDecoderFactory(column.type, Types.PLAIN, column.fn),
          types.getDecoderFactory(Types.INT, Types.PACKED_RUN_LENGTH),
          types.getDecompressorFactory(column.compression)).iterator();
@@ -73,15 +84,22 @@ public final class DictionaryColumnChunk {
 
   public static final class Writer implements IColumnChunkWriter {
 
+    private final Types types;
     private final Schema.Column column;
     private final Dictionary.Encoder dictEncoder;
     private final DictionaryPage.Writer dictPageWriter;
     private final DataColumnChunk.Writer indicesColumnChunkWriter;
+    private final DataColumnChunk.Writer fallbackColumnChunkWriter;
     private final MemoryOutputStream mos;
     private double bytesPerDictionaryValue = -1.0;
     private int dictionaryHeaderLength = -1;
+    private boolean isSharedDictionary = false;
+    private Object[] sharedDictionary = null;
+    private long maxDictionaryLength = Long.MAX_VALUE;
+    private boolean isFallback = false;
 
     private Writer(Types types, Schema.Column column, int targetDataPageLength) {
+      this.types = types;
       this.dictEncoder = Dictionary.Encoder.create(ColumnChunks.getType(types, column.type),
                                                    Types.PACKED_RUN_LENGTH);
       Schema.Column indicesColumn = getIndicesColumn(column);
@@ -91,6 +109,8 @@ public final class DictionaryColumnChunk {
                                                                  null);
       this.indicesColumnChunkWriter
         = DataColumnChunk.Writer.create(indicesPageWriter, indicesColumn, targetDataPageLength);
+      this.fallbackColumnChunkWriter
+        = DataColumnChunk.Writer.create(types, getFallbackColumn(column), targetDataPageLength);
       this.column = column;
       this.mos = new MemoryOutputStream();
       this.dictPageWriter
@@ -102,9 +122,75 @@ public final class DictionaryColumnChunk {
       return new Writer(types, column, targetDataPageLength);
     }
 
+    // In shared mode, the dictionary is frozen at the end of the first column chunk and stored once in the
+    // file metadata. Later column chunks only write the values that are missing from it.
+    public void shareDictionary() {
+      isSharedDictionary = true;
+    }
+
+    // Once the dictionary grows past maxDictionaryLength, it stops accepting new values and the rest of the
+    // column chunk is written as plain-encoded data pages.
+    public void setMaxDictionaryLength(long maxDictionaryLength) {
+      this.maxDictionaryLength = maxDictionaryLength;
+    }
+
+    @Override
+    public void spillTo(SpillFile spillFile) {
+      indicesColumnChunkWriter.spillTo(spillFile);
+      fallbackColumnChunkWriter.spillTo(spillFile);
+    }
+
+    @Override
+    public void bufferPagesIn(SegmentedBuffer.Pool pool) {
+      indicesColumnChunkWriter.bufferPagesIn(pool);
+      fallbackColumnChunkWriter.bufferPagesIn(pool);
+    }
+
+    // Carries the shared dictionary of the previous column chunk of the same column over to this empty writer,
+    // freezing it first if needed, so that both column chunks can be finished independently.
+    public void inheritSharedDictionary(Writer previous) {
+      if (previous.isSharedDictionary) {
+        if (previous.sharedDictionary == null) {
+          previous.sharedDictionary = previous.dictEncoder.getDictionary();
+        }
+        isSharedDictionary = true;
+        sharedDictionary = previous.sharedDictionary;
+        dictEncoder.seedDictionary(sharedDictionary);
+      }
+    }
+
+    public boolean isSharedDictionary() {
+      return isSharedDictionary;
+    }
+
+    public boolean hasSharedDictionary() {
+      return sharedDictionary != null;
+    }
+
+    public ByteBuffer getSharedDictionaryPage() {
+      DictionaryPage.Writer sharedDictPageWriter
+        = DictionaryPage.Writer.create(types.getEncoder(ColumnChunks.getType(types, column.type), Types.PLAIN),
+                                       types.getCompressor(column.compression));
+      for (Object v : sharedDictionary) {
+        sharedDictPageWriter.write(v);
+      }
+      sharedDictPageWriter.finish();
+      MemoryOutputStream sharedDictMos = new MemoryOutputStream();
+      Pages.writeTo(sharedDictMos, sharedDictPageWriter);
+      return sharedDictMos.toByteBuffer();
+    }
+
     @Override
     public void write(Iterable<Object> values) {
-      indicesColumnChunkWriter.write(values);
+      if (isFallback) {
+        fallbackColumnChunkWriter.write(values);
+      } else {
+        indicesColumnChunkWriter.write(values);
+        if (dictEncoder.getEstimatedDictionaryLength() > maxDictionaryLength) {
+          indicesColumnChunkWriter.finish();
+          isFallback = true;
+        }
+      }
     }
 
     @Override
@@ -119,18 +205,29 @@ public final class DictionaryColumnChunk {
       return mos.toByteBuffer();
     }
 
+    @Override
+    public ByteBuffer[] toByteBuffers() {
+      finish();
+      mos.reset();
+      Pages.writeTo(mos, dictPageWriter);
+      return Utils.concat(new ByteBuffer[]{mos.toByteBuffer()},
+                          indicesColumnChunkWriter.toByteBuffers(),
+                          fallbackColumnChunkWriter.toByteBuffers());
+    }
+
     @Override
     public int getNumDataPages() {
-      return indicesColumnChunkWriter.getNumDataPages();
+      return indicesColumnChunkWriter.getNumDataPages() + fallbackColumnChunkWriter.getNumDataPages();
     }
 
     @Override
     public Metadata.ColumnChunk getMetadata() {
       finish();
       return new Metadata.ColumnChunk(getLength(),
-                                      indicesColumnChunkWriter.getMetadata().numDataPages,
+                                      getNumDataPages(),
                                       dictionaryLength(),
-                                      0);
+                                      0,
+                                      fallbackColumnChunkWriter.getNumDataPages());
     }
 
     private void updateDictionaryLengthEstimates() {
@@ -144,23 +241,34 @@ public final class DictionaryColumnChunk {
 
     @Override
     public void finish() {
+      if (isSharedDictionary && sharedDictionary == null) {
+        sharedDictionary = dictEncoder.getDictionary();
+      }
       encodeDictionaryPage();
       updateDictionaryLengthEstimates();
       indicesColumnChunkWriter.finish();
+      fallbackColumnChunkWriter.finish();
     }
 
     @Override
     public void reset() {
       dictEncoder.reset();
-      dictEncoder.resetDictionary();
+      if (sharedDictionary != null) {
+        dictEncoder.truncateDictionary(sharedDictionary.length);
+      } else {
+        dictEncoder.resetDictionary();
+      }
       dictPageWriter.reset();
       indicesColumnChunkWriter.reset();
+      fallbackColumnChunkWriter.reset();
+      isFallback = false;
     }
 
     @Override
     public int getLength() {
       finish();
-      return dictionaryLength() + indicesColumnChunkWriter.getLength();
+      return dictionaryLength() + indicesColumnChunkWriter.getLength()
+        + fallbackColumnChunkWriter.getLength();
     }
 
     private int dictionaryLength() {
@@ -169,18 +277,18 @@ public final class DictionaryColumnChunk {
 
     @Override
     public int getEstimatedLength() {
-      return getEstimatedDictionaryLength() + indicesColumnChunkWriter.getEstimatedLength();
+      return getEstimatedDictionaryLength() + indicesColumnChunkWriter.getEstimatedLength()
+        + fallbackColumnChunkWriter.getEstimatedLength();
     }
 
     private int getEstimatedDictionaryLength() {
+      int numDictionaryValues = dictEncoder.getNumDictionaryValues() - getNumSharedDictionaryValues();
       if (bytesPerDictionaryValue > 0) {
-        return 1 + dictionaryHeaderLength
-          + (int)(dictEncoder.getNumDictionaryValues() * bytesPerDictionaryValue);
-      } else if (dictEncoder.getNumDictionaryValues() > 0) {
+        return 1 + dictionaryHeaderLength + (int)(numDictionaryValues * bytesPerDictionaryValue);
+      } else if (numDictionaryValues > 0) {
         encodeDictionaryPage();
         updateDictionaryLengthEstimates();
-        return 1 + dictionaryHeaderLength
-          + (int)(dictEncoder.getNumDictionaryValues() * bytesPerDictionaryValue);
+        return 1 + dictionaryHeaderLength + (int)(numDictionaryValues * bytesPerDictionaryValue);
       } else {
         return 1;
       }
@@ -191,20 +299,42 @@ public final class DictionaryColumnChunk {
       finish();
       Pages.writeTo(memoryOutputStream, dictPageWriter);
       memoryOutputStream.write(indicesColumnChunkWriter);
+      memoryOutputStream.write(fallbackColumnChunkWriter);
+    }
+
+    @Override
+    public void writeTo(FileChannel fileChannel) throws IOException {
+      finish();
+      mos.reset();
+      Pages.writeTo(mos, dictPageWriter);
+      fileChannel.write(mos.toByteBuffer());
+      indicesColumnChunkWriter.writeTo(fileChannel);
+      fallbackColumnChunkWriter.writeTo(fileChannel);
     }
 
     private void encodeDictionaryPage() {
       dictPageWriter.reset();
-      for (Object v : dictEncoder.getDictionary()) {
-        dictPageWriter.write(v);
+      Object[] dictionary = dictEncoder.getDictionary();
+      for (int i=getNumSharedDictionaryValues(); i<dictionary.length; ++i) {
+        dictPageWriter.write(dictionary[i]);
       }
       dictPageWriter.finish();
     }
 
+    private int getNumSharedDictionaryValues() {
+      return (sharedDictionary == null)? 0 : sharedDictionary.length;
+    }
+
     private static Schema.Column getIndicesColumn(Schema.Column column) {
       return new Schema.Column(column.presence, column.repetitionLevel, column.definitionLevel,
                                Types.INT, Types.PACKED_RUN_LENGTH, Types.NONE, column.columnIndex,
                                column.enclosingEmptyDefinitionLevel, -1, null);
     }
+
+    private static Schema.Column getFallbackColumn(Schema.Column column) {
+      return new Schema.Column(column.presence, column.repetitionLevel, column.definitionLevel,
+                               column.type, Types.PLAIN, column.compression, column.columnIndex,
+                               column.enclosingEmptyDefinitionLevel, -1, null);
+    }
   }
 }
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.util.Arrays;
+
+// An open-addressing hash table that maps each distinct value to a dense index, in order of first appearance,
+// and counts its occurrences. Keys are stored in primitive arrays (or in a contiguous arena for byte arrays)
+// along with their hashes, so adding a value does not allocate anything once the table has grown.
+abstract class DictionaryTable {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private int[] slots = new int[2 * MIN_CAPACITY]; // index + 1 of the key in each slot, or 0 if empty
+  private int mask = slots.length - 1;
+  int[] hashes = new int[MIN_CAPACITY];
+  int[] counts = new int[MIN_CAPACITY];
+  int size = 0;
+
+  abstract int hash(Object o);
+
+  abstract boolean isKeyAt(int idx, Object o);
+
+  abstract void setKey(int idx, Object o);
+
+  abstract Object get(int idx);
+
+  // Rough length of the plain encoding of the key at idx.
+  int getEstimatedLength(int idx) {
+    return 8;
+  }
+
+  // Returns the index of o, adding it to the table if it isn't already present, and increments its count.
+  final int add(Object o) {
+    int hash = hash(o);
+    int slot = hash & mask;
+    while (true) {
+      int idx = slots[slot] - 1;
+      if (idx < 0) {
+        break;
+      } else if (hashes[idx] == hash && isKeyAt(idx, o)) {
+        counts[idx] += 1;
+        return idx;
+      }
+      slot = (slot + 1) & mask;
+    }
+    int idx = insert(slot, hash);
+    setKey(idx, o);
+    return idx;
+  }
+
+  // Primitive overloads of add. The tables that store their keys unboxed override them.
+  int add(int i) {
+    return add((Object)i);
+  }
+
+  int add(long l) {
+    return add((Object)l);
+  }
+
+  int add(float f) {
+    return add((Object)f);
+  }
+
+  int add(double d) {
+    return add((Object)d);
+  }
+
+  // Same as add(Object) for a key stored as an int, but without going through the boxed key. Keys are compared
+  // directly rather than through their hashes. The caller sets the key at the returned index, since growing
+  // the table replaces its keys array.
+  final int addIntKey(int[] keys, int key) {
+    int hash = mix(key);
+    int slot = hash & mask;
+    while (true) {
+      int idx = slots[slot] - 1;
+      if (idx < 0) {
+        break;
+      } else if (keys[idx] == key) {
+        counts[idx] += 1;
+        return idx;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return insert(slot, hash);
+  }
+
+  // Same as addIntKey for a key stored as a long.
+  final int addLongKey(long[] keys, long key) {
+    int hash = mix(key);
+    int slot = hash & mask;
+    while (true) {
+      int idx = slots[slot] - 1;
+      if (idx < 0) {
+        break;
+      } else if (keys[idx] == key) {
+        counts[idx] += 1;
+        return idx;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return insert(slot, hash);
+  }
+
+  // Takes the next index for a new key in the given empty slot. The caller sets the key itself.
+  private int insert(int slot, int hash) {
+    int idx = size;
+    if (idx == counts.length) {
+      grow(2 * idx);
+    }
+    hashes[idx] = hash;
+    counts[idx] = 1;
+    slots[slot] = idx + 1;
+    size += 1;
+    if (2 * size > slots.length) {
+      rehash(2 * slots.length);
+    }
+    return idx;
+  }
+
+  final int size() {
+    return size;
+  }
+
+  final int getCount(int idx) {
+    return counts[idx];
+  }
+
+  void grow(int capacity) {
+    hashes = Arrays.copyOf(hashes, capacity);
+    counts = Arrays.copyOf(counts, capacity);
+  }
+
+  private void rehash(int numSlots) {
+    if (numSlots != slots.length) {
+      slots = new int[numSlots];
+      mask = numSlots - 1;
+    } else {
+      Arrays.fill(slots, 0);
+    }
+    for (int idx=0; idx<size; ++idx) {
+      int slot = hashes[idx] & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = idx + 1;
+    }
+  }
+
+  // Removes all the keys with an index greater or equal to n.
+  void truncate(int n) {
+    if (n < size) {
+      size = n;
+      rehash(slots.length);
+    }
+  }
+
+  void clear() {
+    truncate(0);
+  }
+
+  // Finalizer from MurmurHash3. Linear probing needs the low bits of the hash to be well mixed.
+  static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  static int mix(long l) {
+    return mix((int)(l ^ (l >>> 32)));
+  }
+
+  static DictionaryTable create(int type) {
+    switch (type) {
+    case Types.INT: return new IntTable();
+    case Types.FLOAT: return new FloatTable();
+    case Types.LONG: return new LongTable();
+    case Types.DOUBLE: return new DoubleTable();
+    case Types.BYTE_ARRAY: return new ByteArrayTable();
+    case Types.FIXED_LENGTH_BYTE_ARRAY: return new ByteArrayTable();
+    default: return new ObjectTable();
+    }
+  }
+
+  static class IntTable extends DictionaryTable {
+
+    private int[] keys = new int[MIN_CAPACITY];
+
+    int toInt(Object o) {
+      return (Integer)o;
+    }
+
+    Object fromInt(int i) {
+      return i;
+    }
+
+    @Override
+    final int hash(Object o) {
+      return mix(toInt(o));
+    }
+
+    @Override
+    final boolean isKeyAt(int idx, Object o) {
+      return keys[idx] == toInt(o);
+    }
+
+    @Override
+    final void setKey(int idx, Object o) {
+      keys[idx] = toInt(o);
+    }
+
+    @Override
+    final Object get(int idx) {
+      return fromInt(keys[idx]);
+    }
+
+    final int addBits(int bits) {
+      int idx = addIntKey(keys, bits);
+      keys[idx] = bits;
+      return idx;
+    }
+
+    @Override
+    int add(int i) {
+      return addBits(i);
+    }
+
+    final int getInt(int idx) {
+      return keys[idx];
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      keys = Arrays.copyOf(keys, capacity);
+    }
+  }
+
+  static final class FloatTable extends IntTable {
+
+    // Same equality semantics as Float.equals
+    @Override
+    int toInt(Object o) {
+      return Float.floatToIntBits((Float)o);
+    }
+
+    @Override
+    Object fromInt(int i) {
+      return Float.intBitsToFloat(i);
+    }
+
+    @Override
+    int add(float f) {
+      return addBits(Float.floatToIntBits(f));
+    }
+  }
+
+  static class LongTable extends DictionaryTable {
+
+    private long[] keys = new long[MIN_CAPACITY];
+
+    long toLong(Object o) {
+      return (Long)o;
+    }
+
+    Object fromLong(long l) {
+      return l;
+    }
+
+    @Override
+    final int hash(Object o) {
+      return mix(toLong(o));
+    }
+
+    @Override
+    final boolean isKeyAt(int idx, Object o) {
+      return keys[idx] == toLong(o);
+    }
+
+    @Override
+    final void setKey(int idx, Object o) {
+      keys[idx] = toLong(o);
+    }
+
+    @Override
+    final Object get(int idx) {
+      return fromLong(keys[idx]);
+    }
+
+    final int addBits(long bits) {
+      int idx = addLongKey(keys, bits);
+      keys[idx] = bits;
+      return idx;
+    }
+
+    @Override
+    int add(long l) {
+      return addBits(l);
+    }
+
+    final long getLong(int idx) {
+      return keys[idx];
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      keys = Arrays.copyOf(keys, capacity);
+    }
+  }
+
+  static final class DoubleTable extends LongTable {
+
+    // Same equality semantics as Double.equals
+    @Override
+    long toLong(Object o) {
+      return Double.doubleToLongBits((Double)o);
+    }
+
+    @Override
+    Object fromLong(long l) {
+      return Double.longBitsToDouble(l);
+    }
+
+    @Override
+    int add(double d) {
+      return addBits(Double.doubleToLongBits(d));
+    }
+  }
+
+  static final class ByteArrayTable extends DictionaryTable {
+
+    private byte[] arena = new byte[16 * MIN_CAPACITY];
+    private int[] offsets = new int[MIN_CAPACITY + 1];
+
+    private static int hashBytes(byte[] bs) {
+      int h = 1;
+      for (byte b : bs) {
+        h = 31 * h + (int)b;
+      }
+      return h;
+    }
+
+    @Override
+    int hash(Object o) {
+      return mix(hashBytes((byte[])o));
+    }
+
+    @Override
+    boolean isKeyAt(int idx, Object o) {
+      byte[] bs = (byte[])o;
+      int offset = offsets[idx];
+      if (offsets[idx+1] - offset != bs.length) {
+        return false;
+      }
+      for (int i=0; i<bs.length; ++i) {
+        if (arena[offset + i] != bs[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    void setKey(int idx, Object o) {
+      byte[] bs = (byte[])o;
+      int offset = offsets[idx];
+      if (offset + bs.length > arena.length) {
+        arena = Arrays.copyOf(arena, Math.max(2 * arena.length, offset + bs.length));
+      }
+      System.arraycopy(bs, 0, arena, offset, bs.length);
+      offsets[idx+1] = offset + bs.length;
+    }
+
+    @Override
+    Object get(int idx) {
+      return Arrays.copyOfRange(arena, offsets[idx], offsets[idx+1]);
+    }
+
+    @Override
+    int getEstimatedLength(int idx) {
+      int length = offsets[idx+1] - offsets[idx];
+      return Bytes.getNumUIntBytes(length) + length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      offsets = Arrays.copyOf(offsets, capacity + 1);
+    }
+  }
+
+  static final class ObjectTable extends DictionaryTable {
+
+    private Object[] keys = new Object[MIN_CAPACITY];
+
+    @Override
+    int hash(Object o) {
+      return mix(o.hashCode());
+    }
+
+    @Override
+    boolean isKeyAt(int idx, Object o) {
+      return o.equals(keys[idx]);
+    }
+
+    @Override
+    void setKey(int idx, Object o) {
+      keys[idx] = o;
+    }
+
+    @Override
+    Object get(int idx) {
+      return keys[idx];
+    }
+
+    @Override
+    void truncate(int n) {
+      if (n < size) {
+        Arrays.fill(keys, n, size, null);
+      }
+      super.truncate(n);
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      keys = Arrays.copyOf(keys, capacity);
+    }
+  }
+}
@@ -26,14 +26,28 @@ public final class DoublePlain {
     public Object decode() {
       return Bytes.readDouble(bb);
     }
+
+    public void decodeDoubles(final double[] doubles, final int offset, final int length) {
+      Bytes.readDoubles(bb, doubles, offset, length);
+    }
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IDoubleEncoder {
 
     @Override
     public void encode(Object o) {
+      encodeDouble((double)o);
+    }
+
+    @Override
+    public void encodeDouble(final double d) {
       numValues += 1;
-      Bytes.writeDouble(mos, (double) o);
+      Bytes.writeDouble(mos, d);
+    }
+
+    public void encodeDoubles(final double[] doubles, final int offset, final int length) {
+      numValues += length;
+      Bytes.writeDoubles(mos, doubles, offset, length);
     }
 
   }
@@ -16,8 +16,10 @@ import clojure.lang.Agent;
 import clojure.lang.IFn;
 import clojure.lang.IPersistentMap;
 import clojure.lang.IPersistentVector;
+import clojure.lang.ITransientCollection;
 import clojure.lang.Keyword;
 import clojure.lang.PersistentArrayMap;
+import clojure.lang.PersistentVector;
 import clojure.lang.Symbol;
 
 import java.io.Closeable;
@@ -27,7 +29,6 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -62,6 +63,8 @@ public final class FileReader implements Closeable, IReader {
     MAX_REPETITION_LEVEL = Keyword.intern("max-repetition-level"),
     MAX_DEFINITION_LEVEL = Keyword.intern("max-definition-level"),
     PATH = Keyword.intern("path"),
+    COLUMN_CHUNK_ENCODINGS = Keyword.intern("column-chunk-encodings"),
+    COLUMN_CHUNK_COMPRESSIONS = Keyword.intern("column-chunk-compressions"),
     NUM_RECORDS = Keyword.intern("num-records"),
     NUM_RECORD_GROUPS = Keyword.intern("num-record-groups"),
     NUM_COLUMN_CHUNKS = Keyword.intern("num-column-chunks"),
@@ -72,21 +75,25 @@ public final class FileReader implements Closeable, IReader {
   final FileChannel fileChannel;
   final Metadata.File fileMetadata;
   final long metadataLength;
+  final boolean isUnmappingRecordGroups;
 
   private FileReader(Types types, File file, FileChannel fileChannel, Metadata.File fileMetadata,
-                     long metadataLength) {
+                     long metadataLength, boolean isUnmappingRecordGroups) {
     this.types = types;
     this.file = file;
     this.fileChannel = fileChannel;
     this.fileMetadata = fileMetadata;
     this.metadataLength = metadataLength;
+    this.isUnmappingRecordGroups = isUnmappingRecordGroups;
   }
 
   public static FileReader create(Options.ReaderOptions options, File file) throws IOException {
     FileChannel fileChannel = Utils.getReadingFileChannel(file);
     MetadataReadResult res = readMetadata(file, fileChannel);
-    Types types = Types.create(options.customTypeDefinitions, res.fileMetadata.customTypes);
-    return new FileReader(types, file, fileChannel, res.fileMetadata, res.metadataLength);
+    Types types = Types.create(options.customTypeDefinitions, res.fileMetadata.customTypes,
+                               options.isZeroCopy);
+    return new FileReader(types, file, fileChannel, res.fileMetadata, res.metadataLength,
+                          options.isUnmappingRecordGroups);
   }
 
   public ByteBuffer getMetadata() {
@@ -120,13 +127,36 @@ public final class FileReader implements Closeable, IReader {
 
   private Iterator<RecordGroup.Reader> getRecordGroupReaders(Schema.Column[] columns, int bundleSize) {
     return getRecordGroupReaders(types, fileChannel, Constants.magicBytes.length,
-                                 fileMetadata.recordGroups, columns, bundleSize);
+                                 fileMetadata.recordGroups, columns, bundleSize,
+                                 getSharedDictionaries(columns));
+  }
+
+  // Decodes the shared dictionaries of the queried columns once, so that they can be reused across all
+  // record groups.
+  private Object[][] getSharedDictionaries(Schema.Column[] queriedColumns) {
+    if (fileMetadata.sharedDictionaries.length == 0) {
+      return null;
+    }
+    Object[][] sharedDictionaries = new Object[Schema.getColumns(fileMetadata.schema).length][];
+    for (Metadata.SharedDictionary sharedDictionary : fileMetadata.sharedDictionaries) {
+      for (Schema.Column column : queriedColumns) {
+        if (column.columnIndex == sharedDictionary.columnIndex && column.encoding == Types.DICTIONARY) {
+          sharedDictionaries[column.columnIndex]
+            = Pages.getDictionaryPageReader(sharedDictionary.dictionaryPage,
+                                            types.getDecoderFactory(column.type, Types.PLAIN, column.fn),
+                                            types.getDecompressorFactory(column.compression)).read();
+          break;
+        }
+      }
+    }
+    return sharedDictionaries;
   }
 
   private static Iterator<RecordGroup.Reader>
     getRecordGroupReaders(final Types types, final FileChannel fileChannel, final long offset,
                           final Metadata.RecordGroup[] recordGroupsMetadata,
-                          final Schema.Column[] queriedColumns, final int bundleSize) {
+                          final Schema.Column[] queriedColumns, final int bundleSize,
+                          final Object[][] sharedDictionaries) {
     final int numRecordGroups = recordGroupsMetadata.length;
     if (numRecordGroups == 0) {
       return Collections.<RecordGroup.Reader>emptyList().iterator();
@@ -143,16 +173,16 @@ public final class FileReader implements Closeable, IReader {
       @Override
       public RecordGroup.Reader next() {
         Metadata.RecordGroup recordGroupMetadata = recordGroupsMetadata[i];
-        long length = recordGroupMetadata.length;
-        ByteBuffer bb;
+        ByteBuffer[] byteBuffers;
         try {
-          bb = Utils.mapFileChannel(fileChannel, nextOffset, length);
+          byteBuffers = RecordGroup.map(fileChannel, nextOffset, recordGroupMetadata, Integer.MAX_VALUE);
         } catch (IOException e) {
           throw new IllegalStateException(e);
         }
         RecordGroup.Reader recordGroupReader
-          = new RecordGroup.Reader(types, bb, recordGroupMetadata, queriedColumns, bundleSize);
-        nextOffset += length;
+          = new RecordGroup.Reader(types, byteBuffers, recordGroupMetadata, queriedColumns, bundleSize,
+                                   sharedDictionaries);
+        nextOffset += recordGroupMetadata.length;
         i += 1;
         return recordGroupReader;
       }
@@ -181,6 +211,8 @@ public final class FileReader implements Closeable, IReader {
       .assoc(ENCODING, columnStats.encoding)
       .assoc(COMPRESSION, columnStats.compression)
       .assoc(PATH, columnStats.path)
+      .assoc(COLUMN_CHUNK_ENCODINGS, columnStats.columnChunkEncodings)
+      .assoc(COLUMN_CHUNK_COMPRESSIONS, columnStats.columnChunkCompressions)
       .assoc(MAX_REPETITION_LEVEL, columnStats.maxRepetitionLevel)
       .assoc(MAX_DEFINITION_LEVEL, columnStats.maxDefinitionLevel)
       .assoc(NUM_COLUMN_CHUNKS, columnStats.numColumnChunks)
@@ -212,6 +244,29 @@ public final class FileReader implements Closeable, IReader {
       .persistent();
   }
 
+  // Column chunks that were re-optimized record their own encoding and compression, which then differ from
+  // the column's in the schema.
+  private IPersistentVector getColumnChunkEncodings(Schema.Column column) {
+    ITransientCollection encodings = PersistentVector.EMPTY.asTransient();
+    for (Metadata.RecordGroup recordGroupMetadata : fileMetadata.recordGroups) {
+      Metadata.ColumnChunk columnChunkMetadata = recordGroupMetadata.columnChunks[column.columnIndex];
+      int encoding = columnChunkMetadata.hasOwnEncoding()? columnChunkMetadata.encoding : column.encoding;
+      encodings = encodings.conj(types.getEncodingSymbol(encoding));
+    }
+    return (IPersistentVector)encodings.persistent();
+  }
+
+  private IPersistentVector getColumnChunkCompressions(Schema.Column column) {
+    ITransientCollection compressions = PersistentVector.EMPTY.asTransient();
+    for (Metadata.RecordGroup recordGroupMetadata : fileMetadata.recordGroups) {
+      Metadata.ColumnChunk columnChunkMetadata = recordGroupMetadata.columnChunks[column.columnIndex];
+      int compression
+        = columnChunkMetadata.hasOwnEncoding()? columnChunkMetadata.compression : column.compression;
+      compressions = compressions.conj(types.getCompressionSymbol(compression));
+    }
+    return (IPersistentVector)compressions.persistent();
+  }
+
   public IPersistentMap getStats() throws IOException {
     IPersistentVector[] paths = Schema.getPaths(fileMetadata.schema);
     Schema.Column[] columns = Schema.getColumns(fileMetadata.schema);
@@ -227,6 +282,9 @@ public final class FileReader implements Closeable, IReader {
       List<Stats.ColumnChunk> columnChunksStats = recordGroupReader.getColumnChunkStats();
       recordGroupsStats.add(Stats.createRecordGroupStats(recordGroupReader.getNumRecords(),
                                                          columnChunksStats));
+      if (isUnmappingRecordGroups) {
+        unmap(recordGroupReader);
+      }
       int i = 0;
       for(Stats.ColumnChunk columnChunkStats : columnChunksStats) {
         columnChunkStatsByColumn.get(i).add(columnChunkStats);
@@ -242,6 +300,8 @@ public final class FileReader implements Closeable, IReader {
                                                col.repetitionLevel,
                                                col.definitionLevel,
                                                paths[i],
+                                               getColumnChunkEncodings(col),
+                                               getColumnChunkCompressions(col),
                                                columnChunkStatsByColumn.get(i)));
     }
     List<IPersistentMap> recordGroupStatsMaps = new ArrayList<IPersistentMap>();
@@ -276,8 +336,8 @@ public final class FileReader implements Closeable, IReader {
     fileChannel.close();
   }
 
-  private static boolean isValidMagicBytes(ByteBuffer bb) {
-    return Arrays.equals(Constants.magicBytes, Types.toByteArray(bb));
+  private static int getVersion(ByteBuffer magicBytesBuffer) {
+    return Constants.getVersion(Types.toByteArray(magicBytesBuffer));
   }
 
   private static final int fixedIntLength = 4;
@@ -297,7 +357,9 @@ public final class FileReader implements Closeable, IReader {
     long lastMagicBytesPosition = length - Constants.magicBytes.length;
     ByteBuffer lastMagicBytesBuffer
       = Utils.mapFileChannel(fileChannel, lastMagicBytesPosition, Constants.magicBytes.length);
-    if (!isValidMagicBytes(lastMagicBytesBuffer)) {
+    int version = getVersion(lastMagicBytesBuffer);
+    Utils.freeDirectBuffer(lastMagicBytesBuffer);
+    if (version < 0) {
       throw new IllegalStateException(String.format("%s is not a valid dendrite file.", file.getPath()));
     }
     long metadataLengthPosition = lastMagicBytesPosition - fixedIntLength;
@@ -308,26 +370,37 @@ public final class FileReader implements Closeable, IReader {
       = Utils.mapFileChannel(fileChannel, metadataLengthPosition, fixedIntLength);
     metadataLengthBuffer.order(ByteOrder.LITTLE_ENDIAN);
     long metadataLength = metadataLengthBuffer.getInt();
+    Utils.freeDirectBuffer(metadataLengthBuffer);
     if (metadataLength <= 0) {
       throw new IllegalStateException(String.format("%s is not a valid dendrite file.", file.getPath()));
     }
     ByteBuffer metadataBuffer
       = Utils.mapFileChannel(fileChannel, metadataLengthPosition - metadataLength, metadataLength);
-    return new MetadataReadResult(Metadata.File.read(metadataBuffer), metadataLength);
+    return new MetadataReadResult(Metadata.File.read(metadataBuffer, version), metadataLength);
   }
 
+  // If isUnmappingRecordGroups is true, the mapping of each record group is released as soon as all its
+  // bundles have been read, as they hold copies of its values. Record groups that are only partially read are
+  // left to the GC, since their pages may still be decoded in the background.
   private static Iterator<Bundle> getBundlesIterator(final File file,
-                                                     final Iterator<RecordGroup.Reader> recordGroupReaders) {
+                                                     final Iterator<RecordGroup.Reader> recordGroupReaders,
+                                                     final boolean isUnmappingRecordGroups) {
     if (!recordGroupReaders.hasNext()) {
       return Collections.<Bundle>emptyList().iterator();
     }
     return new AReadOnlyIterator<Bundle>() {
-      private Iterator<Bundle> bundleIterator = recordGroupReaders.next().iterator();
+      private RecordGroup.Reader recordGroupReader = recordGroupReaders.next();
+      private Iterator<Bundle> bundleIterator = recordGroupReader.iterator();
 
       private void step() {
+        if (isUnmappingRecordGroups) {
+          unmap(recordGroupReader);
+        }
         if (recordGroupReaders.hasNext()) {
-          bundleIterator = recordGroupReaders.next().iterator();
+          recordGroupReader = recordGroupReaders.next();
+          bundleIterator = recordGroupReader.iterator();
         } else {
+          recordGroupReader = null;
           bundleIterator = null;
         }
       }
@@ -359,6 +432,12 @@ public final class FileReader implements Closeable, IReader {
     };
   }
 
+  private static void unmap(RecordGroup.Reader recordGroupReader) {
+    for (ByteBuffer bb : recordGroupReader.getByteBuffers()) {
+      Utils.freeDirectBuffer(bb);
+    }
+  }
+
   private interface IReduceFutureFactory {
     Future<Object> get(Bundle bundle);
   }
@@ -536,7 +615,12 @@ public final class FileReader implements Closeable, IReader {
 
     private synchronized Assemble.Fn getAssembleFn() {
       if (assembleFn == null) {
-        assembleFn = Assemble.getFn(FileReader.this.types, getQueryResult().schema);
+        Schema schema = getQueryResult().schema;
+        if (options.isLazyRecords) {
+          assembleFn = Assemble.getLazyFn(FileReader.this.types, schema);
+        } else {
+          assembleFn = Assemble.getFn(FileReader.this.types, schema);
+        }
       }
       return assembleFn;
     }
@@ -570,7 +654,8 @@ public final class FileReader implements Closeable, IReader {
 
     private Iterator<Bundle> getBundlesIterator(int bundleSize) {
       return FileReader.getBundlesIterator(FileReader.this.file,
-                                           getRecordGroupReaders(getQueriedColumns(), bundleSize));
+                                           getRecordGroupReaders(getQueriedColumns(), bundleSize),
+                                           isUnmappingRecordGroups);
     }
   }
 }
@@ -14,6 +14,7 @@ package dendrite.java;
 
 import clojure.lang.Agent;
 import clojure.lang.IFn;
+import clojure.lang.IPersistentVector;
 import clojure.lang.Symbol;
 
 import java.io.Closeable;
@@ -22,44 +23,76 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 public final class FileWriter implements Closeable {
 
-  private static final List<Object> poison = new ArrayList<Object>();
+  private static final Callable<Bundle> poison = new Callable<Bundle>() {
+      public Bundle call() {
+        return null;
+      }
+    };
   private final Types types;
   private final Schema schema;
+  private final Schema.Column[] columns;
+  private final IPersistentVector[] columnPaths;
   private final FileChannel fileChannel;
   private ByteBuffer metadata;
-  private List<Object> batchBuffer;
-  private int numBufferedRecords;
-  private final LinkedBlockingQueue<List<Object>> batchQueue;
+  private final ThreadLocal<BatchBuffer> batchBuffer;
+  private final ConcurrentLinkedQueue<BatchBuffer> batchBuffers;
+  private final LinkedBlockingQueue<Callable<Bundle>> batchQueue;
+  private final StripeReducer stripeReducer;
   private final Future<WriteThreadResult> writeThread;
   private final int bundleSize;
-  private boolean isClosed;
+  private final RecordGroupPipeline recordGroupPipeline;
+  private volatile boolean isClosed;
 
   private FileWriter(Types types, Schema schema, FileChannel fileChannel, int bundleSize,
-                     Future<WriteThreadResult> writeThread, LinkedBlockingQueue<List<Object>> batchQueue) {
+                     Future<WriteThreadResult> writeThread, LinkedBlockingQueue<Callable<Bundle>> batchQueue,
+                     StripeReducer stripeReducer, RecordGroupPipeline recordGroupPipeline) {
     this.types = types;
+    this.recordGroupPipeline = recordGroupPipeline;
     this.schema = schema;
+    this.columns = Schema.getColumns(schema);
+    this.columnPaths = Schema.getPaths(schema);
     this.fileChannel = fileChannel;
     this.bundleSize = bundleSize;
     this.metadata = null;
-    this.batchBuffer = new ArrayList<Object>(bundleSize);
-    this.numBufferedRecords = 0;
+    this.batchBuffers = new ConcurrentLinkedQueue<BatchBuffer>();
+    this.batchBuffer = new ThreadLocal<BatchBuffer>() {
+      @Override
+      protected BatchBuffer initialValue() {
+        BatchBuffer buffer = new BatchBuffer(FileWriter.this.bundleSize);
+        batchBuffers.add(buffer);
+        return buffer;
+      }
+    };
     this.batchQueue = batchQueue;
+    this.stripeReducer = stripeReducer;
     this.writeThread = writeThread;
     this.isClosed = false;
   }
 
+  // The batch being filled by a given thread. They are all registered with the writer, so that the partial
+  // batches of every thread can be flushed on close.
+  private static final class BatchBuffer {
+    List<Object> records;
+
+    BatchBuffer(int bundleSize) {
+      this.records = new ArrayList<Object>(bundleSize);
+    }
+  }
+
   public static FileWriter create(Options.WriterOptions writerOptions,
                                   IFn xform,
                                   Object unparsedSchema,
@@ -69,26 +102,37 @@ public final class FileWriter implements Closeable {
     Schema schema = Schema.parse(types, unparsedSchema);
     Schema.Column[] columns = Schema.getColumns(schema);
     RecordGroup.Writer recordGroupWriter = new RecordGroup.Writer(types, columns, writerOptions.dataPageLength,
-                                                                  writerOptions.optimizationStrategy);
+                                                                  writerOptions.optimizationStrategy,
+                                                                  writerOptions.isSharedDictionaries,
+                                                                  writerOptions.maxDictionaryLength,
+                                                                  writerOptions.revalidationInterval,
+                                                                  writerOptions.revalidationThreshold);
     Stripe.Fn stripeFn = Stripe.getFn(types, schema, writerOptions.isIgnoreExtraFields);
-    StripeReducer stripeReducer = new StripeReducer(stripeFn, columns.length, writerOptions.bundleSize, xform,
+    StripeReducer stripeReducer = new StripeReducer(stripeFn, columns, writerOptions.bundleSize, xform,
                                                     writerOptions.invalidInputHandler);
-    LinkedBlockingQueue<List<Object>> batchQueue = new LinkedBlockingQueue<List<Object>>(1);
+    // Leave room for one batch per core, so that concurrent writers rarely block when handing them over.
+    LinkedBlockingQueue<Callable<Bundle>> batchQueue
+      = new LinkedBlockingQueue<Callable<Bundle>>(Runtime.getRuntime().availableProcessors());
     FileChannel fileChannel = Utils.getWritingFileChannel(file);
     fileChannel.write(ByteBuffer.wrap(Constants.magicBytes));
+    RecordGroupPipeline recordGroupPipeline
+      = new RecordGroupPipeline(recordGroupWriter, fileChannel, writerOptions.numPendingRecordGroups,
+                                writerOptions.spillDirectory, writerOptions.isOffHeap);
     Future<WriteThreadResult> writeThread = startWriteThread(recordGroupWriter,
-                                                             stripeReducer,
-                                                             fileChannel,
+                                                             recordGroupPipeline,
                                                              writerOptions.recordGroupLength,
+                                                             writerOptions.optimizationSampleLength,
                                                              writerOptions.bundleSize,
                                                              writerOptions.compressionThresholds,
                                                              getBatchIterator(batchQueue));
-    return new FileWriter(types, schema, fileChannel, writerOptions.bundleSize, writeThread, batchQueue);
+    return new FileWriter(types, schema, fileChannel, writerOptions.bundleSize, writeThread, batchQueue,
+                          stripeReducer, recordGroupPipeline);
   }
 
-  private static Iterator<List<Object>> getBatchIterator(final LinkedBlockingQueue<List<Object>> batchQueue) {
-    return new AReadOnlyIterator<List<Object>>() {
-      private List<Object> next = null;
+  private static Iterator<Callable<Bundle>>
+    getBatchIterator(final LinkedBlockingQueue<Callable<Bundle>> batchQueue) {
+    return new AReadOnlyIterator<Callable<Bundle>>() {
+      private Callable<Bundle> next = null;
 
       private void step() {
         try {
@@ -111,33 +155,25 @@ public final class FileWriter implements Closeable {
       }
 
       @Override
-      public List<Object> next() {
+      public Callable<Bundle> next() {
         if (!hasNext()) {
           throw new NoSuchElementException();
         }
-        List<Object> ret = next;
+        Callable<Bundle> ret = next;
         step();
         return ret;
       }
     };
   }
 
-  private static Future<Bundle> getBundleFuture(final StripeReducer stripeReducer,
-                                                final List<Object> records) {
-    return Agent.soloExecutor.submit(new Callable<Bundle>() {
-        public Bundle call() {
-          return stripeReducer.reduce(records);
-        }
-      });
-  }
-
-  private static Iterator<Bundle> getBundleIterator(final StripeReducer stripeReducer,
-                                                    final Iterator<List<Object>> batchIterator) {
+  // Batches are either lists of records to stripe, or columnar input to convert. Both are turned into bundles in
+  // parallel, ahead of the write thread.
+  private static Iterator<Bundle> getBundleIterator(final Iterator<Callable<Bundle>> batchIterator) {
     int n = 2 + Runtime.getRuntime().availableProcessors();
     final LinkedList<Future<Bundle>> futures = new LinkedList<Future<Bundle>>();
     int k = 0;
     while (batchIterator.hasNext() && k < n) {
-      futures.addLast(getBundleFuture(stripeReducer, batchIterator.next()));
+      futures.addLast(Agent.soloExecutor.submit(batchIterator.next()));
       k += 1;
     }
     return new AReadOnlyIterator<Bundle>() {
@@ -151,7 +187,7 @@ public final class FileWriter implements Closeable {
         Future<Bundle> fut = futures.pollFirst();
         Bundle bundle = Utils.tryGetFuture(fut);
         if (batchIterator.hasNext()) {
-          futures.addLast(getBundleFuture(stripeReducer, batchIterator.next()));
+          futures.addLast(Agent.soloExecutor.submit(batchIterator.next()));
         }
         return bundle;
       }
@@ -161,46 +197,158 @@ public final class FileWriter implements Closeable {
   private static final class WriteThreadResult {
     final Metadata.RecordGroup[] recordGroupsMetadata;
     final Schema.Column[] columns;
+    final Metadata.SharedDictionary[] sharedDictionaries;
 
-    WriteThreadResult(Metadata.RecordGroup[] recordGroupsMetadata, Schema.Column[] columns) {
+    WriteThreadResult(Metadata.RecordGroup[] recordGroupsMetadata, Schema.Column[] columns,
+                      Metadata.SharedDictionary[] sharedDictionaries) {
       this.recordGroupsMetadata = recordGroupsMetadata;
       this.columns = columns;
+      this.sharedDictionaries = sharedDictionaries;
+    }
+  }
+
+  // Finished record groups are detached from the record group writer and handed over to background threads
+  // that finish them (flushing and compressing their last pages) and write them to the file, in order. This
+  // lets the write thread accumulate the next record group in the meantime. At most numPendingRecordGroups
+  // detached record groups are in flight at any time, after which the write thread waits for the oldest one.
+  private static final class RecordGroupPipeline implements Closeable {
+    private final RecordGroup.Writer recordGroupWriter;
+    private final FileChannel fileChannel;
+    private final int numPendingRecordGroups;
+    private final File spillDirectory;
+    private final LinkedList<Future<Metadata.RecordGroup>> pendingRecordGroups;
+    private final ArrayList<Metadata.RecordGroup> recordGroupsMetadata;
+    private final ConcurrentLinkedQueue<SpillFile> availableSpillFiles;
+    private final List<SpillFile> spillFiles;
+    private SpillFile spillFile;
+    private final SegmentedBuffer.Pool pagePool;
+
+    RecordGroupPipeline(RecordGroup.Writer recordGroupWriter, FileChannel fileChannel,
+                        int numPendingRecordGroups, File spillDirectory, boolean isOffHeap)
+      throws IOException {
+      this.recordGroupWriter = recordGroupWriter;
+      this.fileChannel = fileChannel;
+      this.numPendingRecordGroups = numPendingRecordGroups;
+      this.spillDirectory = spillDirectory;
+      this.pendingRecordGroups = new LinkedList<Future<Metadata.RecordGroup>>();
+      this.recordGroupsMetadata = new ArrayList<Metadata.RecordGroup>();
+      this.availableSpillFiles = new ConcurrentLinkedQueue<SpillFile>();
+      this.spillFiles = Collections.synchronizedList(new ArrayList<SpillFile>());
+      this.spillFile = null;
+      if (spillDirectory != null) {
+        spillFile = takeSpillFile();
+        recordGroupWriter.spillPagesTo(spillFile);
+      }
+      // Pages are buffered in slabs from this file's own pool, direct if off-heap, which is cleared when the file
+      // is closed.
+      pagePool = new SegmentedBuffer.Pool(SegmentedBuffer.DEFAULT_SLAB_LENGTH,
+                                          SegmentedBuffer.DEFAULT_MAX_NUM_POOLED_SLABS, isOffHeap);
+      recordGroupWriter.bufferPagesIn(pagePool);
+    }
+
+    // Each record group in flight spills to its own file, since a spill file is truncated once its record group
+    // has been written.
+    private SpillFile takeSpillFile() throws IOException {
+      SpillFile spillFile = availableSpillFiles.poll();
+      if (spillFile == null) {
+        spillFile = new SpillFile(spillDirectory);
+        spillFiles.add(spillFile);
+      }
+      return spillFile;
+    }
+
+    synchronized void submit() throws IOException {
+      final RecordGroup.Writer detachedRecordGroupWriter = recordGroupWriter.detach();
+      final SpillFile detachedSpillFile = spillFile;
+      final Future<Metadata.RecordGroup> previous = pendingRecordGroups.peekLast();
+      pendingRecordGroups.addLast(Agent.soloExecutor.submit(new Callable<Metadata.RecordGroup>() {
+            public Metadata.RecordGroup call() throws IOException {
+              detachedRecordGroupWriter.finish();
+              Metadata.RecordGroup recordGroupMetadata = detachedRecordGroupWriter.getMetadata();
+              if (previous != null) {
+                Utils.tryGetFuture(previous);
+              }
+              detachedRecordGroupWriter.writeTo(fileChannel);
+              detachedRecordGroupWriter.reset();
+              if (detachedSpillFile != null) {
+                availableSpillFiles.add(detachedSpillFile);
+              }
+              return recordGroupMetadata;
+            }
+          }));
+      if (spillDirectory != null) {
+        spillFile = takeSpillFile();
+        recordGroupWriter.spillPagesTo(spillFile);
+      }
+      while (pendingRecordGroups.size() > numPendingRecordGroups) {
+        recordGroupsMetadata.add(Utils.tryGetFuture(pendingRecordGroups.pollFirst()));
+      }
+    }
+
+    synchronized Metadata.RecordGroup[] drain() {
+      while (!pendingRecordGroups.isEmpty()) {
+        recordGroupsMetadata.add(Utils.tryGetFuture(pendingRecordGroups.pollFirst()));
+      }
+      return recordGroupsMetadata.toArray(new Metadata.RecordGroup[]{});
+    }
+
+    // Waits for the record groups still in flight, ignoring their results, so that none of them still uses the
+    // file channel, the spill files or the page pool once these are closed. Nothing is pending after drain, so
+    // this only waits when the write thread failed.
+    synchronized void abort() {
+      while (!pendingRecordGroups.isEmpty()) {
+        try {
+          pendingRecordGroups.pollFirst().get();
+        } catch (Exception e) {
+          // Ignored, since the file is being closed after an earlier failure.
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      pagePool.close();
+      synchronized (spillFiles) {
+        for (SpillFile spillFile : spillFiles) {
+          spillFile.close();
+        }
+      }
     }
   }
 
   private static Future<WriteThreadResult>
     startWriteThread(final RecordGroup.Writer recordGroupWriter,
-                     final StripeReducer stripeReducer,
-                     final FileChannel fileChannel,
-                     final int targetRecordGroupLength,
+                     final RecordGroupPipeline recordGroupPipeline,
+                     final long targetRecordGroupLength,
+                     final int optimizationSampleLength,
                      final int bundleSize,
                      final Map<Symbol,Double> compressionThresholds,
-                     final Iterator<List<Object>> batchIterator) {
+                     final Iterator<Callable<Bundle>> batchIterator) {
     return Agent.soloExecutor.submit(new Callable<WriteThreadResult>() {
         public WriteThreadResult call() throws IOException {
-          ArrayList<Metadata.RecordGroup> recordGroupsMetadata = new ArrayList<Metadata.RecordGroup>();
-          Iterator<Bundle> bundleIterator = getBundleIterator(stripeReducer, batchIterator);
+          Iterator<Bundle> bundleIterator = getBundleIterator(batchIterator);
           long nextNumRecordsForLengthCheck = 10L * bundleSize;
           while (bundleIterator.hasNext()) {
             Bundle bundle = bundleIterator.next();
             while (true) {
               long currentNumRecords = recordGroupWriter.getNumRecords();
               if (currentNumRecords >= nextNumRecordsForLengthCheck) {
-                int estimatedLength = recordGroupWriter.getEstimatedLength();
-                if (estimatedLength >= targetRecordGroupLength) {
+                long estimatedLength = recordGroupWriter.getEstimatedLength();
+                // The encodings are chosen once enough values have been sampled, after which the rest of the
+                // record group is written directly in its optimized form.
+                long targetLength = recordGroupWriter.canOptimize()?
+                  Math.min(optimizationSampleLength, targetRecordGroupLength) : targetRecordGroupLength;
+                if (estimatedLength >= targetLength) {
                   if (recordGroupWriter.canOptimize()) {
                     recordGroupWriter.optimize(compressionThresholds);
                   } else {
-                    recordGroupWriter.finish();
-                    recordGroupsMetadata.add(recordGroupWriter.getMetadata());
-                    recordGroupWriter.writeTo(fileChannel);
-                    recordGroupWriter.reset();
+                    recordGroupPipeline.submit();
                     nextNumRecordsForLengthCheck = currentNumRecords / 2;
                   }
                 } else {
                   nextNumRecordsForLengthCheck = Thresholds.getNextCheckThreshold(currentNumRecords,
                                                                                   estimatedLength,
-                                                                                  targetRecordGroupLength);
+                                                                                  targetLength);
                 }
               } else {
                 long remainingRecordsBeforeCheck = nextNumRecordsForLengthCheck - currentNumRecords;
@@ -218,12 +366,11 @@ public final class FileWriter implements Closeable {
             if (recordGroupWriter.canOptimize()) {
               recordGroupWriter.optimize(compressionThresholds);
             }
-            recordGroupWriter.finish();
-            recordGroupsMetadata.add(recordGroupWriter.getMetadata());
-            recordGroupWriter.writeTo(fileChannel);
+            recordGroupPipeline.submit();
           }
-          return new WriteThreadResult(recordGroupsMetadata.toArray(new Metadata.RecordGroup[]{}),
-                                       recordGroupWriter.columns());
+          return new WriteThreadResult(recordGroupPipeline.drain(),
+                                       recordGroupWriter.columns(),
+                                       recordGroupWriter.getSharedDictionaries());
         }
       });
   }
@@ -232,12 +379,20 @@ public final class FileWriter implements Closeable {
     this.metadata = metadata;
   }
 
-  private void flushBatch() {
+  private void flushBatch(final List<Object> records) {
+    enqueue(new Callable<Bundle>() {
+        public Bundle call() {
+          return stripeReducer.reduce(records);
+        }
+      });
+  }
+
+  private void enqueue(Callable<Bundle> batch) {
     if (isClosed) {
       throw new IllegalStateException("Cannot write to a closed writer.");
     } else {
       try {
-        while (! batchQueue.offer(batchBuffer, 10, TimeUnit.SECONDS)) {
+        while (! batchQueue.offer(batch, 10, TimeUnit.SECONDS)) {
           if (writeThread.isDone()) {
             // If the writeThread finished while we are still writing, it likely means it threw an exception.
             writeThread.get();
@@ -246,8 +401,6 @@ public final class FileWriter implements Closeable {
       } catch (Exception e) {
         throw new IllegalStateException(e);
       }
-      batchBuffer = new ArrayList<Object>(bundleSize);
-      numBufferedRecords = 0;
     }
   }
 
@@ -259,12 +412,36 @@ public final class FileWriter implements Closeable {
     fileChannel.write(mos.toByteBuffer());
   }
 
+  // Safe to call from multiple threads. Each thread fills its own batches, which are striped in parallel and
+  // merged into the record groups in the order they are handed over, so the records written by a given thread
+  // keep their relative order. All writing threads must be done before close is called.
   public void write(Object record) {
-    if (numBufferedRecords == bundleSize) {
-      flushBatch();
+    BatchBuffer buffer = batchBuffer.get();
+    if (buffer.records.size() == bundleSize) {
+      flushBatch(buffer.records);
+      buffer.records = new ArrayList<Object>(bundleSize);
+    }
+    buffer.records.add(record);
+  }
+
+  // Writes a batch of records given in columnar form, bypassing record striping. columnValues holds the values of
+  // each column, in the order of getColumnPaths (see Columns for the supported inputs). The transducer and the
+  // invalid input handler don't apply to them.
+  public void writeColumns(final Object[] columnValues) {
+    BatchBuffer buffer = batchBuffer.get();
+    if (!buffer.records.isEmpty()) {
+      flushBatch(buffer.records);
+      buffer.records = new ArrayList<Object>(bundleSize);
     }
-    numBufferedRecords += 1;
-    batchBuffer.add(record);
+    enqueue(new Callable<Bundle>() {
+        public Bundle call() {
+          return Columns.toBundle(types, columns, columnPaths, columnValues);
+        }
+      });
+  }
+
+  public IPersistentVector[] getColumnPaths() {
+    return columnPaths;
   }
 
   public void writeAll(Iterable<Object> records) {
@@ -276,11 +453,14 @@ public final class FileWriter implements Closeable {
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     if (!isClosed) {
       try {
-        if (numBufferedRecords > 0) {
-          flushBatch();
+        for (BatchBuffer buffer : batchBuffers) {
+          if (!buffer.records.isEmpty()) {
+            flushBatch(buffer.records);
+            buffer.records = new ArrayList<Object>(bundleSize);
+          }
         }
         try {
           batchQueue.put(poison);
@@ -296,9 +476,12 @@ public final class FileWriter implements Closeable {
         writeFooter(new Metadata.File(res.recordGroupsMetadata,
                                       schema.withColumns(res.columns),
                                       types.getCustomTypes(),
-                                      metadata));
+                                      metadata,
+                                      res.sharedDictionaries));
       } finally {
+        recordGroupPipeline.abort();
         fileChannel.close();
+        recordGroupPipeline.close();
         isClosed = true;
       }
     }
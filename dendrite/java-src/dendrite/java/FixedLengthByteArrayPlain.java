@@ -34,6 +34,10 @@ public final class FixedLengthByteArrayPlain {
       return fixedLengthByteArray;
     }
 
+    public ByteBuffer decodeByteBuffer() {
+      return Bytes.readByteBuffer(bb, length);
+    }
+
   }
 
   public static final class Encoder extends AEncoder {
@@ -70,4 +74,15 @@ public final class FixedLengthByteArrayPlain {
       }
     };
 
+  public static final IDecoderFactory sliceDecoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        final Decoder decoder = new Decoder(bb);
+        return new IDecoder() {
+          public Object decode() { return decoder.decodeByteBuffer(); }
+          public int getNumEncodedValues() { return decoder.getNumEncodedValues(); }
+        };
+      }
+    };
+
 }
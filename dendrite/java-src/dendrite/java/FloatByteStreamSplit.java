@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+public final class FloatByteStreamSplit {
+
+  // Byte-stream-split encoding: the i-th bytes of all the values are stored contiguously. This doesn't reduce
+  // the size of the data but makes it much more compressible.
+
+  private static final int NUM_BYTES = 4;
+
+  public static final class Decoder extends ADecoder {
+
+    private final int offset;
+    private int position = 0;
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+      offset = bb.position();
+    }
+
+    @Override
+    public Object decode() {
+      int v = 0;
+      int p = offset + position;
+      for (int i=0; i<NUM_BYTES; ++i) {
+        v |= ((int)bb.get(p) & 0xff) << (8 * i);
+        p += numValues;
+      }
+      position += 1;
+      return Float.intBitsToFloat(v);
+    }
+  }
+
+  public static final class Encoder extends AEncoder implements IFloatEncoder {
+
+    private final MemoryOutputStream[] streams = new MemoryOutputStream[NUM_BYTES];
+
+    public Encoder() {
+      for (int i=0; i<NUM_BYTES; ++i) {
+        streams[i] = new MemoryOutputStream();
+      }
+    }
+
+    @Override
+    public void encode(final Object o) {
+      encodeFloat((float)o);
+    }
+
+    @Override
+    public void encodeFloat(final float f) {
+      int v = Float.floatToRawIntBits(f);
+      for (int i=0; i<NUM_BYTES; ++i) {
+        streams[i].write(v >>> (8 * i));
+      }
+      numValues += 1;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      for (MemoryOutputStream stream : streams) {
+        stream.reset();
+      }
+    }
+
+    @Override
+    public void finish() {
+      for (MemoryOutputStream stream : streams) {
+        mos.write(stream);
+        stream.reset();
+      }
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      int length = super.getEstimatedLength();
+      for (MemoryOutputStream stream : streams) {
+        length += stream.getLength();
+      }
+      return length;
+    }
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+}
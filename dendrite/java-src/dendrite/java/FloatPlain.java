@@ -26,15 +26,29 @@ public final class FloatPlain {
     public Object decode() {
       return Bytes.readFloat(bb);
     }
+
+    public void decodeFloats(final float[] floats, final int offset, final int length) {
+      Bytes.readFloats(bb, floats, offset, length);
+    }
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IFloatEncoder {
 
     @Override
     public void encode(final Object o) {
+      encodeFloat((float)o);
+    }
+
+    @Override
+    public void encodeFloat(final float f) {
       numValues += 1;
-      Bytes.writeFloat(mos, (float) o);
+      Bytes.writeFloat(mos, f);
+    }
+
+    public void encodeFloats(final float[] floats, final int offset, final int length) {
+      numValues += length;
+      Bytes.writeFloats(mos, floats, offset, length);
     }
   }
 
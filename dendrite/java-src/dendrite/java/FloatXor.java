@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+public final class FloatXor {
+
+  // Gorilla-style encoding: each value is xor-ed with its predecessor and only the meaningful bits of the
+  // result are stored, reusing the previous leading/trailing zero window when the new bits fit in it.
+
+  public static final class Decoder extends ADecoder {
+
+    private final BitStream.Reader reader;
+    private int previousBits = 0;
+    private int leadingZeros = 0;
+    private int numMeaningfulBits = 0;
+    private boolean isFirst = true;
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+      reader = new BitStream.Reader(bb);
+    }
+
+    @Override
+    public Object decode() {
+      if (isFirst) {
+        isFirst = false;
+        previousBits = (int)reader.read(32);
+      } else if (reader.readBit()) {
+        if (reader.readBit()) {
+          leadingZeros = (int)reader.read(5);
+          numMeaningfulBits = (int)reader.read(5) + 1;
+        }
+        int trailingZeros = 32 - leadingZeros - numMeaningfulBits;
+        previousBits ^= (int)reader.read(numMeaningfulBits) << trailingZeros;
+      }
+      return Float.intBitsToFloat(previousBits);
+    }
+  }
+
+  public static final class Encoder extends AEncoder implements IFloatEncoder {
+
+    private final BitStream.Writer writer = new BitStream.Writer(mos);
+    private int previousBits = 0;
+    private int leadingZeros = -1;
+    private int numMeaningfulBits = 0;
+
+    @Override
+    public void encode(final Object o) {
+      encodeFloat((float)o);
+    }
+
+    @Override
+    public void encodeFloat(final float f) {
+      int v = Float.floatToRawIntBits(f);
+      if (numValues == 0) {
+        writer.write(v, 32);
+      } else {
+        int xor = v ^ previousBits;
+        if (xor == 0) {
+          writer.write(0, 1);
+        } else {
+          int leading = Math.min(Integer.numberOfLeadingZeros(xor), 32 - 1);
+          int trailing = Integer.numberOfTrailingZeros(xor);
+          if (leadingZeros >= 0 && leading >= leadingZeros
+              && trailing >= 32 - leadingZeros - numMeaningfulBits) {
+            writer.write(2, 2);
+          } else {
+            leadingZeros = leading;
+            numMeaningfulBits = 32 - leading - trailing;
+            writer.write(3, 2);
+            writer.write(leadingZeros, 5);
+            writer.write(numMeaningfulBits - 1, 5);
+          }
+          writer.write(xor >>> (32 - leadingZeros - numMeaningfulBits), numMeaningfulBits);
+        }
+      }
+      previousBits = v;
+      numValues += 1;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      writer.reset();
+      previousBits = 0;
+      leadingZeros = -1;
+      numMeaningfulBits = 0;
+    }
+
+    @Override
+    public void finish() {
+      writer.flush();
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      return super.getEstimatedLength() + writer.getNumPendingBytes();
+    }
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+}
@@ -12,7 +12,9 @@
 
 package dendrite.java;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Iterator;
 import java.util.List;
 
@@ -123,6 +125,30 @@ public final class FrequencyColumnChunk {
       return mos.toByteBuffer();
     }
 
+    @Override
+    public ByteBuffer[] toByteBuffers() {
+      finish();
+      mos.reset();
+      Pages.writeTo(mos, dictPageWriter);
+      return Utils.concat(new ByteBuffer[]{mos.toByteBuffer()},
+                          frequencyIndicesColumnChunkWriter.toByteBuffers());
+    }
+
+    // The indices are re-encoded by frequency once the column chunk is finished, so they are kept in memory.
+    @Override
+    public void spillTo(SpillFile spillFile) {}
+
+    @Override
+    public void bufferPagesIn(SegmentedBuffer.Pool pool) {
+      tempIndicesColumnChunkWriter.bufferPagesIn(pool);
+      frequencyIndicesColumnChunkWriter.bufferPagesIn(pool);
+    }
+
+    @Override
+    public void writeTo(FileChannel fileChannel) throws IOException {
+      Utils.writeFully(fileChannel, toByteBuffers());
+    }
+
     @Override
     public int getNumDataPages() {
       return tempIndicesColumnChunkWriter.getNumDataPages();
@@ -14,10 +14,13 @@ package dendrite.java;
 
 import java.nio.ByteBuffer;
 
-public interface IColumnChunkWriter extends IOutputBuffer {
+public interface IColumnChunkWriter extends IOutputBuffer, IFileWriteable {
   void write(Iterable<Object> values);
   Schema.Column getColumn();
   Metadata.ColumnChunk getMetadata();
   int getNumDataPages();
   ByteBuffer toByteBuffer();
+  ByteBuffer[] toByteBuffers();
+  void spillTo(SpillFile spillFile);
+  void bufferPagesIn(SegmentedBuffer.Pool pool);
 }
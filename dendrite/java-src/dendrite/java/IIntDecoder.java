@@ -14,4 +14,6 @@ package dendrite.java;
 
 public interface IIntDecoder extends IDecoder {
   int decodeInt();
+
+  void decodeInts(int[] ints, int offset, int length);
 }
@@ -12,30 +12,12 @@
 
 package dendrite.java;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
-public final class HashableByteArray {
-
-  public final byte[] array;
-
-  public HashableByteArray(byte[] array) {
-    this.array = array;
-  }
-
-  @Override
-  public int hashCode() {
-    int hash = 1;
-    for (byte b : array) {
-      hash = 31 * hash + (int)b;
-    }
-    return hash;
-  }
-
-  @Override
-  public boolean equals(Object o) {
-    if (!(o instanceof HashableByteArray)) {
-      return false;
-    }
-    return Arrays.equals(array, ((HashableByteArray)o).array);
-  }
+public interface IKernels {
+  void unpackInts(ByteBuffer bb, int[] ints, int offset, int numOctuplets, int width);
+  void unpackLongs(ByteBuffer bb, long[] longs, int offset, int numOctuplets, int width);
+  void unpackBooleans(ByteBuffer bb, boolean[] booleans, int offset, int numBytes);
+  int decodeDeltas(int[] deltas, int offset, int length, int start, int minDelta);
+  long decodeDeltas(long[] deltas, int offset, int length, long start, long minDelta);
 }
@@ -13,6 +13,7 @@
 package dendrite.java;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public final class IntFixedBitWidthPackedRunLength {
 
@@ -38,6 +39,40 @@ public final class IntFixedBitWidthPackedRunLength {
       return decodeNextInt();
     }
 
+    @Override
+    public void decodeInts(final int[] ints, final int offset, final int length) {
+      final int end = offset + length;
+      int i = offset;
+      while (i < end) {
+        if (numRleValuesToRead == 0 && octupletPosition == 8) {
+          bufferNextRun();
+        }
+        if (numRleValuesToRead > 0) {
+          int n = Math.min(numRleValuesToRead, end - i);
+          Arrays.fill(ints, i, i + n, rleValue);
+          numRleValuesToRead -= n;
+          i += n;
+        } else {
+          int n = Math.min(8 - octupletPosition, end - i);
+          System.arraycopy(octuplet, octupletPosition, ints, i, n);
+          octupletPosition += n;
+          i += n;
+          if (octupletPosition == 8 && numOctopletsToRead > 0) {
+            // Unpack whole octuplets straight into the output array.
+            int numDirectOctuplets = Math.min(numOctopletsToRead, (end - i) >>> 3);
+            if (numDirectOctuplets > 0) {
+              Bytes.readPackedInts32(bb, ints, width, i, numDirectOctuplets << 3);
+              numOctopletsToRead -= numDirectOctuplets;
+              i += numDirectOctuplets << 3;
+            }
+            if (numOctopletsToRead > 0) {
+              bufferNextOctuplet();
+            }
+          }
+        }
+      }
+    }
+
     private int decodeNextInt() {
       if (numRleValuesToRead > 0) {
         return decodeFromRleValue();
@@ -88,7 +123,7 @@ public final class IntFixedBitWidthPackedRunLength {
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
 
     private int rleValue = 0;
     private int numOccurencesRleValue = 0;
@@ -114,7 +149,7 @@ public final class IntFixedBitWidthPackedRunLength {
       return (int)(rleRunNumBytes * numPackedValuesPerByte) + 1;
     }
 
-    private void encodeInt(final int i) {
+    private void appendInt(final int i) {
       if (currentOctupletPosition == 0) {
         if (numOccurencesRleValue == 0) {
           startRleRun(i);
@@ -122,10 +157,10 @@ public final class IntFixedBitWidthPackedRunLength {
           numOccurencesRleValue += 1;
         } else if (numOccurencesRleValue >= rleThreshold) {
           flushRle();
-          encodeInt(i);
+          appendInt(i);
         } else {
           packRleRun();
-          encodeInt(i);
+          appendInt(i);
         }
       } else {
         bufferPackedInt(i);
@@ -134,10 +169,15 @@ public final class IntFixedBitWidthPackedRunLength {
 
     @Override
     public void encode(final Object o) {
-      numValues += 1;
       encodeInt((int)o);
     }
 
+    @Override
+    public void encodeInt(final int i) {
+      numValues += 1;
+      appendInt(i);
+    }
+
     @Override
     public void reset() {
       super.reset();
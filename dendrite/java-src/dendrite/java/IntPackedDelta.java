@@ -27,8 +27,8 @@ public final class IntPackedDelta {
     private int[] miniblockBitWidths = new int[16];
     private int remainingValuesInBlock = 0;
     private int blockLength = 0;
-    private long blockMinDelta = 0;
-    private long blockCurrentValue = 0;
+    private int blockMinDelta = 0;
+    private int blockCurrentValue = 0;
 
     public Decoder(ByteBuffer byteBuffer) {
       super(byteBuffer);
@@ -42,6 +42,33 @@ public final class IntPackedDelta {
       return decodeNextInt();
     }
 
+    @Override
+    public void decodeInts(final int[] ints, final int offset, final int length) {
+      final int end = offset + length;
+      int i = offset;
+      while (i < end) {
+        if (remainingValuesInBlock == 0) {
+          initNextBlock();
+        }
+        if (miniblockPosition == -1) {
+          miniblockPosition = 0;
+          remainingValuesInBlock -= 1;
+          ints[i] = blockCurrentValue;
+          i += 1;
+        } else {
+          if (currentMiniblockIndex == -1 || miniblockPosition == miniblockLength) {
+            initNextMiniBlock();
+          }
+          int n = Math.min(Math.min(end - i, remainingValuesInBlock), miniblockLength - miniblockPosition);
+          System.arraycopy(miniblockBuffer, miniblockPosition, ints, i, n);
+          blockCurrentValue = miniblockBuffer[miniblockPosition + n - 1];
+          miniblockPosition += n;
+          remainingValuesInBlock -= n;
+          i += n;
+        }
+      }
+    }
+
     private int decodeNextInt() {
       if (miniblockPosition == -1) { // read from first value
         miniblockPosition = 0;
@@ -50,17 +77,11 @@ public final class IntPackedDelta {
             || miniblockPosition == miniblockLength) { // finished reading current mini block
           initNextMiniBlock();
         }
-        setCurrentValueFromMiniBlockBuffer();
+        blockCurrentValue = miniblockBuffer[miniblockPosition];
+        miniblockPosition += 1;
       }
       remainingValuesInBlock -= 1;
-      return (int)blockCurrentValue;
-    }
-
-    private void setCurrentValueFromMiniBlockBuffer() {
-      long nextRelativeDelta = miniblockBuffer[miniblockPosition] & 0xffffffffL;
-      long delta = nextRelativeDelta + blockMinDelta;
-      blockCurrentValue += delta;
-      miniblockPosition += 1;
+      return blockCurrentValue;
     }
 
     private void initNextMiniBlock() {
@@ -68,6 +89,8 @@ public final class IntPackedDelta {
       int width = miniblockBitWidths[currentMiniblockIndex];
       int length = remainingValuesInBlock < miniblockLength? remainingValuesInBlock : miniblockLength;
       Bytes.readPackedInts32(bb, miniblockBuffer, width, length);
+      // The decoded values fit in an int, so the deltas can be summed with wrapping int arithmetic.
+      Kernels.get().decodeDeltas(miniblockBuffer, 0, length, blockCurrentValue, blockMinDelta);
       miniblockPosition = 0;
     }
 
@@ -80,7 +103,7 @@ public final class IntPackedDelta {
       currentMiniblockIndex = -1;
       blockCurrentValue = Bytes.readSInt(bb);
       if (numMiniblocks > 0) {
-        blockMinDelta = Bytes.readSLong(bb);
+        blockMinDelta = (int)Bytes.readSLong(bb);
         for (int i=0; i<numMiniblocks; ++i) {
           miniblockBitWidths[i] = (int)bb.get() & 0xff;
         }
@@ -90,7 +113,7 @@ public final class IntPackedDelta {
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
 
     private static final int MAX_BLOCK_LENGTH = 128;
     private static final int MIN_MINIBLOCK_LENGTH = 8;
@@ -107,11 +130,16 @@ public final class IntPackedDelta {
 
     @Override
     public void encode(Object o) {
+      encodeInt((int)o);
+    }
+
+    @Override
+    public void encodeInt(final int i) {
       numValues += 1;
       if (position == MAX_BLOCK_LENGTH + 1) {
         flushBlock();
       }
-      valueBuffer[position] = (int)o;
+      valueBuffer[position] = i;
       position += 1;
     }
 
@@ -36,6 +36,11 @@ public final class IntPackedRunLength {
       return int32Decoder.decodeInt();
     }
 
+    @Override
+    public void decodeInts(final int[] ints, final int offset, final int length) {
+      int32Decoder.decodeInts(ints, offset, length);
+    }
+
     @Override
     public int getNumEncodedValues() {
       return int32Decoder.getNumEncodedValues();
@@ -43,7 +48,7 @@ public final class IntPackedRunLength {
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
 
     private final MemoryOutputStream intBuffer;
     private final IntFixedBitWidthPackedRunLength.Encoder rleEncoder;
@@ -61,7 +66,11 @@ public final class IntPackedRunLength {
 
     @Override
     public void encode(Object o) {
-      final int i = (int) o;
+      encodeInt((int)o);
+    }
+
+    @Override
+    public void encodeInt(final int i) {
       final int width = Bytes.getBitWidth(i);
       if (width > maxWidth) {
         maxWidth = width;
@@ -27,14 +27,29 @@ public final class IntPlain {
       return Bytes.readFixedInt(bb);
     }
 
+    @Override
+    public void decodeInts(final int[] ints, final int offset, final int length) {
+      Bytes.readFixedInts(bb, ints, offset, length);
+    }
+
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
 
     @Override
     public void encode(final Object o) {
+      encodeInt((int)o);
+    }
+
+    @Override
+    public void encodeInt(final int i) {
       numValues += 1;
-      Bytes.writeFixedInt(mos, (int) o);
+      Bytes.writeFixedInt(mos, i);
+    }
+
+    public void encodeInts(final int[] ints, final int offset, final int length) {
+      numValues += length;
+      Bytes.writeFixedInts(mos, ints, offset, length);
     }
 
   }
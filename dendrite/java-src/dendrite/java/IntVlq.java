@@ -29,11 +29,16 @@ public final class IntVlq {
 
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
     @Override
     public void encode(Object o) {
+      encodeInt((int)o);
+    }
+
+    @Override
+    public void encodeInt(final int i) {
       numValues += 1;
-      Bytes.writeUInt(mos, (int) o);
+      Bytes.writeUInt(mos, i);
     }
 
   }
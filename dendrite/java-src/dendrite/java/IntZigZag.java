@@ -29,12 +29,17 @@ public final class IntZigZag {
 
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements IIntEncoder {
 
     @Override
     public void encode(Object o) {
+      encodeInt((int)o);
+    }
+
+    @Override
+    public void encodeInt(final int i) {
       numValues += 1;
-      Bytes.writeSInt(mos, (int) o);
+      Bytes.writeSInt(mos, i);
     }
 
   }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import clojure.lang.AFn;
+import clojure.lang.IFn;
+
+import java.util.Arrays;
+
+// A small direct-mapped cache from raw byte arrays to their decoded values. It is meant to avoid repeatedly
+// decoding (and allocating) the same short strings, keywords, or symbols from non-dictionary columns. Each
+// thread gets its own cache so no synchronization is required.
+final class InternCache {
+
+  private static final int NUM_SLOTS = 512;
+  private static final int MAX_CACHED_LENGTH = 64;
+
+  private final byte[][] keys = new byte[NUM_SLOTS][];
+  private final Object[] values = new Object[NUM_SLOTS];
+
+  private static int hash(byte[] bs) {
+    int h = 1;
+    for (byte b : bs) {
+      h = 31 * h + (int)b;
+    }
+    return h ^ (h >>> 16);
+  }
+
+  Object get(byte[] bs, IFn fn) {
+    int i = hash(bs) & (NUM_SLOTS - 1);
+    byte[] key = keys[i];
+    if (key != null && Arrays.equals(key, bs)) {
+      return values[i];
+    }
+    Object v = fn.invoke(bs);
+    keys[i] = bs;
+    values[i] = v;
+    return v;
+  }
+
+  static IFn wrap(final IFn fn) {
+    final ThreadLocal<InternCache> caches = new ThreadLocal<InternCache>() {
+        @Override
+        protected InternCache initialValue() {
+          return new InternCache();
+        }
+      };
+    return new AFn() {
+      public Object invoke(Object o) {
+        byte[] bs = (byte[])o;
+        if (bs == null || bs.length > MAX_CACHED_LENGTH) {
+          return fn.invoke(bs);
+        }
+        return caches.get().get(bs, fn);
+      }
+    };
+  }
+}
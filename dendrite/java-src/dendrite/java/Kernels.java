@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+public final class Kernels {
+
+  public static final String KERNELS_PROPERTY = "dendrite.kernels";
+
+  // Optional implementation built from java-src-vector by the :vector profile. It is picked up at runtime when
+  // it is on the classpath and the jdk.incubator.vector module is available.
+  public static final String VECTOR_KERNELS_CLASS = "dendrite.java.VectorKernels";
+
+  private static final IKernels INSTANCE = init();
+
+  public static IKernels get() {
+    return INSTANCE;
+  }
+
+  // Kernels named by the dendrite.kernels property must load, whereas the default vector kernels are optional.
+  private static IKernels init() {
+    String className = System.getProperty(KERNELS_PROPERTY);
+    return (className == null)? loadDefault() : load(className);
+  }
+
+  public static IKernels loadDefault() {
+    try {
+      return load(VECTOR_KERNELS_CLASS);
+    } catch (IllegalStateException e) {
+      return new Scalar();
+    }
+  }
+
+  public static IKernels load(final String className) {
+    try {
+      return (IKernels)Class.forName(className).getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new IllegalStateException(String.format("Could not load kernels class '%s'", className), e);
+    } catch (LinkageError e) {
+      throw new IllegalStateException(String.format("Could not load kernels class '%s'", className), e);
+    }
+  }
+
+  public static final class Scalar implements IKernels {
+
+    @Override
+    public void unpackInts(final ByteBuffer bb, final int[] ints, final int offset, final int numOctuplets,
+                           final int width) {
+      BitPacking.unpackInts(bb, ints, offset, numOctuplets, width);
+    }
+
+    @Override
+    public void unpackLongs(final ByteBuffer bb, final long[] longs, final int offset, final int numOctuplets,
+                            final int width) {
+      BitPacking.unpackLongs(bb, longs, offset, numOctuplets, width);
+    }
+
+    @Override
+    public void unpackBooleans(final ByteBuffer bb, final boolean[] booleans, final int offset,
+                               final int numBytes) {
+      final int end = offset + 8 * numBytes;
+      for (int i=offset; i<end; i+=8) {
+        final int b = bb.get();
+        booleans[i] = (b & 128) != 0;
+        booleans[i+1] = (b & 64) != 0;
+        booleans[i+2] = (b & 32) != 0;
+        booleans[i+3] = (b & 16) != 0;
+        booleans[i+4] = (b & 8) != 0;
+        booleans[i+5] = (b & 4) != 0;
+        booleans[i+6] = (b & 2) != 0;
+        booleans[i+7] = (b & 1) != 0;
+      }
+    }
+
+    @Override
+    public int decodeDeltas(final int[] deltas, final int offset, final int length, final int start,
+                            final int minDelta) {
+      int v = start;
+      for (int i=offset; i<offset+length; ++i) {
+        v += deltas[i] + minDelta;
+        deltas[i] = v;
+      }
+      return v;
+    }
+
+    @Override
+    public long decodeDeltas(final long[] deltas, final int offset, final int length, final long start,
+                             final long minDelta) {
+      long v = start;
+      for (int i=offset; i<offset+length; ++i) {
+        v += deltas[i] + minDelta;
+        deltas[i] = v;
+      }
+      return v;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+
+public final class LongDeltaOfDelta {
+
+  // The first and last values are written ahead of the data so that the range of values in a page can be read
+  // without decoding it. The delta-of-deltas are zig-zag encoded and bit-packed in blocks of BLOCK_LENGTH
+  // values, each preceded by its bit width.
+
+  static final int BLOCK_LENGTH = 128;
+
+  public static final class Decoder extends ADecoder {
+
+    private final long[] blockBuffer = new long[BLOCK_LENGTH];
+    private final long firstValue;
+    private final long lastValue;
+    private int blockPosition = BLOCK_LENGTH;
+    private int numRemainingDeltaOfDeltas;
+    private int position = 0;
+    private long delta;
+    private long value;
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+      if (numValues > 0) {
+        firstValue = Bytes.readSLong(bb);
+        lastValue = Bytes.readSLong(bb);
+      } else {
+        firstValue = 0;
+        lastValue = 0;
+      }
+      if (numValues > 1) {
+        delta = Bytes.readSLong(bb);
+      }
+      numRemainingDeltaOfDeltas = Math.max(numValues - 2, 0);
+      value = firstValue;
+    }
+
+    public long getFirstValue() {
+      return firstValue;
+    }
+
+    public long getLastValue() {
+      return lastValue;
+    }
+
+    @Override
+    public Object decode() {
+      return decodeLong();
+    }
+
+    public long decodeLong() {
+      if (position == 0) {
+        position = 1;
+        return value;
+      } else if (position == 1) {
+        position = 2;
+        value += delta;
+        return value;
+      }
+      if (blockPosition == BLOCK_LENGTH) {
+        initNextBlock();
+      }
+      delta += Bytes.decodeZigZag64(blockBuffer[blockPosition]);
+      blockPosition += 1;
+      position += 1;
+      value += delta;
+      return value;
+    }
+
+    private void initNextBlock() {
+      int width = (int)bb.get() & 0xff;
+      int length = Math.min(numRemainingDeltaOfDeltas, BLOCK_LENGTH);
+      Bytes.readPackedInts64(bb, blockBuffer, width, length);
+      numRemainingDeltaOfDeltas -= length;
+      blockPosition = 0;
+    }
+  }
+
+  public static final class Encoder extends AEncoder implements ILongEncoder {
+
+    private final long[] blockBuffer = new long[BLOCK_LENGTH];
+    private final MemoryOutputStream blocks = new MemoryOutputStream();
+    private int blockPosition = 0;
+    private long firstValue;
+    private long firstDelta;
+    private long previousValue;
+    private long previousDelta;
+    private boolean isFinished = false;
+
+    @Override
+    public void encode(final Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long v) {
+      if (numValues == 0) {
+        firstValue = v;
+      } else if (numValues == 1) {
+        firstDelta = v - previousValue;
+        previousDelta = firstDelta;
+      } else {
+        long delta = v - previousValue;
+        if (blockPosition == BLOCK_LENGTH) {
+          flushBlock();
+        }
+        blockBuffer[blockPosition] = Bytes.encodeZigZag64(delta - previousDelta);
+        blockPosition += 1;
+        previousDelta = delta;
+      }
+      previousValue = v;
+      numValues += 1;
+    }
+
+    private void flushBlock() {
+      long bits = 0;
+      for (int j=0; j<blockPosition; ++j) {
+        bits |= blockBuffer[j];
+      }
+      int width = Bytes.getBitWidth(bits);
+      blocks.write(width);
+      Bytes.writePackedInts64(blocks, blockBuffer, width, blockPosition);
+      blockPosition = 0;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      blocks.reset();
+      blockPosition = 0;
+      isFinished = false;
+    }
+
+    @Override
+    public void finish() {
+      if (!isFinished) {
+        if (blockPosition > 0) {
+          flushBlock();
+        }
+        if (numValues > 0) {
+          Bytes.writeSLong(mos, firstValue);
+          Bytes.writeSLong(mos, previousValue);
+        }
+        if (numValues > 1) {
+          Bytes.writeSLong(mos, firstDelta);
+        }
+        mos.write(blocks);
+        isFinished = true;
+      }
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      if (isFinished) {
+        return super.getEstimatedLength();
+      }
+      return super.getEstimatedLength() + 3 * Bytes.getNumULongBytes(Bytes.encodeZigZag64(previousValue))
+        + blocks.getLength() + blockPosition;
+    }
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+}
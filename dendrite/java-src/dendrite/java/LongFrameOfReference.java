@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public final class LongFrameOfReference {
+
+  static final int MAX_BLOCK_LENGTH = 128;
+
+  public static final class Decoder extends ADecoder {
+
+    private final long[] blockBuffer = new long[MAX_BLOCK_LENGTH];
+    private int blockPosition = 0;
+    private int blockLength = 0;
+
+    public Decoder(ByteBuffer byteBuffer) {
+      super(byteBuffer);
+    }
+
+    @Override
+    public Object decode() {
+      return decodeLong();
+    }
+
+    public long decodeLong() {
+      if (blockPosition == blockLength) {
+        initNextBlock();
+      }
+      long v = blockBuffer[blockPosition];
+      blockPosition += 1;
+      return v;
+    }
+
+    private void initNextBlock() {
+      blockLength = Bytes.readUInt(bb);
+      long reference = Bytes.readSLong(bb);
+      int width = (int)bb.get() & 0xff;
+      int numExceptions = Bytes.readUInt(bb);
+      Bytes.readPackedInts64(bb, blockBuffer, width, blockLength);
+      for (int j=0; j<blockLength; ++j) {
+        blockBuffer[j] += reference;
+      }
+      for (int j=0; j<numExceptions; ++j) {
+        int p = (int)bb.get() & 0xff;
+        blockBuffer[p] = reference + Bytes.readSLong(bb);
+      }
+      blockPosition = 0;
+    }
+
+  }
+
+
+  public static final class Encoder extends AEncoder implements ILongEncoder {
+
+    private final long[] valueBuffer = new long[MAX_BLOCK_LENGTH];
+    private final long[] sortedValues = new long[MAX_BLOCK_LENGTH];
+    private final long[] relativeValues = new long[MAX_BLOCK_LENGTH];
+    private int position = 0;
+    private int numEncodedValues = 0;
+
+    @Override
+    public void encode(final Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long l) {
+      numValues += 1;
+      if (position == MAX_BLOCK_LENGTH) {
+        flushBlock();
+      }
+      valueBuffer[position] = l;
+      position += 1;
+    }
+
+    private static boolean fits(final long relativeValue, final int width) {
+      // Relative values are computed with wrapping arithmetic, so any value fits at width 64.
+      return width == 64 || (relativeValue >= 0 && (width == 63 || relativeValue < (1L << width)));
+    }
+
+    private long getBestReference(final int width) {
+      // Slide a window over the sorted values and return the start of the one that holds the most values.
+      int bestStart = 0;
+      int maxNumValues = 0;
+      int end = 0;
+      for (int start=0; start<position && end<position; ++start) {
+        while (end < position && fits(sortedValues[end] - sortedValues[start], width)) {
+          end += 1;
+        }
+        if (end - start > maxNumValues) {
+          maxNumValues = end - start;
+          bestStart = start;
+        }
+      }
+      return sortedValues[bestStart];
+    }
+
+    private int getEncodedBlockLength(final long reference, final int width) {
+      int length = (position * width + 7) / 8;
+      for (int j=0; j<position; ++j) {
+        if (!fits(valueBuffer[j] - reference, width)) {
+          length += 1 + Bytes.getNumULongBytes(Bytes.encodeZigZag64(valueBuffer[j] - reference));
+        }
+      }
+      return length;
+    }
+
+    private void flushBlock() {
+      if (position == 0) {
+        return;
+      }
+      System.arraycopy(valueBuffer, 0, sortedValues, 0, position);
+      Arrays.sort(sortedValues, 0, position);
+      int bestWidth = 64;
+      long bestReference = sortedValues[0];
+      int bestLength = Integer.MAX_VALUE;
+      for (int width=0; width<=64; ++width) {
+        long reference = getBestReference(width);
+        int length = getEncodedBlockLength(reference, width);
+        if (length < bestLength) {
+          bestLength = length;
+          bestWidth = width;
+          bestReference = reference;
+        }
+      }
+      int numExceptions = 0;
+      for (int j=0; j<position; ++j) {
+        long relativeValue = valueBuffer[j] - bestReference;
+        if (fits(relativeValue, bestWidth)) {
+          relativeValues[j] = relativeValue;
+        } else {
+          relativeValues[j] = 0;
+          numExceptions += 1;
+        }
+      }
+      Bytes.writeUInt(mos, position);
+      Bytes.writeSLong(mos, bestReference);
+      mos.write(bestWidth);
+      Bytes.writeUInt(mos, numExceptions);
+      Bytes.writePackedInts64(mos, relativeValues, bestWidth, position);
+      if (numExceptions > 0) {
+        for (int j=0; j<position; ++j) {
+          if (!fits(valueBuffer[j] - bestReference, bestWidth)) {
+            mos.write(j);
+            Bytes.writeSLong(mos, valueBuffer[j] - bestReference);
+          }
+        }
+      }
+      numEncodedValues += position;
+      position = 0;
+    }
+
+    @Override
+    public void reset() {
+      position = 0;
+      numEncodedValues = 0;
+      super.reset();
+    }
+
+    @Override
+    public void finish() {
+      flushBlock();
+    }
+
+    @Override
+    public int getEstimatedLength() {
+      if (numEncodedValues == 0) {
+        return position; // very rough estimate when we haven't flushed anything yet
+      }
+      return super.getEstimatedLength() + (int)(((long)mos.getLength() * position) / numEncodedValues);
+    }
+
+  }
+
+  public static final IDecoderFactory decoderFactory = new ADecoderFactory() {
+      @Override
+      public IDecoder create(ByteBuffer bb) {
+        return new Decoder(bb);
+      }
+    };
+
+}
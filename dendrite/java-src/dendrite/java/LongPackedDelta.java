@@ -28,8 +28,8 @@ public final class LongPackedDelta {
     private int[] miniblockBitWidths = new int[16];
     private int remainingValuesInBlock = 0;
     private int blockLength = 0;
-    private BigInteger blockMinDelta;
-    private BigInteger blockCurrentValue;
+    private long blockMinDelta;
+    private long blockCurrentValue;
 
     public Decoder(ByteBuffer byteBuffer) {
       super(byteBuffer);
@@ -51,25 +51,11 @@ public final class LongPackedDelta {
             || miniblockPosition == miniblockLength) { // finished reading current mini block
           initNextMiniBlock();
         }
-        setCurrentValueFromMiniBlockBuffer();
+        blockCurrentValue = miniblockBuffer[miniblockPosition];
+        miniblockPosition += 1;
       }
       remainingValuesInBlock -= 1;
-      return blockCurrentValue.longValue();
-    }
-
-    private static BigInteger getValueOfUnsignedLong(long l) {
-      if (l >= 0) {
-        return BigInteger.valueOf(l);
-      } else {
-        return BigInteger.valueOf(l & 0x7fffffffffffffffL).or(BigInteger.ZERO.flipBit(63));
-      }
-    }
-
-    private void setCurrentValueFromMiniBlockBuffer() {
-      BigInteger nextRelativeDelta = getValueOfUnsignedLong(miniblockBuffer[miniblockPosition]);
-      BigInteger delta = nextRelativeDelta.add(blockMinDelta);
-      blockCurrentValue = blockCurrentValue.add(delta);
-      miniblockPosition += 1;
+      return blockCurrentValue;
     }
 
     private void initNextMiniBlock() {
@@ -77,6 +63,9 @@ public final class LongPackedDelta {
       int width = miniblockBitWidths[currentMiniblockIndex];
       int length = remainingValuesInBlock < miniblockLength? remainingValuesInBlock : miniblockLength;
       Bytes.readPackedInts64(bb, miniblockBuffer, width, length);
+      // The deltas may overflow a long but the values they add up to cannot, so the wrapping long arithmetic
+      // yields the same result as the BigInteger arithmetic used by the encoder.
+      Kernels.get().decodeDeltas(miniblockBuffer, 0, length, blockCurrentValue, blockMinDelta);
       miniblockPosition = 0;
     }
 
@@ -87,9 +76,9 @@ public final class LongPackedDelta {
       remainingValuesInBlock = Bytes.readUInt(bb);
       miniblockPosition = -1;
       currentMiniblockIndex = -1;
-      blockCurrentValue = BigInteger.valueOf(Bytes.readSLong(bb));
+      blockCurrentValue = Bytes.readSLong(bb);
       if (numMiniblocks > 0) {
-        blockMinDelta = Bytes.readSIntVlq(bb);
+        blockMinDelta = Bytes.readSIntVlq(bb).longValue();
         for (int i=0; i<numMiniblocks; ++i) {
           miniblockBitWidths[i] = (int)bb.get() & 0xff;
         }
@@ -99,7 +88,7 @@ public final class LongPackedDelta {
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements ILongEncoder {
 
     private static final BigInteger INFINITY = BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(2);
     private static final int MAX_BLOCK_LENGTH = 128;
@@ -117,11 +106,16 @@ public final class LongPackedDelta {
 
     @Override
     public void encode(Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long l) {
       numValues += 1;
       if (position == MAX_BLOCK_LENGTH + 1) {
         flushBlock();
       }
-      valueBuffer[position] = BigInteger.valueOf((long)o);
+      valueBuffer[position] = BigInteger.valueOf(l);
       position += 1;
     }
 
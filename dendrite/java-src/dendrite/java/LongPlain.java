@@ -27,14 +27,28 @@ public final class LongPlain {
       return Bytes.readFixedLong(bb);
     }
 
+    public void decodeLongs(final long[] longs, final int offset, final int length) {
+      Bytes.readFixedLongs(bb, longs, offset, length);
+    }
+
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements ILongEncoder {
 
     @Override
     public void encode(Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long l) {
       numValues += 1;
-      Bytes.writeFixedLong(mos, (long) o);
+      Bytes.writeFixedLong(mos, l);
+    }
+
+    public void encodeLongs(final long[] longs, final int offset, final int length) {
+      numValues += length;
+      Bytes.writeFixedLongs(mos, longs, offset, length);
     }
 
   }
@@ -29,12 +29,17 @@ public final class LongVlq {
 
   }
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements ILongEncoder {
 
     @Override
     public void encode(Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long l) {
       numValues += 1;
-      Bytes.writeULong(mos, (long) o);
+      Bytes.writeULong(mos, l);
     }
 
   }
@@ -29,12 +29,17 @@ public final class LongZigZag {
   }
 
 
-  public static final class Encoder extends AEncoder {
+  public static final class Encoder extends AEncoder implements ILongEncoder {
 
     @Override
     public void encode(final Object o) {
+      encodeLong((long)o);
+    }
+
+    @Override
+    public void encodeLong(final long l) {
       numValues += 1;
-      Bytes.writeSLong(mos, (long) o);
+      Bytes.writeSLong(mos, l);
     }
 
   }
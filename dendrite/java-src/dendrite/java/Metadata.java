@@ -17,26 +17,83 @@ import java.util.Arrays;
 
 public final class Metadata {
 
+  // Footer format versions. Files are always written with the current version but remain readable under any
+  // older one.
+  //  - Version 1 is the original format.
+  //  - Version 2 adds the shared dictionaries.
+  //  - Version 3 follows the base fields of each column chunk with flags, and an optional count of fallback
+  //    data pages.
+  //  - Version 4 adds an optional encoding and compression to each column chunk.
+  //  - Version 5 widens the record group and column chunk lengths to longs.
+  public static final int VERSION_1 = 1;
+  public static final int VERSION_2 = 2;
+  public static final int VERSION_3 = 3;
+  public static final int VERSION_4 = 4;
+  public static final int VERSION_5 = 5;
+  public static final int CURRENT_VERSION = VERSION_5;
+
   public static final class ColumnChunk implements IWriteable {
 
-    public final int length;
+    // Since version 3, the base fields of a column chunk are followed by a set of flags marking which of the
+    // optional fields are present, so that chunks that don't use them pay a single byte.
+    private static final int HAS_FALLBACK_DATA_PAGES = 1;
+    private static final int HAS_OWN_ENCODING = 2;
+
+    public final long length;
     public final int numDataPages;
     public final int dataPageOffset;
     public final int dictionaryPageOffset;
+    public final int numFallbackDataPages;
+    // The encoding and compression of this column chunk, or -1 if they are the same as the column's in the
+    // file schema.
+    public final int encoding;
+    public final int compression;
+
+    public ColumnChunk(long length, int numDataPages, int dataPageOffset, int dictionaryPageOffset) {
+      this(length, numDataPages, dataPageOffset, dictionaryPageOffset, 0);
+    }
 
-    public ColumnChunk(int length, int numDataPages, int dataPageOffset, int dictionaryPageOffset) {
+    public ColumnChunk(long length, int numDataPages, int dataPageOffset, int dictionaryPageOffset,
+                       int numFallbackDataPages) {
+      this(length, numDataPages, dataPageOffset, dictionaryPageOffset, numFallbackDataPages, -1, -1);
+    }
+
+    public ColumnChunk(long length, int numDataPages, int dataPageOffset, int dictionaryPageOffset,
+                       int numFallbackDataPages, int encoding, int compression) {
       this.length = length;
       this.numDataPages = numDataPages;
       this.dataPageOffset = dataPageOffset;
       this.dictionaryPageOffset = dictionaryPageOffset;
+      this.numFallbackDataPages = numFallbackDataPages;
+      this.encoding = encoding;
+      this.compression = compression;
+    }
+
+    public ColumnChunk withEncodingAndCompression(int anEncoding, int aCompression) {
+      return new ColumnChunk(length, numDataPages, dataPageOffset, dictionaryPageOffset, numFallbackDataPages,
+                             anEncoding, aCompression);
+    }
+
+    public boolean hasOwnEncoding() {
+      return encoding >= 0;
     }
 
     @Override
     public void writeTo(MemoryOutputStream mos) {
-      Bytes.writeUInt(mos, length);
+      Bytes.writeULong(mos, length);
       Bytes.writeUInt(mos, numDataPages);
       Bytes.writeUInt(mos, dataPageOffset);
       Bytes.writeUInt(mos, dictionaryPageOffset);
+      int flags = ((numFallbackDataPages > 0)? HAS_FALLBACK_DATA_PAGES : 0)
+        | (hasOwnEncoding()? HAS_OWN_ENCODING : 0);
+      Bytes.writeUInt(mos, flags);
+      if ((flags & HAS_FALLBACK_DATA_PAGES) != 0) {
+        Bytes.writeUInt(mos, numFallbackDataPages);
+      }
+      if ((flags & HAS_OWN_ENCODING) != 0) {
+        Bytes.writeUInt(mos, encoding);
+        Bytes.writeUInt(mos, compression);
+      }
     }
 
     @Override
@@ -48,7 +105,10 @@ public final class Metadata {
       return length == cc.length
         && numDataPages == cc.numDataPages
         && dataPageOffset == cc.dataPageOffset
-        && dictionaryPageOffset == cc.dictionaryPageOffset;
+        && dictionaryPageOffset == cc.dictionaryPageOffset
+        && numFallbackDataPages == cc.numFallbackDataPages
+        && encoding == cc.encoding
+        && compression == cc.compression;
     }
 
     @Override
@@ -57,21 +117,38 @@ public final class Metadata {
     }
 
     public static ColumnChunk read(ByteBuffer bb) {
-      return new ColumnChunk(Bytes.readUInt(bb),
-                             Bytes.readUInt(bb),
-                             Bytes.readUInt(bb),
-                             Bytes.readUInt(bb));
+      return read(bb, CURRENT_VERSION);
+    }
+
+    public static ColumnChunk read(ByteBuffer bb, int version) {
+      long length = (version < VERSION_5)? Bytes.readUInt(bb) : Bytes.readULong(bb);
+      int numDataPages = Bytes.readUInt(bb);
+      int dataPageOffset = Bytes.readUInt(bb);
+      int dictionaryPageOffset = Bytes.readUInt(bb);
+      if (version < VERSION_3) {
+        return new ColumnChunk(length, numDataPages, dataPageOffset, dictionaryPageOffset);
+      }
+      int flags = Bytes.readUInt(bb);
+      int numFallbackDataPages = ((flags & HAS_FALLBACK_DATA_PAGES) != 0)? Bytes.readUInt(bb) : 0;
+      int encoding = -1;
+      int compression = -1;
+      if ((flags & HAS_OWN_ENCODING) != 0) {
+        encoding = Bytes.readUInt(bb);
+        compression = Bytes.readUInt(bb);
+      }
+      return new ColumnChunk(length, numDataPages, dataPageOffset, dictionaryPageOffset, numFallbackDataPages,
+                             encoding, compression);
     }
 
   }
 
   public static final class RecordGroup implements IWriteable {
 
-    public final int length;
+    public final long length;
     public final long numRecords;
     public final ColumnChunk[] columnChunks;
 
-    public RecordGroup(int length, long numRecords, ColumnChunk[] columnChunks) {
+    public RecordGroup(long length, long numRecords, ColumnChunk[] columnChunks) {
       this.length = length;
       this.numRecords = numRecords;
       this.columnChunks = columnChunks;
@@ -84,18 +161,18 @@ public final class Metadata {
       }
     }
 
-    private static ColumnChunk[] readColumnChunks(ByteBuffer bb) {
+    private static ColumnChunk[] readColumnChunks(ByteBuffer bb, int version) {
       int n = Bytes.readUInt(bb);
       ColumnChunk[] columnChunks = new ColumnChunk[n];
       for (int i=0; i<n; ++i) {
-        columnChunks[i] = ColumnChunk.read(bb);
+        columnChunks[i] = ColumnChunk.read(bb, version);
       }
       return columnChunks;
     }
 
     @Override
     public void writeTo(MemoryOutputStream mos) {
-      Bytes.writeUInt(mos, length);
+      Bytes.writeULong(mos, length);
       Bytes.writeULong(mos, numRecords);
       writeColumnChunksTo(mos);
     }
@@ -117,9 +194,51 @@ public final class Metadata {
     }
 
     public static RecordGroup read(ByteBuffer bb) {
-      return new RecordGroup(Bytes.readUInt(bb),
+      return read(bb, CURRENT_VERSION);
+    }
+
+    public static RecordGroup read(ByteBuffer bb, int version) {
+      return new RecordGroup((version < VERSION_5)? Bytes.readUInt(bb) : Bytes.readULong(bb),
                              Bytes.readULong(bb),
-                             readColumnChunks(bb));
+                             readColumnChunks(bb, version));
+    }
+
+  }
+
+  public static final class SharedDictionary implements IWriteable {
+
+    public final int columnIndex;
+    public final ByteBuffer dictionaryPage;
+
+    public SharedDictionary(int columnIndex, ByteBuffer dictionaryPage) {
+      this.columnIndex = columnIndex;
+      this.dictionaryPage = dictionaryPage;
+    }
+
+    @Override
+    public void writeTo(MemoryOutputStream mos) {
+      Bytes.writeUInt(mos, columnIndex);
+      Bytes.writeByteBuffer(mos, dictionaryPage);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof SharedDictionary)) {
+        return false;
+      }
+      SharedDictionary sd = (SharedDictionary) o;
+      return columnIndex == sd.columnIndex
+        && dictionaryPage.equals(sd.dictionaryPage);
+    }
+
+    @Override
+    public int hashCode() {
+      throw new UnsupportedOperationException();
+    }
+
+    public static SharedDictionary read(ByteBuffer bb) {
+      return new SharedDictionary(Bytes.readUInt(bb),
+                                  Bytes.readByteBuffer(bb));
     }
 
   }
@@ -130,12 +249,19 @@ public final class Metadata {
     public final Schema schema;
     public final CustomType[] customTypes;
     public final ByteBuffer metadata;
+    public final SharedDictionary[] sharedDictionaries;
 
     public File(RecordGroup[] recordGroups, Schema schema, CustomType[] customTypes, ByteBuffer metadata) {
+      this(recordGroups, schema, customTypes, metadata, new SharedDictionary[]{});
+    }
+
+    public File(RecordGroup[] recordGroups, Schema schema, CustomType[] customTypes, ByteBuffer metadata,
+                SharedDictionary[] sharedDictionaries) {
       this.recordGroups = recordGroups;
       this.schema = schema;
       this.customTypes = customTypes;
       this.metadata = metadata;
+      this.sharedDictionaries = sharedDictionaries;
     }
 
     private void writeRecordGroupsTo(MemoryOutputStream mos) {
@@ -145,11 +271,11 @@ public final class Metadata {
       }
     }
 
-    private static RecordGroup[] readRecordGroups(ByteBuffer bb) {
+    private static RecordGroup[] readRecordGroups(ByteBuffer bb, int version) {
       int n = Bytes.readUInt(bb);
       RecordGroup[] recordGroups = new RecordGroup[n];
       for (int i=0; i<n; ++i) {
-        recordGroups[i] = RecordGroup.read(bb);
+        recordGroups[i] = RecordGroup.read(bb, version);
       }
       return recordGroups;
     }
@@ -170,6 +296,22 @@ public final class Metadata {
       return customTypes;
     }
 
+    private void writeSharedDictionariesTo(MemoryOutputStream mos) {
+      Bytes.writeUInt(mos, sharedDictionaries.length);
+      for (SharedDictionary sharedDictionary : sharedDictionaries) {
+        mos.write(sharedDictionary);
+      }
+    }
+
+    private static SharedDictionary[] readSharedDictionaries(ByteBuffer bb) {
+      int n = Bytes.readUInt(bb);
+      SharedDictionary[] sharedDictionaries = new SharedDictionary[n];
+      for (int i=0; i<n; ++i) {
+        sharedDictionaries[i] = SharedDictionary.read(bb);
+      }
+      return sharedDictionaries;
+    }
+
     public long getNumRecords() {
       long n = 0;
       for (RecordGroup recordGroup : recordGroups) {
@@ -184,6 +326,7 @@ public final class Metadata {
       Schema.writeTo(mos, schema);
       writeCustomTypesTo(mos);
       Bytes.writeByteBuffer(mos, metadata);
+      writeSharedDictionariesTo(mos);
     }
 
     @Override
@@ -195,7 +338,8 @@ public final class Metadata {
       return Arrays.equals(recordGroups, f.recordGroups)
         && schema.equals(f.schema)
         && Arrays.equals(customTypes, f.customTypes)
-        && metadata.equals(f.metadata);
+        && metadata.equals(f.metadata)
+        && Arrays.equals(sharedDictionaries, f.sharedDictionaries);
     }
 
     @Override
@@ -204,10 +348,18 @@ public final class Metadata {
     }
 
     public static File read(ByteBuffer bb) {
-      return new File(readRecordGroups(bb),
+      return read(bb, CURRENT_VERSION);
+    }
+
+    public static File read(ByteBuffer bb, int version) {
+      if (version < VERSION_1 || version > CURRENT_VERSION) {
+        throw new IllegalArgumentException(String.format("Unsupported footer format version %d.", version));
+      }
+      return new File(readRecordGroups(bb, version),
                       Schema.read(bb),
                       readCustomTypes(bb),
-                      Bytes.readByteBuffer(bb));
+                      Bytes.readByteBuffer(bb),
+                      (version < VERSION_2)? new SharedDictionary[]{} : readSharedDictionaries(bb));
     }
 
   }
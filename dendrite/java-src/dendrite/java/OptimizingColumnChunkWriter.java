@@ -16,9 +16,10 @@ import clojure.lang.AFn;
 import clojure.lang.IFn;
 import clojure.lang.Symbol;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -26,6 +27,11 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   private static final int PARTITION_LENGTH = 100;
 
+  // FSST is slower to decode than the other byte-array encodings, so only pick it when it is clearly smaller
+  // than all of them. Columns that fit in a dictionary already decode each distinct value only once, so FSST
+  // is not considered for them.
+  private static final double MAX_FSST_LENGTH_RATIO = 0.9;
+
   final Schema.Column column;
   final Schema.Column primitiveColumn;
   final DataColumnChunk.Writer plainColumnChunkWriter;
@@ -51,11 +57,8 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
       statsCollector = new IntStatsCollector(targetDataPageLength); break;
     case Types.LONG:
       statsCollector = new LongStatsCollector(targetDataPageLength); break;
-    case Types.BYTE_ARRAY:
-      statsCollector = new ByteArrayStatsCollector(targetDataPageLength); break;
-    case Types.FIXED_LENGTH_BYTE_ARRAY:
-      statsCollector = new ByteArrayStatsCollector(targetDataPageLength); break;
-    default: statsCollector = new StatsCollector(targetDataPageLength); break;
+    default:
+      statsCollector = new StatsCollector(DictionaryTable.create(primitiveType), targetDataPageLength); break;
     }
     DataPage.Writer statsPageWriter
       = DataPage.Writer.create(column.repetitionLevel,
@@ -74,9 +77,9 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     case Types.LONG:
       return new LongColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
     case Types.FLOAT:
-      return new DefaultColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
+      return new FloatingPointColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
     case Types.DOUBLE:
-      return new DefaultColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
+      return new FloatingPointColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
     case Types.BYTE_ARRAY:
       return new ByteArrayColumnChunk(types, plainColumnChunkWriter, plainColumn, statsCollector);
     case Types.FIXED_LENGTH_BYTE_ARRAY:
@@ -87,7 +90,20 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   abstract int getBestEncoding(DataColumnChunk.Reader plainReader, Stats.ColumnChunk plainStats);
 
+  // Some encodings don't reduce the data length but make it more compressible. They can only be compared to the
+  // best encoding once compressed.
+  int getCompressibleAlternativeEncoding(int bestEncoding) {
+    return bestEncoding;
+  }
+
   public IColumnChunkWriter optimize(Map<Symbol,Double> compressionThresholds) {
+    return optimize(compressionThresholds, null);
+  }
+
+  // If fileColumn is not null, the column chunk is being re-optimized in a file whose schema already records
+  // fileColumn's encoding. Readers apply the column's function differently depending on whether it has a
+  // dictionary, so the new encoding must agree with fileColumn on that point.
+  public IColumnChunkWriter optimize(Map<Symbol,Double> compressionThresholds, Schema.Column fileColumn) {
     plainColumnChunkWriter.finish();
     DataColumnChunk.Reader primitiveReader
       = new DataColumnChunk.Reader(types, plainColumnChunkWriter.toByteBuffer(),
@@ -95,7 +111,25 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
                                    primitiveColumn, PARTITION_LENGTH);
     Stats.ColumnChunk plainStats = primitiveReader.getStats();
     int bestEncoding = getBestEncoding(primitiveReader, plainStats);
-    int bestCompression = getBestCompression(bestEncoding, primitiveReader, plainStats, compressionThresholds);
+    if (fileColumn != null && fileColumn.hasDictionary() != isDictionaryEncoding(bestEncoding)) {
+      bestEncoding = fileColumn.encoding;
+    }
+    int bestCompression;
+    int alternativeEncoding = getCompressibleAlternativeEncoding(bestEncoding);
+    if (alternativeEncoding != bestEncoding) {
+      int[] best = getRegularBestCompressionAndLength(bestEncoding, primitiveReader, plainStats,
+                                                      compressionThresholds);
+      int[] alternative = getRegularBestCompressionAndLength(alternativeEncoding, primitiveReader, plainStats,
+                                                             compressionThresholds);
+      if (alternative[1] < best[1]) {
+        bestEncoding = alternativeEncoding;
+        bestCompression = alternative[0];
+      } else {
+        bestCompression = best[0];
+      }
+    } else {
+      bestCompression = getBestCompression(bestEncoding, primitiveReader, plainStats, compressionThresholds);
+    }
     DataColumnChunk.Reader plainReader
       = new DataColumnChunk.Reader(types, plainColumnChunkWriter.toByteBuffer(),
                                    plainColumnChunkWriter.getMetadata(),
@@ -116,16 +150,26 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   private int getBestCompression(int bestEncoding, DataColumnChunk.Reader primitiveReader,
                                  Stats.ColumnChunk plainStats, Map<Symbol,Double> compressionThresholds) {
-    if (bestEncoding == Types.DICTIONARY || bestEncoding == Types.FREQUENCY) {
+    if (isDictionaryEncoding(bestEncoding)) {
       return getDictionaryBestCompression(bestEncoding, plainStats, compressionThresholds);
     } else {
       return getRegularBestCompression(bestEncoding, primitiveReader, plainStats, compressionThresholds);
     }
   }
 
+  private static boolean isDictionaryEncoding(int encoding) {
+    return encoding == Types.DICTIONARY || encoding == Types.FREQUENCY;
+  }
+
   private int getRegularBestCompression(int encoding, DataColumnChunk.Reader primitiveReader,
                                         Stats.ColumnChunk plainStats,
                                         Map<Symbol,Double> compressionThresholds) {
+    return getRegularBestCompressionAndLength(encoding, primitiveReader, plainStats, compressionThresholds)[0];
+  }
+
+  private int[] getRegularBestCompressionAndLength(int encoding, DataColumnChunk.Reader primitiveReader,
+                                                   Stats.ColumnChunk plainStats,
+                                                   Map<Symbol,Double> compressionThresholds) {
     IColumnChunkWriter writer
       = DataColumnChunk.Writer.create(types,
                                       primitiveColumn.withEncoding(encoding),
@@ -163,7 +207,7 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
         bestCompression = compression;
       }
     }
-    return bestCompression;
+    return new int[] {bestCompression, bestLength};
   }
 
   private void copyAtLeastOnePage(DataColumnChunk.Reader primitiveReader,
@@ -184,8 +228,9 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     }
     int indicesColumnLength = estimateLevelsLength(plainStats) + indicesDataLength;
     IEncoder primitiveEncoder = types.getEncoder(primitiveColumn.type, Types.PLAIN);
-    for (Object o : statsCollector.getFrequencies().keySet()) {
-      primitiveEncoder.encode(o);
+    DictionaryTable distinctValues = statsCollector.distinctValues;
+    for (int i=0; i<distinctValues.size(); ++i) {
+      primitiveEncoder.encode(distinctValues.get(i));
     }
     primitiveEncoder.finish();
     int bestCompression = Types.NONE;
@@ -215,14 +260,18 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
   }
 
   int estimateDictionaryIndicesColumnLength(Stats.ColumnChunk plainStats) {
-    int numEntries = statsCollector.getFrequencies().size();
+    int numEntries = statsCollector.distinctValues.size();
     int width = Bytes.getBitWidth(numEntries-1);
     return (int)((plainStats.numNonNilValues * width) / 8);
   }
 
   int estimateFrequencyIndicesColumnLength(Stats.ColumnChunk plainStats) {
     int indicesLength = 0;
-    Integer[] frequencies = statsCollector.getFrequencies().values().toArray(new Integer[]{});
+    DictionaryTable distinctValues = statsCollector.distinctValues;
+    int[] frequencies = new int[distinctValues.size()];
+    for (int i=0; i<frequencies.length; ++i) {
+      frequencies[i] = distinctValues.getCount(i);
+    }
     Arrays.sort(frequencies);
     for (int i=0; i < frequencies.length; ++i) {
       int freq = frequencies[frequencies.length - i - 1];
@@ -236,15 +285,6 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     plainColumnChunkWriter.write(values);
   }
 
-  static void incrementFrequency(HashMap<Object,Integer> frequencies, Object v) {
-    Integer freq = frequencies.get(v);
-    if (freq == null) {
-      frequencies.put(v, 1);
-    } else {
-      frequencies.put(v, freq.intValue() + 1);
-    }
-  }
-
   @Override
   public Schema.Column getColumn() {
     return column;
@@ -255,6 +295,11 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public ByteBuffer[] toByteBuffers() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public int getNumDataPages() {
     throw new UnsupportedOperationException();
@@ -290,6 +335,20 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void writeTo(FileChannel fileChannel) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  // The plain-encoded values are read back when optimizing, so they are kept in memory.
+  @Override
+  public void spillTo(SpillFile spillFile) {}
+
+  @Override
+  public void bufferPagesIn(SegmentedBuffer.Pool pool) {
+    plainColumnChunkWriter.bufferPagesIn(pool);
+  }
+
   private static Schema.Column getPlainColumn(Types types, Schema.Column column) {
     int plainEncoding;
     if (types.getPrimitiveType(column.type) == Types.BYTE_ARRAY) {
@@ -312,25 +371,21 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   private static class StatsCollector {
 
-    final HashMap<Object, Integer> frequencies;
+    final DictionaryTable distinctValues;
     final int maxDictionarySize;
 
-    StatsCollector(int maxDictionarySize) {
+    StatsCollector(DictionaryTable distinctValues, int maxDictionarySize) {
       this.maxDictionarySize = maxDictionarySize;
-      this.frequencies = new HashMap<Object, Integer>();
-    }
-
-    Map<Object, Integer> getFrequencies() {
-      return frequencies;
+      this.distinctValues = distinctValues;
     }
 
     boolean isDictionarySaturated() {
-      return frequencies.size() == maxDictionarySize;
+      return distinctValues.size() == maxDictionarySize;
     }
 
     void process(Object o) {
-      if (frequencies.size() < maxDictionarySize) {
-        incrementFrequency(frequencies, o);
+      if (distinctValues.size() < maxDictionarySize) {
+        distinctValues.add(o);
       }
     }
   }
@@ -353,9 +408,17 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
     @Override
     int getBestEncoding(DataColumnChunk.Reader primitiveReader, Stats.ColumnChunk plainStats) {
-      Integer numTrue = statsCollector.getFrequencies().get(true);
-      Integer numFalse = statsCollector.getFrequencies().get(false);
-      if (numTrue == null || numFalse == null) {
+      int numTrue = 0;
+      int numFalse = 0;
+      DictionaryTable distinctValues = statsCollector.distinctValues;
+      for (int i=0; i<distinctValues.size(); ++i) {
+        if ((Boolean)distinctValues.get(i)) {
+          numTrue = distinctValues.getCount(i);
+        } else {
+          numFalse = distinctValues.getCount(i);
+        }
+      }
+      if (numTrue == 0 || numFalse == 0) {
         return Types.DICTIONARY;
       } else {
         if ( numTrue > 20 * numFalse || numFalse > 20 * numTrue) {
@@ -369,8 +432,9 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   IOutputBuffer getEncodedDictionary() {
     IEncoder encoder = Types.getPrimitiveEncoder(primitiveColumn.type, Types.PLAIN);
-    for (Object o : statsCollector.getFrequencies().keySet()) {
-      encoder.encode(o);
+    DictionaryTable distinctValues = statsCollector.distinctValues;
+    for (int i=0; i<distinctValues.size(); ++i) {
+      encoder.encode(distinctValues.get(i));
     }
     encoder.finish();
     return encoder;
@@ -406,6 +470,55 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     return (int)(pageStats.dataLength * mult);
   }
 
+  private static final class FloatingPointColumnChunk extends OptimizingColumnChunkWriter {
+
+    FloatingPointColumnChunk(Types types, DataColumnChunk.Writer plainColumnChunkWriter,
+                             Schema.Column column, StatsCollector statsCollector) {
+      super(types, plainColumnChunkWriter, column, statsCollector);
+    }
+
+    @Override
+    int getBestEncoding(DataColumnChunk.Reader primitiveReader, Stats.ColumnChunk plainStats) {
+      int bestLength = (int)plainStats.dataLength;
+      int bestEncoding = Types.PLAIN;
+      int numNonNilValues = (int)plainStats.numNonNilValues;
+
+      int xorLength = estimateDataLength(Types.XOR, primitiveReader, numNonNilValues);
+      if (xorLength < bestLength) {
+        bestLength = xorLength;
+        bestEncoding = Types.XOR;
+      }
+
+      if (!statsCollector.isDictionarySaturated()) {
+        IOutputBuffer encodedDictionary = getEncodedDictionary();
+        if (!isDictionaryTooLarge(encodedDictionary)) {
+          int dictionaryLength = estimateDictionaryIndicesColumnLength(plainStats)
+            + encodedDictionary.getLength();
+          if (dictionaryLength < bestLength) {
+            bestLength = dictionaryLength;
+            bestEncoding = Types.DICTIONARY;
+          }
+          int frequencyLength = estimateFrequencyIndicesColumnLength(plainStats)
+            + encodedDictionary.getLength();
+          if (frequencyLength < bestLength) {
+            bestLength = frequencyLength;
+            bestEncoding = Types.FREQUENCY;
+          }
+        }
+      }
+
+      return bestEncoding;
+    }
+
+    @Override
+    int getCompressibleAlternativeEncoding(int bestEncoding) {
+      if (bestEncoding == Types.PLAIN || bestEncoding == Types.XOR) {
+        return Types.BYTE_STREAM_SPLIT;
+      }
+      return bestEncoding;
+    }
+  }
+
   private static final class DefaultColumnChunk extends OptimizingColumnChunkWriter {
 
     DefaultColumnChunk(Types types, DataColumnChunk.Writer plainColumnChunkWriter,
@@ -439,17 +552,25 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   private static final class IntStatsCollector extends StatsCollector {
 
+    private final DictionaryTable.IntTable intValues;
     private int minValue = Integer.MAX_VALUE;
     private int maxValue = Integer.MIN_VALUE;
 
     IntStatsCollector(int maxDictionarySize) {
-      super(maxDictionarySize);
+      this(new DictionaryTable.IntTable(), maxDictionarySize);
+    }
+
+    private IntStatsCollector(DictionaryTable.IntTable intValues, int maxDictionarySize) {
+      super(intValues, maxDictionarySize);
+      this.intValues = intValues;
     }
 
     @Override
     void process(Object o) {
-      super.process(o);
       int v = (Integer)o;
+      if (intValues.size() < maxDictionarySize) {
+        intValues.add(v);
+      }
       if (v > maxValue) {
         maxValue = v;
       }
@@ -471,9 +592,10 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
     private int getVLQDataLength() {
       int length = 0;
-      for (Map.Entry<Object, Integer> e : statsCollector.getFrequencies().entrySet()) {
-        int v = (Integer)e.getKey();
-        int freq = e.getValue();
+      DictionaryTable.IntTable intValues = intStatsCollector.intValues;
+      for (int i=0; i<intValues.size(); ++i) {
+        int v = intValues.getInt(i);
+        int freq = intValues.getCount(i);
         length += Bytes.getNumUIntBytes(v) * freq;
       }
       return length;
@@ -481,9 +603,10 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
     private int getZigZagDataLength() {
       int length = 0;
-      for (Map.Entry<Object, Integer> e : statsCollector.getFrequencies().entrySet()) {
-        int v = Bytes.encodeZigZag32((Integer)e.getKey());
-        int freq = e.getValue();
+      DictionaryTable.IntTable intValues = intStatsCollector.intValues;
+      for (int i=0; i<intValues.size(); ++i) {
+        int v = Bytes.encodeZigZag32(intValues.getInt(i));
+        int freq = intValues.getCount(i);
         length += Bytes.getNumUIntBytes(v) * freq;
       }
       return length;
@@ -533,6 +656,12 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
         bestEncoding = Types.DELTA;
       }
 
+      int frameOfReferenceLength = estimateDataLength(Types.FRAME_OF_REFERENCE, primitiveReader, numNonNilValues);
+      if (frameOfReferenceLength < bestLength) {
+        bestLength = frameOfReferenceLength;
+        bestEncoding = Types.FRAME_OF_REFERENCE;
+      }
+
       if (!statsCollector.isDictionarySaturated()) {
         IOutputBuffer encodedDictionary = getEncodedDictionary();
         if (!isDictionaryTooLarge(encodedDictionary)) {
@@ -558,17 +687,25 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
   private static final class LongStatsCollector extends StatsCollector {
 
+    private final DictionaryTable.LongTable longValues;
     private long minValue = Long.MAX_VALUE;
     private long maxValue = Long.MIN_VALUE;
 
     LongStatsCollector(int maxDictionarySize) {
-      super(maxDictionarySize);
+      this(new DictionaryTable.LongTable(), maxDictionarySize);
+    }
+
+    private LongStatsCollector(DictionaryTable.LongTable longValues, int maxDictionarySize) {
+      super(longValues, maxDictionarySize);
+      this.longValues = longValues;
     }
 
     @Override
     void process(Object o) {
-      super.process(o);
       long v = (Long)o;
+      if (longValues.size() < maxDictionarySize) {
+        longValues.add(v);
+      }
       if (v > maxValue) {
         maxValue = v;
       }
@@ -590,9 +727,10 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
     private int getVlqDataLength() {
       int length = 0;
-      for (Map.Entry<Object, Integer> e : statsCollector.getFrequencies().entrySet()) {
-        long v = (Long)e.getKey();
-        int freq = e.getValue();
+      DictionaryTable.LongTable longValues = longStatsCollector.longValues;
+      for (int i=0; i<longValues.size(); ++i) {
+        long v = longValues.getLong(i);
+        int freq = longValues.getCount(i);
         length += Bytes.getNumULongBytes(v) * freq;
       }
       return length;
@@ -600,9 +738,10 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
 
     private int getZigZagDataLength() {
       int length = 0;
-      for (Map.Entry<Object, Integer> e : statsCollector.getFrequencies().entrySet()) {
-        long v = Bytes.encodeZigZag64((Long)e.getKey());
-        int freq = e.getValue();
+      DictionaryTable.LongTable longValues = longStatsCollector.longValues;
+      for (int i=0; i<longValues.size(); ++i) {
+        long v = Bytes.encodeZigZag64(longValues.getLong(i));
+        int freq = longValues.getCount(i);
         length += Bytes.getNumULongBytes(v) * freq;
       }
       return length;
@@ -644,6 +783,18 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
         bestEncoding = Types.DELTA;
       }
 
+      int frameOfReferenceLength = estimateDataLength(Types.FRAME_OF_REFERENCE, primitiveReader, numNonNilValues);
+      if (frameOfReferenceLength < bestLength) {
+        bestLength = frameOfReferenceLength;
+        bestEncoding = Types.FRAME_OF_REFERENCE;
+      }
+
+      int deltaOfDeltaLength = estimateDataLength(Types.DELTA_OF_DELTA, primitiveReader, numNonNilValues);
+      if (deltaOfDeltaLength < bestLength) {
+        bestLength = deltaOfDeltaLength;
+        bestEncoding = Types.DELTA_OF_DELTA;
+      }
+
       if (!statsCollector.isDictionarySaturated()) {
         IOutputBuffer encodedDictionary = getEncodedDictionary();
         if (!isDictionaryTooLarge(encodedDictionary)) {
@@ -667,34 +818,6 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
     }
   }
 
-  private static final class ByteArrayStatsCollector extends StatsCollector {
-
-    private Map<Object, Integer> unwrappedFrequencies = null;
-
-    ByteArrayStatsCollector(int maxDictionarySize) {
-      super(maxDictionarySize);
-    }
-
-    @Override
-    void process(Object o) {
-      if (frequencies.size() < maxDictionarySize) {
-        incrementFrequency(frequencies, new HashableByteArray((byte[])o));
-      }
-    }
-
-    @Override
-    Map<Object, Integer> getFrequencies() {
-      if (unwrappedFrequencies == null) {
-        unwrappedFrequencies = new HashMap<Object, Integer>();
-        for (Map.Entry<Object, Integer> e : frequencies.entrySet()) {
-          unwrappedFrequencies.put(((HashableByteArray)e.getKey()).array, e.getValue());
-        }
-      }
-      return unwrappedFrequencies;
-    }
-
-  }
-
   private static class ByteArrayColumnChunk extends OptimizingColumnChunkWriter {
 
     ByteArrayColumnChunk(Types types, DataColumnChunk.Writer plainColumnChunkWriter,
@@ -715,20 +838,36 @@ public abstract class OptimizingColumnChunkWriter implements IColumnChunkWriter
         bestEncoding = Types.INCREMENTAL;
       }
 
+      if (types.isBigDecType(column.type)) {
+        int decimalLength = estimateDataLength(Types.DECIMAL, primitiveReader, numNonNilValues);
+        if (decimalLength < bestLength) {
+          bestLength = decimalLength;
+          bestEncoding = Types.DECIMAL;
+        }
+      }
+
       if (!statsCollector.isDictionarySaturated()) {
         IOutputBuffer encodedDictionary = getEncodedDictionary();
-        if (isDictionaryTooLarge(encodedDictionary)) {
-          return bestEncoding;
-        }
-        int dictionaryLength = estimateDictionaryIndicesColumnLength(plainStats) + encodedDictionary.getLength();
-        if (dictionaryLength < bestLength) {
-          bestLength = dictionaryLength;
-          bestEncoding = Types.DICTIONARY;
+        if (!isDictionaryTooLarge(encodedDictionary)) {
+          int dictionaryLength = estimateDictionaryIndicesColumnLength(plainStats)
+            + encodedDictionary.getLength();
+          if (dictionaryLength < bestLength) {
+            bestLength = dictionaryLength;
+            bestEncoding = Types.DICTIONARY;
+          }
+          int frequencyLength = estimateFrequencyIndicesColumnLength(plainStats)
+            + encodedDictionary.getLength();
+          if (frequencyLength < bestLength) {
+            bestLength = frequencyLength;
+            bestEncoding = Types.FREQUENCY;
+          }
         }
-        int frequencyLength = estimateFrequencyIndicesColumnLength(plainStats) + encodedDictionary.getLength();
-        if (frequencyLength < bestLength) {
-          bestLength = frequencyLength;
-          bestEncoding = Types.FREQUENCY;
+      }
+
+      if (bestEncoding != Types.DICTIONARY && bestEncoding != Types.FREQUENCY) {
+        int fsstLength = estimateDataLength(Types.FSST, primitiveReader, numNonNilValues);
+        if (fsstLength < MAX_FSST_LENGTH_RATIO * bestLength) {
+          bestEncoding = Types.FSST;
         }
       }
 
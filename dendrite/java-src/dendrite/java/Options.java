@@ -20,6 +20,7 @@ import clojure.lang.Keyword;
 import clojure.lang.RT;
 import clojure.lang.Symbol;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,7 +40,18 @@ public final class Options {
     SUB_SCHEMA_IN = Keyword.intern("sub-schema-in"),
     MISSING_FIELDS_AS_NIL = Keyword.intern("missing-fields-as-nil?"),
     IGNORE_EXTRA_FIELDS = Keyword.intern("ignore-extra-fields?"),
+    SHARED_DICTIONARIES = Keyword.intern("shared-dictionaries?"),
+    MAX_DICTIONARY_LENGTH = Keyword.intern("max-dictionary-length"),
+    OPTIMIZATION_SAMPLE_LENGTH = Keyword.intern("optimization-sample-length"),
+    REVALIDATION_INTERVAL = Keyword.intern("revalidation-interval"),
+    REVALIDATION_THRESHOLD = Keyword.intern("revalidation-threshold"),
+    SPILL_DIRECTORY = Keyword.intern("spill-directory"),
+    PENDING_RECORD_GROUPS = Keyword.intern("pending-record-groups"),
+    OFF_HEAP = Keyword.intern("off-heap?"),
     READERS = Keyword.intern("readers"),
+    LAZY_RECORDS = Keyword.intern("lazy-records?"),
+    ZERO_COPY = Keyword.intern("zero-copy?"),
+    UNMAP_RECORD_GROUPS = Keyword.intern("unmap-record-groups?"),
     ALL = Keyword.intern("all"),
     NONE = Keyword.intern("none"),
     DEFAULT = Keyword.intern("default"),
@@ -55,6 +67,15 @@ public final class Options {
   public static final Map<Symbol,Double> DEFAULT_COMPRESSION_THRESHOLDS;
   public static final boolean DEFAULT_MISSING_FIELDS_AS_NIL = true;
   public static final boolean DEFAULT_IGNORE_EXTRA_FIELDS = true;
+  public static final boolean DEFAULT_SHARED_DICTIONARIES = false;
+  public static final int DEFAULT_MAX_DICTIONARY_LENGTH = 1024 * 1024; // 1 MB
+  public static final int DEFAULT_REVALIDATION_INTERVAL = 0; // never
+  public static final double DEFAULT_REVALIDATION_THRESHOLD = Double.POSITIVE_INFINITY; // never
+  public static final int DEFAULT_PENDING_RECORD_GROUPS = 1;
+  public static final boolean DEFAULT_OFF_HEAP = false;
+  public static final boolean DEFAULT_LAZY_RECORDS = false;
+  public static final boolean DEFAULT_ZERO_COPY = false;
+  public static final boolean DEFAULT_UNMAP_RECORD_GROUPS = false;
   public static final int DEFAULT_BUNDLE_SIZE = 256;
 
   private static final Object notFound = new Object();
@@ -155,9 +176,14 @@ public final class Options {
 
   public static final class ReaderOptions {
     public final List<CustomTypeDefinition> customTypeDefinitions;
+    public final boolean isZeroCopy;
+    public final boolean isUnmappingRecordGroups;
 
-    public ReaderOptions(List<CustomTypeDefinition> customTypeDefinitions) {
+    public ReaderOptions(List<CustomTypeDefinition> customTypeDefinitions, boolean isZeroCopy,
+                         boolean isUnmappingRecordGroups) {
       this.customTypeDefinitions = customTypeDefinitions;
+      this.isZeroCopy = isZeroCopy;
+      this.isUnmappingRecordGroups = isUnmappingRecordGroups;
     }
   }
 
@@ -177,11 +203,39 @@ public final class Options {
     }
   }
 
-  private static Keyword[] validReaderOptionKeys = new Keyword[]{CUSTOM_TYPES};
+  private static Keyword[] validReaderOptionKeys
+    = new Keyword[]{CUSTOM_TYPES, ZERO_COPY, UNMAP_RECORD_GROUPS};
+
+  private static boolean getZeroCopy(IPersistentMap options) {
+    Object o = RT.get(options, ZERO_COPY, notFound);
+    if (o == notFound) {
+      return DEFAULT_ZERO_COPY;
+    } else if (o instanceof Boolean) {
+      return (Boolean)o;
+    } else {
+      throw new IllegalArgumentException(String.format("%s expects a boolean but got '%s'", ZERO_COPY, o));
+    }
+  }
+
+  // Zero-copy values are views over the mapped record groups, so they must outlive them.
+  private static boolean getUnmapRecordGroups(IPersistentMap options) {
+    Object o = RT.get(options, UNMAP_RECORD_GROUPS, notFound);
+    if (o == notFound) {
+      return DEFAULT_UNMAP_RECORD_GROUPS;
+    } else if (!(o instanceof Boolean)) {
+      throw new IllegalArgumentException(String.format("%s expects a boolean but got '%s'",
+                                                       UNMAP_RECORD_GROUPS, o));
+    } else if ((Boolean)o && getZeroCopy(options)) {
+      throw new IllegalArgumentException(String.format("%s cannot be combined with %s",
+                                                       UNMAP_RECORD_GROUPS, ZERO_COPY));
+    }
+    return (Boolean)o;
+  }
 
   public static ReaderOptions getReaderOptions(IPersistentMap options) {
     checkValidKeys(options, validReaderOptionKeys, "%s is not a supported reader option.");
-    return new ReaderOptions(getCustomTypeDefinitions(options));
+    return new ReaderOptions(getCustomTypeDefinitions(options), getZeroCopy(options),
+                             getUnmapRecordGroups(options));
   }
 
   public static final class ReadOptions {
@@ -189,17 +243,20 @@ public final class Options {
     public final List<Keyword> subSchemaPath;
     public final boolean isMissingFieldsAsNil;
     public final Map<Symbol,IFn> readers;
+    public final boolean isLazyRecords;
     public final int bundleSize;
     public final IFn sampleFn;
     public final IFn indexedByFn;
     public final IFn transduceFn;
 
     public ReadOptions(Object query, List<Keyword> subSchemaPath, boolean isMissingFieldsAsNil,
-                       Map<Symbol,IFn> readers, IFn sampleFn, IFn indexedByFn, IFn transduceFn) {
+                       Map<Symbol,IFn> readers, boolean isLazyRecords, IFn sampleFn, IFn indexedByFn,
+                       IFn transduceFn) {
       this.query = query;
       this.subSchemaPath = subSchemaPath;
       this.isMissingFieldsAsNil = isMissingFieldsAsNil;
       this.readers = readers;
+      this.isLazyRecords = isLazyRecords;
       this.bundleSize = DEFAULT_BUNDLE_SIZE;
       this.sampleFn = sampleFn;
       this.indexedByFn = indexedByFn;
@@ -214,29 +271,30 @@ public final class Options {
         throw new IllegalArgumentException("Sample function must be defined before any indexing or "
                                            + "transducer function.");
       }
-      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, aSampleFn, null, null);
+      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, isLazyRecords, aSampleFn,
+                             null, null);
     }
 
     public ReadOptions withIndexedByFn(IFn aIndexedByFn) {
       if (transduceFn != null) {
         throw new IllegalArgumentException("Indexing function must be defined before any transducer");
       }
-      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, sampleFn, aIndexedByFn,
-                             null);
+      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, isLazyRecords, sampleFn,
+                             aIndexedByFn, null);
     }
 
     public ReadOptions withTransduceFn(IFn aTransduceFn) {
       if (transduceFn != null) {
         aTransduceFn = Utils.comp(aTransduceFn, transduceFn);
       }
-      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, sampleFn, indexedByFn,
-                             aTransduceFn);
+      return new ReadOptions(query, subSchemaPath, isMissingFieldsAsNil, readers, isLazyRecords, sampleFn,
+                             indexedByFn, aTransduceFn);
     }
 
   }
 
   private static Keyword[] validReadOptionKeys
-    = new Keyword[]{QUERY, SUB_SCHEMA_IN, MISSING_FIELDS_AS_NIL, READERS};
+    = new Keyword[]{QUERY, SUB_SCHEMA_IN, MISSING_FIELDS_AS_NIL, READERS, LAZY_RECORDS};
 
   private static Object getQuery(IPersistentMap options) {
     return RT.get(options, QUERY, Schema.SUB_SCHEMA);
@@ -276,6 +334,18 @@ public final class Options {
     }
   }
 
+  private static boolean getLazyRecords(IPersistentMap options) {
+    Object o = RT.get(options, LAZY_RECORDS, notFound);
+    if (o == notFound) {
+      return DEFAULT_LAZY_RECORDS;
+    } else if (o instanceof Boolean) {
+      return (Boolean)o;
+    } else {
+      throw new IllegalArgumentException(String.format("%s expects a boolean but got '%s'",
+                                                       LAZY_RECORDS, o));
+    }
+  }
+
   private static void checkTagReader(Object k, Object v) {
     if (!(k instanceof Symbol)) {
       throw new IllegalArgumentException(String.format("reader key should be a symbol but got '%s'.", k));
@@ -308,13 +378,14 @@ public final class Options {
                            getSubSchemaPath(options),
                            getMissingFieldsAsNil(options),
                            getTagReaders(options),
+                           getLazyRecords(options),
                            null,
                            null,
                            null);
   }
 
   public static final class WriterOptions {
-    public final int recordGroupLength;
+    public final long recordGroupLength;
     public final int dataPageLength;
     public final int optimizationStrategy;
     public final Map<Symbol,Double> compressionThresholds;
@@ -322,10 +393,21 @@ public final class Options {
     public final List<CustomTypeDefinition> customTypeDefinitions;
     public final int bundleSize;
     public final boolean isIgnoreExtraFields;
-
-    public WriterOptions(int recordGroupLength, int dataPageLength, int optimizationStrategy,
+    public final boolean isSharedDictionaries;
+    public final int maxDictionaryLength;
+    public final int optimizationSampleLength;
+    public final int revalidationInterval;
+    public final double revalidationThreshold;
+    public final File spillDirectory;
+    public final int numPendingRecordGroups;
+    public final boolean isOffHeap;
+
+    public WriterOptions(long recordGroupLength, int dataPageLength, int optimizationStrategy,
                          Map<Symbol,Double> compressionThresholds, IFn invalidInputHandler,
-                         List<CustomTypeDefinition> customTypeDefinitions, boolean isIgnoreExtraFields) {
+                         List<CustomTypeDefinition> customTypeDefinitions, boolean isIgnoreExtraFields,
+                         boolean isSharedDictionaries, int maxDictionaryLength, int optimizationSampleLength,
+                         int revalidationInterval, double revalidationThreshold, File spillDirectory,
+                         int numPendingRecordGroups, boolean isOffHeap) {
       this.recordGroupLength = recordGroupLength;
       this.dataPageLength = dataPageLength;
       this.optimizationStrategy = optimizationStrategy;
@@ -334,12 +416,22 @@ public final class Options {
       this.customTypeDefinitions = customTypeDefinitions;
       this.bundleSize = DEFAULT_BUNDLE_SIZE;
       this.isIgnoreExtraFields = isIgnoreExtraFields;
+      this.isSharedDictionaries = isSharedDictionaries;
+      this.maxDictionaryLength = maxDictionaryLength;
+      this.optimizationSampleLength = optimizationSampleLength;
+      this.revalidationInterval = revalidationInterval;
+      this.revalidationThreshold = revalidationThreshold;
+      this.spillDirectory = spillDirectory;
+      this.numPendingRecordGroups = numPendingRecordGroups;
+      this.isOffHeap = isOffHeap;
     }
   }
 
   private static final Keyword[] validWriterOptionKeys
     = new Keyword[]{RECORD_GROUP_LENGTH, DATA_PAGE_LENGTH, OPTIMIZE_COLUMNS, COMPRESSION_THRESHOLDS,
-                    INVALID_INPUT_HANDLER, CUSTOM_TYPES, IGNORE_EXTRA_FIELDS};
+                    INVALID_INPUT_HANDLER, CUSTOM_TYPES, IGNORE_EXTRA_FIELDS, SHARED_DICTIONARIES,
+                    MAX_DICTIONARY_LENGTH, OPTIMIZATION_SAMPLE_LENGTH, REVALIDATION_INTERVAL,
+                    REVALIDATION_THRESHOLD, SPILL_DIRECTORY, PENDING_RECORD_GROUPS, OFF_HEAP};
 
   private static int getPositiveInt(IPersistentMap options, Keyword key, int defaultValue) {
     Object o = RT.get(options, key, notFound);
@@ -359,14 +451,68 @@ public final class Options {
     }
   }
 
-  private static int getRecordGroupLength(IPersistentMap options) {
-    return getPositiveInt(options, RECORD_GROUP_LENGTH, DEFAULT_RECORD_GROUP_LENGTH);
+  private static long getPositiveLong(IPersistentMap options, Keyword key, long defaultValue) {
+    Object o = RT.get(options, key, notFound);
+    if (o == notFound) {
+      return defaultValue;
+    } else {
+      long v;
+      try {
+        v = RT.longCast(o);
+      } catch (Exception e) {
+        throw new IllegalArgumentException(String.format("%s expects a positive long but got '%s'", key, o));
+      }
+      if (v < 0) {
+        throw new IllegalArgumentException(String.format("%s expects a positive long but got '%s'", key, o));
+      }
+      return v;
+    }
+  }
+
+  private static long getRecordGroupLength(IPersistentMap options) {
+    return getPositiveLong(options, RECORD_GROUP_LENGTH, DEFAULT_RECORD_GROUP_LENGTH);
   }
 
   private static int getDataPageLength(IPersistentMap options) {
     return getPositiveInt(options, DATA_PAGE_LENGTH, DEFAULT_DATA_PAGE_LENGTH);
   }
 
+  private static int getMaxDictionaryLength(IPersistentMap options) {
+    return getPositiveInt(options, MAX_DICTIONARY_LENGTH, DEFAULT_MAX_DICTIONARY_LENGTH);
+  }
+
+  private static int getOptimizationSampleLength(IPersistentMap options) {
+    return getPositiveInt(options, OPTIMIZATION_SAMPLE_LENGTH,
+                          (int)Math.min(getRecordGroupLength(options), Integer.MAX_VALUE));
+  }
+
+  private static int getRevalidationInterval(IPersistentMap options) {
+    return getPositiveInt(options, REVALIDATION_INTERVAL, DEFAULT_REVALIDATION_INTERVAL);
+  }
+
+  private static int getNumPendingRecordGroups(IPersistentMap options) {
+    return getPositiveInt(options, PENDING_RECORD_GROUPS, DEFAULT_PENDING_RECORD_GROUPS);
+  }
+
+  private static double getRevalidationThreshold(IPersistentMap options) {
+    Object o = RT.get(options, REVALIDATION_THRESHOLD, notFound);
+    if (o == notFound) {
+      return DEFAULT_REVALIDATION_THRESHOLD;
+    }
+    double threshold;
+    try {
+      threshold = RT.doubleCast(o);
+    } catch (Exception e) {
+      throw new IllegalArgumentException(String.format("%s expects a number greater than 1 but got '%s'",
+                                                       REVALIDATION_THRESHOLD, o));
+    }
+    if (!(threshold > 1)) {
+      throw new IllegalArgumentException(String.format("%s expects a number greater than 1 but got '%s'",
+                                                       REVALIDATION_THRESHOLD, o));
+    }
+    return threshold;
+  }
+
   private static int getOptimizationStrategy(IPersistentMap options) {
     Object o = RT.get(options, OPTIMIZE_COLUMNS, notFound);
     if (o == notFound) {
@@ -442,6 +588,47 @@ public final class Options {
     }
   }
 
+  private static File getSpillDirectory(IPersistentMap options) {
+    Object o = RT.get(options, SPILL_DIRECTORY, notFound);
+    if (o == notFound || o == null) {
+      return null;
+    }
+    File directory = null;
+    if (o instanceof File) {
+      directory = (File)o;
+    } else if (o instanceof String) {
+      directory = new File((String)o);
+    }
+    if (directory == null || !directory.isDirectory()) {
+      throw new IllegalArgumentException(String.format("%s expects an existing directory but got '%s'",
+                                                       SPILL_DIRECTORY, o));
+    }
+    return directory;
+  }
+
+  private static boolean getSharedDictionaries(IPersistentMap options) {
+    Object o = RT.get(options, SHARED_DICTIONARIES, notFound);
+    if (o == notFound) {
+      return DEFAULT_SHARED_DICTIONARIES;
+    } else if (o instanceof Boolean) {
+      return (Boolean)o;
+    } else {
+      throw new IllegalArgumentException(String.format("%s expects a boolean but got '%s'",
+                                                       SHARED_DICTIONARIES, o));
+    }
+  }
+
+  private static boolean getOffHeap(IPersistentMap options) {
+    Object o = RT.get(options, OFF_HEAP, notFound);
+    if (o == notFound) {
+      return DEFAULT_OFF_HEAP;
+    } else if (o instanceof Boolean) {
+      return (Boolean)o;
+    } else {
+      throw new IllegalArgumentException(String.format("%s expects a boolean but got '%s'", OFF_HEAP, o));
+    }
+  }
+
   public static WriterOptions getWriterOptions(IPersistentMap options) {
     checkValidKeys(options, validWriterOptionKeys, "%s is not a supported writer option.");
     return new WriterOptions(getRecordGroupLength(options),
@@ -450,6 +637,14 @@ public final class Options {
                              getCompressionThresholds(options),
                              getInvalidInputHandler(options),
                              getCustomTypeDefinitions(options),
-                             getIgnoreExtraFields(options));
+                             getIgnoreExtraFields(options),
+                             getSharedDictionaries(options),
+                             getMaxDictionaryLength(options),
+                             getOptimizationSampleLength(options),
+                             getRevalidationInterval(options),
+                             getRevalidationThreshold(options),
+                             getSpillDirectory(options),
+                             getNumPendingRecordGroups(options),
+                             getOffHeap(options));
   }
 }
@@ -16,6 +16,7 @@ import clojure.lang.Agent;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -99,6 +100,20 @@ public final class Pages {
                        final int maxDefinitionLevel, final int enclosingEmptyDefinitionLevel,
                        final IDecoderFactory decoderFactory,
                        final IDecompressorFactory decompressorFactory) {
+    return getDataPageReaders(bb, n, 0, maxRepetitionLevel, maxDefinitionLevel, enclosingEmptyDefinitionLevel,
+                              decoderFactory, decompressorFactory, null, null);
+  }
+
+  // The last numFallbackPages pages of the n pages are read with the fallback decoder and decompressor
+  // factories. Dictionary column chunks use them for the pages written after their dictionary grew too large.
+  public static Iterable<DataPage.Reader>
+    getDataPageReaders(final ByteBuffer bb, final int n, final int numFallbackPages,
+                       final int maxRepetitionLevel, final int maxDefinitionLevel,
+                       final int enclosingEmptyDefinitionLevel,
+                       final IDecoderFactory decoderFactory,
+                       final IDecompressorFactory decompressorFactory,
+                       final IDecoderFactory fallbackDecoderFactory,
+                       final IDecompressorFactory fallbackDecompressorFactory) {
     return new Iterable<DataPage.Reader>() {
       @Override
       public Iterator<DataPage.Reader> iterator() {
@@ -116,9 +131,12 @@ public final class Pages {
             if (i == n) {
               throw new NoSuchElementException();
             }
-            DataPage.Reader reader = getDataPageReader(byteBuffer, maxRepetitionLevel, maxDefinitionLevel,
-                                                       enclosingEmptyDefinitionLevel,
-                                                       decoderFactory, decompressorFactory);
+            boolean isFallback = i >= n - numFallbackPages;
+            DataPage.Reader reader
+              = getDataPageReader(byteBuffer, maxRepetitionLevel, maxDefinitionLevel,
+                                  enclosingEmptyDefinitionLevel,
+                                  isFallback? fallbackDecoderFactory : decoderFactory,
+                                  isFallback? fallbackDecompressorFactory : decompressorFactory);
             byteBuffer = reader.getNextBuffer();
             i += 1;
             return reader;
@@ -211,6 +229,8 @@ public final class Pages {
                                                       final int maxRepetitionLevel,
                                                       final int maxDefinitionLevel,
                                                       final int enclosingEmptyDefinitionLevel,
+                                                      final int numFallbackDataPages,
+                                                      final Object[] sharedDictionary,
                                                       final IDecoderFactory dictDecoderFactory,
                                                       final IDecoderFactory indicesDecoderFactory,
                                                       final IDecompressorFactory decompressorFactory) {
@@ -218,13 +238,15 @@ public final class Pages {
         public FirstPageReadResult call() {
           DictionaryPage.Reader dictReader = getDictionaryPageReader(bb, dictDecoderFactory,
                                                                      decompressorFactory);
-          Object[] dictionary = dictReader.read();
+          Object[] dictionary = extendDictionary(sharedDictionary, dictReader.read());
           IDecoderFactory dataDecoderFactory = new Dictionary.DecoderFactory(dictionary,
                                                                              indicesDecoderFactory,
                                                                              dictDecoderFactory);
+          // Pages written after the dictionary grew too large hold plain values, just like the dictionary page.
           Iterator<DataPage.Reader> pageIterator
-            = getDataPageReaders(dictReader.getNextBuffer(), n, maxRepetitionLevel, maxDefinitionLevel,
-                                 enclosingEmptyDefinitionLevel, dataDecoderFactory, null).iterator();
+            = getDataPageReaders(dictReader.getNextBuffer(), n, numFallbackDataPages, maxRepetitionLevel,
+                                 maxDefinitionLevel, enclosingEmptyDefinitionLevel, dataDecoderFactory, null,
+                                 dictDecoderFactory, decompressorFactory).iterator();
           ReadResult res = readAndPartitionDataPage(pageIterator.next(),
                                                     new ArrayList<Object>(partitionLength),
                                                     partitionLength);
@@ -234,6 +256,20 @@ public final class Pages {
       });
   }
 
+  // Column chunks that use a file-level dictionary only store the values that are missing from it. Their
+  // indices refer to the concatenation of both dictionaries.
+  private static Object[] extendDictionary(Object[] sharedDictionary, Object[] dictionary) {
+    if (sharedDictionary == null || sharedDictionary.length == 0) {
+      return dictionary;
+    } else if (dictionary.length == 0) {
+      return sharedDictionary;
+    }
+    Object[] extendedDictionary = Arrays.copyOf(sharedDictionary,
+                                                sharedDictionary.length + dictionary.length);
+    System.arraycopy(dictionary, 0, extendedDictionary, sharedDictionary.length, dictionary.length);
+    return extendedDictionary;
+  }
+
   private static final class PartitionedValuesIterator extends AReadOnlyIterator<List<Object>> {
     private Future<ReadResult> fut;
     private Future<FirstPageReadResult> firstFut;
@@ -341,6 +377,21 @@ public final class Pages {
                                             final IDecoderFactory dictDecoderFactory,
                                             final IDecoderFactory indicesDecoderFactory,
                                             final IDecompressorFactory decompressorFactory) {
+    return readAndPartitionDataPagesWithDictionary(bb, n, partitionLength, maxRepetitionLevel,
+                                                   maxDefinitionLevel, enclosingEmptyDefinitionLevel, 0, null,
+                                                   dictDecoderFactory, indicesDecoderFactory,
+                                                   decompressorFactory);
+  }
+
+  public static Iterable<List<Object>>
+    readAndPartitionDataPagesWithDictionary(final ByteBuffer bb, final int n, final int partitionLength,
+                                            final int maxRepetitionLevel, final int maxDefinitionLevel,
+                                            final int enclosingEmptyDefinitionLevel,
+                                            final int numFallbackDataPages,
+                                            final Object[] sharedDictionary,
+                                            final IDecoderFactory dictDecoderFactory,
+                                            final IDecoderFactory indicesDecoderFactory,
+                                            final IDecompressorFactory decompressorFactory) {
     if (n == 0) {
       return Collections.emptyList();
     }
@@ -353,6 +404,8 @@ public final class Pages {
                                                               maxRepetitionLevel,
                                                               maxDefinitionLevel,
                                                               enclosingEmptyDefinitionLevel,
+                                                              numFallbackDataPages,
+                                                              sharedDictionary,
                                                               dictDecoderFactory,
                                                               indicesDecoderFactory,
                                                               decompressorFactory));
@@ -31,6 +31,31 @@ public class PersistentRecord extends APersistentMap {
 
   public static final Object UNDEFINED = new Object();
 
+  abstract static class LazyValue {
+
+    private Object value;
+    private boolean isRealized = false;
+
+    abstract Object compute();
+
+    synchronized Object get() {
+      if (!isRealized) {
+        value = compute();
+        isRealized = true;
+      }
+      return value;
+    }
+  }
+
+  static Object realize(Object[] orderedValues, int i) {
+    Object v = orderedValues[i];
+    if (v instanceof LazyValue) {
+      v = ((LazyValue)v).get();
+      orderedValues[i] = v;
+    }
+    return v;
+  }
+
   private static final PersistentRecord EMPTY
     = new PersistentRecord(null, KeywordIndexHashMap.EMPTY, new Object[]{});
   private final KeywordIndexHashMap hashMap;
@@ -88,7 +113,7 @@ public class PersistentRecord extends APersistentMap {
         if (orderedValues[i] == UNDEFINED) {
           return null;
         }
-        return new MapEntry(hashMap.keywords[i], orderedValues[i]);
+        return new MapEntry(hashMap.keywords[i], realize(orderedValues, i));
       }
       return null;
     }
@@ -127,11 +152,10 @@ public class PersistentRecord extends APersistentMap {
     if (key instanceof Keyword) {
       int i = hashMap.get((Keyword)key);
       if (i >= 0) {
-        Object v = orderedValues[i];
-        if (v == UNDEFINED) {
+        if (orderedValues[i] == UNDEFINED) {
           return notFound;
         }
-        return v;
+        return realize(orderedValues, i);
       }
       return notFound;
     }
@@ -159,7 +183,7 @@ public class PersistentRecord extends APersistentMap {
         while (orderedValues[i] == UNDEFINED) {
           i += 1;
         }
-        MapEntry me = new MapEntry(hashMap.keywords[i], orderedValues[i]);
+        MapEntry me = new MapEntry(hashMap.keywords[i], realize(orderedValues, i));
         i += 1;
         c += 1;
         return me;
@@ -176,7 +200,7 @@ public class PersistentRecord extends APersistentMap {
     Object ret = init;
     for (int i=0; i<orderedValues.length; ++i) {
       if (orderedValues[i] != UNDEFINED) {
-        ret = f.invoke(ret, hashMap.keywords[i], orderedValues[i]);
+        ret = f.invoke(ret, hashMap.keywords[i], realize(orderedValues, i));
       }
     }
     return ret;
@@ -290,7 +314,7 @@ public class PersistentRecord extends APersistentMap {
 
     @Override
     public Object first() {
-      return new MapEntry(keywords[i], orderedValues[i]);
+      return new MapEntry(keywords[i], realize(orderedValues, i));
     }
 
     @Override
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// The values of a non-repeated column of primitive type, backed by a primitive array. Missing values are
+// tracked in a separate array that is only allocated once the first one is added. Values are only boxed when
+// read through the List interface; the page writers instead hand them to the encoders with encodeTo, which
+// uses the encoder's primitive method when it has one, or copies them in bulk to plain encoders when none are
+// missing.
+public abstract class PrimitiveColumn extends AbstractList<Object> implements RandomAccess {
+
+  final int offset;
+  int size;
+  boolean[] isMissing;
+  private final boolean isReadOnly;
+
+  PrimitiveColumn(int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+    this.offset = offset;
+    this.size = size;
+    this.isMissing = isMissing;
+    this.isReadOnly = isReadOnly;
+  }
+
+  // Returns null if the type is not backed by a primitive array.
+  public static PrimitiveColumn create(int type, int capacity) {
+    switch (type) {
+    case Types.BOOLEAN: return new Booleans(new boolean[capacity], 0, 0, null, false);
+    case Types.INT: return new Ints(new int[capacity], 0, 0, null, false);
+    case Types.LONG: return new Longs(new long[capacity], 0, 0, null, false);
+    case Types.FLOAT: return new Floats(new float[capacity], 0, 0, null, false);
+    case Types.DOUBLE: return new Doubles(new double[capacity], 0, 0, null, false);
+    default: return null;
+    }
+  }
+
+  // Returns a read-only view of a primitive array, or null if the argument is not one.
+  public static PrimitiveColumn wrap(Object array) {
+    if (array instanceof boolean[]) {
+      return new Booleans((boolean[])array, 0, ((boolean[])array).length, null, true);
+    } else if (array instanceof int[]) {
+      return new Ints((int[])array, 0, ((int[])array).length, null, true);
+    } else if (array instanceof long[]) {
+      return new Longs((long[])array, 0, ((long[])array).length, null, true);
+    } else if (array instanceof float[]) {
+      return new Floats((float[])array, 0, ((float[])array).length, null, true);
+    } else if (array instanceof double[]) {
+      return new Doubles((double[])array, 0, ((double[])array).length, null, true);
+    }
+    return null;
+  }
+
+  public abstract int getType();
+
+  public boolean isMissing(int i) {
+    return isMissing != null && isMissing[offset + i];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d.", i, size));
+    }
+    return isMissing(i)? null : getValue(offset + i);
+  }
+
+  @Override
+  public boolean add(Object o) {
+    if (isReadOnly) {
+      throw new UnsupportedOperationException();
+    }
+    if (size == getCapacity()) {
+      int capacity = Math.max(2 * size, 16);
+      grow(capacity);
+      if (isMissing != null) {
+        isMissing = Arrays.copyOf(isMissing, capacity);
+      }
+    }
+    if (o == null) {
+      if (isMissing == null) {
+        isMissing = new boolean[getCapacity()];
+      }
+      isMissing[size] = true;
+    } else {
+      setValue(size, o);
+    }
+    size += 1;
+    modCount += 1;
+    return true;
+  }
+
+  @Override
+  public PrimitiveColumn subList(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d) for size %d.",
+                                                        fromIndex, toIndex, size));
+    }
+    return view(offset + fromIndex, toIndex - fromIndex);
+  }
+
+  // Encodes the non-missing values in [start, end).
+  abstract void encodeTo(IEncoder encoder, int start, int end);
+
+  abstract Object getValue(int i);
+
+  abstract void setValue(int i, Object o);
+
+  abstract int getCapacity();
+
+  abstract void grow(int capacity);
+
+  abstract PrimitiveColumn view(int offset, int size);
+
+  static final class Booleans extends PrimitiveColumn {
+    private boolean[] values;
+
+    Booleans(boolean[] values, int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+      super(offset, size, isMissing, isReadOnly);
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return Types.BOOLEAN;
+    }
+
+    public boolean getBoolean(int i) {
+      return values[offset + i];
+    }
+
+    @Override
+    void encodeTo(IEncoder encoder, int start, int end) {
+      if (encoder instanceof IBooleanEncoder) {
+        IBooleanEncoder booleanEncoder = (IBooleanEncoder)encoder;
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            booleanEncoder.encodeBoolean(values[i]);
+          }
+        }
+      } else {
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            encoder.encode(values[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void setValue(int i, Object o) {
+      values[i] = (Boolean)o;
+    }
+
+    @Override
+    int getCapacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    PrimitiveColumn view(int offset, int size) {
+      return new Booleans(values, offset, size, isMissing, true);
+    }
+  }
+
+  static final class Ints extends PrimitiveColumn {
+    private int[] values;
+
+    Ints(int[] values, int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+      super(offset, size, isMissing, isReadOnly);
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return Types.INT;
+    }
+
+    public int getInt(int i) {
+      return values[offset + i];
+    }
+
+    @Override
+    void encodeTo(IEncoder encoder, int start, int end) {
+      if (isMissing == null && encoder instanceof IntPlain.Encoder) {
+        ((IntPlain.Encoder)encoder).encodeInts(values, offset + start, end - start);
+      } else if (encoder instanceof IIntEncoder) {
+        IIntEncoder intEncoder = (IIntEncoder)encoder;
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            intEncoder.encodeInt(values[i]);
+          }
+        }
+      } else {
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            encoder.encode(values[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void setValue(int i, Object o) {
+      values[i] = ((Number)o).intValue();
+    }
+
+    @Override
+    int getCapacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    PrimitiveColumn view(int offset, int size) {
+      return new Ints(values, offset, size, isMissing, true);
+    }
+  }
+
+  static final class Longs extends PrimitiveColumn {
+    private long[] values;
+
+    Longs(long[] values, int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+      super(offset, size, isMissing, isReadOnly);
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return Types.LONG;
+    }
+
+    public long getLong(int i) {
+      return values[offset + i];
+    }
+
+    @Override
+    void encodeTo(IEncoder encoder, int start, int end) {
+      if (isMissing == null && encoder instanceof LongPlain.Encoder) {
+        ((LongPlain.Encoder)encoder).encodeLongs(values, offset + start, end - start);
+      } else if (encoder instanceof ILongEncoder) {
+        ILongEncoder longEncoder = (ILongEncoder)encoder;
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            longEncoder.encodeLong(values[i]);
+          }
+        }
+      } else {
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            encoder.encode(values[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void setValue(int i, Object o) {
+      values[i] = ((Number)o).longValue();
+    }
+
+    @Override
+    int getCapacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    PrimitiveColumn view(int offset, int size) {
+      return new Longs(values, offset, size, isMissing, true);
+    }
+  }
+
+  static final class Floats extends PrimitiveColumn {
+    private float[] values;
+
+    Floats(float[] values, int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+      super(offset, size, isMissing, isReadOnly);
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return Types.FLOAT;
+    }
+
+    public float getFloat(int i) {
+      return values[offset + i];
+    }
+
+    @Override
+    void encodeTo(IEncoder encoder, int start, int end) {
+      if (isMissing == null && encoder instanceof FloatPlain.Encoder) {
+        ((FloatPlain.Encoder)encoder).encodeFloats(values, offset + start, end - start);
+      } else if (encoder instanceof IFloatEncoder) {
+        IFloatEncoder floatEncoder = (IFloatEncoder)encoder;
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            floatEncoder.encodeFloat(values[i]);
+          }
+        }
+      } else {
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            encoder.encode(values[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void setValue(int i, Object o) {
+      values[i] = ((Number)o).floatValue();
+    }
+
+    @Override
+    int getCapacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    PrimitiveColumn view(int offset, int size) {
+      return new Floats(values, offset, size, isMissing, true);
+    }
+  }
+
+  static final class Doubles extends PrimitiveColumn {
+    private double[] values;
+
+    Doubles(double[] values, int offset, int size, boolean[] isMissing, boolean isReadOnly) {
+      super(offset, size, isMissing, isReadOnly);
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return Types.DOUBLE;
+    }
+
+    public double getDouble(int i) {
+      return values[offset + i];
+    }
+
+    @Override
+    void encodeTo(IEncoder encoder, int start, int end) {
+      if (isMissing == null && encoder instanceof DoublePlain.Encoder) {
+        ((DoublePlain.Encoder)encoder).encodeDoubles(values, offset + start, end - start);
+      } else if (encoder instanceof IDoubleEncoder) {
+        IDoubleEncoder doubleEncoder = (IDoubleEncoder)encoder;
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            doubleEncoder.encodeDouble(values[i]);
+          }
+        }
+      } else {
+        for (int i=offset+start; i<offset+end; ++i) {
+          if (isMissing == null || !isMissing[i]) {
+            encoder.encode(values[i]);
+          }
+        }
+      }
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void setValue(int i, Object o) {
+      values[i] = ((Number)o).doubleValue();
+    }
+
+    @Override
+    int getCapacity() {
+      return values.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    PrimitiveColumn view(int offset, int size) {
+      return new Doubles(values, offset, size, isMissing, true);
+    }
+  }
+}
@@ -33,22 +33,52 @@ public final class RecordGroup {
     ONLY_DEFAULT = 1,
     ALL = 2;
 
-  public static final class Writer implements IOutputBuffer, IFileWriteable {
+  // Not an IOutputBuffer, as record groups may be larger than 2 GB.
+  public static final class Writer implements IWriteable, IFileWriteable {
 
     private static final int PARALLEL_THRESHOLD = 128;
 
     private final IColumnChunkWriter[] columnChunkWriters;
     private final ArrayList<OptimizingColumnChunkWriter> optimizingColumnChunkwriters;
+    private final boolean isSharedDictionaries;
+    private final long maxDictionaryLength;
+    private final Types types;
+    private final int targetDataPageLength;
+    private final Schema.Column[] optimizableColumns; // null for the columns that aren't optimized
+    private final int revalidationInterval;
+    private final double revalidationThreshold;
+    private final int[] numRecordGroupsSinceOptimization;
+    private final double[] optimizedLengthsPerRecord;
+    private Schema.Column[] fileColumns;
+    private SpillFile spillFile = null;
+    private SegmentedBuffer.Pool pagePool = null;
     private long numRecords;
 
     public Writer(Types types, Schema.Column[] columns, int targetDataPageLength,
                   int optimizationStrategy) {
+      this(types, columns, targetDataPageLength, optimizationStrategy, false, Long.MAX_VALUE, 0,
+           Double.POSITIVE_INFINITY);
+    }
+
+    public Writer(Types types, Schema.Column[] columns, int targetDataPageLength,
+                  int optimizationStrategy, boolean isSharedDictionaries, long maxDictionaryLength,
+                  int revalidationInterval, double revalidationThreshold) {
+      this.isSharedDictionaries = isSharedDictionaries;
+      this.maxDictionaryLength = maxDictionaryLength;
+      this.types = types;
+      this.targetDataPageLength = targetDataPageLength;
+      this.revalidationInterval = revalidationInterval;
+      this.revalidationThreshold = revalidationThreshold;
       columnChunkWriters = new IColumnChunkWriter[columns.length];
       this.optimizingColumnChunkwriters = new ArrayList<OptimizingColumnChunkWriter>();
+      this.optimizableColumns = new Schema.Column[columns.length];
+      this.numRecordGroupsSinceOptimization = new int[columns.length];
+      this.optimizedLengthsPerRecord = new double[columns.length];
       for (int i=0; i<columns.length; ++i) {
         if (optimizationStrategy == ALL || (optimizationStrategy == ONLY_DEFAULT
                                             && columns[i].encoding == Types.PLAIN
                                             && columns[i].compression == Types.NONE)) {
+          optimizableColumns[i] = columns[i];
           OptimizingColumnChunkWriter optimizingWriter
             = OptimizingColumnChunkWriter.create(types, columns[i], targetDataPageLength);
           columnChunkWriters[i] = optimizingWriter;
@@ -57,9 +87,79 @@ public final class RecordGroup {
           columnChunkWriters[i] = ColumnChunks.createWriter(types, columns[i], targetDataPageLength);
         }
       }
+      configureColumnChunkWriters();
       numRecords = 0;
     }
 
+    // A writer for a detached record group, that is only finished, written, and reset.
+    private Writer(Types types, IColumnChunkWriter[] columnChunkWriters, int targetDataPageLength,
+                   Schema.Column[] fileColumns, SpillFile spillFile, SegmentedBuffer.Pool pagePool,
+                   long numRecords) {
+      this.isSharedDictionaries = false;
+      this.maxDictionaryLength = Long.MAX_VALUE;
+      this.types = types;
+      this.targetDataPageLength = targetDataPageLength;
+      this.revalidationInterval = 0;
+      this.revalidationThreshold = Double.POSITIVE_INFINITY;
+      this.columnChunkWriters = columnChunkWriters;
+      this.optimizingColumnChunkwriters = new ArrayList<OptimizingColumnChunkWriter>();
+      this.optimizableColumns = new Schema.Column[columnChunkWriters.length];
+      this.numRecordGroupsSinceOptimization = new int[columnChunkWriters.length];
+      this.optimizedLengthsPerRecord = new double[columnChunkWriters.length];
+      this.fileColumns = fileColumns;
+      this.spillFile = spillFile;
+      this.pagePool = pagePool;
+      this.numRecords = numRecords;
+    }
+
+    private void configureColumnChunkWriters() {
+      for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
+        if (pagePool != null) {
+          columnChunkWriter.bufferPagesIn(pagePool);
+        }
+        if (spillFile != null) {
+          columnChunkWriter.spillTo(spillFile);
+        }
+        if (columnChunkWriter instanceof DictionaryColumnChunk.Writer) {
+          DictionaryColumnChunk.Writer dictColumnChunkWriter = (DictionaryColumnChunk.Writer)columnChunkWriter;
+          dictColumnChunkWriter.setMaxDictionaryLength(maxDictionaryLength);
+          if (isSharedDictionaries) {
+            dictColumnChunkWriter.shareDictionary();
+          }
+        }
+      }
+    }
+
+    // Finished pages are written to the spill file as soon as they are produced, so that only the pages
+    // being filled and the dictionaries are held in memory. They are copied to the output file when the
+    // record group is written.
+    public void spillPagesTo(SpillFile aSpillFile) {
+      spillFile = aSpillFile;
+      configureColumnChunkWriters();
+    }
+
+    // Finished pages are held in slabs borrowed from pool, e.g. a pool of direct slabs to keep them off the
+    // heap. The slabs are returned to the pool when the record group is reset.
+    public void bufferPagesIn(SegmentedBuffer.Pool pool) {
+      pagePool = pool;
+      configureColumnChunkWriters();
+    }
+
+    public Metadata.SharedDictionary[] getSharedDictionaries() {
+      List<Metadata.SharedDictionary> sharedDictionaries = new ArrayList<Metadata.SharedDictionary>();
+      for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
+        if (columnChunkWriter instanceof DictionaryColumnChunk.Writer) {
+          DictionaryColumnChunk.Writer dictColumnChunkWriter = (DictionaryColumnChunk.Writer)columnChunkWriter;
+          if (dictColumnChunkWriter.hasSharedDictionary()) {
+            int columnIndex = dictColumnChunkWriter.getColumn().columnIndex;
+            sharedDictionaries.add(new Metadata.SharedDictionary(columnIndex,
+                                                                 dictColumnChunkWriter.getSharedDictionaryPage()));
+          }
+        }
+      }
+      return sharedDictionaries.toArray(new Metadata.SharedDictionary[]{});
+    }
+
     @SuppressWarnings("unchecked")
     private void writeParallel(Bundle bundle) {
       List<Future<Object>> futures = new ArrayList<Future<Object>>(columnChunkWriters.length);
@@ -106,7 +206,8 @@ public final class RecordGroup {
         for (final OptimizingColumnChunkWriter occw : optimizingColumnChunkwriters) {
           futures.add(Agent.soloExecutor.submit(new Callable<IColumnChunkWriter>() {
                 public IColumnChunkWriter call() {
-                  return occw.optimize(compressionThresholds);
+                  int idx = occw.column.columnIndex;
+                  return occw.optimize(compressionThresholds, (fileColumns == null)? null : fileColumns[idx]);
                 }
             }));
         }
@@ -114,11 +215,26 @@ public final class RecordGroup {
           IColumnChunkWriter ccw = Utils.tryGetFuture(fut);
           columnChunkWriters[ccw.getColumn().columnIndex] = ccw;
         }
+        // The plain-encoded pages have been copied into the optimized column chunks, so their slabs can go
+        // back to the pool.
+        for (OptimizingColumnChunkWriter occw : optimizingColumnChunkwriters) {
+          occw.plainColumnChunkWriter.reset();
+        }
         optimizingColumnChunkwriters.clear();
+        configureColumnChunkWriters();
       }
     }
 
+    // The columns of the file schema are those of the first record group. Re-optimized column chunks that
+    // differ from them record their own encoding and compression in their metadata.
     public Schema.Column[] columns() {
+      if (fileColumns != null) {
+        return fileColumns;
+      }
+      return getCurrentColumns();
+    }
+
+    private Schema.Column[] getCurrentColumns() {
       Schema.Column[] columns = new Schema.Column[columnChunkWriters.length];
       for (int i=0; i<columnChunkWriters.length; ++i) {
         columns[i] = columnChunkWriters[i].getColumn();
@@ -136,22 +252,127 @@ public final class RecordGroup {
 
     public Metadata.RecordGroup getMetadata() {
       Metadata.ColumnChunk[] columnChunksMetadata = new Metadata.ColumnChunk[columnChunkWriters.length];
+      Schema.Column[] schemaColumns = columns();
       for (int i=0; i<columnChunkWriters.length; ++i) {
-        columnChunksMetadata[i] = columnChunkWriters[i].getMetadata();
+        Metadata.ColumnChunk columnChunkMetadata = columnChunkWriters[i].getMetadata();
+        Schema.Column column = columnChunkWriters[i].getColumn();
+        Schema.Column fileColumn = schemaColumns[i];
+        if (column.encoding != fileColumn.encoding || column.compression != fileColumn.compression) {
+          columnChunkMetadata = columnChunkMetadata.withEncodingAndCompression(column.encoding,
+                                                                               column.compression);
+        }
+        columnChunksMetadata[i] = columnChunkMetadata;
       }
       return new Metadata.RecordGroup(getLength(), numRecords, columnChunksMetadata);
     }
 
-    @Override
     public void reset() {
+      if (numRecords > 0 && isRevalidating()) {
+        revalidate();
+      }
       numRecords = 0;
       for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
-        columnChunkWriter.reset();
+        if (!(columnChunkWriter instanceof OptimizingColumnChunkWriter)) {
+          columnChunkWriter.reset();
+        }
+      }
+      if (spillFile != null) {
+        spillFile.reset();
       }
     }
 
-    @Override
+    // Called on a finished record group. A column is re-optimized in the next record group if its encoding
+    // was chosen revalidationInterval record groups ago, or if its length per record has drifted by more than
+    // a factor of revalidationThreshold from that of the first record group written with this encoding.
+    private void revalidate() {
+      for (int i=0; i<columnChunkWriters.length; ++i) {
+        if (isDueForOptimization(i, columnChunkWriters[i].getLength())) {
+          columnChunkWriters[i] = createOptimizingWriter(i);
+        }
+      }
+    }
+
+    private boolean isRevalidating() {
+      return revalidationInterval > 0 || revalidationThreshold < Double.POSITIVE_INFINITY;
+    }
+
+    private boolean isDueForOptimization(int i, int length) {
+      IColumnChunkWriter columnChunkWriter = columnChunkWriters[i];
+      if (optimizableColumns[i] == null
+          || columnChunkWriter instanceof OptimizingColumnChunkWriter
+          || hasSharedDictionary(columnChunkWriter)) {
+        return false;
+      }
+      double lengthPerRecord = (double)length / (double)numRecords;
+      numRecordGroupsSinceOptimization[i] += 1;
+      boolean isDrifted = false;
+      if (numRecordGroupsSinceOptimization[i] == 1) {
+        optimizedLengthsPerRecord[i] = lengthPerRecord;
+      } else {
+        double min = Math.min(lengthPerRecord, optimizedLengthsPerRecord[i]);
+        double max = Math.max(lengthPerRecord, optimizedLengthsPerRecord[i]);
+        isDrifted = max > revalidationThreshold * min;
+      }
+      if (isDrifted || (revalidationInterval > 0
+                        && numRecordGroupsSinceOptimization[i] >= revalidationInterval)) {
+        numRecordGroupsSinceOptimization[i] = 0;
+        return true;
+      }
+      return false;
+    }
+
+    private OptimizingColumnChunkWriter createOptimizingWriter(int i) {
+      OptimizingColumnChunkWriter optimizingWriter
+        = OptimizingColumnChunkWriter.create(types, optimizableColumns[i], targetDataPageLength);
+      optimizingColumnChunkwriters.add(optimizingWriter);
+      return optimizingWriter;
+    }
+
+    // Hands the current record group over to a new writer, so that it can be finished and written on another
+    // thread while this one accumulates the next record group with empty column chunk writers. The revalidation
+    // decisions are made from the estimated column chunk lengths, as the detached record group isn't finished
+    // yet. The detached writer keeps the spill file, if any, so spillPagesTo should be called again before
+    // writing to this one.
+    public Writer detach() {
+      if (fileColumns == null) {
+        fileColumns = getCurrentColumns();
+      }
+      IColumnChunkWriter[] detachedColumnChunkWriters = columnChunkWriters.clone();
+      Writer detached = new Writer(types, detachedColumnChunkWriters, targetDataPageLength, fileColumns,
+                                   spillFile, pagePool, numRecords);
+      boolean isRevalidating = numRecords > 0 && isRevalidating();
+      optimizingColumnChunkwriters.clear();
+      for (int i=0; i<columnChunkWriters.length; ++i) {
+        IColumnChunkWriter columnChunkWriter = detachedColumnChunkWriters[i];
+        if (columnChunkWriter instanceof OptimizingColumnChunkWriter) {
+          columnChunkWriters[i] = createOptimizingWriter(i);
+        } else if (isRevalidating && isDueForOptimization(i, columnChunkWriter.getEstimatedLength())) {
+          columnChunkWriters[i] = createOptimizingWriter(i);
+        } else {
+          columnChunkWriters[i] = ColumnChunks.createWriter(types, columnChunkWriter.getColumn(),
+                                                            targetDataPageLength);
+          if (columnChunkWriter instanceof DictionaryColumnChunk.Writer) {
+            ((DictionaryColumnChunk.Writer)columnChunkWriters[i])
+              .inheritSharedDictionary((DictionaryColumnChunk.Writer)columnChunkWriter);
+          }
+        }
+      }
+      spillFile = null;
+      numRecords = 0;
+      configureColumnChunkWriters();
+      return detached;
+    }
+
+    // Shared dictionaries are stored once per file, so their columns keep their encoding.
+    private static boolean hasSharedDictionary(IColumnChunkWriter columnChunkWriter) {
+      return columnChunkWriter instanceof DictionaryColumnChunk.Writer
+        && ((DictionaryColumnChunk.Writer)columnChunkWriter).isSharedDictionary();
+    }
+
     public void finish() {
+      if (fileColumns == null) {
+        fileColumns = getCurrentColumns();
+      }
       List<Future<Object>> futures = new ArrayList<Future<Object>>(columnChunkWriters.length);
       for (final IColumnChunkWriter ccw : columnChunkWriters) {
         futures.add(Agent.soloExecutor.submit(new Callable<Object>() {
@@ -166,18 +387,16 @@ public final class RecordGroup {
       }
     }
 
-    @Override
-    public int getLength() {
-      int length = 0;
+    public long getLength() {
+      long length = 0;
       for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
         length += columnChunkWriter.getLength();
       }
       return length;
     }
 
-    @Override
-    public int getEstimatedLength() {
-      int estimatedLength = 0;
+    public long getEstimatedLength() {
+      long estimatedLength = 0;
       for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
         estimatedLength += columnChunkWriter.getEstimatedLength();
       }
@@ -195,23 +414,67 @@ public final class RecordGroup {
     @Override
     public void writeTo(FileChannel fileChannel) throws IOException {
       finish();
-      for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
-        fileChannel.write(columnChunkWriter.toByteBuffer());
+      if (spillFile != null) {
+        for (IColumnChunkWriter columnChunkWriter : columnChunkWriters) {
+          columnChunkWriter.writeTo(fileChannel);
+        }
+      } else {
+        ByteBuffer[][] byteBufferArrays = new ByteBuffer[columnChunkWriters.length][];
+        for (int i=0; i<columnChunkWriters.length; ++i) {
+          byteBufferArrays[i] = columnChunkWriters[i].toByteBuffers();
+        }
+        Utils.writeFully(fileChannel, Utils.concat(byteBufferArrays));
       }
     }
 
   }
 
-  private static int[] getColumnChunkByteOffsets(Metadata.RecordGroup recordGroupMetadata) {
+  // A ByteBuffer is int-indexed, so a record group larger than maxWindowLength is mapped as several windows,
+  // each holding consecutive whole column chunks. Column chunks are therefore limited to maxWindowLength.
+  public static ByteBuffer[] map(FileChannel fileChannel, long offset,
+                                 Metadata.RecordGroup recordGroupMetadata, long maxWindowLength)
+    throws IOException {
+    if (recordGroupMetadata.length <= maxWindowLength) {
+      return new ByteBuffer[]{Utils.mapFileChannel(fileChannel, offset, recordGroupMetadata.length)};
+    }
+    List<ByteBuffer> windows = new ArrayList<ByteBuffer>();
+    long windowOffset = offset;
+    long windowLength = 0;
+    for (Metadata.ColumnChunk columnChunkMetadata : recordGroupMetadata.columnChunks) {
+      long length = columnChunkMetadata.length;
+      if (length > maxWindowLength) {
+        throw new IllegalStateException(String.format("Column chunk length %d exceeds the maximum of %d.",
+                                                      length, maxWindowLength));
+      }
+      if (windowLength + length > maxWindowLength) {
+        windows.add(Utils.mapFileChannel(fileChannel, windowOffset, windowLength));
+        windowOffset += windowLength;
+        windowLength = 0;
+      }
+      windowLength += length;
+    }
+    windows.add(Utils.mapFileChannel(fileChannel, windowOffset, windowLength));
+    return windows.toArray(new ByteBuffer[]{});
+  }
+
+  // Returns a buffer positioned at the start of each column chunk, given windows that hold consecutive whole
+  // column chunks, in order.
+  private static ByteBuffer[] getColumnChunkByteBuffers(ByteBuffer[] windows,
+                                                        Metadata.RecordGroup recordGroupMetadata) {
     Metadata.ColumnChunk[] columnChunksMetadata = recordGroupMetadata.columnChunks;
-    int[] offsets = new int[columnChunksMetadata.length];
-    if (columnChunksMetadata.length > 0) {
-      offsets[0] = 0;
-      for (int i=1; i<columnChunksMetadata.length; ++i) {
-        offsets[i] = offsets[i-1] + columnChunksMetadata[i-1].length;
+    ByteBuffer[] columnChunkByteBuffers = new ByteBuffer[columnChunksMetadata.length];
+    int w = 0;
+    int offset = 0;
+    for (int i=0; i<columnChunksMetadata.length; ++i) {
+      long length = columnChunksMetadata[i].length;
+      while (offset + length > windows[w].remaining()) {
+        w += 1;
+        offset = 0;
       }
+      columnChunkByteBuffers[i] = Bytes.sliceAhead(windows[w], offset);
+      offset += (int)length;
     }
-    return offsets;
+    return columnChunkByteBuffers;
   }
 
   public static final class Reader implements Iterable<Bundle> {
@@ -219,25 +482,40 @@ public final class RecordGroup {
     private final long numRecords;
     private final IColumnChunkReader[] columnChunkReaders;
     private final Schema.Column[] queriedColumns;
+    private final ByteBuffer[] byteBuffers;
     private int bundleSize;
 
     public Reader(Types types, ByteBuffer bb, Metadata.RecordGroup recordGroupMetadata,
                   Schema.Column[] queriedColumns, int bundleSize) {
+      this(types, bb, recordGroupMetadata, queriedColumns, bundleSize, null);
+    }
+
+    public Reader(Types types, ByteBuffer bb, Metadata.RecordGroup recordGroupMetadata,
+                  Schema.Column[] queriedColumns, int bundleSize, Object[][] sharedDictionaries) {
+      this(types, new ByteBuffer[]{bb}, recordGroupMetadata, queriedColumns, bundleSize, sharedDictionaries);
+    }
+
+    // byteBuffers are the windows returned by RecordGroup.map. sharedDictionaries is indexed by column index.
+    // It is null, or holds null entries, for columns that don't have a shared dictionary.
+    public Reader(Types types, ByteBuffer[] byteBuffers, Metadata.RecordGroup recordGroupMetadata,
+                  Schema.Column[] queriedColumns, int bundleSize, Object[][] sharedDictionaries) {
       this.numRecords = recordGroupMetadata.numRecords;
       this.queriedColumns = queriedColumns;
+      this.byteBuffers = byteBuffers;
       this.columnChunkReaders = new IColumnChunkReader[queriedColumns.length];
       this.bundleSize = bundleSize;
-      int[] columnChunksByteOffsets = getColumnChunkByteOffsets(recordGroupMetadata);
+      ByteBuffer[] columnChunkByteBuffers = getColumnChunkByteBuffers(byteBuffers, recordGroupMetadata);
       Metadata.ColumnChunk[] columnChunksMetadata = recordGroupMetadata.columnChunks;
       for (int i=0; i<queriedColumns.length; ++i) {
         Schema.Column column = queriedColumns[i];
         int idx = column.columnIndex;
         columnChunkReaders[i]
           = ColumnChunks.createReader(types,
-                                      Bytes.sliceAhead(bb, columnChunksByteOffsets[idx]),
+                                      columnChunkByteBuffers[idx],
                                       columnChunksMetadata[idx],
                                       column,
-                                      bundleSize);
+                                      bundleSize,
+                                      (sharedDictionaries == null)? null : sharedDictionaries[idx]);
       }
     }
 
@@ -298,6 +576,10 @@ public final class RecordGroup {
       return numRecords;
     }
 
+    public ByteBuffer[] getByteBuffers() {
+      return byteBuffers;
+    }
+
     public List<Stats.ColumnChunk> getColumnChunkStats() {
       List<Stats.ColumnChunk> columnChunkStats = new ArrayList<Stats.ColumnChunk>(columnChunkReaders.length);
       for (IColumnChunkReader columnChunkReader : columnChunkReaders) {
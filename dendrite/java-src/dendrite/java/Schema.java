@@ -203,6 +203,11 @@ public abstract class Schema implements IWriteable {
                         columnIndex, enclosingEmptyDefinitionLevel, queryColumnIndex, fn);
     }
 
+    public Column withCompression(int aCompression) {
+      return new Column(presence, repetitionLevel, definitionLevel, type, encoding, aCompression,
+                        columnIndex, enclosingEmptyDefinitionLevel, queryColumnIndex, fn);
+    }
+
     public Column withQueryColumnIndex(int aQueryColumnIndex) {
       return new Column(presence, repetitionLevel, definitionLevel, type, encoding, compression,
                         columnIndex, enclosingEmptyDefinitionLevel, aQueryColumnIndex, fn);
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+// An output buffer made of fixed-length slabs. Unlike MemoryOutputStream, it never copies the bytes it already
+// holds when it grows, and it doesn't require a single large array. Its slabs are borrowed from a pool and
+// returned to it on reset, so that they are reused by the next record group. Each file writer has its own pool,
+// which it closes along with the file. A pool of direct slabs keeps the buffered pages off the heap, and frees
+// the slabs it doesn't keep as soon as they are released.
+public final class SegmentedBuffer implements IOutputBuffer {
+
+  public static final int DEFAULT_SLAB_LENGTH = 64 * 1024; // 64 KB
+  public static final int DEFAULT_MAX_NUM_POOLED_SLABS = 512; // 32 MB of 64 KB slabs
+
+  public static final class Pool {
+
+    private final ArrayDeque<ByteBuffer> slabs;
+    private final int slabLength;
+    private final int maxNumPooledSlabs;
+    private final boolean isDirect;
+    private boolean isClosed;
+
+    public Pool(int slabLength, int maxNumPooledSlabs, boolean isDirect) {
+      this.slabs = new ArrayDeque<ByteBuffer>();
+      this.slabLength = slabLength;
+      this.maxNumPooledSlabs = maxNumPooledSlabs;
+      this.isDirect = isDirect;
+      this.isClosed = false;
+    }
+
+    synchronized ByteBuffer take() {
+      ByteBuffer slab = slabs.pollFirst();
+      if (slab == null) {
+        return isDirect? ByteBuffer.allocateDirect(slabLength) : ByteBuffer.allocate(slabLength);
+      }
+      slab.clear();
+      return slab;
+    }
+
+    synchronized void release(ByteBuffer slab) {
+      if (!isClosed && slabs.size() < maxNumPooledSlabs) {
+        slabs.addFirst(slab);
+      } else if (isDirect) {
+        Utils.freeDirectBuffer(slab);
+      }
+    }
+
+    public synchronized int getNumPooledSlabs() {
+      return slabs.size();
+    }
+
+    // Frees the pooled slabs. Slabs released afterwards are freed immediately.
+    public synchronized void close() {
+      isClosed = true;
+      if (isDirect) {
+        for (ByteBuffer slab : slabs) {
+          Utils.freeDirectBuffer(slab);
+        }
+      }
+      slabs.clear();
+    }
+  }
+
+  // Used by buffers created outside of a file writer. It keeps no slabs, so they are left to the garbage
+  // collector once released.
+  public static final Pool defaultPool = new Pool(DEFAULT_SLAB_LENGTH, 0, false);
+
+  private final Pool pool;
+  private final ArrayList<ByteBuffer> slabs;
+  private ByteBuffer currentSlab;
+  private int length;
+
+  public SegmentedBuffer() {
+    this(defaultPool);
+  }
+
+  public SegmentedBuffer(Pool pool) {
+    this.pool = pool;
+    this.slabs = new ArrayList<ByteBuffer>();
+    this.currentSlab = null;
+    this.length = 0;
+  }
+
+  public void write(byte[] bytes, int offset, int numBytes) {
+    while (numBytes > 0) {
+      if (currentSlab == null || !currentSlab.hasRemaining()) {
+        currentSlab = pool.take();
+        slabs.add(currentSlab);
+      }
+      int n = Math.min(numBytes, currentSlab.remaining());
+      currentSlab.put(bytes, offset, n);
+      offset += n;
+      numBytes -= n;
+      length += n;
+    }
+  }
+
+  public void write(MemoryOutputStream mos) {
+    write(mos.buffer, 0, mos.getLength());
+  }
+
+  // Copies the remaining bytes of byteBuffer without consuming them.
+  public void write(ByteBuffer byteBuffer) {
+    ByteBuffer bb = byteBuffer.duplicate();
+    while (bb.hasRemaining()) {
+      if (currentSlab == null || !currentSlab.hasRemaining()) {
+        currentSlab = pool.take();
+        slabs.add(currentSlab);
+      }
+      int n = Math.min(bb.remaining(), currentSlab.remaining());
+      ByteBuffer chunk = bb.slice();
+      chunk.limit(n);
+      currentSlab.put(chunk);
+      bb.position(bb.position() + n);
+      length += n;
+    }
+  }
+
+  // Returns views over the written bytes, in order, without copying them. They are only valid until the next
+  // reset.
+  public ByteBuffer[] toByteBuffers() {
+    ByteBuffer[] byteBuffers = new ByteBuffer[slabs.size()];
+    for (int i=0; i<byteBuffers.length; ++i) {
+      ByteBuffer bb = slabs.get(i).duplicate();
+      bb.flip();
+      byteBuffers[i] = bb;
+    }
+    return byteBuffers;
+  }
+
+  public ByteBuffer toByteBuffer() {
+    if (slabs.size() == 1) {
+      return toByteBuffers()[0];
+    }
+    MemoryOutputStream mos = new MemoryOutputStream(Math.max(length, 1));
+    writeTo(mos);
+    return mos.toByteBuffer();
+  }
+
+  @Override
+  public void writeTo(MemoryOutputStream mos) {
+    for (ByteBuffer bb : toByteBuffers()) {
+      mos.write(bb);
+    }
+  }
+
+  @Override
+  public int getLength() {
+    return length;
+  }
+
+  @Override
+  public int getEstimatedLength() {
+    return length;
+  }
+
+  @Override
+  public void finish() {}
+
+  @Override
+  public void reset() {
+    for (ByteBuffer slab : slabs) {
+      pool.release(slab);
+    }
+    slabs.clear();
+    currentSlab = null;
+    length = 0;
+  }
+}
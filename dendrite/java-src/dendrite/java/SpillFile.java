@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// A temporary file shared by all the column chunk writers of a record group. Finished pages are appended to it
+// as they are written, in whatever order the columns produce them, and each column chunk is later stitched
+// back together from its own extents with FileChannel.transferTo.
+public final class SpillFile implements Closeable {
+
+  private final File file;
+  private final FileChannel fileChannel;
+  private long length;
+
+  public SpillFile(File directory) throws IOException {
+    this.file = File.createTempFile("dendrite-", ".spill", directory);
+    this.fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.length = 0;
+  }
+
+  // Appends the remaining bytes of byteBuffer, without consuming them, and returns the offset at which
+  // they were written.
+  public synchronized long append(ByteBuffer byteBuffer) {
+    long offset = length;
+    ByteBuffer bb = byteBuffer.duplicate();
+    try {
+      while (bb.hasRemaining()) {
+        length += fileChannel.write(bb, length);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return offset;
+  }
+
+  public void transferTo(long offset, long extentLength, FileChannel target) throws IOException {
+    long transferred = 0;
+    while (transferred < extentLength) {
+      long n = fileChannel.transferTo(offset + transferred, extentLength - transferred, target);
+      if (n <= 0) {
+        throw new IOException(
+            String.format("Could not transfer %d bytes at offset %d from spill file of length %d",
+                          extentLength - transferred, offset + transferred, fileChannel.size()));
+      }
+      transferred += n;
+    }
+  }
+
+  public void readInto(long offset, int extentLength, MemoryOutputStream mos) {
+    ByteBuffer bb = ByteBuffer.allocate(extentLength);
+    try {
+      while (bb.hasRemaining()) {
+        if (fileChannel.read(bb, offset + bb.position()) <= 0) {
+          throw new IllegalStateException(
+              String.format("Could not read %d bytes at offset %d from spill file of length %d",
+                            bb.remaining(), offset + bb.position(), fileChannel.size()));
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    bb.flip();
+    mos.write(bb);
+  }
+
+  public synchronized long getLength() {
+    return length;
+  }
+
+  public synchronized void reset() {
+    try {
+      fileChannel.truncate(0);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    length = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      fileChannel.close();
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -130,7 +130,9 @@ public final class Stats {
       compression;
 
     public final IPersistentVector
-      path;
+      path,
+      columnChunkEncodings,
+      columnChunkCompressions;
 
     public final long
       maxRepetitionLevel,
@@ -149,7 +151,8 @@ public final class Stats {
       dictionaryLength;
 
     Column(Symbol type, Symbol encoding, Symbol compression, long maxRepetitionLevel, long maxDefinitionLevel,
-           long numColumnChunks, IPersistentVector path, long numPages, long numValues, long numNonNilValues,
+           long numColumnChunks, IPersistentVector path, IPersistentVector columnChunkEncodings,
+           IPersistentVector columnChunkCompressions, long numPages, long numValues, long numNonNilValues,
            long length, long dataHeaderLength, long repetitionLevelsLength, long definitionLevelsLength,
            long dataLength, long numDictionaryValues, long dictionaryHeaderLength, long dictionaryLength) {
       this.type = type;
@@ -159,6 +162,8 @@ public final class Stats {
       this.maxDefinitionLevel = maxDefinitionLevel;
       this.numColumnChunks = numColumnChunks;
       this.path = path;
+      this.columnChunkEncodings = columnChunkEncodings;
+      this.columnChunkCompressions = columnChunkCompressions;
       this.numPages = numPages;
       this.numValues = numValues;
       this.numNonNilValues = numNonNilValues;
@@ -176,6 +181,8 @@ public final class Stats {
   public static Column createColumnStats(Symbol type, Symbol encoding, Symbol compression,
                                          int maxRepetitionLevel, int maxDefinitionLevel,
                                          IPersistentVector path,
+                                         IPersistentVector columnChunkEncodings,
+                                         IPersistentVector columnChunkCompressions,
                                          List<ColumnChunk> columnChunksStats) {
     long numColumnChunks = 0;
     long length = 0;
@@ -206,7 +213,7 @@ public final class Stats {
     }
 
     return new Column(type, encoding, compression, maxRepetitionLevel, maxDefinitionLevel, numColumnChunks,
-                      path, numPages, numValues, numNonNilValues, length, dataHeaderLength,
+                      path, columnChunkEncodings, columnChunkCompressions, numPages, numValues, numNonNilValues, length, dataHeaderLength,
                       repetitionLevelsLength, definitionLevelsLength, dataLength, numDictionaryValues,
                       dictionaryHeaderLength, dictionaryLength);
   }
@@ -13,19 +13,34 @@
 package dendrite.java;
 
 import clojure.lang.AFn;
+import clojure.lang.Compiler;
 import clojure.lang.IFn;
+import clojure.lang.IKeywordLookup;
+import clojure.lang.ILookup;
+import clojure.lang.ILookupThunk;
+import clojure.lang.IMapIterable;
 import clojure.lang.IPersistentVector;
+import clojure.lang.IRecord;
 import clojure.lang.ISeq;
 import clojure.lang.Keyword;
+import clojure.lang.Named;
 import clojure.lang.PersistentArrayMap;
 import clojure.lang.PersistentVector;
 import clojure.lang.RT;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Stripe {
 
@@ -67,11 +82,7 @@ public final class Stripe {
         return getRequiredValueStripeFn(context, (Schema.Column)schema, parents);
       }
     } else if (schema instanceof Schema.Record) {
-      if (schema.presence == Schema.OPTIONAL) {
-        return getOptionalRecordStripeFn(context, (Schema.Record)schema, parents);
-      } else /* if (schema.presence == Schema.REQUIRED) */ {
-        return getRequiredRecordStripeFn(context, (Schema.Record)schema, parents);
-      }
+      return getRecordStripeFn(context, (Schema.Record)schema, parents);
     } else /* if (schema instanceof Schema.Collection) */ {
       Schema.Collection coll = (Schema.Collection)schema;
       if (coll.repetition == Schema.MAP) {
@@ -206,97 +217,328 @@ public final class Stripe {
     }
   }
 
-  private static StripeFn getOptionalRecordStripeFn(Context context, Schema.Record record,
-                                                    final IPersistentVector parents) {
+  private static StripeFn getRecordStripeFn(Context context, Schema.Record record,
+                                            IPersistentVector parents) {
     Schema.Field[] fields = record.fields;
-    final StripeFn[] fieldStripeFns = new StripeFn[fields.length];
-    final Keyword[] fieldNames = new Keyword[fields.length];
+    StripeFn[] fieldStripeFns = new StripeFn[fields.length];
+    Keyword[] fieldNames = new Keyword[fields.length];
     for (int i=0; i<fields.length; ++i) {
       Schema.Field field = fields[i];
       fieldNames[i] = field.name;
       fieldStripeFns[i] = getStripeFn(context, field.value, parents.cons(field.name));
     }
+    Set<Keyword> fieldNameSet = null;
     if (!context.isIgnoreExtraFields) {
-      final Set<Keyword> fieldNameSet = new HashSet<Keyword>(fields.length * 2);
+      fieldNameSet = new HashSet<Keyword>(fields.length * 2);
       for (Keyword fieldName : fieldNames) {
         fieldNameSet.add(fieldName);
       }
-      return new StripeFn() {
-        public void invoke(Object[] buffer, Object rec, boolean isParentNil, int repetitionLevel,
-                           int definitionLevel) {
-          boolean isEmpty = (rec == notFound);
-          int defLevel = isEmpty? definitionLevel : definitionLevel + 1;
-          for (int i=0; i<fieldNames.length; ++i) {
-            fieldStripeFns[i].invoke(buffer, RT.get(rec, fieldNames[i], notFound), isEmpty, repetitionLevel,
-                                     defLevel);
-          }
-          if (!isEmpty) {
-            checkNoExtraFields(fieldNameSet, rec, parents);
-          }
+    }
+    return new RecordStripeFn(fieldNames, fieldStripeFns, fieldNameSet, record.presence == Schema.REQUIRED,
+                              parents);
+  }
+
+  // How the field values are read depends on the class of the record, so a FieldAccessor is created for each
+  // class the first time it is seen. Consecutive records almost always share the same class, so the last
+  // accessor is checked before the per-class cache.
+  private static final class RecordStripeFn implements StripeFn {
+    final Keyword[] fieldNames;
+    final StripeFn[] fieldStripeFns;
+    final Set<Keyword> fieldNameSet; // null if extra fields are ignored
+    final IPersistentVector parents;
+    private final boolean isRequired;
+    private final ConcurrentHashMap<Class<?>, FieldAccessor> accessors;
+    private volatile FieldAccessor lastAccessor;
+
+    RecordStripeFn(Keyword[] fieldNames, StripeFn[] fieldStripeFns, Set<Keyword> fieldNameSet,
+                   boolean isRequired, IPersistentVector parents) {
+      this.fieldNames = fieldNames;
+      this.fieldStripeFns = fieldStripeFns;
+      this.fieldNameSet = fieldNameSet;
+      this.isRequired = isRequired;
+      this.parents = parents;
+      this.accessors = new ConcurrentHashMap<Class<?>, FieldAccessor>();
+      this.lastAccessor = null;
+    }
+
+    public void invoke(Object[] buffer, Object rec, boolean isParentNil, int repetitionLevel,
+                       int definitionLevel) {
+      boolean isNil = (rec == notFound);
+      int defLevel = definitionLevel;
+      if (isRequired) {
+        if (isNil && !isParentNil) {
+          throw new IllegalArgumentException(
+              String.format("Required record at path '%s' is missing", parents));
         }
-      };
-    } else {
-      return new StripeFn() {
-        public void invoke(Object[] buffer, Object rec, boolean isParentNil, int repetitionLevel,
-                           int definitionLevel) {
-          boolean isEmpty = (rec == notFound);
-          int defLevel = isEmpty? definitionLevel : definitionLevel + 1;
-          for (int i=0; i<fieldNames.length; ++i) {
-            fieldStripeFns[i].invoke(buffer, RT.get(rec, fieldNames[i], notFound), isEmpty, repetitionLevel,
-                                     defLevel);
+      } else if (!isNil) {
+        defLevel += 1;
+      }
+      if (isNil) {
+        for (StripeFn fieldStripeFn : fieldStripeFns) {
+          fieldStripeFn.invoke(buffer, notFound, true, repetitionLevel, defLevel);
+        }
+      } else {
+        getAccessor(rec).stripeFields(this, buffer, rec, repetitionLevel, defLevel);
+      }
+    }
+
+    int indexOf(Object fieldName) {
+      for (int i=0; i<fieldNames.length; ++i) {
+        if (fieldNames[i] == fieldName) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    // A map that holds as many entries as there were schema fields present in it cannot have extra fields.
+    void checkNoExtraFields(Object rec, int numPresentFields) {
+      if (fieldNameSet != null && !(rec instanceof Map && ((Map)rec).size() == numPresentFields)) {
+        Stripe.checkNoExtraFields(fieldNameSet, rec, parents);
+      }
+    }
+
+    private FieldAccessor getAccessor(Object rec) {
+      if (rec == null) {
+        return GenericFieldAccessor.NIL;
+      }
+      Class<?> recordClass = rec.getClass();
+      FieldAccessor accessor = lastAccessor;
+      if (accessor == null || accessor.recordClass != recordClass) {
+        accessor = accessors.get(recordClass);
+        if (accessor == null) {
+          accessor = createAccessor(rec);
+          FieldAccessor previousAccessor = accessors.putIfAbsent(recordClass, accessor);
+          if (previousAccessor != null) {
+            accessor = previousAccessor;
           }
         }
-      };
+        lastAccessor = accessor;
+      }
+      return accessor;
+    }
+
+    private FieldAccessor createAccessor(Object rec) {
+      Class<?> recordClass = rec.getClass();
+      if (rec instanceof PersistentArrayMap && fieldNames.length <= 64) {
+        return new ArrayMapFieldAccessor(recordClass, fieldNames.length);
+      } else if (rec instanceof IRecord && rec instanceof IKeywordLookup) {
+        ILookupThunk[] thunks = new ILookupThunk[fieldNames.length];
+        for (int i=0; i<fieldNames.length; ++i) {
+          thunks[i] = ((IKeywordLookup)rec).getLookupThunk(fieldNames[i]);
+        }
+        return new DefrecordFieldAccessor(recordClass, thunks);
+      } else if (JavaObjectFieldAccessor.isJavaObject(rec)) {
+        MethodHandle[] getters = new MethodHandle[fieldNames.length];
+        boolean hasGetters = false;
+        for (int i=0; i<fieldNames.length; ++i) {
+          getters[i] = JavaObjectFieldAccessor.findGetter(recordClass, fieldNames[i]);
+          hasGetters |= (getters[i] != null);
+        }
+        if (hasGetters) {
+          return new JavaObjectFieldAccessor(recordClass, getters);
+        }
+      }
+      return new GenericFieldAccessor(recordClass);
     }
   }
 
-  private static StripeFn getRequiredRecordStripeFn(Context context, Schema.Record record,
-                                                    final IPersistentVector parents) {
-    Schema.Field[] fields = record.fields;
-    final StripeFn[] fieldStripeFns = new StripeFn[fields.length];
-    final Keyword[] fieldNames = new Keyword[fields.length];
-    for (int i=0; i<fields.length; ++i) {
-      Schema.Field field = fields[i];
-      fieldNames[i] = field.name;
-      fieldStripeFns[i] = getStripeFn(context, field.value, parents.cons(field.name));
+  private abstract static class FieldAccessor {
+    final Class<?> recordClass;
+
+    FieldAccessor(Class<?> recordClass) {
+      this.recordClass = recordClass;
     }
-    if (!context.isIgnoreExtraFields) {
-      final Set<Keyword> fieldNameSet = new HashSet<Keyword>(fields.length * 2);
-      for (Keyword fieldName : fieldNames) {
-        fieldNameSet.add(fieldName);
+
+    abstract void stripeFields(RecordStripeFn recordStripeFn, Object[] buffer, Object rec,
+                               int repetitionLevel, int definitionLevel);
+  }
+
+  // Looks up each field by keyword. Works on anything RT.get supports.
+  private static final class GenericFieldAccessor extends FieldAccessor {
+    static final GenericFieldAccessor NIL = new GenericFieldAccessor(null);
+
+    GenericFieldAccessor(Class<?> recordClass) {
+      super(recordClass);
+    }
+
+    @Override
+    void stripeFields(RecordStripeFn recordStripeFn, Object[] buffer, Object rec, int repetitionLevel,
+                      int definitionLevel) {
+      Keyword[] fieldNames = recordStripeFn.fieldNames;
+      int numPresentFields = 0;
+      for (int i=0; i<fieldNames.length; ++i) {
+        Object v = RT.get(rec, fieldNames[i], notFound);
+        if (v != notFound) {
+          numPresentFields += 1;
+        }
+        recordStripeFn.fieldStripeFns[i].invoke(buffer, v, false, repetitionLevel, definitionLevel);
       }
-      return new StripeFn() {
-        public void invoke(Object[] buffer, Object rec, boolean isParentNil, int repetitionLevel,
-                           int definitionLevel) {
-          boolean isNil = (rec == notFound);
-          if (isNil && !isParentNil) {
-            throw new IllegalArgumentException(
-                String.format("Required record at path '%s' is missing", parents));
+      recordStripeFn.checkNoExtraFields(rec, numPresentFields);
+    }
+  }
+
+  // Reads the fields of a defrecord directly through the lookup thunks the Clojure compiler generates for
+  // keyword access. Schema fields that are not part of the defrecord's basis are looked up in its extension
+  // map.
+  private static final class DefrecordFieldAccessor extends FieldAccessor {
+    private final ILookupThunk[] thunks; // null for fields that are not part of the basis
+
+    DefrecordFieldAccessor(Class<?> recordClass, ILookupThunk[] thunks) {
+      super(recordClass);
+      this.thunks = thunks;
+    }
+
+    @Override
+    void stripeFields(RecordStripeFn recordStripeFn, Object[] buffer, Object rec, int repetitionLevel,
+                      int definitionLevel) {
+      Keyword[] fieldNames = recordStripeFn.fieldNames;
+      int numPresentFields = 0;
+      for (int i=0; i<fieldNames.length; ++i) {
+        Object v = (thunks[i] != null)? thunks[i].get(rec) : RT.get(rec, fieldNames[i], notFound);
+        if (v != notFound) {
+          numPresentFields += 1;
+        }
+        recordStripeFn.fieldStripeFns[i].invoke(buffer, v, false, repetitionLevel, definitionLevel);
+      }
+      recordStripeFn.checkNoExtraFields(rec, numPresentFields);
+    }
+  }
+
+  // Walks the entries of an array map in order. Maps built by the same code share the same key order, so the
+  // schema field found at each position is remembered and checked first for the next map. Since each entry is
+  // matched to a schema field, extra fields are caught without walking the keys a second time.
+  private static final class ArrayMapFieldAccessor extends FieldAccessor {
+    private final int[] fieldIndexHints; // racy, but each hint is checked before use
+
+    ArrayMapFieldAccessor(Class<?> recordClass, int numFields) {
+      super(recordClass);
+      this.fieldIndexHints = new int[numFields];
+      for (int i=0; i<numFields; ++i) {
+        fieldIndexHints[i] = i;
+      }
+    }
+
+    @Override
+    void stripeFields(RecordStripeFn recordStripeFn, Object[] buffer, Object rec, int repetitionLevel,
+                      int definitionLevel) {
+      Keyword[] fieldNames = recordStripeFn.fieldNames;
+      IMapIterable map = (IMapIterable)rec;
+      Iterator<?> keys = map.keyIterator();
+      Iterator<?> vals = map.valIterator();
+      long isFieldPresent = 0;
+      for (int j=0; keys.hasNext(); ++j) {
+        Object k = keys.next();
+        Object v = vals.next();
+        int i = (j < fieldIndexHints.length)? fieldIndexHints[j] : -1;
+        if (i < 0 || fieldNames[i] != k) {
+          i = recordStripeFn.indexOf(k);
+          if (i < 0) {
+            if (recordStripeFn.fieldNameSet != null) {
+              throw new IllegalArgumentException(
+                  String.format("Field '%s' at path '%s' is not in schema", k, recordStripeFn.parents));
+            }
+            continue;
           }
-          for (int i=0; i<fieldNames.length; ++i) {
-            fieldStripeFns[i].invoke(buffer, RT.get(rec, fieldNames[i], notFound), isNil, repetitionLevel,
-                                     definitionLevel);
+          if (j < fieldIndexHints.length) {
+            fieldIndexHints[j] = i;
+          }
+        }
+        isFieldPresent |= 1L << i;
+        recordStripeFn.fieldStripeFns[i].invoke(buffer, v, false, repetitionLevel, definitionLevel);
+      }
+      for (int i=0; i<fieldNames.length; ++i) {
+        if ((isFieldPresent & (1L << i)) == 0) {
+          recordStripeFn.fieldStripeFns[i].invoke(buffer, notFound, false, repetitionLevel, definitionLevel);
+        }
+      }
+    }
+  }
+
+  // Reads the fields of plain Java objects through their getters. For a field :foo-bar, these are, in order
+  // of preference, the fooBar(), getFooBar(), isFooBar(), and foo_bar() methods, and the fooBar and foo_bar
+  // public fields. Fields without a getter are missing. Since a Java object has no notion of extra fields, it
+  // is never checked for them.
+  private static final class JavaObjectFieldAccessor extends FieldAccessor {
+    private static final MethodType getterType = MethodType.methodType(Object.class, Object.class);
+
+    private final MethodHandle[] getters; // null for fields without a getter
+
+    JavaObjectFieldAccessor(Class<?> recordClass, MethodHandle[] getters) {
+      super(recordClass);
+      this.getters = getters;
+    }
+
+    static boolean isJavaObject(Object rec) {
+      String className = rec.getClass().getName();
+      return !(rec instanceof Map || rec instanceof ILookup || rec instanceof Iterable
+               || rec instanceof CharSequence || rec instanceof Number || rec instanceof Boolean
+               || rec instanceof Character || rec instanceof Named || rec.getClass().isArray()
+               || className.startsWith("java.") || className.startsWith("clojure."));
+    }
+
+    static MethodHandle findGetter(Class<?> recordClass, Keyword fieldName) {
+      String name = fieldName.getName();
+      String camelCaseName = toCamelCase(name);
+      String mungedName = Compiler.munge(name);
+      String capitalizedName = Character.toUpperCase(camelCaseName.charAt(0)) + camelCaseName.substring(1);
+      for (String methodName : new String[]{camelCaseName, "get" + capitalizedName, "is" + capitalizedName,
+                                            mungedName}) {
+        try {
+          Method method = recordClass.getMethod(methodName);
+          if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(getterType);
           }
-          if (!isNil) {
-            checkNoExtraFields(fieldNameSet, rec, parents);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+          // Not a usable getter, try the next candidate.
+        }
+      }
+      for (String javaFieldName : new String[]{camelCaseName, mungedName}) {
+        try {
+          Field field = recordClass.getField(javaFieldName);
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(getterType);
           }
+        } catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+          // Not a usable field, try the next candidate.
         }
-      };
-    } else {
-      return new StripeFn() {
-        public void invoke(Object[] buffer, Object rec, boolean isParentNil, int repetitionLevel,
-                           int definitionLevel) {
-          boolean isNil = (rec == notFound);
-          if (isNil && !isParentNil) {
+      }
+      return null;
+    }
+
+    private static String toCamelCase(String name) {
+      StringBuilder sb = new StringBuilder(name.length());
+      boolean isUpperCaseNext = false;
+      for (int i=0; i<name.length(); ++i) {
+        char c = name.charAt(i);
+        if (c == '-' || c == '_') {
+          isUpperCaseNext = (sb.length() > 0);
+        } else {
+          sb.append(isUpperCaseNext? Character.toUpperCase(c) : c);
+          isUpperCaseNext = false;
+        }
+      }
+      return (sb.length() > 0)? sb.toString() : name;
+    }
+
+    @Override
+    void stripeFields(RecordStripeFn recordStripeFn, Object[] buffer, Object rec, int repetitionLevel,
+                      int definitionLevel) {
+      for (int i=0; i<getters.length; ++i) {
+        Object v = notFound;
+        if (getters[i] != null) {
+          try {
+            v = (Object)getters[i].invokeExact(rec);
+          } catch (Throwable e) {
             throw new IllegalArgumentException(
-                String.format("Required record at path '%s' is missing", parents));
-          }
-          for (int i=0; i<fieldNames.length; ++i) {
-            fieldStripeFns[i].invoke(buffer, RT.get(rec, fieldNames[i], notFound), isNil, repetitionLevel,
-                                     definitionLevel);
+                String.format("Could not read field '%s' at path '%s'", recordStripeFn.fieldNames[i],
+                              recordStripeFn.parents), e);
           }
         }
-      };
+        recordStripeFn.fieldStripeFns[i].invoke(buffer, v, false, repetitionLevel, definitionLevel);
+      }
     }
   }
 
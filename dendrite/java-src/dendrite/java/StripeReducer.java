@@ -22,13 +22,27 @@ import java.util.List;
 public final class StripeReducer {
 
   private final int numColumns;
+  private final Schema.Column[] columns;
   private final int bundleSize;
   private final IFn reduceFn;
   private final IFn errorHandlerFn;
 
 
   public StripeReducer(Stripe.Fn stripeFn, int numColumns, int bundleSize, IFn xform, IFn errorHandlerFn) {
+    this(stripeFn, numColumns, null, bundleSize, xform, errorHandlerFn);
+  }
+
+  // When the columns are known, the values of non-repeated columns of primitive type are striped directly
+  // into primitive arrays.
+  public StripeReducer(Stripe.Fn stripeFn, Schema.Column[] columns, int bundleSize, IFn xform,
+                       IFn errorHandlerFn) {
+    this(stripeFn, columns.length, columns, bundleSize, xform, errorHandlerFn);
+  }
+
+  private StripeReducer(Stripe.Fn stripeFn, int numColumns, Schema.Column[] columns, int bundleSize, IFn xform,
+                        IFn errorHandlerFn) {
     this.numColumns = numColumns;
+    this.columns = columns;
     this.bundleSize = bundleSize;
     IFn innerReduceFn = new InnerReduceFn(stripeFn);
     this.reduceFn = (xform == null)? innerReduceFn : (IFn)xform.invoke(innerReduceFn);
@@ -36,7 +50,7 @@ public final class StripeReducer {
   }
 
   public InnerReturnValue init() {
-    return new InnerReturnValue(numColumns, bundleSize);
+    return new InnerReturnValue(numColumns, columns, bundleSize);
   }
 
   public Bundle complete(InnerReturnValue ret) {
@@ -88,12 +102,17 @@ public final class StripeReducer {
     private final Object[] buffer;
     private final List[] columnValues;
 
-    InnerReturnValue(int numColumns, int bundleSize) {
+    InnerReturnValue(int numColumns, Schema.Column[] columns, int bundleSize) {
       n = 0;
       buffer = new Object[numColumns];
       columnValues = new List[numColumns];
       for (int i=0; i<numColumns; ++i) {
-        columnValues[i] = new ArrayList(bundleSize);
+        if (columns != null && columns[i].repetitionLevel == 0) {
+          columnValues[i] = PrimitiveColumn.create(columns[i].type, bundleSize);
+        }
+        if (columnValues[i] == null) {
+          columnValues[i] = new ArrayList(bundleSize);
+        }
       }
     }
 
@@ -429,10 +429,40 @@ public final class Types {
     builtInLogicalTypes[BYTE_BUFFER] = byteBufferType;
   }
 
+  // The string, keyword, and symbol types are frequently read from non-dictionary columns with many repeated
+  // values. These variants decode directly from byte arrays through a per-thread intern cache.
+  private static final LogicalType[] internedLogicalTypes;
+
+  private static LogicalType withInternCache(LogicalType lt) {
+    IFn toBaseTypeFn = lt.toBaseTypeFn;
+    IFn fromBaseTypeFn = lt.fromBaseTypeFn;
+    if (lt.baseType == STRING) {
+      toBaseTypeFn = Utils.comp(lt.toBaseTypeFn, stringType.toBaseTypeFn);
+      fromBaseTypeFn = Utils.comp(stringType.fromBaseTypeFn, lt.fromBaseTypeFn);
+    }
+    return new LogicalType(lt.sym, BYTE_ARRAY, lt.coercionFn, toBaseTypeFn, InternCache.wrap(fromBaseTypeFn));
+  }
+
+  static {
+    internedLogicalTypes = new LogicalType[builtInLogicalTypes.length];
+    internedLogicalTypes[STRING] = withInternCache(stringType);
+    internedLogicalTypes[KEYWORD] = withInternCache(keywordType);
+    internedLogicalTypes[SYMBOL] = withInternCache(symbolType);
+  }
+
   private static void fillBuiltInLogicalTypes(LogicalType[] logicalTypes) {
     System.arraycopy(builtInLogicalTypes, 0, logicalTypes, 0, builtInLogicalTypes.length);
   }
 
+  private static void useInternedLogicalTypes(LogicalType[] logicalTypes) {
+    for (int i=0; i<internedLogicalTypes.length; ++i) {
+      // Skip the built-in types that were overridden by a custom type definition.
+      if (internedLogicalTypes[i] != null && logicalTypes[i] == builtInLogicalTypes[i]) {
+        logicalTypes[i] = internedLogicalTypes[i];
+      }
+    }
+  }
+
   private static void fillBuiltInLogicalTypeSymbols(HashMap<Symbol,Integer> logicalTypesMap) {
     for (int i=0; i<builtInLogicalTypes.length; ++i) {
       LogicalType lt = builtInLogicalTypes[i];
@@ -452,18 +482,27 @@ public final class Types {
     PACKED_RUN_LENGTH = 5,
     DELTA = 6,
     INCREMENTAL = 7,
-    DELTA_LENGTH = 8;
+    DELTA_LENGTH = 8,
+    FRAME_OF_REFERENCE = 9,
+    XOR = 10,
+    BYTE_STREAM_SPLIT = 11,
+    DELTA_OF_DELTA = 12,
+    DECIMAL = 13,
+    FSST = 14;
 
   private static final int[][] validEncodings;
 
   static {
     validEncodings = new int[-FIXED_LENGTH_BYTE_ARRAY][];
     validEncodings[i(BOOLEAN)] = new int[] {PLAIN, DICTIONARY};
-    validEncodings[i(INT)] = new int[] {PLAIN, VLQ, ZIG_ZAG, PACKED_RUN_LENGTH, DELTA, DICTIONARY, FREQUENCY};
-    validEncodings[i(LONG)] = new int[] {PLAIN, VLQ, ZIG_ZAG, DELTA, DICTIONARY, FREQUENCY};
-    validEncodings[i(FLOAT)] = new int[] {PLAIN, DICTIONARY, FREQUENCY};
-    validEncodings[i(DOUBLE)] = new int[] {PLAIN, DICTIONARY, FREQUENCY};
-    validEncodings[i(BYTE_ARRAY)] = new int[] {PLAIN, INCREMENTAL, DELTA_LENGTH, DICTIONARY, FREQUENCY};
+    validEncodings[i(INT)] = new int[] {PLAIN, VLQ, ZIG_ZAG, PACKED_RUN_LENGTH, DELTA, FRAME_OF_REFERENCE,
+                                        DICTIONARY, FREQUENCY};
+    validEncodings[i(LONG)] = new int[] {PLAIN, VLQ, ZIG_ZAG, DELTA, FRAME_OF_REFERENCE, DELTA_OF_DELTA,
+                                         DICTIONARY, FREQUENCY};
+    validEncodings[i(FLOAT)] = new int[] {PLAIN, XOR, BYTE_STREAM_SPLIT, DICTIONARY, FREQUENCY};
+    validEncodings[i(DOUBLE)] = new int[] {PLAIN, XOR, BYTE_STREAM_SPLIT, DICTIONARY, FREQUENCY};
+    validEncodings[i(BYTE_ARRAY)] = new int[] {PLAIN, INCREMENTAL, DELTA_LENGTH, DECIMAL, FSST, DICTIONARY,
+                                               FREQUENCY};
     validEncodings[i(FIXED_LENGTH_BYTE_ARRAY)] = new int[] {PLAIN, DICTIONARY, FREQUENCY};
   }
 
@@ -473,7 +512,7 @@ public final class Types {
   static final Symbol PLAIN_SYM = Symbol.intern("plain");
 
   static {
-    encodingSymbols = new Symbol[DELTA_LENGTH+1];
+    encodingSymbols = new Symbol[FSST+1];
     encodingSymbols[PLAIN] = PLAIN_SYM;
     encodingSymbols[DICTIONARY] = Symbol.intern("dictionary");
     encodingSymbols[FREQUENCY] = Symbol.intern("frequency");
@@ -483,8 +522,14 @@ public final class Types {
     encodingSymbols[DELTA] = Symbol.intern("delta");
     encodingSymbols[INCREMENTAL] = Symbol.intern("incremental");
     encodingSymbols[DELTA_LENGTH] = Symbol.intern("delta-length");
-
-    encodings = new HashMap<Symbol,Integer>(2 * DELTA_LENGTH);
+    encodingSymbols[FRAME_OF_REFERENCE] = Symbol.intern("frame-of-reference");
+    encodingSymbols[XOR] = Symbol.intern("xor");
+    encodingSymbols[BYTE_STREAM_SPLIT] = Symbol.intern("byte-stream-split");
+    encodingSymbols[DELTA_OF_DELTA] = Symbol.intern("delta-of-delta");
+    encodingSymbols[DECIMAL] = Symbol.intern("decimal");
+    encodingSymbols[FSST] = Symbol.intern("fsst");
+
+    encodings = new HashMap<Symbol,Integer>(2 * FSST);
     for (int i=0; i<encodingSymbols.length; ++i) {
       encodings.put(encodingSymbols[i], i);
     }
@@ -499,6 +544,7 @@ public final class Types {
       case ZIG_ZAG: return IntZigZag.decoderFactory;
       case PACKED_RUN_LENGTH: return IntPackedRunLength.decoderFactory;
       case DELTA: return IntPackedDelta.decoderFactory;
+      case FRAME_OF_REFERENCE: return IntFrameOfReference.decoderFactory;
       default: throw new IllegalStateException();
       }
     case LONG: switch (encoding) {
@@ -506,14 +552,28 @@ public final class Types {
       case VLQ: return LongVlq.decoderFactory;
       case ZIG_ZAG: return LongZigZag.decoderFactory;
       case DELTA: return LongPackedDelta.decoderFactory;
+      case FRAME_OF_REFERENCE: return LongFrameOfReference.decoderFactory;
+      case DELTA_OF_DELTA: return LongDeltaOfDelta.decoderFactory;
+      default: throw new IllegalStateException();
+      }
+    case FLOAT: switch (encoding) {
+      case PLAIN: return FloatPlain.decoderFactory;
+      case XOR: return FloatXor.decoderFactory;
+      case BYTE_STREAM_SPLIT: return FloatByteStreamSplit.decoderFactory;
+      default: throw new IllegalStateException();
+      }
+    case DOUBLE: switch (encoding) {
+      case PLAIN: return DoublePlain.decoderFactory;
+      case XOR: return DoubleXor.decoderFactory;
+      case BYTE_STREAM_SPLIT: return DoubleByteStreamSplit.decoderFactory;
       default: throw new IllegalStateException();
       }
-    case FLOAT: return FloatPlain.decoderFactory;
-    case DOUBLE: return DoublePlain.decoderFactory;
     case BYTE_ARRAY: switch (encoding) {
       case PLAIN: return ByteArrayPlain.decoderFactory;
       case INCREMENTAL: return ByteArrayIncremental.decoderFactory;
       case DELTA_LENGTH: return ByteArrayDeltaLength.decoderFactory;
+      case DECIMAL: return ByteArrayDecimal.decoderFactory;
+      case FSST: return ByteArrayFsst.decoderFactory;
       default: throw new IllegalStateException();
       }
     case FIXED_LENGTH_BYTE_ARRAY: return FixedLengthByteArrayPlain.decoderFactory;
@@ -530,6 +590,7 @@ public final class Types {
       case ZIG_ZAG: return new IntZigZag.Encoder();
       case PACKED_RUN_LENGTH: return new IntPackedRunLength.Encoder();
       case DELTA: return new IntPackedDelta.Encoder();
+      case FRAME_OF_REFERENCE: return new IntFrameOfReference.Encoder();
       default: throw new IllegalStateException();
       }
     case LONG: switch (encoding) {
@@ -537,14 +598,28 @@ public final class Types {
       case VLQ: return new LongVlq.Encoder();
       case ZIG_ZAG: return new LongZigZag.Encoder();
       case DELTA: return new LongPackedDelta.Encoder();
+      case FRAME_OF_REFERENCE: return new LongFrameOfReference.Encoder();
+      case DELTA_OF_DELTA: return new LongDeltaOfDelta.Encoder();
+      default: throw new IllegalStateException();
+      }
+    case FLOAT: switch (encoding) {
+      case PLAIN: return new FloatPlain.Encoder();
+      case XOR: return new FloatXor.Encoder();
+      case BYTE_STREAM_SPLIT: return new FloatByteStreamSplit.Encoder();
+      default: throw new IllegalStateException();
+      }
+    case DOUBLE: switch (encoding) {
+      case PLAIN: return new DoublePlain.Encoder();
+      case XOR: return new DoubleXor.Encoder();
+      case BYTE_STREAM_SPLIT: return new DoubleByteStreamSplit.Encoder();
       default: throw new IllegalStateException();
       }
-    case FLOAT: return new FloatPlain.Encoder();
-    case DOUBLE: return new DoublePlain.Encoder();
     case BYTE_ARRAY: switch (encoding) {
       case PLAIN: return new ByteArrayPlain.Encoder();
       case INCREMENTAL: return new ByteArrayIncremental.Encoder();
       case DELTA_LENGTH: return new ByteArrayDeltaLength.Encoder();
+      case DECIMAL: return new ByteArrayDecimal.Encoder();
+      case FSST: return new ByteArrayFsst.Encoder();
       default: throw new IllegalStateException();
       }
     case FIXED_LENGTH_BYTE_ARRAY: return new FixedLengthByteArrayPlain.Encoder();
@@ -564,7 +639,7 @@ public final class Types {
   // For testing convenience
   public static boolean USE_IN_COLUMN_LOGICAL_TYPES = false;
 
-  public static IEncoder createLevelsEncoder(int maxLevel) {
+  public static IIntEncoder createLevelsEncoder(int maxLevel) {
     return new IntFixedBitWidthPackedRunLength.Encoder(Bytes.getBitWidth(maxLevel));
   }
 
@@ -642,6 +717,9 @@ public final class Types {
   }
 
   public static BigDecimal toBigDecimal(byte[] bs) {
+    if (ByteArrayDecimal.isCompact(bs)) {
+      return BigDecimal.valueOf(ByteArrayDecimal.getUnscaledLong(bs), ByteArrayDecimal.getScale(bs));
+    }
     ByteBuffer bb = ByteBuffer.wrap(bs);
     int scale = Bytes.readFixedInt(bb);
     byte[] unscaledBigIntBytes = new byte[bs.length - 4];
@@ -850,8 +928,59 @@ public final class Types {
     return customTypes;
   }
 
+  private static final IFn asUtf8String = new AFn() {
+      public Object invoke(Object o) {
+        return new Utf8String((ByteBuffer)o);
+      }
+    };
+
+  private static final IFn byteBufferAsByteArray = new AFn() {
+      public Object invoke(Object o) {
+        return toByteArray((ByteBuffer)o);
+      }
+    };
+
+  private static final IFn byteArrayAsByteBuffer = new AFn() {
+      public Object invoke(Object o) {
+        return toByteBuffer((byte[])o);
+      }
+    };
+
+  private static boolean isByteArrayType(int type) {
+    return type == BYTE_ARRAY || type == FIXED_LENGTH_BYTE_ARRAY;
+  }
+
+  // In zero-copy mode, byte-array decoders return ByteBuffer slices of the page instead of byte arrays.
+  // Strings are read as lazily-decoded Utf8String objects and byte-buffers are returned as-is. All other
+  // logical types based on byte arrays copy the slice into a byte array before applying their
+  // from-base-type-fn.
+  private static void makeZeroCopyLogicalTypes(LogicalType[] logicalTypes) {
+    for (int i=0; i<logicalTypes.length; ++i) {
+      LogicalType lt = logicalTypes[i];
+      if (lt == null || !isByteArrayType(lt.baseType)) {
+        continue;
+      }
+      IFn fromBaseTypeFn;
+      if (i == STRING) {
+        fromBaseTypeFn = asUtf8String;
+      } else if (i == BYTE_BUFFER) {
+        fromBaseTypeFn = null;
+      } else if (lt.fromBaseTypeFn == null) {
+        fromBaseTypeFn = byteBufferAsByteArray;
+      } else {
+        fromBaseTypeFn = Utils.comp(byteBufferAsByteArray, lt.fromBaseTypeFn);
+      }
+      logicalTypes[i] = new LogicalType(lt.sym, lt.baseType, lt.coercionFn, lt.toBaseTypeFn, fromBaseTypeFn);
+    }
+  }
+
   public static Types create(List<Options.CustomTypeDefinition> customTypeDefinitions,
                              CustomType[] customTypesInFile) {
+    return create(customTypeDefinitions, customTypesInFile, false);
+  }
+
+  public static Types create(List<Options.CustomTypeDefinition> customTypeDefinitions,
+                             CustomType[] customTypesInFile, boolean isZeroCopy) {
     int estimatedNumTypes = builtInLogicalTypes.length
       + Math.max(customTypesInFile.length, customTypeDefinitions.size());
     HashMap<Symbol,Integer> logicalTypesMap = new HashMap<Symbol,Integer>(2 * estimatedNumTypes);
@@ -870,8 +999,12 @@ public final class Types {
     } else {
       customTypes = customTypesInFile;
     }
+    useInternedLogicalTypes(logicalTypes);
     flattenLogicalTypes(logicalTypes);
-    return new Types(logicalTypesMap, logicalTypes, customTypes);
+    if (isZeroCopy) {
+      makeZeroCopyLogicalTypes(logicalTypes);
+    }
+    return new Types(logicalTypesMap, logicalTypes, customTypes, isZeroCopy);
   }
 
   public static Types create(List<Options.CustomTypeDefinition> customTypeDefinitions) {
@@ -885,11 +1018,18 @@ public final class Types {
   private final HashMap<Symbol,Integer> logicalTypesMap;
   private final LogicalType[] logicalTypes;
   private final CustomType[] customTypes;
+  private final boolean isZeroCopy;
 
-  Types(HashMap<Symbol,Integer> logicalTypesMap, LogicalType[] logicalTypes, CustomType[] customTypes) {
+  Types(HashMap<Symbol,Integer> logicalTypesMap, LogicalType[] logicalTypes, CustomType[] customTypes,
+        boolean isZeroCopy) {
     this.logicalTypesMap = logicalTypesMap;
     this.logicalTypes = logicalTypes;
     this.customTypes = customTypes;
+    this.isZeroCopy = isZeroCopy;
+  }
+
+  public boolean isZeroCopy() {
+    return isZeroCopy;
   }
 
   public CustomType[] getCustomTypes() {
@@ -997,18 +1137,38 @@ public final class Types {
     return getDecoderFactory(type, encoding, null);
   }
 
+  private IDecoderFactory getBaseDecoderFactory(int type, int encoding) {
+    if (isZeroCopy && isByteArrayType(type)) {
+      if (type == FIXED_LENGTH_BYTE_ARRAY) {
+        return FixedLengthByteArrayPlain.sliceDecoderFactory;
+      }
+      switch (encoding) {
+      case PLAIN: return ByteArrayPlain.sliceDecoderFactory;
+      case DELTA_LENGTH: return ByteArrayDeltaLength.sliceDecoderFactory;
+      default: return withFn(getPrimitiveDecoderFactory(type, encoding), byteArrayAsByteBuffer, null);
+      }
+    }
+    return getPrimitiveDecoderFactory(type, encoding);
+  }
+
   public IDecoderFactory getDecoderFactory(int type, int encoding, final IFn fn) {
     if (isPrimitive(type) && fn == null) {
-      return getPrimitiveDecoderFactory(type, encoding);
+      return getBaseDecoderFactory(type, encoding);
     }
     final IDecoderFactory decoderFactory;
     final IFn f;
     if (isPrimitive(type)) {
-      decoderFactory = getPrimitiveDecoderFactory(type, encoding);
+      decoderFactory = getBaseDecoderFactory(type, encoding);
+      f = fn;
+    } else if (isBigDecType(type) && encoding == DECIMAL) {
+      if (fn == null) {
+        return ByteArrayDecimal.bigDecimalDecoderFactory;
+      }
+      decoderFactory = ByteArrayDecimal.bigDecimalDecoderFactory;
       f = fn;
     } else {
       LogicalType lt = logicalTypes[type];
-      decoderFactory = getPrimitiveDecoderFactory(lt.baseType, encoding);
+      decoderFactory = getBaseDecoderFactory(lt.baseType, encoding);
       if (fn == null) {
         f = lt.fromBaseTypeFn;
       } else if (lt.fromBaseTypeFn != null) {
@@ -1021,6 +1181,10 @@ public final class Types {
         return decoderFactory;
       }
     }
+    return withFn(decoderFactory, f, fn);
+  }
+
+  private static IDecoderFactory withFn(final IDecoderFactory decoderFactory, final IFn f, final IFn fn) {
     return new IDecoderFactory() {
       public IDecoder create(ByteBuffer bb) {
         final IDecoder dec = decoderFactory.create(bb);
@@ -1098,4 +1262,8 @@ public final class Types {
     return logicalTypes[type].baseType;
   }
 
+  public boolean isBigDecType(int type) {
+    return type == BIGDEC && logicalTypes[BIGDEC] == bigDecType;
+  }
+
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.txt at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package dendrite.java;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class Utf8String implements CharSequence, Comparable<Utf8String> {
+
+  private final ByteBuffer bb;
+  private String string;
+  private int hash;
+
+  public Utf8String(ByteBuffer bb) {
+    this.bb = bb;
+  }
+
+  public Utf8String(byte[] bs) {
+    this(ByteBuffer.wrap(bs));
+  }
+
+  public int byteLength() {
+    return bb.remaining();
+  }
+
+  public ByteBuffer getBytes() {
+    return bb.asReadOnlyBuffer();
+  }
+
+  public boolean isDecoded() {
+    return string != null;
+  }
+
+  @Override
+  public String toString() {
+    if (string == null) {
+      if (bb.hasArray()) {
+        string = new String(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining(),
+                            StandardCharsets.UTF_8);
+      } else {
+        string = StandardCharsets.UTF_8.decode(bb.duplicate()).toString();
+      }
+    }
+    return string;
+  }
+
+  @Override
+  public int length() {
+    return toString().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  public boolean startsWith(byte[] prefix) {
+    if (prefix.length > bb.remaining()) {
+      return false;
+    }
+    int offset = bb.position();
+    for (int i=0; i<prefix.length; ++i) {
+      if (bb.get(offset + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public boolean startsWith(String prefix) {
+    return startsWith(prefix.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public boolean startsWith(Utf8String prefix) {
+    int n = prefix.bb.remaining();
+    if (n > bb.remaining()) {
+      return false;
+    }
+    int offset = bb.position();
+    int prefixOffset = prefix.bb.position();
+    for (int i=0; i<n; ++i) {
+      if (bb.get(offset + i) != prefix.bb.get(prefixOffset + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = 1;
+      int offset = bb.position();
+      int limit = bb.limit();
+      for (int i=offset; i<limit; ++i) {
+        h = 31 * h + (int)bb.get(i);
+      }
+      hash = h;
+    }
+    return h;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Utf8String)) {
+      return false;
+    }
+    Utf8String s = (Utf8String)o;
+    return bb.remaining() == s.bb.remaining() && compareTo(s) == 0;
+  }
+
+  // Unsigned lexicographic byte order, which is the same as the code point order of the decoded strings.
+  @Override
+  public int compareTo(Utf8String s) {
+    int n = Math.min(bb.remaining(), s.bb.remaining());
+    int offset = bb.position();
+    int otherOffset = s.bb.position();
+    for (int i=0; i<n; ++i) {
+      int c = (bb.get(offset + i) & 0xff) - (s.bb.get(otherOffset + i) & 0xff);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return bb.remaining() - s.bb.remaining();
+  }
+}
@@ -21,6 +21,11 @@ import clojure.lang.RT;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
@@ -103,8 +108,74 @@ public final class Utils {
                             StandardOpenOption.TRUNCATE_EXISTING);
   }
 
+  public static ByteBuffer[] concat(ByteBuffer[]... byteBufferArrays) {
+    int n = 0;
+    for (ByteBuffer[] byteBuffers : byteBufferArrays) {
+      n += byteBuffers.length;
+    }
+    ByteBuffer[] concatenated = new ByteBuffer[n];
+    int i = 0;
+    for (ByteBuffer[] byteBuffers : byteBufferArrays) {
+      System.arraycopy(byteBuffers, 0, concatenated, i, byteBuffers.length);
+      i += byteBuffers.length;
+    }
+    return concatenated;
+  }
+
+  // Gathering write of all the remaining bytes of the byteBuffers.
+  public static void writeFully(FileChannel fileChannel, ByteBuffer[] byteBuffers) throws IOException {
+    long remaining = 0;
+    for (ByteBuffer bb : byteBuffers) {
+      remaining += bb.remaining();
+    }
+    while (remaining > 0) {
+      remaining -= fileChannel.write(byteBuffers);
+    }
+  }
+
   public static ByteBuffer mapFileChannel(FileChannel fileChannel, long offset, long length)
     throws IOException {
     return fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, length);
   }
+
+  // Releases the native memory of a direct or mapped ByteBuffer right away instead of leaving it to the GC.
+  // The buffer, and any view of it, must not be accessed afterwards, as that would crash the JVM. Returns
+  // false if the buffer could not be released (e.g., a heap buffer or a slice), in which case it is left to
+  // the GC.
+  public static boolean freeDirectBuffer(ByteBuffer bb) {
+    if (bb == null || !bb.isDirect() || directBufferCleaner == null) {
+      return false;
+    }
+    try {
+      directBufferCleaner.invokeExact(bb);
+      return true;
+    } catch (Throwable t) {
+      return false;
+    }
+  }
+
+  private static final MethodHandle directBufferCleaner = getDirectBufferCleaner();
+
+  // Java 9+ exposes sun.misc.Unsafe.invokeCleaner, whereas Java 7 and 8 require calling the buffer's cleaner
+  // directly.
+  private static MethodHandle getDirectBufferCleaner() {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      MethodType invokeCleanerType = MethodType.methodType(void.class, ByteBuffer.class);
+      return lookup.findVirtual(unsafeClass, "invokeCleaner", invokeCleanerType).bindTo(theUnsafe.get(null));
+    } catch (Exception e) {}
+    try {
+      Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      MethodHandle cleaner = lookup.unreflect(cleanerMethod)
+        .asType(MethodType.methodType(Object.class, ByteBuffer.class));
+      MethodHandle clean = lookup.unreflect(cleanMethod)
+        .asType(MethodType.methodType(void.class, Object.class));
+      return MethodHandles.filterReturnValue(cleaner, clean);
+    } catch (Exception e) {}
+    return null;
+  }
 }
@@ -9,4 +9,7 @@
         :url "https://github.com/jwhitbeck/dendrite"}
   :profiles {:dev {:java-opts ["-server"]
                    :plugins [[codox "0.8.13"]]
-                   :codox {:output-dir "../docs/api"}}})
+                   :codox {:output-dir "../docs/api"}}
+             :vector {:java-source-paths ["java-src-vector"]
+                      :javac-options ["--add-modules" "jdk.incubator.vector"]
+                      :jvm-opts ["--add-modules" "jdk.incubator.vector" "-Ddendrite.test.vector-kernels=true"]}})
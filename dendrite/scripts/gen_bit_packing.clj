@@ -0,0 +1,117 @@
+;; Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+;;
+;; The use and distribution terms for this software are covered by the
+;; Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+;; which can be found in the file epl-v10.txt at the root of this distribution.
+;; By using this software in any fashion, you are agreeing to be bound by
+;; the terms of this license.
+;;
+;; You must not remove this notice, or any other, from this software.
+
+;; Generates java-src/dendrite/java/BitPacking.java. Run from the dendrite directory with
+;;
+;;   lein run -m clojure.main scripts/gen_bit_packing.clj > java-src/dendrite/java/BitPacking.java
+
+(ns gen-bit-packing
+  (:require [clojure.string :as str]))
+
+(def license-header
+  (str "/**\n"
+       " * Copyright (c) 2013-2015 John Whitbeck. All rights reserved.\n"
+       " *\n"
+       " * The use and distribution terms for this software are covered by the\n"
+       " * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)\n"
+       " * which can be found in the file epl-v10.txt at the root of this distribution.\n"
+       " * By using this software in any fashion, you are agreeing to be bound by\n"
+       " * the terms of this license.\n"
+       " *\n"
+       " * You must not remove this notice, or any other, from this software.\n"
+       " */\n"))
+
+(defn- word-loads
+  "Declares the little-endian 64-bit words w0, w1, ... that hold the width bytes of an octuplet. A trailing
+  partial word is assembled from an int and single bytes."
+  [width]
+  (let [num-full-words (quot width 8)
+        num-rem-bytes (rem width 8)
+        full-words (for [k (range num-full-words)]
+                     (format "    final long w%d = Bytes.readFixedLong(bb);" k))]
+    (if (zero? num-rem-bytes)
+      full-words
+      (let [int-part (when (>= num-rem-bytes 4) ["((long)Bytes.readFixedInt(bb) & 0xffffffffL)"])
+            first-shift (if int-part 32 0)
+            byte-parts (for [shift (range first-shift (* 8 num-rem-bytes) 8)]
+                         (if (zero? shift)
+                           "((long)bb.get() & 0xffL)"
+                           (format "(((long)bb.get() & 0xffL) << %d)" shift)))]
+        (concat full-words
+                [(format "    final long w%d = %s;" num-full-words
+                         (str/join "\n      | " (concat int-part byte-parts)))])))))
+
+(defn- value-expr
+  "Returns the expression for the i-th value of an octuplet packed at width, as an int if num-bits is 32 or as
+  a long if num-bits is 64."
+  [i width num-bits]
+  (let [bit-offset (* i width)
+        k (quot bit-offset 64)
+        shift (rem bit-offset 64)
+        src (if (zero? shift) (format "w%d" k) (format "(w%d >>> %d)" k shift))
+        src (if (> (+ shift width) 64)
+              (format "(%s | (w%d << %d))" src (inc k) (- 64 shift))
+              src)
+        mask (format "0x%xL" (.subtract (.shiftLeft BigInteger/ONE width) BigInteger/ONE))]
+    (if (= num-bits 32)
+      (if (= width 32)
+        (str "(int)" src)
+        (format "(int)(%s & %s)" src mask))
+      (if (= width 64)
+        src
+        (format "%s & %s" src mask)))))
+
+(defn- unpackers [num-bits]
+  (let [t (if (= num-bits 32) "int" "long")
+        suffix (if (= num-bits 32) "Ints" "Longs")
+        dispatch (concat
+                  [(format (str "  static void unpack%s(final ByteBuffer bb, final %s[] values, final int offset,"
+                                " final int numOctuplets,")
+                           suffix t)
+                   (format "  %s final int width) {" (apply str (repeat (count (str "static void unpack" suffix))
+                                                                        \space)))
+                   "    final int end = offset + 8 * numOctuplets;"
+                   "    switch (width) {"]
+                  (for [w (range 1 (inc num-bits))]
+                    (format "    case %d: for (int i=offset; i<end; i+=8) { unpack%s%d(bb, values, i); } break;"
+                            w suffix w))
+                  ["    default: throw new IllegalArgumentException(String.format(\"Invalid bit width %d\", width));"
+                   "    }"
+                   "  }"])
+        cases (for [w (range 1 (inc num-bits))]
+                (concat
+                 [(format "  private static void unpack%s%d(final ByteBuffer bb, final %s[] values, final int i) {"
+                          suffix w t)]
+                 (word-loads w)
+                 (for [i (range 8)]
+                   (format "    values[i%s] = %s;" (if (zero? i) "" (str "+" i)) (value-expr i w num-bits)))
+                 ["  }"]))]
+    (cons dispatch cases)))
+
+(defn generate []
+  (str license-header
+       "\n"
+       "package dendrite.java;\n"
+       "\n"
+       "import java.nio.ByteBuffer;\n"
+       "\n"
+       "// Unrolled unpackers for octuplets of bit-packed values, one per bit width. Eight values packed at width w\n"
+       "// occupy exactly w bytes, so each unpacker loads its input as little-endian 64-bit words and extracts every\n"
+       "// value with constant shifts and masks. This file is generated by scripts/gen_bit_packing.clj; edit the\n"
+       "// generator, not the cases.\n"
+       "final class BitPacking {\n"
+       "\n"
+       (->> (concat (unpackers 32) (unpackers 64))
+            (map #(str/join "\n" %))
+            (str/join "\n\n"))
+       "\n}\n"))
+
+(print (generate))
+(flush)
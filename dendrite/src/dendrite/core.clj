@@ -14,6 +14,7 @@
             [clojure.java.io :as io]
             [clojure.pprint :as pprint])
   (:import (dendrite.java Col
+                          Columns$Repeated
                           FileReader
                           FileWriter
                           FilesReader
@@ -23,6 +24,7 @@
                           PersistentRecord
                           Schema
                           Types
+                          Utf8String
                           View)
            (java.nio ByteBuffer))
   (:refer-clojure :exclude [read eduction]))
@@ -74,6 +76,10 @@
   (kv-reduce [amap f init]
     (.kvreduce amap f init)))
 
+(defmethod print-method Utf8String
+  [v ^java.io.Writer w]
+  (print-method (str v) w))
+
 (defn pprint
   "Pretty-prints the schema."
   [schema]
@@ -104,17 +110,49 @@
   transducers such as `partition-all` or `distinct`. However, stateless transducers such as `map` or
   `filter` will produce the expected result.
 
+  The writer is thread-safe. Each writing thread fills its own batches of records, which are striped in
+  parallel and merged into the record groups, so records written by the same thread keep their relative order.
+  All writing threads should be done before the writer is closed.
+
   If provided, the options map supports the following keys:
 
   :data-page-length         The length in bytes of the data pages (default 262144)
 
-  :record-group-length      The length in bytes of each record group (default 134217728)
+  :record-group-length      The length in bytes of each record group (default 134217728). It may exceed 2 GB,
+                            but each column chunk must stay under 2 GB.
 
   :optimize-columns?        Either :all, :none or :default. If :all, will attempt to optimize the
                             encoding and compression for each column; if :default, will only optimize
                             columns with the default encoding & compression (i.e., plain/none); if :none,
                             disables all optimization.
 
+  :optimization-sample-length
+                            The length in bytes of plain-encoded data to collect before choosing the
+                            encoding and compression of the optimized columns. The rest of the first
+                            record group is then encoded directly, which avoids buffering and re-encoding
+                            all of it. Default: the record group length
+
+  :revalidation-interval    The chosen encodings and compressions are reused across record groups. If
+                            positive, each optimized column is re-optimized, from a new sample, after this
+                            many record groups. Default: 0 (never)
+
+  :revalidation-threshold   If set to a number greater than 1, an optimized column is also re-optimized as
+                            soon as its length per record drifts by more than this factor from that of the
+                            first record group written with its current encoding. Default: nil (never)
+
+  :spill-directory          If set, finished data pages are written to a temporary file in this directory
+                            instead of being held in memory until the end of the record group. The column
+                            chunks are then copied from it into the output file. This bounds the writer's
+                            memory usage independently of the record group length. Default: nil
+
+  :pending-record-groups    The number of finished record groups that may be compressed and written to the file
+                            by background threads while the next one is being accumulated. Set to 0 to write
+                            each record group before starting the next. Default: 1
+
+  :off-heap?                If true, finished data pages are buffered in direct (off-heap) memory instead of on
+                            the JVM heap. The buffers are reused across record groups and freed when the writer
+                            is closed. Default: false
+
   :compression-thresholds   A map of compression method (e.g., deflate) to the minimum compression ratio
                             (e.g., 2) below which the overhead of compression is not not deemed worthwhile.
                             Default: {'deflate 1.5}
@@ -128,7 +166,16 @@
 
   :ignore-extra-fields?     If true (default), ignore record fields that are not part of the schema upon
                             writing to file. If false, will throw an exception if a record contains a field
-                            not defined in the schema."
+                            not defined in the schema. Plain Java objects are never checked for extra fields.
+
+  :shared-dictionaries?     If true, the dictionaries of dictionary-encoded columns are frozen at the end of
+                            the first record group and stored once in the file metadata. Subsequent record
+                            groups only store the values that are missing from it. Default: false
+
+  :max-dictionary-length    The maximum length in bytes of the dictionary of a dictionary-encoded column
+                            chunk. Once reached, the rest of the column chunk is written with plain-encoded
+                            pages. This bounds the writer's memory when a column turns out to have many more
+                            distinct values than expected. Default: 1048576"
   (^dendrite.java.FileWriter [schema file] (file-writer nil schema file))
   (^dendrite.java.FileWriter [opts schema file] (file-writer opts nil schema file))
   (^dendrite.java.FileWriter [opts xform schema file]
@@ -139,11 +186,55 @@
   [^FileWriter writer metadata]
   (.setMetadata writer (-> metadata pr-str Types/toByteArray ByteBuffer/wrap)))
 
+(defn write-columns!
+  "Writes a batch of records given in columnar form, bypassing the striping of records into columns. This is
+  much faster when the data is already column-oriented, e.g., when converting from another columnar format.
+
+  The columns argument is a map of column path to column values. Column paths are vectors of the keys leading
+  to the column in the schema, with nil standing for each repeated level (e.g., [:name :first] or
+  [:emails nil]), and all the columns of the schema must be present. The values of a non-repeated column are
+  given as a vector, list, or array with one value per record (nil for missing values). Primitive arrays
+  (e.g., long-array) are written as-is to columns of the same primitive type. The values of a repeated column
+  are given as a map with the following keys:
+
+  :repetition-levels        The repetition level of each leveled value of the column
+
+  :definition-levels        The definition level of each leveled value of the column
+
+  :values                   The non-nil values, one per definition level equal to the column's maximum
+                            definition level
+
+  The writer's transducer and :invalid-input-handler do not apply to columnar writes."
+  [^FileWriter writer columns]
+  (->> (.getColumnPaths writer)
+       (map (fn [path]
+              (let [v (get columns path ::missing)]
+                (cond
+                  (identical? v ::missing)
+                  (throw (IllegalArgumentException. (format "Missing values for column at path %s." path)))
+                  (map? v)
+                  (Columns$Repeated. (int-array (:repetition-levels v))
+                                     (int-array (:definition-levels v))
+                                     (:values v))
+                  :else v))))
+       (into-array Object)
+       (.writeColumns writer)))
+
 (defn file-reader
   "Returns a dendrite reader for the provided file.
 
   If provided, the options map supports the following keys:
-  :custom-types  - a list of custom-type specifications. Default: nil. See docs for full explanation."
+  :custom-types  - a list of custom-type specifications. Default: nil. See docs for full explanation.
+  :zero-copy?    - set to true or false (default). If true, byte-array and fixed-length-byte-array values are
+                   read as java.nio.ByteBuffer slices of the underlying page instead of being copied into
+                   fresh byte arrays. Byte-buffer values are also slices, and strings are read as
+                   dendrite.java.Utf8String objects that only decode their UTF-8 bytes when first converted
+                   to a string, and support equality, comparison, and prefix tests on the raw bytes. These
+                   slices should be treated as read-only.
+  :unmap-record-groups?
+                 - set to true or false (default). If true, each record group's memory mapping is released as
+                   soon as it has been read in full, instead of when it is garbage-collected. Cannot be combined
+                   with :zero-copy?, as zero-copy values would point to unmapped memory."
   (^dendrite.java.FileReader [file] (file-reader nil file))
   (^dendrite.java.FileReader [opts file]
    (FileReader/create (Options/getReaderOptions opts) (io/as-file file))))
@@ -160,7 +251,9 @@
   "Returns a map containing all the stats associated with this reader. The tree top-level keys
   are :global, :record-groups, and :columns, that, respectively, contain stats summed over the entire file,
   summed across all column-chunks in the same record-groups, and summed across all column-chunks belonging to
-  the same column."
+  the same column. The :column-chunk-encodings and :column-chunk-compressions of each column list, for each
+  record-group, the encoding and compression of its column-chunk, which differ from the schema's for
+  column-chunks that were re-optimized."
   [^FileReader reader]
   (.getStats reader))
 
@@ -225,7 +318,12 @@
                            explanation.
 
   :readers                 A map of query tag symbol to tag function. Default: nil. See docs for full
-                           explanation."
+                           explanation.
+
+  :lazy-records?           Set to true or false (default). If true, the fields of top-level records are only
+                           assembled when they are first accessed. This can save a lot of assembly work when
+                           only a few fields of each record are used downstream. Fields with tagged reader
+                           functions are always assembled eagerly."
   (^dendrite.java.View [^IReader reader] (read nil reader))
   (^dendrite.java.View [opts ^IReader reader] (.read reader (Options/getReadOptions opts))))
 
@@ -15,8 +15,10 @@
             [dendrite.core :as d]
             [dendrite.dremel-paper-examples :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java Schema]
-           [java.util Date Calendar]))
+  (:import [dendrite.java Schema Types Utf8String]
+           [java.math BigDecimal]
+           [java.nio ByteBuffer]
+           [java.util Date Calendar UUID]))
 
 (set! *warn-on-reflection* true)
 
@@ -56,7 +58,41 @@
     (testing "one field"
       (is (= (map #(select-keys % [:docid]) records)
              (with-open [r (d/file-reader tmp-filename)]
-               (doall (d/read {:query {:docid '_}} r))))))))
+               (doall (d/read {:query {:docid '_}} r))))))
+    (testing "lazy records"
+      (is (= records (with-open [r (d/file-reader tmp-filename)]
+                       (doall (d/read {:lazy-records? true} r)))))
+      (is (= (map :name records)
+             (with-open [r (d/file-reader tmp-filename)]
+               (doall (map :name (d/read {:lazy-records? true} r))))))
+      (is (= (with-open [r (d/file-reader tmp-filename)]
+               (into [] (map :docid) (d/sample even? (d/read {:lazy-records? true} r))))
+             (with-open [r (d/file-reader tmp-filename)]
+               (into [] (map :docid) (d/sample even? (d/read r)))))))))
+
+(deftest lazy-records-defer-assembly
+  (let [num-calls (atom 0)
+        custom-types [{:type 'counted-date
+                       :base-type 'long
+                       :to-base-type-fn #(.getTime ^Date %)
+                       :from-base-type-fn (fn [t] (swap! num-calls inc) (Date. (long t)))}]
+        records (for [i (range 100)] {:docid i :at (Date. (long (* i 1000003)))})]
+    (with-open [w (d/file-writer {:custom-types custom-types} {:docid 'long :at 'counted-date} tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader {:custom-types custom-types} tmp-filename)]
+      (testing "eager records assemble every field"
+        (doall (d/read r))
+        (is (= 100 @num-calls)))
+      (reset! num-calls 0)
+      (let [lazy-records (doall (d/read {:lazy-records? true} r))]
+        (testing "lazy records don't assemble fields that are not accessed"
+          (is (= (range 100) (map :docid lazy-records)))
+          (is (zero? @num-calls)))
+        (testing "lazy records assemble fields once, when they are first accessed"
+          (is (= (map :at records) (map :at lazy-records)))
+          (is (= 100 @num-calls))
+          (doall (map :at lazy-records))
+          (is (= 100 @num-calls)))))))
 
 (deftest empty-file-write-read
   (.close (d/file-writer (Schema/readString helpers/test-schema-str) tmp-filename))
@@ -79,6 +115,14 @@
       (is (= records (with-open [r (d/file-reader tmp-filename)]
                        (doall (d/read r))))))))
 
+(deftest decimal-encoded-bigdecs
+  (let [records (concat (repeatedly 1000 #(BigDecimal/valueOf (long (helpers/rand-long)) 3))
+                        (repeatedly 10 #(helpers/rand-bigdec 100)))]
+    (with-open [w (d/file-writer (d/col 'bigdec 'decimal) tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader tmp-filename)]
+      (is (= records (d/read r))))))
+
 (deftest flat-repeated-type-write-read
   (testing "repeated optional base type"
     (let [records (->> (repeatedly #(rand-int 100)) (helpers/rand-map 0.1 (constantly nil))
@@ -143,7 +187,7 @@
     (with-open [r (d/file-reader tmp-filename)]
       (testing "schema is indeed optimized"
         (is (= (str "#req "
-                    "{:docid #req #col [long delta],"
+                    "{:docid #req #col [long delta-of-delta],"
                     " :links {:backward (long), :forward #req [long]},"
                     " :name [{:language [{:code #req #col [string dictionary],"
                     " :country #col [string dictionary]}],"
@@ -193,6 +237,25 @@
     (is (thrown-with-msg? IllegalStateException #"target/foo.den is not a valid dendrite file."
                           (with-open [f (d/file-reader tmp-filename)])))))
 
+;; test-resources/baseline.den was written before the footer format was versioned, using
+;; {:record-group-length 4096}, the schema below, and (map baseline-record (range 10000)).
+(def ^:private baseline-filename "test-resources/baseline.den")
+
+(defn- baseline-record [i]
+  (cond-> {:id i :score (/ i 4.0) :tags (mapv #(keyword (str "t" %)) (range (mod i 4)))}
+    (pos? (mod i 5)) (assoc :name (str "name-" (mod i 37)))))
+
+(deftest baseline-files
+  (testing "files written in the version 1 footer format remain readable"
+    (with-open [r (d/file-reader baseline-filename)]
+      (is (= {:id (d/req 'long) :name 'string :tags ['keyword] :score 'double} (d/schema r)))
+      (is (= {:written-by "baseline"} (d/metadata r)))
+      (is (= 9 (-> r d/stats :global :num-record-groups)))
+      (is (= 10000 (d/num-records r)))
+      (is (= (map baseline-record (range 10000)) (d/read r)))
+      (is (= (map #(select-keys (baseline-record %) [:id :name]) (range 10000))
+             (d/read {:query {:id '_ :name '_}} r))))))
+
 (deftest record-group-lengths
   (let [records (take 15000 (helpers/rand-test-records))]
     (letfn [(avg-record-group-length [target-length]
@@ -208,6 +271,100 @@
         (is (= records (with-open [r (d/file-reader tmp-filename)]
                          (doall (d/read r)))))))))
 
+(deftest shared-dictionaries
+  (let [records (take 15000 (helpers/rand-test-records))]
+    (letfn [(file-length [opts]
+              (with-open [w (d/file-writer (merge {:record-group-length (* 100 1024)} opts)
+                                           (Schema/readString helpers/test-schema-str)
+                                           tmp-filename)]
+                (.writeAll w records))
+              (.length (io/file tmp-filename)))]
+      (let [unshared-length (file-length {})
+            shared-length (file-length {:shared-dictionaries? true})]
+        (testing "dictionaries are only written once"
+          (is (< shared-length unshared-length)))
+        (with-open [r (d/file-reader tmp-filename)]
+          (testing "file has multiple record groups"
+            (is (> (-> r d/stats :global :num-record-groups) 1)))
+          (testing "full schema"
+            (is (= records (d/read r))))
+          (testing "one field"
+            (is (= (map :meta records)
+                   (map :meta (d/read {:query {:meta '_}} r))))))))))
+
+(deftest optimization-sampling
+  (let [records (take 5000 (helpers/rand-test-records))]
+    (with-open [w (d/file-writer {:optimize-columns? :all :optimization-sample-length 8192}
+                                 (Schema/readString helpers/test-schema-str)
+                                 tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader tmp-filename)]
+      (testing "encodings are chosen from the sample"
+        (is (re-find #"\[string dictionary\]" (str (d/full-schema r)))))
+      (testing "file has a single record group"
+        (is (= 1 (-> r d/stats :global :num-record-groups))))
+      (testing "full schema"
+        (is (= records (d/read r)))))))
+
+(deftest revalidation
+  (let [records (take 5000 (helpers/rand-test-records))]
+    (with-open [w (d/file-writer {:optimize-columns? :all
+                                  :record-group-length (* 32 1024)
+                                  :optimization-sample-length (* 8 1024)
+                                  :revalidation-interval 2
+                                  :revalidation-threshold 1.5
+                                  :shared-dictionaries? true}
+                                 (Schema/readString helpers/test-schema-str)
+                                 tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader tmp-filename)]
+      (testing "file has multiple record groups"
+        (is (> (-> r d/stats :global :num-record-groups) 2)))
+      (testing "full schema"
+        (is (= records (d/read r))))
+      (testing "one field"
+        (is (= (map :docid records)
+               (map :docid (d/read {:query {:docid '_}} r))))))))
+
+(deftest column-chunk-encodings
+  (let [records (map #(hash-map :x %) (concat (repeatedly 20000 helpers/rand-long) (range 20000)))]
+    (with-open [w (d/file-writer {:optimize-columns? :all
+                                  :compression-thresholds {}
+                                  :record-group-length (* 32 1024)
+                                  :revalidation-interval 1}
+                                 {:x 'long}
+                                 tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader tmp-filename)]
+      (let [{:keys [encoding column-chunk-encodings column-chunk-compressions]} (-> r d/stats :columns first)]
+        (testing "stats report the encoding of each column chunk"
+          (is (= (-> r d/stats :global :num-record-groups) (count column-chunk-encodings)))
+          (is (= encoding (first column-chunk-encodings)))
+          (is (= 'delta-of-delta (last column-chunk-encodings)))
+          (is (every? #{'none} column-chunk-compressions)))
+        (testing "full schema"
+          (is (= records (d/read r))))))))
+
+(deftest spilled-record-groups
+  (let [records (take 5000 (helpers/rand-test-records))
+        spill-files #(filter (fn [^java.io.File f] (.endsWith (.getName f) ".spill"))
+                             (.listFiles (io/file "target")))]
+    (with-open [w (d/file-writer {:record-group-length (* 64 1024)
+                                  :data-page-length 1024
+                                  :spill-directory "target"}
+                                 (Schema/readString helpers/test-schema-str)
+                                 tmp-filename)]
+      (.writeAll w records)
+      (testing "pages are spilled while writing, to one file per record group in flight"
+        (is (<= 1 (count (spill-files)) 2))))
+    (testing "spill file is deleted on close"
+      (is (empty? (spill-files))))
+    (with-open [r (d/file-reader tmp-filename)]
+      (testing "file has multiple record groups"
+        (is (> (-> r d/stats :global :num-record-groups) 1)))
+      (testing "full schema"
+        (is (= records (d/read r)))))))
+
 (defn- throw-foo-fn [& args] (throw (Exception. "foo")))
 
 (deftest errors
@@ -390,6 +547,45 @@
       (is (= {'test-type 'long} (with-open [r (d/file-reader tmp-filename)]
                                   (d/custom-types r)))))))
 
+(deftest zero-copy-reads
+  (let [records (for [i (range 1000)]
+                  {:plain (str "foo" i)
+                   :incremental (str "bar" (quot i 10))
+                   :delta-length (str "baz" (rand-int 10))
+                   :dictionary (str "qux" (rand-int 10))
+                   :bytes (byte-array [1 2 (mod i 128)])
+                   :byte-buffer (ByteBuffer/wrap (byte-array [3 4 (mod i 128)]))
+                   :keyword (keyword (str "k" (mod i 3)))
+                   :uuid (UUID/randomUUID)})
+        schema {:plain (d/col 'string 'plain)
+                :incremental (d/col 'string 'incremental)
+                :delta-length (d/col 'string 'delta-length)
+                :dictionary (d/col 'string 'dictionary)
+                :bytes (d/col 'byte-array 'delta-length)
+                :byte-buffer 'byte-buffer
+                :keyword 'keyword
+                :uuid 'uuid}
+        normalize (fn [record]
+                    (-> record
+                        (update :bytes seq)
+                        (update :byte-buffer #(seq (Types/toByteArray ^ByteBuffer %)))))]
+    (with-open [w (d/file-writer {:compression-thresholds {}} schema tmp-filename)]
+      (.writeAll w records))
+    (with-open [r (d/file-reader {:zero-copy? true} tmp-filename)]
+      (let [zero-copy-records (doall (d/read r))]
+        (testing "strings are lazily decoded"
+          (is (every? #(instance? Utf8String %)
+                      (mapcat (juxt :plain :incremental :delta-length :dictionary) zero-copy-records))))
+        (testing "byte-arrays are read as byte-buffers"
+          (is (every? #(instance? ByteBuffer %) (map :bytes zero-copy-records))))
+        (testing "values are the same"
+          (is (= (map normalize records)
+                 (->> zero-copy-records
+                      (map (fn [record]
+                             (reduce #(update %1 %2 str) record [:plain :incremental :delta-length :dictionary])))
+                      (map #(update % :bytes (fn [bb] (Types/toByteArray ^ByteBuffer bb))))
+                      (map normalize)))))))))
+
 (deftest view-sampling
   (testing "dremel paper records"
     (.close (dremel-paper-writer))
@@ -556,3 +752,100 @@
     (is (= (eduction xform records)
            (with-open [r (d/file-reader tmp-filename)]
              (doall (d/read r)))))))
+
+(deftest pipelined-record-groups
+  (let [records (take 5000 (helpers/rand-test-records))
+        file-bytes (fn [opts]
+                     (with-open [w (d/file-writer (merge {:record-group-length (* 4 1024)} opts)
+                                                  (Schema/readString helpers/test-schema-str)
+                                                  tmp-filename)]
+                       (.writeAll w records))
+                     (seq (java.nio.file.Files/readAllBytes (.toPath (io/file tmp-filename)))))
+        sequential-bytes (file-bytes {:pending-record-groups 0})
+        pipelined-bytes (file-bytes {:pending-record-groups 4})
+        shared-bytes (file-bytes {:pending-record-groups 4 :shared-dictionaries? true})]
+    (testing "record groups are written in order regardless of the number in flight"
+      (is (= sequential-bytes pipelined-bytes)))
+    (testing "shared dictionaries are carried over before the previous record group is finished"
+      (is (< (count shared-bytes) (count pipelined-bytes))))
+    (with-open [r (d/file-reader tmp-filename)]
+      (testing "file has multiple record groups"
+        (is (> (-> r d/stats :global :num-record-groups) 4)))
+      (testing "full schema"
+        (is (= records (d/read r)))))))
+
+(deftest off-heap-record-groups
+  (let [records (take 5000 (helpers/rand-test-records))
+        file-bytes (fn [opts]
+                     (with-open [w (d/file-writer (merge {:record-group-length (* 16 1024)
+                                                          :data-page-length 1024}
+                                                         opts)
+                                                  (Schema/readString helpers/test-schema-str)
+                                                  tmp-filename)]
+                       (.writeAll w records))
+                     (seq (java.nio.file.Files/readAllBytes (.toPath (io/file tmp-filename)))))
+        on-heap-bytes (file-bytes {:revalidation-interval 2})]
+    (testing "buffering pages off-heap doesn't change the file"
+      (is (= on-heap-bytes (file-bytes {:off-heap? true :revalidation-interval 2}))))
+    (with-open [r (d/file-reader {:unmap-record-groups? true} tmp-filename)]
+      (testing "file has multiple record groups"
+        (is (> (-> r d/stats :global :num-record-groups) 2)))
+      (testing "record groups are unmapped once read"
+        (is (= records (d/read r)))
+        (is (= records (d/read r)))
+        (is (= (map :docid records) (map :docid (d/read {:query {:docid '_}} r))))
+        (is (= (take 10 records) (take 10 (d/read r))))))))
+
+(deftest concurrent-writes
+  (let [num-threads 4
+        num-records-per-thread 5000]
+    (with-open [w (d/file-writer {:record-group-length (* 16 1024)} {:thread 'long :seq 'long} tmp-filename)]
+      (->> (range num-threads)
+           (map (fn [t] (future (dotimes [i num-records-per-thread]
+                                  (.write w {:thread t :seq i})))))
+           doall
+           (run! deref)))
+    (with-open [r (d/file-reader tmp-filename)]
+      (let [records (d/read r)]
+        (testing "all records are written"
+          (is (= (* num-threads num-records-per-thread) (count records))))
+        (testing "records written by the same thread keep their relative order"
+          (is (every? (fn [[_ thread-records]] (= (range num-records-per-thread) (map :seq thread-records)))
+                      (group-by :thread records))))))))
+
+(deftest columnar-writes
+  (let [schema {:id 'long :name 'string :tags ['string]}
+        records (for [i (range 1000)]
+                  (cond-> {:id i}
+                    (even? i) (assoc :name (str "name-" i))
+                    (pos? (mod i 3)) (assoc :tags (repeatedly (mod i 4) #(when (pos? (rand-int 5))
+                                                                            (str (rand-int 10)))))))
+        tags-levels (for [{:keys [tags] :as record} records
+                          [j tag] (cond (not (contains? record :tags)) [[-1 nil]]
+                                        (empty? tags) [[-2 nil]]
+                                        :else (map-indexed vector tags))]
+                      [(if (pos? j) 1 0) (case j -1 1 -2 2 (if tag 4 3)) tag])
+        read-file #(with-open [r (d/file-reader tmp-filename)]
+                     (doall (d/read r)))
+        expected (do (with-open [w (d/file-writer schema tmp-filename)]
+                       (.writeAll w records))
+                     (read-file))]
+    (with-open [w (d/file-writer schema tmp-filename)]
+      (d/write-columns! w {[:id] (long-array (map :id records))
+                           [:name] (mapv :name records)
+                           [:tags nil] {:repetition-levels (map first tags-levels)
+                                        :definition-levels (map second tags-levels)
+                                        :values (keep last tags-levels)}}))
+    (testing "columnar writes produce the same records as striped writes"
+      (is (= expected (read-file))))
+    (testing "primitive arrays must match the column type"
+      (is (thrown? Exception (with-open [w (d/file-writer schema tmp-filename)]
+                               (d/write-columns! w {[:id] (double-array [1.0])
+                                                    [:name] ["foo"]
+                                                    [:tags nil] {:repetition-levels [0]
+                                                                 :definition-levels [1]
+                                                                 :values []}})))))
+    (testing "all columns must be present"
+      (is (thrown-with-msg? IllegalArgumentException #"Missing values for column at path \[:name\]"
+                            (with-open [w (d/file-writer schema tmp-filename)]
+                              (d/write-columns! w {[:id] (long-array [1])})))))))
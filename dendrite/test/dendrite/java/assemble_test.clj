@@ -134,3 +134,24 @@
         nil identity
         {:links {:foo {:bar 2}}} (constantly 2)
         {:links {:foo {:bar 0}}} count))))
+
+(defn lazy-assemble [leveled-values query-result]
+  (.invoke (Assemble/getLazyFn helpers/default-types (.schema ^Schema$QueryResult query-result))
+           (helpers/as-list-iterators leveled-values)))
+
+(deftest lazy-records
+  (testing "full schema"
+    (is (= dremel-paper-record1 (lazy-assemble dremel-paper-record1-striped dremel-paper-full-query-schema)))
+    (is (= dremel-paper-record2 (lazy-assemble dremel-paper-record2-striped dremel-paper-full-query-schema)))
+    (is (= test-record (lazy-assemble test-record-striped
+                                      (Schema/applyQuery helpers/default-types true {} test-schema '_)))))
+  (testing "nil fields are not present"
+    (let [query-result (Schema/applyQuery helpers/default-types true {} test-schema {:docid '_ :name '_})
+          stripes [10 [(LeveledValue. 0 0 nil)] [(LeveledValue. 0 0 nil)] [(LeveledValue. 0 0 nil)]]]
+      (is (= {:docid 10} (lazy-assemble stripes query-result)))))
+  (testing "tagged fields"
+    (let [query {:docid '_ :links (Schema/tag 'foo '_)}
+          stripes (mapv (partial aget test-record-striped) [0 1 2])]
+      (is (= {:docid 10 :links 2}
+             (lazy-assemble stripes (Schema/applyQuery helpers/default-types true {'foo count} test-schema
+                                                       query)))))))
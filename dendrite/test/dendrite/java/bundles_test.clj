@@ -10,8 +10,10 @@
 
 (ns dendrite.java.bundles-test
   (:require [clojure.test :refer :all]
+            [dendrite.dremel-paper-examples :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java Assemble$Fn Bundle Bundle$Factory Schema$Column Stripe$Fn]
+  (:import [dendrite.java Assemble$Fn Bundle Bundle$Factory Columns Columns$Repeated LeveledValue Schema
+            Schema$Column Stripe$Fn]
            [java.util Arrays Iterator List]))
 
 (set! *warn-on-reflection* true)
@@ -93,3 +95,32 @@
             record (vec (repeatedly num-columns helpers/rand-int))]
         (.invoke stripe record array)
         (is (= record (.invoke assemble (helpers/as-list-iterators array))))))))
+
+(deftest columnar-bundles
+  (helpers/with-in-column-logical-types
+    (let [columns (Schema/getColumns dremel-paper-schema)
+          paths (Schema/getPaths dremel-paper-schema)
+          striped [dremel-paper-record1-striped dremel-paper-record2-striped]
+          ->repeated (fn [records-leveled-values]
+                       (let [leveled-values (apply concat records-leveled-values)]
+                         (Columns$Repeated. (int-array (map #(.repetitionLevel ^LeveledValue %) leveled-values))
+                                            (int-array (map #(.definitionLevel ^LeveledValue %) leveled-values))
+                                            (keep #(.value ^LeveledValue %) leveled-values))))
+          column-values (->> (range 1 (count columns))
+                             (map (fn [i] (->repeated (map #(nth % i) striped))))
+                             (cons (long-array (map first striped)))
+                             (into-array Object))
+          to-bundle #(Columns/toBundle helpers/default-types columns paths %)]
+      (testing "columnar input is converted to the same bundle as striped records"
+        (is (= (seq (.create (Bundle$Factory. columns) 2 (into-array List (apply map list striped))))
+               (seq (to-bundle column-values)))))
+      (testing "invalid columnar input"
+        (is (thrown-with-msg? IllegalArgumentException #"cannot be written from a int array"
+                              (to-bundle (doto (aclone ^objects column-values) (aset 0 (int-array [1 2]))))))
+        (is (thrown-with-msg? IllegalArgumentException #"Required value at path '\[:docid\]' is missing"
+                              (to-bundle (doto (aclone ^objects column-values) (aset 0 [1 nil])))))
+        (is (thrown-with-msg? IllegalArgumentException #"has 2 records but expected 3"
+                              (to-bundle (doto (aclone ^objects column-values) (aset 0 [1 2 3])))))
+        (is (thrown-with-msg? IllegalArgumentException #"definition levels call for"
+                              (to-bundle (doto (aclone ^objects column-values)
+                                           (aset 1 (Columns$Repeated. (int-array [0]) (int-array [4]) []))))))))))
@@ -11,7 +11,8 @@
 (ns dendrite.java.bytes-test
   (:require [clojure.test :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java Bytes MemoryOutputStream]
+  (:import [dendrite.java Bytes MemoryOutputStream SegmentedBuffer SegmentedBuffer$Pool Utils]
+           [java.io File]
            [java.nio ByteBuffer]))
 
 (set! *warn-on-reflection* true)
@@ -36,6 +37,22 @@
           read-ints (write-read #(Bytes/writeFixedInt %1 %2) #(Bytes/readFixedInt %) rand-ints)]
       (is (= read-ints rand-ints)))))
 
+(deftest read-write-fixed-ints
+  (testing "writeFixedInts/readFixedInts"
+    (let [rand-ints (int-array (repeatedly 100 helpers/rand-int))
+          mos (doto (MemoryOutputStream. 10)
+                (Bytes/writeFixedInt 1)
+                (Bytes/writeFixedInts rand-ints 10 80))
+          bb (.toByteBuffer mos)
+          read-ints (int-array 100)]
+      (is (= 1 (Bytes/readFixedInt bb)))
+      (Bytes/readFixedInts bb read-ints 5 80)
+      (is (= (->> rand-ints (drop 10) (take 80)) (->> read-ints (drop 5) (take 80))))
+      (is (zero? (.remaining bb)))))
+  (testing "readFixedInt on little-endian buffers"
+    (let [bb (.order (ByteBuffer/wrap (byte-array [1 0 0 0])) java.nio.ByteOrder/LITTLE_ENDIAN)]
+      (is (= 1 (Bytes/readFixedInt bb))))))
+
 (deftest read-write-uint
   (testing "writeUInt/readUInt"
     (let [rand-ints (repeatedly 100 helpers/rand-int)
@@ -66,6 +83,18 @@
           read-longs (write-read #(Bytes/writeFixedLong %1 %2) #(Bytes/readFixedLong %) rand-longs)]
       (is (= read-longs rand-longs)))))
 
+(deftest read-write-fixed-longs
+  (testing "writeFixedLongs/readFixedLongs"
+    (let [rand-longs (long-array (repeatedly 100 helpers/rand-long))
+          mos (doto (MemoryOutputStream. 10)
+                (Bytes/writeFixedInt 1)
+                (Bytes/writeFixedLongs rand-longs 0 100))
+          bb (.toByteBuffer mos)
+          read-longs (long-array 100)]
+      (is (= 1 (Bytes/readFixedInt bb)))
+      (Bytes/readFixedLongs bb read-longs 0 100)
+      (is (= (seq rand-longs) (seq read-longs))))))
+
 (deftest read-write-ulong
   (testing "writeULong/readULong"
     (let [rand-longs (repeatedly 100 helpers/rand-long)
@@ -121,6 +150,18 @@
           read-doubles (write-read #(Bytes/writeDouble %1 %2) #(Bytes/readDouble %) rand-doubles)]
       (is (= read-doubles rand-doubles)))))
 
+(deftest read-write-floats-and-doubles
+  (testing "writeFloats/readFloats"
+    (let [rand-floats (float-array (repeatedly 100 helpers/rand-float))
+          bb (.toByteBuffer (doto (MemoryOutputStream. 10) (Bytes/writeFloats rand-floats 0 100)))
+          read-floats (float-array 100)]
+      (Bytes/readFloats bb read-floats 0 100)
+      (is (= (seq rand-floats) (seq read-floats)))))
+  (testing "writeDoubles/readDoubles"
+    (let [rand-doubles (double-array (repeatedly 100 helpers/rand-double))
+          bb (.toByteBuffer (doto (MemoryOutputStream. 10) (Bytes/writeDoubles rand-doubles 0 100)))]
+      (is (= (seq rand-doubles) (repeatedly 100 #(Bytes/readDouble bb)))))))
+
 (deftest read-write-byte-arrays
   (testing "write/read byte arrays"
     (let [rand-byte-arrays (->> (repeatedly helpers/rand-byte) (partition 10) (map byte-array) (take 100))
@@ -157,7 +198,15 @@
                                            (Bytes/readPackedInts32 % ints width 8)
                                            ints)
                                         rand-int-arrays)]
-        (is (= (map seq read-int-arrays) (map seq rand-int-arrays)))))))
+        (is (= (map seq read-int-arrays) (map seq rand-int-arrays))))))
+
+  (testing "writePackedInts32/readPackedInts32 with partial octuplets and offsets"
+    (doseq [width (range 33)]
+      (let [rand-ints (int-array (repeatedly 80 #(helpers/rand-int-bits width)))
+            mos (doto (MemoryOutputStream. 10) (Bytes/writePackedInts32 rand-ints width 3 77))
+            read-ints (int-array 80)]
+        (Bytes/readPackedInts32 (.toByteBuffer mos) read-ints width 3 77)
+        (is (= (drop 3 rand-ints) (drop 3 read-ints)))))))
 
 (deftest read-write-packed-ints64
   (testing "packing numbers 0 through 7"
@@ -180,7 +229,15 @@
                                             (Bytes/readPackedInts64 % longs width 8)
                                             longs)
                                          rand-long-arrays)]
-        (is (= (map seq read-long-arrays) (map seq rand-long-arrays)))))))
+        (is (= (map seq read-long-arrays) (map seq rand-long-arrays))))))
+
+  (testing "writePackedInts64/readPackedInts64 with partial octuplets and offsets"
+    (doseq [width (range 65)]
+      (let [rand-longs (long-array (repeatedly 80 #(helpers/rand-long-bits width)))
+            mos (doto (MemoryOutputStream. 10) (Bytes/writePackedInts64 rand-longs width 3 77))
+            read-longs (long-array 80)]
+        (Bytes/readPackedInts64 (.toByteBuffer mos) read-longs width 3 77)
+        (is (= (drop 3 rand-longs) (drop 3 read-longs)))))))
 
 (deftest read-write-byte-arrays
   (testing "random byte arrays"
@@ -212,3 +269,57 @@
                                         byte-buffers)]
       (is (nil? (first read-byte-buffers)))
       (is (= (map helpers/byte-buffer->seq byte-buffers) (map helpers/byte-buffer->seq read-byte-buffers))))))
+
+(deftest segmented-buffers
+  (doseq [direct? [false true]]
+    (let [pool (SegmentedBuffer$Pool. 16 4 direct?)
+          sb (SegmentedBuffer. pool)
+          byte-arrays (repeatedly 10 #(byte-array (repeatedly (+ 10 (rand-int 20)) helpers/rand-byte)))
+          expected-bytes (mapcat seq byte-arrays)]
+      (doseq [^bytes bs byte-arrays]
+        (.write sb bs 0 (alength bs)))
+      (testing "length"
+        (is (= (count expected-bytes) (.getLength sb))))
+      (testing "slabs"
+        (is (= (quot (+ 15 (count expected-bytes)) 16) (count (.toByteBuffers sb))))
+        (is (= expected-bytes (mapcat helpers/byte-buffer->seq (.toByteBuffers sb)))))
+      (testing "contiguous copy"
+        (is (= expected-bytes (helpers/byte-buffer->seq (.toByteBuffer sb))))
+        (is (= expected-bytes (helpers/byte-buffer->seq (helpers/output-buffer->byte-buffer sb)))))
+      (testing "gathering writes"
+        (let [tmp-file (File. "target/segmented-buffer")]
+          (with-open [f (Utils/getWritingFileChannel tmp-file)]
+            (Utils/writeFully f (.toByteBuffers sb)))
+          (is (= expected-bytes
+                 (with-open [f (Utils/getReadingFileChannel tmp-file)]
+                   (helpers/byte-buffer->seq (Utils/mapFileChannel f 0 (.size f))))))
+          (.delete tmp-file)))
+      (testing "slabs are returned to the pool on reset"
+        (.reset sb)
+        (is (zero? (.getLength sb)))
+        (is (= 4 (.getNumPooledSlabs pool)))
+        (.write sb (byte-array 20) 0 20)
+        (is (= 2 (.getNumPooledSlabs pool)))
+        (is (= (repeat 20 0) (helpers/byte-buffer->seq (.toByteBuffer sb)))))
+      (testing "byte buffer writes"
+        (let [copy (SegmentedBuffer. pool)
+              bb (ByteBuffer/wrap (byte-array (range 40)) 3 30)]
+          (.write copy bb)
+          (.write copy (.toByteBuffer sb))
+          (is (= 3 (.position bb)))
+          (is (= (concat (range 3 33) (repeat 20 0)) (helpers/byte-buffer->seq (.toByteBuffer copy))))
+          (.reset copy)))
+      (testing "closing the pool drops its slabs and those released afterwards"
+        (.close pool)
+        (is (zero? (.getNumPooledSlabs pool)))
+        (.reset sb)
+        (is (zero? (.getNumPooledSlabs pool))))))
+  (testing "the default pool keeps no slabs"
+    (let [sb (doto (SegmentedBuffer.) (.write (byte-array 100) 0 100))]
+      (.reset sb)
+      (is (zero? (.getNumPooledSlabs SegmentedBuffer/defaultPool))))))
+
+(deftest free-direct-buffers
+  (is (Utils/freeDirectBuffer (ByteBuffer/allocateDirect 16)))
+  (is (not (Utils/freeDirectBuffer (ByteBuffer/allocate 16))))
+  (is (not (Utils/freeDirectBuffer nil))))
@@ -13,8 +13,10 @@
             [clojure.test :refer :all]
             [dendrite.test-helpers :as helpers :refer [leveled partition-by-record flatten-1]])
   (:import [dendrite.java LeveledValue ColumnChunks DataColumnChunk$Reader
-            DataColumnChunk$Writer IColumnChunkReader IColumnChunkWriter IPageHeader
-            OptimizingColumnChunkWriter Schema$Column Options Types]
+            DataColumnChunk$Writer DictionaryColumnChunk$Writer IColumnChunkReader IColumnChunkWriter IPageHeader
+            MemoryOutputStream OptimizingColumnChunkWriter Schema$Column SpillFile Options Types Utils]
+           [java.io File IOException]
+           [java.nio ByteBuffer]
            [java.text SimpleDateFormat]
            [java.util Date Calendar]))
 
@@ -109,6 +111,52 @@
         (is (helpers/roughly 1024 (avg-page-length 1024)))
         (is (helpers/roughly 256 (avg-page-length 256)))))))
 
+(deftest spilled-column-chunks
+  (doseq [encoding [Types/PLAIN Types/DICTIONARY]]
+    (let [column (column-repeated Types/INT encoding Types/DEFLATE)
+          input-values (->> (repeatedly #(helpers/rand-int-bits 10)) (rand-repeated-values column 1000))
+          tmp-file (File. "target/spilled-column-chunk")
+          write-column-chunk (fn [^SpillFile spill-file]
+                               (doto (ColumnChunks/createWriter types column 1024)
+                                 (.spillTo spill-file)
+                                 (.write input-values)))
+          ^IColumnChunkWriter in-memory-writer (write-column-chunk nil)
+          in-memory-bytes (helpers/byte-buffer->seq (.toByteBuffer in-memory-writer))]
+      (with-open [spill-file (SpillFile. (File. "target"))]
+        (let [^IColumnChunkWriter w (write-column-chunk spill-file)]
+          (testing "finished pages are written to the spill file"
+            (is (pos? (.getLength spill-file))))
+          (testing "spilled column chunks have the same bytes"
+            (is (= in-memory-bytes (helpers/byte-buffer->seq (.toByteBuffer w))))
+            (is (= (count in-memory-bytes) (.length (.getMetadata w)))))
+          (testing "spilled column chunks are stitched back together when written to a file"
+            (with-open [f (Utils/getWritingFileChannel tmp-file)]
+              (.writeTo w f))
+            (is (= in-memory-bytes
+                   (with-open [f (Utils/getReadingFileChannel tmp-file)]
+                     (helpers/byte-buffer->seq (Utils/mapFileChannel f 0 (.size f)))))))
+          (testing "reset"
+            (.reset w)
+            (.reset spill-file)
+            (.write w input-values)
+            (is (= input-values
+                   (flatten-1 (ColumnChunks/createReader types (.toByteBuffer w) (.getMetadata w) column
+                                                         100))))))
+        (.delete tmp-file)))))
+
+(deftest spill-file-short-reads
+  (with-open [spill-file (SpillFile. (File. "target"))]
+    (.append spill-file (ByteBuffer/wrap (byte-array 10)))
+    (testing "reading past the end of the spill file throws"
+      (is (thrown? IllegalStateException (.readInto spill-file 5 10 (MemoryOutputStream. 10)))))
+    (testing "transferring past the end of the spill file throws"
+      (let [tmp-file (File. "target/spill-file-short-transfer")]
+        (try
+          (with-open [f (Utils/getWritingFileChannel tmp-file)]
+            (is (thrown? IOException (.transferTo spill-file 5 10 f))))
+          (finally
+            (.delete tmp-file)))))))
+
 (deftest dictionary-column-chunk
   (let [column (column-repeated Types/INT Types/DICTIONARY Types/DEFLATE)
         input-values (->> (repeatedly #(helpers/rand-int-bits 10)) (rand-repeated-values column 1000))
@@ -132,7 +180,18 @@
               bb2 (helpers/output-buffer->byte-buffer w)]
           (is (= (-> bb1 .array seq) (-> bb2 .array seq))))))
     (testing "repeatable reads"
-      (is (= (seq reader) (seq reader))))))
+      (is (= (seq reader) (seq reader))))
+    (testing "fall back to plain pages when the dictionary grows too large"
+      (let [w (doto ^DictionaryColumnChunk$Writer (ColumnChunks/createWriter types column 1024)
+                (.setMaxDictionaryLength 256))]
+        (doseq [batch (partition-all 100 input-values)]
+          (.write w batch))
+        (let [metadata (.getMetadata w)
+              reader (ColumnChunks/createReader types (.toByteBuffer w) metadata column 100)]
+          (is (pos? (.numFallbackDataPages metadata)))
+          (is (< (.numFallbackDataPages metadata) (.numDataPages metadata)))
+          (is (= input-values (flatten-1 reader)))
+          (is (= (.remaining (.toByteBuffer w)) (.length metadata))))))))
 
 (deftest frequency-column-chunk
   (let [column (column-repeated Types/INT Types/FREQUENCY Types/DEFLATE)
@@ -238,6 +297,15 @@
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
       (is (= Types/VLQ (-> reader .getColumn .encoding)))))
+  (testing "small random ints with rare outliers"
+    (let [column (column-required Types/INT Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(helpers/rand-int-bits 3))
+                            (helpers/rand-map 0.01 (fn [_] (helpers/rand-int-bits 30)))
+                            (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/FRAME_OF_REFERENCE (-> reader .getColumn .encoding)))))
   (testing "small random signed ints with an occasional large one."
     (let [column (column-required Types/INT Types/PLAIN Types/NONE)
           input-values (->> (repeatedly #(helpers/rand-int-bits 7))
@@ -248,7 +316,7 @@
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/ZIG_ZAG (-> reader .getColumn .encoding)))))
+      (is (= Types/FRAME_OF_REFERENCE (-> reader .getColumn .encoding)))))
   (testing "small selection of chars"
     (let [column (column-required Types/CHAR Types/PLAIN Types/NONE)
           input-values (repeatedly 1000 #(rand-nth [\c \return \u1111]))
@@ -271,7 +339,16 @@
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/DELTA (-> reader .getColumn .encoding)))))
+      (is (= Types/FRAME_OF_REFERENCE (-> reader .getColumn .encoding)))))
+  (testing "small random longs with rare outliers"
+    (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(helpers/rand-long-bits 3))
+                            (helpers/rand-map 0.01 (fn [_] (helpers/rand-long)))
+                            (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/FRAME_OF_REFERENCE (-> reader .getColumn .encoding)))))
   (testing "small random unsigned longs with an occasional large one."
     (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
           input-values (->> (repeatedly #(helpers/rand-long-bits 7))
@@ -291,14 +368,21 @@
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/ZIG_ZAG (-> reader .getColumn .encoding)))))
+      (is (= Types/FRAME_OF_REFERENCE (-> reader .getColumn .encoding)))))
   (testing "increasing longs"
     (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
           input-values (->> (range) (map long) (take 1000))
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/DELTA (-> reader .getColumn .encoding)))))
+      (is (= Types/DELTA_OF_DELTA (-> reader .getColumn .encoding)))))
+  (testing "regularly sampled timestamps"
+    (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
+          input-values (->> (iterate #(+ % 60000) 1400000000000) (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/DELTA_OF_DELTA (-> reader .getColumn .encoding)))))
   (testing "increasing timestamps"
     (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
           input-values (repeatedly 1000 #(System/nanoTime))
@@ -312,7 +396,7 @@
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/DELTA (-> reader .getColumn .encoding)))))
+      (is (= Types/DELTA_OF_DELTA (-> reader .getColumn .encoding)))))
   (testing "small selection of random longs"
     (let [column (column-required Types/LONG Types/PLAIN Types/NONE)
           random-longs (repeatedly 100 helpers/rand-long)
@@ -355,6 +439,38 @@
       (is (= output-values input-values))
       (is (= Types/FREQUENCY (-> reader .getColumn .encoding))))))
 
+(deftest find-best-floating-point-encodings
+  (testing "slowly varying doubles without compression"
+    (let [column (column-required Types/DOUBLE Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(rand-int 3)) (reductions +) (map double) (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column types {} input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/XOR (-> reader .getColumn .encoding)))))
+  (testing "slowly varying floats without compression"
+    (let [column (column-required Types/FLOAT Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(rand-int 3)) (reductions +) (map float) (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column types {} input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/XOR (-> reader .getColumn .encoding)))))
+  (testing "compressible random walk of floats"
+    (let [column (column-required Types/FLOAT Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(- (rand) 0.5)) (reductions +) (map #(float (+ 1000 %))) (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column types {'deflate 1.0} input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/BYTE_STREAM_SPLIT (-> reader .getColumn .encoding)))
+      (is (= Types/DEFLATE (-> reader .getColumn .compression)))))
+  (testing "compressible random walk of doubles"
+    (let [column (column-required Types/DOUBLE Types/PLAIN Types/NONE)
+          input-values (->> (repeatedly #(- (rand) 0.5)) (reductions +) (map #(+ 1000.0 %)) (take 1000))
+          reader (write-optimized-column-chunk-and-get-reader column types {'deflate 1.0} input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/BYTE_STREAM_SPLIT (-> reader .getColumn .encoding)))
+      (is (= Types/DEFLATE (-> reader .getColumn .compression))))))
+
 (deftest find-best-double-encodings
   (testing "random doubles"
     (let [column (column-required Types/DOUBLE Types/PLAIN Types/NONE)
@@ -395,6 +511,15 @@
           output-values (flatten-1 reader)]
       (is (= (map helpers/byte-buffer->seq output-values) (map helpers/byte-buffer->seq input-values)))
       (is (= Types/DELTA_LENGTH (-> reader .getColumn .encoding)))))
+  (testing "urls"
+    (let [column (column-required Types/STRING Types/PLAIN Types/NONE)
+          input-values (repeatedly 1000 #(str "https://www.example.com/"
+                                              (rand-nth ["docs/" "blog/" "search?q="])
+                                              (helpers/rand-int)))
+          reader (write-optimized-column-chunk-and-get-reader column input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/FSST (-> reader .getColumn .encoding)))))
   (testing "random big ints"
     (let [column (column-required Types/BIGINT Types/PLAIN Types/NONE)
           input-values (repeatedly 1000 #(helpers/rand-bigint 100))
@@ -408,7 +533,14 @@
           reader (write-optimized-column-chunk-and-get-reader column input-values)
           output-values (flatten-1 reader)]
       (is (= output-values input-values))
-      (is (= Types/INCREMENTAL (-> reader .getColumn .encoding)))))
+      (is (= Types/FSST (-> reader .getColumn .encoding)))))
+  (testing "monetary amounts"
+    (let [column (column-required Types/BIGDEC Types/PLAIN Types/NONE)
+          input-values (repeatedly 1000 #(BigDecimal/valueOf (long (rand-int 1000000)) 2))
+          reader (write-optimized-column-chunk-and-get-reader column input-values)
+          output-values (flatten-1 reader)]
+      (is (= output-values input-values))
+      (is (= Types/DECIMAL (-> reader .getColumn .encoding)))))
   (testing "random ratios"
     (let [column (column-required Types/RATIO Types/PLAIN Types/NONE)
           input-values (repeatedly 1000 #(helpers/rand-ratio 40))
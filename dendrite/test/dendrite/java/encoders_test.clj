@@ -13,22 +13,30 @@
             [clojure.test :refer :all]
             [dendrite.test-helpers :as helpers])
   (:import [dendrite.java MemoryOutputStream Types
-            IEncoder IDecoder
+            IEncoder IDecoder IBooleanEncoder IIntEncoder ILongEncoder IFloatEncoder IDoubleEncoder
             BooleanPacked$Encoder BooleanPacked$Decoder
             IntPlain$Encoder IntPlain$Decoder
             IntVlq$Encoder IntVlq$Decoder
             IntZigZag$Encoder IntZigZag$Decoder
             IntFixedBitWidthPackedRunLength$Encoder IntFixedBitWidthPackedRunLength$Decoder
             IntPackedRunLength$Encoder IntPackedRunLength$Decoder
-            IntPackedDelta$Encoder IntPackedDelta$Decoder
+            IntPackedDelta$Encoder IntPackedDelta$Decoder IIntDecoder
+            IntFrameOfReference$Encoder IntFrameOfReference$Decoder
             LongPlain$Encoder LongPlain$Decoder
             LongVlq$Encoder LongVlq$Decoder
             LongZigZag$Encoder LongZigZag$Decoder
             LongPackedDelta$Encoder LongPackedDelta$Decoder
+            LongFrameOfReference$Encoder LongFrameOfReference$Decoder
+            LongDeltaOfDelta$Encoder LongDeltaOfDelta$Decoder
             FloatPlain$Encoder FloatPlain$Decoder DoublePlain$Encoder DoublePlain$Decoder
+            FloatXor$Encoder FloatXor$Decoder DoubleXor$Encoder DoubleXor$Decoder
+            FloatByteStreamSplit$Encoder FloatByteStreamSplit$Decoder
+            DoubleByteStreamSplit$Encoder DoubleByteStreamSplit$Decoder
             FixedLengthByteArrayPlain$Encoder FixedLengthByteArrayPlain$Decoder
             ByteArrayPlain$Encoder ByteArrayPlain$Decoder
             ByteArrayDeltaLength$Encoder ByteArrayDeltaLength$Decoder
+            ByteArrayDecimal$Encoder ByteArrayDecimal$Decoder
+            ByteArrayFsst$Encoder ByteArrayFsst$Decoder
             ByteArrayIncremental$Encoder ByteArrayIncremental$Decoder
             Dictionary$Encoder Dictionary$Decoder]
            [java.nio ByteBuffer]))
@@ -66,6 +74,22 @@
   (let [finish-fn (fn [n] (finish-repeatedly n encoder-constructor input-seq))]
     (is (every? true? (map = (finish-fn 0) (finish-fn 3))))))
 
+(defn batch-write-read [encoder-constructor decoder-constructor input-seq]
+  (let [encoder (encoder-constructor)
+        inputs (take 1000 input-seq)]
+    (doseq [x inputs]
+      (.encode ^IEncoder encoder x))
+    (let [^IIntDecoder decoder (->> encoder helpers/output-buffer->byte-buffer decoder-constructor)
+          ints (int-array 1000)]
+      (loop [offset 0]
+        (when (< offset 1000)
+          (let [n (min (- 1000 offset) (inc (rand-int 300)))]
+            (if (= 1 n)
+              (aset ints offset (.decodeInt decoder))
+              (.decodeInts decoder ints offset n))
+            (recur (+ offset (long n))))))
+      (is (= inputs (seq ints))))))
+
 (deftest boolean-encoders
   (testing "packed encoder/decoder"
     (test-encoder #(BooleanPacked$Encoder.) #(BooleanPacked$Decoder. %) (repeatedly helpers/rand-bool)))
@@ -107,7 +131,46 @@
                   #(IntPackedDelta$Decoder. %)
                   (repeatedly helpers/rand-int)))
   (testing "packed delta encoder's finish method is idempotent"
-    (test-finish-idempotence #(IntPackedDelta$Encoder.) (repeatedly helpers/rand-int))))
+    (test-finish-idempotence #(IntPackedDelta$Encoder.) (repeatedly helpers/rand-int)))
+  (testing "frame-of-reference encoder/decoder"
+    (testing "random input"
+      (test-encoder #(IntFrameOfReference$Encoder.) #(IntFrameOfReference$Decoder. %) (repeatedly helpers/rand-int)))
+    (testing "small ints with occasional outliers"
+      (test-encoder #(IntFrameOfReference$Encoder.)
+                    #(IntFrameOfReference$Decoder. %)
+                    (->> (repeatedly #(helpers/rand-int-bits 5))
+                         (helpers/rand-map 0.05 (fn [_] (helpers/rand-int)))
+                         (map unchecked-int))))
+    (testing "extreme values"
+      (test-encoder #(IntFrameOfReference$Encoder.)
+                    #(IntFrameOfReference$Decoder. %)
+                    (cycle [Integer/MIN_VALUE Integer/MAX_VALUE (int 0) (int 0) (int 1)]))))
+  (testing "frame-of-reference encoder's finish method is idempotent"
+    (test-finish-idempotence #(IntFrameOfReference$Encoder.) (repeatedly helpers/rand-int))))
+
+(deftest int-batch-decoders
+  (let [sparse-ints (->> (repeatedly #(rand-int 8)) (map #(if (= 7 %) (int (rand-int 8)) (int 0))))
+        rand-ints (repeatedly helpers/rand-int)]
+    (testing "fixed-bit-width packed run-length decoder"
+      (batch-write-read #(IntFixedBitWidthPackedRunLength$Encoder. 3)
+                        #(IntFixedBitWidthPackedRunLength$Decoder. % 3)
+                        sparse-ints)
+      (batch-write-read #(IntFixedBitWidthPackedRunLength$Encoder. 32)
+                        #(IntFixedBitWidthPackedRunLength$Decoder. % 32)
+                        rand-ints))
+    (testing "packed run-length decoder"
+      (batch-write-read #(IntPackedRunLength$Encoder.) #(IntPackedRunLength$Decoder. %) sparse-ints)
+      (batch-write-read #(IntPackedRunLength$Encoder.) #(IntPackedRunLength$Decoder. %) rand-ints))
+    (testing "packed delta decoder"
+      (batch-write-read #(IntPackedDelta$Encoder.) #(IntPackedDelta$Decoder. %) rand-ints)
+      (batch-write-read #(IntPackedDelta$Encoder.) #(IntPackedDelta$Decoder. %) (map int (range 1000))))
+    (testing "plain, vlq, and zigzag decoders"
+      (batch-write-read #(IntPlain$Encoder.) #(IntPlain$Decoder. %) rand-ints)
+      (batch-write-read #(IntVlq$Encoder.) #(IntVlq$Decoder. %) rand-ints)
+      (batch-write-read #(IntZigZag$Encoder.) #(IntZigZag$Decoder. %) rand-ints))
+    (testing "frame-of-reference decoder"
+      (batch-write-read #(IntFrameOfReference$Encoder.) #(IntFrameOfReference$Decoder. %) sparse-ints)
+      (batch-write-read #(IntFrameOfReference$Encoder.) #(IntFrameOfReference$Decoder. %) rand-ints))))
 
 (deftest long-encoders
   (testing "plain encoder/decoder"
@@ -121,15 +184,161 @@
   (testing "packed delta encoder's finish method is idempotent"
     (let [rand-longs (repeatedly helpers/rand-long)
           finish-fn (fn [n] (finish-repeatedly n #(LongPackedDelta$Encoder.) rand-longs))]
-      (is (every? true? (map = (finish-fn 0) (finish-fn 3)))))))
+      (is (every? true? (map = (finish-fn 0) (finish-fn 3))))))
+  (testing "frame-of-reference encoder/decoder"
+    (testing "random input"
+      (test-encoder #(LongFrameOfReference$Encoder.) #(LongFrameOfReference$Decoder. %) (repeatedly helpers/rand-long)))
+    (testing "small longs with occasional outliers"
+      (test-encoder #(LongFrameOfReference$Encoder.)
+                    #(LongFrameOfReference$Decoder. %)
+                    (->> (repeatedly #(helpers/rand-long-bits 5))
+                         (helpers/rand-map 0.05 (fn [_] (helpers/rand-long)))
+                         (map unchecked-long))))
+    (testing "extreme values"
+      (test-encoder #(LongFrameOfReference$Encoder.)
+                    #(LongFrameOfReference$Decoder. %)
+                    (cycle [Long/MIN_VALUE Long/MAX_VALUE 0 0 1]))))
+  (testing "frame-of-reference encoder's finish method is idempotent"
+    (test-finish-idempotence #(LongFrameOfReference$Encoder.) (repeatedly helpers/rand-long)))
+  (testing "delta-of-delta encoder/decoder"
+    (testing "random input"
+      (test-encoder #(LongDeltaOfDelta$Encoder.) #(LongDeltaOfDelta$Decoder. %) (repeatedly helpers/rand-long)))
+    (testing "regularly sampled timestamps with jitter"
+      (test-encoder #(LongDeltaOfDelta$Encoder.)
+                    #(LongDeltaOfDelta$Decoder. %)
+                    (reductions + 1400000000000 (repeatedly #(+ 1000 (rand-int 5))))))
+    (testing "extreme values"
+      (test-encoder #(LongDeltaOfDelta$Encoder.)
+                    #(LongDeltaOfDelta$Decoder. %)
+                    (cycle [Long/MIN_VALUE Long/MAX_VALUE 0 Long/MAX_VALUE]))))
+  (testing "delta-of-delta encoder's finish method is idempotent"
+    (test-finish-idempotence #(LongDeltaOfDelta$Encoder.) (repeatedly helpers/rand-long)))
+  (testing "delta-of-delta decoder reports the first and last values"
+    (let [input-values (reductions + 10 (repeatedly 999 #(rand-int 100)))
+          encoder (LongDeltaOfDelta$Encoder.)]
+      (doseq [v input-values]
+        (.encode encoder v))
+      (let [decoder (LongDeltaOfDelta$Decoder. (helpers/output-buffer->byte-buffer encoder))]
+        (is (= (first input-values) (.getFirstValue decoder)))
+        (is (= (last input-values) (.getLastValue decoder)))
+        (is (= input-values (repeatedly 1000 #(.decodeLong decoder))))))))
 
 (deftest float-encoders
   (testing "plain encoder/decoder"
-    (test-encoder #(FloatPlain$Encoder.) #(FloatPlain$Decoder. %) (repeatedly helpers/rand-float))))
+    (test-encoder #(FloatPlain$Encoder.) #(FloatPlain$Decoder. %) (repeatedly helpers/rand-float)))
+  (testing "xor encoder/decoder"
+    (testing "random input"
+      (test-encoder #(FloatXor$Encoder.) #(FloatXor$Decoder. %) (repeatedly helpers/rand-float)))
+    (testing "slowly varying input"
+      (test-encoder #(FloatXor$Encoder.) #(FloatXor$Decoder. %) (map float (reductions + (repeatedly #(rand-int 3))))))
+    (testing "special values"
+      (test-encoder #(FloatXor$Encoder.)
+                    #(FloatXor$Decoder. %)
+                    (cycle [(float 1) (float 1) Float/MAX_VALUE Float/MIN_VALUE Float/POSITIVE_INFINITY (float -1)]))))
+  (testing "xor encoder's finish method is idempotent"
+    (test-finish-idempotence #(FloatXor$Encoder.) (repeatedly helpers/rand-float)))
+  (testing "byte-stream-split encoder/decoder"
+    (test-encoder #(FloatByteStreamSplit$Encoder.)
+                  #(FloatByteStreamSplit$Decoder. %)
+                  (repeatedly helpers/rand-float)))
+  (testing "byte-stream-split encoder's finish method is idempotent"
+    (test-finish-idempotence #(FloatByteStreamSplit$Encoder.) (repeatedly helpers/rand-float))))
 
 (deftest double-encoders
   (testing "plain encoder/decoder"
-    (test-encoder #(DoublePlain$Encoder.) #(DoublePlain$Decoder. %) (repeatedly helpers/rand-double))))
+    (test-encoder #(DoublePlain$Encoder.) #(DoublePlain$Decoder. %) (repeatedly helpers/rand-double)))
+  (testing "xor encoder/decoder"
+    (testing "random input"
+      (test-encoder #(DoubleXor$Encoder.) #(DoubleXor$Decoder. %) (repeatedly helpers/rand-double)))
+    (testing "slowly varying input"
+      (test-encoder #(DoubleXor$Encoder.) #(DoubleXor$Decoder. %) (map double (reductions + (repeatedly #(rand-int 3))))))
+    (testing "special values"
+      (test-encoder #(DoubleXor$Encoder.)
+                    #(DoubleXor$Decoder. %)
+                    (cycle [1.0 1.0 Double/MAX_VALUE Double/MIN_VALUE Double/NEGATIVE_INFINITY -1.0]))))
+  (testing "xor encoder's finish method is idempotent"
+    (test-finish-idempotence #(DoubleXor$Encoder.) (repeatedly helpers/rand-double)))
+  (testing "byte-stream-split encoder/decoder"
+    (test-encoder #(DoubleByteStreamSplit$Encoder.)
+                  #(DoubleByteStreamSplit$Decoder. %)
+                  (repeatedly helpers/rand-double)))
+  (testing "byte-stream-split encoder's finish method is idempotent"
+    (test-finish-idempotence #(DoubleByteStreamSplit$Encoder.) (repeatedly helpers/rand-double))))
+
+(deftest plain-bulk-encoders
+  (testing "ints"
+    (let [rand-ints (int-array (repeatedly 1000 helpers/rand-int))
+          encoder (doto (IntPlain$Encoder.)
+                    (.encode (int 1))
+                    (.encodeInts rand-ints 0 1000))
+          decoder (IntPlain$Decoder. (helpers/output-buffer->byte-buffer encoder))
+          read-ints (int-array 999)]
+      (is (= 1001 (.getNumEncodedValues decoder)))
+      (is (= 1 (.decodeInt decoder)))
+      (.decodeInts decoder read-ints 0 999)
+      (is (= (butlast rand-ints) (seq read-ints)))
+      (is (= (last rand-ints) (.decodeInt decoder)))))
+  (testing "longs"
+    (let [rand-longs (long-array (repeatedly 1000 helpers/rand-long))
+          encoder (doto (LongPlain$Encoder.) (.encodeLongs rand-longs 0 1000))
+          decoder (LongPlain$Decoder. (helpers/output-buffer->byte-buffer encoder))
+          read-longs (long-array 1000)]
+      (.decodeLongs decoder read-longs 0 1000)
+      (is (= (seq rand-longs) (seq read-longs)))))
+  (testing "floats"
+    (let [rand-floats (float-array (repeatedly 1000 helpers/rand-float))
+          encoder (doto (FloatPlain$Encoder.) (.encodeFloats rand-floats 0 1000))
+          decoder (FloatPlain$Decoder. (helpers/output-buffer->byte-buffer encoder))]
+      (is (= (seq rand-floats) (repeatedly 1000 #(.decode decoder))))))
+  (testing "doubles"
+    (let [rand-doubles (double-array (repeatedly 1000 helpers/rand-double))
+          encoder (doto (DoublePlain$Encoder.) (.encodeDoubles rand-doubles 0 1000))
+          decoder (DoublePlain$Decoder. (helpers/output-buffer->byte-buffer encoder))
+          read-doubles (double-array 1000)]
+      (.decodeDoubles decoder read-doubles 0 1000)
+      (is (= (seq rand-doubles) (seq read-doubles))))))
+
+;; The primitive encode methods must produce the same bytes as encoding the boxed values.
+(defn test-primitive-encoder [encoder-constructor encode-fn input-seq]
+  (let [inputs (take 1000 input-seq)
+        boxed-encoder (encoder-constructor)
+        primitive-encoder (encoder-constructor)]
+    (doseq [x inputs]
+      (.encode ^IEncoder boxed-encoder x)
+      (encode-fn primitive-encoder x))
+    (is (= (helpers/output-buffer->byte-buffer boxed-encoder)
+           (helpers/output-buffer->byte-buffer primitive-encoder)))))
+
+(deftest primitive-encoders
+  (testing "booleans"
+    (test-primitive-encoder #(BooleanPacked$Encoder.)
+                            #(.encodeBoolean ^IBooleanEncoder %1 (boolean %2))
+                            (repeatedly helpers/rand-bool)))
+  (testing "ints"
+    (doseq [encoder-constructor [#(IntPlain$Encoder.) #(IntVlq$Encoder.) #(IntZigZag$Encoder.)
+                                 #(IntFixedBitWidthPackedRunLength$Encoder. 32) #(IntPackedRunLength$Encoder.)
+                                 #(IntPackedDelta$Encoder.) #(IntFrameOfReference$Encoder.)]]
+      (test-primitive-encoder encoder-constructor
+                              #(.encodeInt ^IIntEncoder %1 (int %2))
+                              (repeatedly helpers/rand-int))))
+  (testing "longs"
+    (doseq [encoder-constructor [#(LongPlain$Encoder.) #(LongVlq$Encoder.) #(LongZigZag$Encoder.)
+                                 #(LongPackedDelta$Encoder.) #(LongFrameOfReference$Encoder.)
+                                 #(LongDeltaOfDelta$Encoder.)]]
+      (test-primitive-encoder encoder-constructor
+                              #(.encodeLong ^ILongEncoder %1 (long %2))
+                              (repeatedly helpers/rand-long))))
+  (testing "floats"
+    (doseq [encoder-constructor [#(FloatPlain$Encoder.) #(FloatXor$Encoder.) #(FloatByteStreamSplit$Encoder.)]]
+      (test-primitive-encoder encoder-constructor
+                              #(.encodeFloat ^IFloatEncoder %1 (float %2))
+                              (repeatedly helpers/rand-float))))
+  (testing "doubles"
+    (doseq [encoder-constructor [#(DoublePlain$Encoder.) #(DoubleXor$Encoder.)
+                                 #(DoubleByteStreamSplit$Encoder.)]]
+      (test-primitive-encoder encoder-constructor
+                              #(.encodeDouble ^IDoubleEncoder %1 (double %2))
+                              (repeatedly helpers/rand-double)))))
 
 (deftest fixed-length-byte-array-encoders
   (testing "length byte array plain encoder/decoder"
@@ -140,6 +349,13 @@
                                        rand-byte-arrays)]
       (is (every? true? (map = (map seq read-byte-arrays) (map seq rand-byte-arrays)))))))
 
+(defn- rand-url []
+  (str (rand-nth ["http://" "https://"])
+       (rand-nth ["www.example.com" "api.example.com" "www.example.org"])
+       (rand-nth ["" "/docs" "/docs/" "/blog/" "/search?q="])
+       (when (< (rand) 0.8)
+         (apply str (repeatedly (rand-int 10) #(rand-nth "abcdefghijklmnopqrstuvwxyz0123456789-"))))))
+
 (deftest byte-array-encoders
   (testing "plain encoder/decoder"
     (let [rand-byte-arrays (repeatedly helpers/rand-byte-array)
@@ -158,7 +374,63 @@
                                        #(ByteArrayIncremental$Decoder. %) rand-byte-arrays)]
       (is (every? true? (map = (map seq read-byte-arrays) (map seq rand-byte-arrays))))))
   (testing "incremental encoder's finish method is idempotent"
-    (test-finish-idempotence #(ByteArrayIncremental$Encoder.) (repeatedly helpers/rand-byte-array))))
+    (test-finish-idempotence #(ByteArrayIncremental$Encoder.) (repeatedly helpers/rand-byte-array)))
+  (testing "decimal encoder/decoder"
+    (let [decimal-write-read (fn [input-values]
+                               (let [byte-arrays (map #(Types/toByteArray ^BigDecimal %) input-values)
+                                     read-byte-arrays (write-read #(ByteArrayDecimal$Encoder.)
+                                                                  #(ByteArrayDecimal$Decoder. %)
+                                                                  byte-arrays)]
+                                 (is (every? true? (map = (map seq read-byte-arrays) (map seq byte-arrays))))
+                                 (is (= input-values (map #(Types/toBigDecimal %) read-byte-arrays)))))]
+      (testing "with a shared scale"
+        (decimal-write-read (repeatedly 1000 #(BigDecimal/valueOf (helpers/rand-long) 2))))
+      (testing "with extreme unscaled values"
+        (decimal-write-read (take 1000 (cycle (map #(BigDecimal/valueOf (long %) 3)
+                                                   [Long/MIN_VALUE Long/MAX_VALUE 0 -1 127 -128 128])))))
+      (testing "falls back when the scale changes"
+        (decimal-write-read (concat (repeatedly 500 #(BigDecimal/valueOf (helpers/rand-long) 2))
+                                    (repeatedly 500 #(BigDecimal/valueOf (helpers/rand-long) 3)))))
+      (testing "falls back when an unscaled value does not fit in a long"
+        (decimal-write-read (concat (repeatedly 500 #(BigDecimal/valueOf (helpers/rand-long) 2))
+                                    [(BigDecimal. ^BigInteger (helpers/rand-biginteger 100) 2)]
+                                    (repeatedly 499 #(BigDecimal/valueOf (helpers/rand-long) 2)))))))
+  (testing "decimal encoder/decoder with arbitrary byte arrays"
+    (let [rand-byte-arrays (repeatedly helpers/rand-byte-array)
+          read-byte-arrays (write-read #(ByteArrayDecimal$Encoder.) #(ByteArrayDecimal$Decoder. %) rand-byte-arrays)]
+      (is (every? true? (map = (map seq read-byte-arrays) (map seq rand-byte-arrays))))))
+  (testing "decimal decoder decodes big decimals directly"
+    (let [input-values (repeatedly 1000 #(BigDecimal/valueOf (long (helpers/rand-int)) 2))
+          encoder (ByteArrayDecimal$Encoder.)]
+      (doseq [v input-values]
+        (.encode encoder (Types/toByteArray ^BigDecimal v)))
+      (let [decoder (ByteArrayDecimal$Decoder. (helpers/output-buffer->byte-buffer encoder))]
+        (is (= input-values (repeatedly 1000 #(.decodeBigDecimal decoder)))))))
+  (testing "fsst encoder/decoder"
+    (testing "random byte arrays"
+      (let [rand-byte-arrays (repeatedly helpers/rand-byte-array)
+            read-byte-arrays (write-read #(ByteArrayFsst$Encoder.) #(ByteArrayFsst$Decoder. %) rand-byte-arrays)]
+        (is (every? true? (map = (map seq read-byte-arrays) (map seq rand-byte-arrays))))))
+    (testing "urls"
+      (let [urls (map #(.getBytes ^String %) (repeatedly rand-url))
+            read-byte-arrays (write-read #(ByteArrayFsst$Encoder.) #(ByteArrayFsst$Decoder. %) urls)]
+        (is (every? true? (map = (map seq read-byte-arrays) (map seq urls))))))
+    (testing "empty byte arrays"
+      (let [byte-arrays (repeat (byte-array 0))
+            read-byte-arrays (write-read #(ByteArrayFsst$Encoder.) #(ByteArrayFsst$Decoder. %) byte-arrays)]
+        (is (every? empty? (take 100 read-byte-arrays))))))
+  (testing "fsst encoder compresses repetitive strings"
+    (let [urls (map #(.getBytes ^String %) (repeatedly 1000 rand-url))
+          encoder (ByteArrayFsst$Encoder.)]
+      (doseq [url urls]
+        (.encode encoder url))
+      (.finish encoder)
+      (is (< (* 2 (.getLength encoder)) (reduce + (map alength urls))))))
+  (testing "fsst encoder's finish method is idempotent"
+    (test-finish-idempotence #(ByteArrayFsst$Encoder.) (repeatedly helpers/rand-byte-array)))
+  (testing "decimal encoder's finish method is idempotent"
+    (test-finish-idempotence #(ByteArrayDecimal$Encoder.)
+                             (repeatedly #(Types/toByteArray (BigDecimal/valueOf (helpers/rand-long) 2))))))
 
 (deftest dictionary-encoders
   (testing "small set of integers"
@@ -186,4 +458,63 @@
       (let [dictionary (into-array (.getDictionary enc))
             dec (Dictionary$Decoder. (IntVlq$Decoder. (.toByteBuffer mos)) dictionary)
             read-byte-arrays (repeatedly n #(.decode dec))]
-        (is (= (map seq read-byte-arrays) (map seq rand-byte-arrays)))))))
+        (is (= (map seq read-byte-arrays) (map seq rand-byte-arrays))))))
+  (testing "large dictionaries"
+    (doseq [[type rand-fn] [[Types/INT helpers/rand-int]
+                            [Types/LONG helpers/rand-long]
+                            [Types/FLOAT helpers/rand-float]
+                            [Types/DOUBLE helpers/rand-double]]]
+      (let [values (vec (repeatedly 5000 rand-fn))
+            n 20000
+            rand-values (repeatedly n #(rand-nth values))
+            enc (Dictionary$Encoder/create type Types/VLQ)
+            mos (MemoryOutputStream.)]
+        (doseq [v rand-values]
+          (.encode enc v))
+        (.write mos enc)
+        (let [dictionary (.getDictionary enc)
+              dec (Dictionary$Decoder. (IntVlq$Decoder. (.toByteBuffer mos)) dictionary)]
+          (is (= (count (distinct rand-values)) (count dictionary)))
+          (is (= rand-values (repeatedly n #(.decode dec))))))))
+  (testing "primitive and boxed values share the same dictionary"
+    (doseq [[type rand-fn encode-primitive]
+            [[Types/INT helpers/rand-int #(.encodeInt ^Dictionary$Encoder %1 (int %2))]
+             [Types/LONG helpers/rand-long #(.encodeLong ^Dictionary$Encoder %1 (long %2))]
+             [Types/FLOAT helpers/rand-float #(.encodeFloat ^Dictionary$Encoder %1 (float %2))]
+             [Types/DOUBLE helpers/rand-double #(.encodeDouble ^Dictionary$Encoder %1 (double %2))]]]
+      (let [values (vec (repeatedly 100 rand-fn))
+            n 1000
+            rand-values (repeatedly n #(rand-nth values))
+            enc (Dictionary$Encoder/create type Types/VLQ)
+            mos (MemoryOutputStream.)]
+        (doseq [v rand-values]
+          (if (helpers/rand-bool)
+            (encode-primitive enc v)
+            (.encode enc v)))
+        (.write mos enc)
+        (let [dictionary (.getDictionary enc)
+              dec (Dictionary$Decoder. (IntVlq$Decoder. (.toByteBuffer mos)) dictionary)]
+          (is (= (count (distinct rand-values)) (count dictionary)))
+          (is (= rand-values (repeatedly n #(.decode dec))))))))
+  (testing "floating point values follow equals semantics"
+    (let [enc (Dictionary$Encoder/create Types/DOUBLE Types/VLQ)]
+      (doseq [v [0.0 -0.0 Double/NaN 0.0 Double/NaN]]
+        (.encode enc v))
+      (is (= 3 (.getNumDictionaryValues enc)))))
+  (testing "dictionary truncation"
+    (let [enc (Dictionary$Encoder/create Types/BYTE_ARRAY Types/VLQ)
+          byte-arrays (vec (distinct (map seq (repeatedly 100 helpers/rand-byte-array))))]
+      (doseq [ba byte-arrays]
+        (.encode enc (byte-array ba)))
+      (.truncateDictionary enc 10)
+      (is (= 10 (.getNumDictionaryValues enc)))
+      (is (= (take 10 byte-arrays) (map seq (.getDictionary enc))))
+      (doseq [ba (reverse byte-arrays)]
+        (.encode enc (byte-array ba)))
+      (is (= (concat (take 10 byte-arrays) (reverse (drop 10 byte-arrays)))
+             (map seq (.getDictionary enc))))))
+  (testing "dictionary by frequency"
+    (let [enc (Dictionary$Encoder/create Types/INT Types/VLQ)]
+      (doseq [v [3 1 2 2 1 2]]
+        (.encode enc (int v)))
+      (is (= [2 1 3] (seq (.getDictionaryByFrequency enc)))))))
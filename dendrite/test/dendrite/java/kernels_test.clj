@@ -0,0 +1,94 @@
+;; Copyright (c) 2013-2015 John Whitbeck. All rights reserved.
+;;
+;; The use and distribution terms for this software are covered by the
+;; Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+;; which can be found in the file epl-v10.txt at the root of this distribution.
+;; By using this software in any fashion, you are agreeing to be bound by
+;; the terms of this license.
+;;
+;; You must not remove this notice, or any other, from this software.
+
+(ns dendrite.java.kernels-test
+  (:require [clojure.test :refer :all]
+            [dendrite.test-helpers :as helpers])
+  (:import [dendrite.java Bytes IKernels Kernels Kernels$Scalar MemoryOutputStream]
+           [java.nio ByteBuffer]))
+
+(set! *warn-on-reflection* true)
+
+(def ^IKernels scalar (Kernels$Scalar.))
+
+;; VectorKernels is only compiled by the :vector profile, which also sets this property.
+(def vector-kernels-expected? (Boolean/getBoolean "dendrite.test.vector-kernels"))
+
+(def ^IKernels vector-kernels (Kernels/loadDefault))
+
+(def kernels (if (instance? Kernels$Scalar vector-kernels) [scalar] [scalar vector-kernels]))
+
+(deftest kernel-loading
+  (when-not vector-kernels-expected?
+    (testing "falls back to the scalar kernels by default"
+      (is (instance? Kernels$Scalar (Kernels/loadDefault)))))
+  (testing "fails on explicitly named kernels that can't be loaded"
+    (is (thrown-with-msg? IllegalStateException #"dendrite\.java\.MissingKernels"
+                          (Kernels/load "dendrite.java.MissingKernels")))
+    (is (thrown-with-msg? IllegalStateException #"java\.lang\.Object"
+                          (Kernels/load "java.lang.Object"))))
+  (testing "loads kernels by class name"
+    (is (instance? Kernels$Scalar (Kernels/load "dendrite.java.Kernels$Scalar"))))
+  (when vector-kernels-expected?
+    (testing "loads the vector kernels when they are compiled"
+      (is (= "dendrite.java.VectorKernels" (.getName (class vector-kernels))))
+      (is (identical? (class vector-kernels) (class (Kernels/get)))))))
+
+(deftest unpack-ints
+  (doseq [^IKernels k kernels
+          width (range 1 33)]
+    (let [rand-ints (int-array (repeatedly 64 #(helpers/rand-int-bits width)))
+          bb (.toByteBuffer (doto (MemoryOutputStream. 10) (Bytes/writePackedInts32 rand-ints width 64)))
+          read-ints (int-array 66)]
+      (.unpackInts k bb read-ints 2 8 width)
+      (is (= (seq rand-ints) (drop 2 read-ints)))
+      (is (zero? (.remaining bb))))))
+
+(deftest unpack-longs
+  (doseq [^IKernels k kernels
+          width (range 1 65)]
+    (let [rand-longs (long-array (repeatedly 64 #(helpers/rand-long-bits width)))
+          bb (.toByteBuffer (doto (MemoryOutputStream. 10) (Bytes/writePackedInts64 rand-longs width 64)))
+          read-longs (long-array 66)]
+      (.unpackLongs k bb read-longs 2 8 width)
+      (is (= (seq rand-longs) (drop 2 read-longs)))
+      (is (zero? (.remaining bb))))))
+
+(deftest unpack-booleans
+  (doseq [^IKernels k kernels]
+    (let [rand-bytes (repeatedly 10 helpers/rand-byte)
+          bb (ByteBuffer/wrap (byte-array rand-bytes))
+          booleans (boolean-array 81)]
+      (.unpackBooleans k bb booleans 1 10)
+      (is (= (for [b rand-bytes, i (range 7 -1 -1)] (bit-test b i))
+             (rest booleans))))))
+
+(deftest decode-deltas
+  (doseq [^IKernels k kernels]
+    (testing "ints"
+      (let [deltas (repeatedly 100 helpers/rand-int)
+            ints (int-array deltas)
+            start (int 7)
+            min-delta (int -3)
+            expected (->> deltas
+                          (reductions #(unchecked-add-int (unchecked-add-int %1 %2) min-delta) start)
+                          rest)]
+        (is (= (last expected) (.decodeDeltas k ints 0 100 start min-delta)))
+        (is (= expected (seq ints)))))
+    (testing "longs"
+      (let [deltas (repeatedly 100 helpers/rand-long)
+            longs (long-array deltas)
+            start (long 7)
+            min-delta (long -3)
+            expected (->> (rest deltas)
+                          (reductions #(unchecked-add (unchecked-add (long %1) (long %2)) min-delta) start)
+                          rest)]
+        (is (= (last expected) (.decodeDeltas k longs 1 99 start min-delta)))
+        (is (= expected (rest longs)))))))
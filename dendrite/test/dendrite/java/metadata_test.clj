@@ -11,7 +11,8 @@
 (ns dendrite.java.metadata-test
   (:require [clojure.test :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java CustomType Metadata$ColumnChunk Metadata$File Metadata$RecordGroup MemoryOutputStream
+  (:import [dendrite.java Bytes CustomType Metadata Metadata$ColumnChunk Metadata$File Metadata$RecordGroup
+            Metadata$SharedDictionary MemoryOutputStream
             Schema Schema$Column Schema$Field Schema$Record Schema$Collection]
            [java.nio ByteBuffer]))
 
@@ -56,8 +57,17 @@
           read-schemas (repeatedly 100 #(Schema/read bb))]
       (is (= read-schemas rand-schemas)))))
 
+(defn- serialized-length [^Metadata$ColumnChunk column-chunk-metadata]
+  (let [mos (MemoryOutputStream.)]
+    (.writeTo column-chunk-metadata mos)
+    (.getLength mos)))
+
 (defn rand-column-chunk-metadata []
-  (Metadata$ColumnChunk. (rand-int 1024) (rand-int 10) (rand-int 128) (rand-int 128)))
+  (let [column-chunk-metadata (Metadata$ColumnChunk. (rand-int 1024) (rand-int 10) (rand-int 128) (rand-int 128)
+                                                     (rand-int 10))]
+    (if (helpers/rand-bool)
+      (.withEncodingAndCompression column-chunk-metadata (rand-int 15) (rand-int 3))
+      column-chunk-metadata)))
 
 (deftest column-chunk-metadata
   (testing "serialization-deserialization"
@@ -67,10 +77,20 @@
         (.writeTo column-chunk-metadata mos))
       (let [bb (.toByteBuffer mos)
             read-column-chunk-metadatas (repeatedly 100 #(Metadata$ColumnChunk/read bb))]
-        (is (= read-column-chunk-metadatas rand-column-chunk-metadatas))))))
+        (is (= read-column-chunk-metadatas rand-column-chunk-metadatas)))))
+  (testing "optional fields are only written when present"
+    (is (= 5 (serialized-length (Metadata$ColumnChunk. 10 1 0 0 0))))
+    (is (= 6 (serialized-length (Metadata$ColumnChunk. 10 1 0 0 1))))
+    (is (= 7 (serialized-length (.withEncodingAndCompression (Metadata$ColumnChunk. 10 1 0 0 0) 2 1)))))
+  (testing "column chunks before version 3 have no flags"
+    (let [mos (MemoryOutputStream.)]
+      (doseq [i [10 3 1 2]]
+        (Bytes/writeUInt mos i))
+      (is (= (Metadata$ColumnChunk. 10 3 1 2)
+             (Metadata$ColumnChunk/read (.toByteBuffer mos) Metadata/VERSION_2))))))
 
 (defn rand-record-group-metadata []
-  (Metadata$RecordGroup. (rand-int (* 1024 1024))
+  (Metadata$RecordGroup. (long (rand (* 8 1024 1024 1024)))
                          (rand-int 10000)
                          (into-array Metadata$ColumnChunk
                                      (repeatedly (rand-int 10) rand-column-chunk-metadata))))
@@ -83,7 +103,17 @@
         (.writeTo record-group-metadata mos))
       (let [bb (.toByteBuffer mos)
             read-record-group-metadatas (repeatedly 100 #(Metadata$RecordGroup/read bb))]
-        (is (= read-record-group-metadatas rand-record-group-metadatas))))))
+        (is (= read-record-group-metadatas rand-record-group-metadatas)))))
+  (testing "lengths before version 5 were written as ints"
+    (let [mos (MemoryOutputStream.)]
+      (Bytes/writeUInt mos Integer/MAX_VALUE)
+      (Bytes/writeULong mos 1000)
+      (Bytes/writeUInt mos 1)
+      (doseq [i [Integer/MAX_VALUE 3 1 2 0]]
+        (Bytes/writeUInt mos i))
+      (is (= (Metadata$RecordGroup. Integer/MAX_VALUE 1000
+                                    (into-array [(Metadata$ColumnChunk. Integer/MAX_VALUE 3 1 2)]))
+             (Metadata$RecordGroup/read (.toByteBuffer mos) Metadata/VERSION_4))))))
 
 (defn rand-custom-type []
   (CustomType. (rand-int 100) (rand-int 100) (rand-nth ['foo 'bar 'baz])))
@@ -98,11 +128,25 @@
             read-custom-types (repeatedly 100 #(CustomType/read bb))]
         (is (= read-custom-types rand-custom-types))))))
 
+(defn rand-shared-dictionary []
+  (Metadata$SharedDictionary. (rand-int 100) (helpers/rand-byte-buffer)))
+
+(deftest shared-dictionary
+  (testing "serialization-deserialization"
+    (let [mos (MemoryOutputStream.)
+          rand-shared-dictionaries (repeatedly 100 rand-shared-dictionary)]
+      (doseq [^Metadata$SharedDictionary shared-dictionary rand-shared-dictionaries]
+        (.writeTo shared-dictionary mos))
+      (let [bb (.toByteBuffer mos)
+            read-shared-dictionaries (repeatedly 100 #(Metadata$SharedDictionary/read bb))]
+        (is (= read-shared-dictionaries rand-shared-dictionaries))))))
+
 (defn rand-file-metadata []
   (Metadata$File. (into-array Metadata$RecordGroup (repeatedly (rand-int 5) rand-record-group-metadata))
                   (rand-schema)
                   (into-array CustomType (repeatedly (rand-int 5) rand-custom-type))
-                  (helpers/rand-byte-buffer)))
+                  (helpers/rand-byte-buffer)
+                  (into-array Metadata$SharedDictionary (repeatedly (rand-int 5) rand-shared-dictionary))))
 
 (deftest file-metadata
   (testing "serialization-deserialization"
@@ -18,16 +18,36 @@
 (deftest invalid-writer-options
   (are [opts msg] (thrown-with-msg? IllegalArgumentException (re-pattern msg)
                                     (Options/getWriterOptions opts))
-       {:record-group-length (inc Integer/MAX_VALUE)}
-       ":record-group-length expects a positive int but got '2147483648'"
+       {:record-group-length -1}
+       ":record-group-length expects a positive long but got '-1'"
        {:record-group-length "foo"}
-       ":record-group-length expects a positive int but got 'foo'"
+       ":record-group-length expects a positive long but got 'foo'"
        {:record-group-length nil}
-       ":record-group-length expects a positive int but got 'null'"
+       ":record-group-length expects a positive long but got 'null'"
        {:record-group-length -1.5}
-       ":record-group-length expects a positive int but got '-1.5'"
+       ":record-group-length expects a positive long but got '-1.5'"
        {:data-page-length "foo"}
        ":data-page-length expects a positive int but got 'foo'"
+       {:max-dictionary-length "foo"}
+       ":max-dictionary-length expects a positive int but got 'foo'"
+       {:max-dictionary-length -1}
+       ":max-dictionary-length expects a positive int but got '-1'"
+       {:optimization-sample-length "foo"}
+       ":optimization-sample-length expects a positive int but got 'foo'"
+       {:revalidation-interval -1}
+       ":revalidation-interval expects a positive int but got '-1'"
+       {:revalidation-threshold "foo"}
+       ":revalidation-threshold expects a number greater than 1 but got 'foo'"
+       {:revalidation-threshold 0.5}
+       ":revalidation-threshold expects a number greater than 1 but got '0.5'"
+       {:spill-directory 1}
+       ":spill-directory expects an existing directory but got '1'"
+       {:spill-directory "/does/not/exist"}
+       ":spill-directory expects an existing directory but got '/does/not/exist'"
+       {:pending-record-groups -1}
+       ":pending-record-groups expects a positive int but got '-1'"
+       {:off-heap? "foo"}
+       ":off-heap\\? expects a boolean but got 'foo'"
        {:data-page-length nil}
        ":data-page-length expects a positive int but got 'null'"
        {:data-page-length -1.5}
@@ -49,13 +69,28 @@
        {:ignore-extra-fields? nil}
        ":ignore-extra-fields\\? expects a boolean but got 'null'"
        {:ignore-extra-fields? "foo"}
-       ":ignore-extra-fields\\? expects a boolean but got 'foo'"))
+       ":ignore-extra-fields\\? expects a boolean but got 'foo'"
+       {:shared-dictionaries? nil}
+       ":shared-dictionaries\\? expects a boolean but got 'null'"
+       {:shared-dictionaries? "foo"}
+       ":shared-dictionaries\\? expects a boolean but got 'foo'"))
+
+(deftest record-group-lengths-beyond-2gb
+  (let [opts (Options/getWriterOptions {:record-group-length (* 4 1024 1024 1024)})]
+    (is (= (* 4 1024 1024 1024) (.recordGroupLength opts)))
+    (is (= Integer/MAX_VALUE (.optimizationSampleLength opts)))))
 
 (deftest invalid-reader-options
   (are [opts msg] (thrown-with-msg? IllegalArgumentException (re-pattern msg)
                                     (Options/getReaderOptions opts))
        {:custom-types "foo"}
        ":custom-types expects a list but got 'foo'"
+       {:zero-copy? "foo"}
+       ":zero-copy\\? expects a boolean but got 'foo'"
+       {:unmap-record-groups? "foo"}
+       ":unmap-record-groups\\? expects a boolean but got 'foo'"
+       {:unmap-record-groups? true :zero-copy? true}
+       ":unmap-record-groups\\? cannot be combined with :zero-copy\\?"
        {:invalid-option "foo"}
        ":invalid-option is not a supported reader option."))
 
@@ -70,6 +105,8 @@
        ":missing-fields-as-nil\\? expects a boolean but got 'null'"
        {:missing-fields-as-nil? "foo"}
        ":missing-fields-as-nil\\? expects a boolean but got 'foo'"
+       {:lazy-records? "foo"}
+       ":lazy-records\\? expects a boolean but got 'foo'"
        {:readers "foo"}
        ":readers expects a map but got 'foo'"
        {:readers {:foo "foo"}}
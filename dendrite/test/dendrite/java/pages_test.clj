@@ -82,6 +82,13 @@
             input-values (->> (repeatedly helpers/rand-int) (take 1000))
             output-values (write-read-data-page levels input-values)]
         (is (= output-values input-values))))
+    (testing "required plain primitives"
+      (doseq [[type rand-value] [[Types/LONG helpers/rand-long]
+                                 [Types/FLOAT helpers/rand-float]
+                                 [Types/DOUBLE helpers/rand-double]]]
+        (let [levels {:max-definition-level 0 :max-repetition-level 0 :type type}
+              input-values (take 1000 (repeatedly rand-value))]
+          (is (= input-values (write-read-data-page levels input-values))))))
     (testing "non-repeated"
       (let [levels {:max-definition-level 2 :max-repetition-level 0}
             input-values (->> (repeatedly helpers/rand-int)
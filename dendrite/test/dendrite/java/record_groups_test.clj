@@ -13,8 +13,10 @@
             [clojure.test :refer :all]
             [dendrite.dremel-paper-examples :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java Bundle Bundle$Factory LeveledValue RecordGroup RecordGroup$Reader RecordGroup$Writer
-            Schema Stripe StripeReducer Utils Types]))
+  (:import [dendrite.java Bundle Bundle$Factory LeveledValue Metadata$ColumnChunk Metadata$RecordGroup
+            Metadata$SharedDictionary Pages RecordGroup RecordGroup$Reader RecordGroup$Writer Schema
+            PrimitiveColumn Schema$Column Stripe StripeReducer Utils Types]
+           [java.nio ByteBuffer]))
 
 (set! *warn-on-reflection* true)
 
@@ -96,6 +98,32 @@
     (testing "metadata reports correct length"
       (is (= (.length record-group-metadata) (.remaining bb))))))
 
+(deftest primitive-column-striping
+  (let [test-schema (->> helpers/test-schema-str Schema/readString (Schema/parse helpers/default-types))
+        columns (Schema/getColumns test-schema)
+        records (take 1000 (helpers/rand-test-records))
+        stripe (Stripe/getFn helpers/default-types test-schema false)
+        boxed-bundle (.reduce (StripeReducer. stripe (count columns) 256 nil nil) records)
+        bundle (.reduce (StripeReducer. stripe columns 256 nil nil) records)
+        write-bundle (fn [bundle]
+                       (let [w (doto (RecordGroup$Writer. helpers/default-types
+                                                          columns
+                                                          test-target-data-page-length
+                                                          RecordGroup/NONE)
+                                 (.write bundle)
+                                 .finish)]
+                         (helpers/output-buffer->byte-buffer w)))]
+    (testing "non-repeated columns of primitive type are striped into primitive arrays"
+      (is (= (for [^Schema$Column column columns]
+               (and (zero? (.repetitionLevel column))
+                    (contains? #{Types/BOOLEAN Types/INT Types/LONG Types/FLOAT Types/DOUBLE} (.type column))))
+             (map #(instance? PrimitiveColumn %) (.columnValues ^Bundle bundle)))))
+    (testing "primitive arrays hold the same values"
+      (is (= boxed-bundle bundle))
+      (is (= (.drop boxed-bundle 100) (.drop bundle 100))))
+    (testing "primitive arrays are encoded into the same record group"
+      (is (= (write-bundle boxed-bundle) (write-bundle bundle))))))
+
 (deftest file-random-records-write-read
   (let [test-schema (->> helpers/test-schema-str Schema/readString (Schema/parse helpers/default-types))
         bundle-factory (Bundle$Factory. (Schema/getColumns test-schema))
@@ -128,4 +156,97 @@
                  (seq (first r)))))))
     (testing "metadata reports correct length"
       (is (= (.length record-group-metadata) (.length (io/as-file tmp-file)))))
+    (with-open [f (Utils/getReadingFileChannel tmp-file)]
+      (let [max-column-chunk-length (->> (.columnChunks record-group-metadata)
+                                         (map #(.length ^Metadata$ColumnChunk %))
+                                         (apply max))
+            windows (RecordGroup/map f 0 record-group-metadata max-column-chunk-length)]
+        (testing "large record groups are mapped in windows of whole column chunks"
+          (is (> (count windows) 1))
+          (is (= (.length record-group-metadata) (reduce + (map #(.remaining ^ByteBuffer %) windows))))
+          (is (= (seq bundle)
+                 (seq (first (RecordGroup$Reader. helpers/default-types windows record-group-metadata
+                                                  (.columns query-result) 1000 nil))))))
+        (testing "column chunks must fit in a window"
+          (is (thrown-with-msg? IllegalStateException #"exceeds the maximum"
+                                (RecordGroup/map f 0 record-group-metadata (dec max-column-chunk-length)))))))
     (io/delete-file tmp-file)))
+
+(deftest revalidated-encodings
+  (let [test-schema (->> "{:x long}" Schema/readString (Schema/parse helpers/default-types))
+        stripe-reducer (StripeReducer. (Stripe/getFn helpers/default-types test-schema false) 1 256 nil nil)
+        sorted-bundle (.reduce stripe-reducer (map #(hash-map :x %) (range 1000)))
+        random-bundle (.reduce stripe-reducer (repeatedly 1000 #(hash-map :x (helpers/rand-long))))
+        w (RecordGroup$Writer. helpers/default-types
+                               (Schema/getColumns test-schema)
+                               test-target-data-page-length
+                               RecordGroup/ALL
+                               false
+                               Long/MAX_VALUE
+                               1
+                               Double/POSITIVE_INFINITY)
+        write-record-group! (fn [bundle]
+                              (doto w
+                                (.write bundle)
+                                (.optimize {})
+                                .finish)
+                              (let [record-group-metadata (.getMetadata w)
+                                    bb (helpers/output-buffer->byte-buffer w)]
+                                (.reset w)
+                                [record-group-metadata bb]))
+        [^Metadata$RecordGroup sorted-metadata sorted-bb] (write-record-group! sorted-bundle)
+        [^Metadata$RecordGroup random-metadata random-bb] (write-record-group! random-bundle)
+        query-result (Schema/applyQuery helpers/default-types true {}
+                                        (.withColumns test-schema (.columns w)) '_)
+        read-record-group (fn [record-group-metadata bb]
+                            (seq (first (RecordGroup$Reader. helpers/default-types bb record-group-metadata
+                                                             (.columns query-result) 1000))))]
+    (testing "only the re-optimized column chunk records its own encoding"
+      (is (not (.hasOwnEncoding ^Metadata$ColumnChunk (first (.columnChunks sorted-metadata)))))
+      (is (.hasOwnEncoding ^Metadata$ColumnChunk (first (.columnChunks random-metadata)))))
+    (testing "both record groups are read with the file schema"
+      (is (= (seq sorted-bundle) (read-record-group sorted-metadata sorted-bb)))
+      (is (= (seq random-bundle) (read-record-group random-metadata random-bb))))))
+
+(deftest detached-record-groups
+  (let [test-schema (->> "{:x string}" Schema/readString (Schema/parse helpers/default-types))
+        stripe-reducer (StripeReducer. (Stripe/getFn helpers/default-types test-schema false) 1 256 nil nil)
+        rand-bundle #(.reduce stripe-reducer (repeatedly 1000 (fn [] {:x (str (rand-int 10))})))
+        first-bundle (rand-bundle)
+        second-bundle (rand-bundle)
+        w (RecordGroup$Writer. helpers/default-types
+                               (Schema/getColumns test-schema)
+                               test-target-data-page-length
+                               RecordGroup/ALL
+                               true
+                               Long/MAX_VALUE
+                               0
+                               Double/POSITIVE_INFINITY)
+        _ (doto w
+            (.write first-bundle)
+            (.optimize {}))
+        detached (.detach w)
+        _ (.write w second-bundle)
+        first-metadata (.getMetadata detached)
+        first-bb (helpers/output-buffer->byte-buffer detached)
+        second-metadata (.getMetadata w)
+        second-bb (helpers/output-buffer->byte-buffer w)
+        query-result (Schema/applyQuery helpers/default-types true {} (.withColumns test-schema (.columns w)) '_)
+        ^Schema$Column column (first (.columns query-result))
+        ^Metadata$SharedDictionary shared-dictionary (first (.getSharedDictionaries w))
+        shared-dictionary-values (-> (Pages/getDictionaryPageReader
+                                      (.dictionaryPage shared-dictionary)
+                                      (.getDecoderFactory types (.type column) Types/PLAIN (.fn column))
+                                      (.getDecompressorFactory types (.compression column)))
+                                     .read)
+        read-record-group (fn [^Metadata$RecordGroup record-group-metadata ^ByteBuffer bb]
+                            (seq (first (RecordGroup$Reader. helpers/default-types bb record-group-metadata
+                                                             (.columns query-result) 1000
+                                                             (to-array-2d [shared-dictionary-values])))))]
+    (testing "the live writer starts an empty record group"
+      (is (= 1000 (.getNumRecords w))))
+    (testing "the column is dictionary encoded"
+      (is (= Types/DICTIONARY (.encoding column))))
+    (testing "both record groups are read with the shared dictionary of the first one"
+      (is (= (seq first-bundle) (read-record-group first-metadata first-bb)))
+      (is (= (seq second-bundle) (read-record-group second-metadata second-bb))))))
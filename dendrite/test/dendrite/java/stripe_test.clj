@@ -145,3 +145,57 @@
            {:bigint "foo"}
            {:symbol 2}
            {:repeated-int ["foo"]}))))
+
+(defrecord Doc [docid is-active])
+
+(defrecord DocWithExtraField [docid is-active extra-field])
+
+(deftype DocType [docid is-active tags])
+
+(definterface IDoc
+  (^long getDocid [])
+  (^boolean isActive [])
+  (tags []))
+
+(deftest record-classes
+  (let [schema (Schema/parse helpers/default-types {:docid 'long :is-active 'boolean :tags ['string]})
+        striped-doc (stripe-record {:docid 1 :is-active true :tags ["foo"]} schema false)]
+    (testing "defrecords"
+      (is (= striped-doc (stripe-record (assoc (->Doc 1 true) :tags ["foo"]) schema false)))
+      (is (= (stripe-record {:docid 1 :is-active nil} schema false)
+             (stripe-record (->Doc 1 nil) schema false)))
+      (is (stripe-record (->DocWithExtraField 1 true 2) schema true))
+      (is (thrown-with-msg? IllegalArgumentException #"Field ':extra-field' at path '\[\]' is not in schema"
+                            (stripe-record (->DocWithExtraField 1 true 2) schema false)))
+      (is (thrown-with-msg? IllegalArgumentException #"Field ':extra-field' at path '\[\]' is not in schema"
+                            (stripe-record (assoc (->Doc 1 true) :extra-field 2) schema false))))
+    (testing "array maps with varying key orders"
+      (let [stripe-fn (Stripe/getFn helpers/default-types schema false)
+            stripe (fn [record]
+                     (let [a (object-array 3)]
+                       (.invoke stripe-fn record a)
+                       (seq a)))]
+        (doseq [record [(array-map :docid 1 :is-active true :tags ["foo"])
+                        (array-map :tags ["foo"] :docid 1 :is-active true)
+                        (array-map :is-active true :tags ["foo"] :docid 1)
+                        (array-map :docid 1 :is-active true :tags ["foo"])]]
+          (is (= striped-doc (stripe record))))
+        (is (= (stripe {:docid 1}) (stripe (array-map :docid 1))))
+        (is (thrown-with-msg? IllegalArgumentException #"Field ':extra-field' at path '\[\]' is not in schema"
+                              (stripe (array-map :docid 1 :extra-field 2))))
+        (is (stripe-record (array-map :docid 1 :extra-field 2) schema true))))
+    (testing "java objects"
+      (is (= striped-doc (stripe-record (DocType. 1 true ["foo"]) schema false)))
+      (is (= striped-doc (stripe-record (reify IDoc
+                                          (getDocid [_] 1)
+                                          (isActive [_] true)
+                                          (tags [_] ["foo"]))
+                                        schema
+                                        false)))
+      (is (= (stripe-record {:docid 1 :is-active true} schema false)
+             (stripe-record (reify IDoc
+                              (getDocid [_] 1)
+                              (isActive [_] true)
+                              (tags [_] nil))
+                            schema
+                            false))))))
@@ -11,7 +11,9 @@
 (ns dendrite.java.types-test
   (:require [clojure.test :refer :all]
             [dendrite.test-helpers :as helpers])
-  (:import [dendrite.java CustomType Options Types]
+  (:import [dendrite.java ByteArrayDecimal ByteArrayDecimal$Encoder CustomType IDecoder IDecoderFactory
+            Options Types Utf8String]
+           [java.math BigDecimal]
            [java.nio ByteBuffer]))
 
 (set! *warn-on-reflection* true)
@@ -55,7 +57,13 @@
        'packed-run-length Types/PACKED_RUN_LENGTH
        'delta Types/DELTA
        'incremental Types/INCREMENTAL
-       'delta-length Types/DELTA_LENGTH))
+       'delta-length Types/DELTA_LENGTH
+       'frame-of-reference Types/FRAME_OF_REFERENCE
+       'xor Types/XOR
+       'byte-stream-split Types/BYTE_STREAM_SPLIT
+       'delta-of-delta Types/DELTA_OF_DELTA
+       'decimal Types/DECIMAL
+       'fsst Types/FSST))
 
 (deftest compression
   (are [x y] (= (.getCompression types x) y)
@@ -210,3 +218,67 @@
       (testing "logical type is overriden"
         (is (= 'foo (.getTypeSymbol my-types Types/BYTE_BUFFER) (.getTypeSymbol my-types foo)))
         (is (= 'bar (.getTypeSymbol my-types bar)))))))
+
+(deftest zero-copy-types
+  (let [zero-copy-types (Types/create [] (make-array CustomType 0) true)
+        from-string (.getFromBaseTypeFn zero-copy-types Types/STRING)
+        from-keyword (.getFromBaseTypeFn zero-copy-types Types/KEYWORD)
+        bb (ByteBuffer/wrap (Types/toByteArray "foo"))]
+    (is (instance? Utf8String (from-string bb)))
+    (is (= "foo" (str (from-string bb))))
+    (is (= :foo (from-keyword bb)))
+    (is (nil? (.getFromBaseTypeFn zero-copy-types Types/BYTE_BUFFER)))))
+
+(deftest utf8-strings
+  (let [utf8 #(Utf8String. (Types/toByteArray ^String %))]
+    (testing "equality and hashing on raw bytes"
+      (is (= (utf8 "foo") (utf8 "foo")))
+      (is (= (hash (utf8 "foo")) (hash (utf8 "foo"))))
+      (is (not= (utf8 "foo") (utf8 "foob")))
+      (is (= (utf8 "foo") (Utf8String. (.slice (doto (ByteBuffer/wrap (Types/toByteArray "barfoo"))
+                                                 (.position 3)))))))
+    (testing "comparison follows code point order"
+      (let [strings ["" "a" "ab" "b" "é" "日本" "\uffff"]]
+        (is (= strings (map str (sort (map utf8 (shuffle strings))))))))
+    (testing "prefixes"
+      (is (.startsWith ^Utf8String (utf8 "foobar") "foo"))
+      (is (.startsWith ^Utf8String (utf8 "foobar") ^Utf8String (utf8 "")))
+      (is (not (.startsWith ^Utf8String (utf8 "foo") "foobar"))))
+    (testing "lazy decoding"
+      (let [^Utf8String s (utf8 "日本")]
+        (is (not (.isDecoded s)))
+        (is (= 6 (.byteLength s)))
+        (is (= 2 (.length s)))
+        (is (.isDecoded s))))))
+
+(deftest interned-decoding
+  (let [from-string (.getFromBaseTypeFn types Types/STRING)
+        from-keyword (.getFromBaseTypeFn types Types/KEYWORD)
+        from-symbol (.getFromBaseTypeFn types Types/SYMBOL)
+        long-string (apply str (repeat 100 "a"))]
+    (is (identical? (from-string (Types/toByteArray "foo")) (from-string (Types/toByteArray "foo"))))
+    (is (= "bar" (from-string (Types/toByteArray "bar"))))
+    (is (= long-string (from-string (Types/toByteArray ^String long-string))))
+    (is (not (identical? (from-string (Types/toByteArray ^String long-string))
+                         (from-string (Types/toByteArray ^String long-string)))))
+    (is (= :foo/bar (from-keyword (Types/toByteArray "foo/bar"))))
+    (is (= 'foo/bar (from-symbol (Types/toByteArray "foo/bar"))))
+    (is (identical? (from-symbol (Types/toByteArray "foo")) (from-symbol (Types/toByteArray "foo"))))))
+
+(deftest big-decimal-decoding
+  (let [values (concat (repeatedly 100 #(BigDecimal/valueOf (helpers/rand-long) 2))
+                       [(helpers/rand-bigdec 100)])
+        encoder (ByteArrayDecimal$Encoder.)
+        _ (doseq [v values] (.encode encoder (Types/toByteArray ^BigDecimal v)))
+        bb (helpers/output-buffer->byte-buffer encoder)
+        decode-all (fn [decoder-factory]
+                     (let [^IDecoder decoder (.create ^IDecoderFactory decoder-factory (.duplicate bb))]
+                       (repeatedly (count values) #(.decode decoder))))]
+    (testing "bigdec columns decode straight from the decimal encoding"
+      (is (identical? ByteArrayDecimal/bigDecimalDecoderFactory
+                      (.getDecoderFactory types Types/BIGDEC Types/DECIMAL)))
+      (is (= values (decode-all (.getDecoderFactory types Types/BIGDEC Types/DECIMAL)))))
+    (testing "reader fns are applied to the decoded big decimals"
+      (is (= (map #(.scale ^BigDecimal %) values)
+             (decode-all (.getDecoderFactory types Types/BIGDEC Types/DECIMAL
+                                             #(.scale ^BigDecimal %))))))))
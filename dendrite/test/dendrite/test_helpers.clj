@@ -10,7 +10,7 @@
 
 (ns dendrite.test-helpers
   (:require [clojure.string :as string])
-  (:import [dendrite.java LeveledValue MemoryOutputStream IOutputBuffer Types]
+  (:import [dendrite.java LeveledValue MemoryOutputStream IWriteable Types]
            [java.io Writer]
            [java.nio ByteBuffer]
            [java.util ArrayList Collections List ListIterator Random UUID])
@@ -125,7 +125,7 @@
   nulla pariatur. Excepteur sint occaecat cupidatat non proident, sunt in culpa qui officia deserunt mollit
   anim id est laborum.")
 
-(defn output-buffer->byte-buffer ^java.nio.ByteBuffer [^IOutputBuffer output-buffer]
+(defn output-buffer->byte-buffer ^java.nio.ByteBuffer [^IWriteable output-buffer]
   (let [mos (MemoryOutputStream.)]
     (.writeTo output-buffer mos)
     (.toByteBuffer mos)))